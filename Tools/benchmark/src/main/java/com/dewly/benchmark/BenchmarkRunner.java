@@ -0,0 +1,55 @@
+package com.dewly.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口<br>
+ * 接受JMH的全部命令行参数，未指定时默认：
+ * <ul>
+ * <li>开启分配分析（-prof gc），结果中包含每次操作分配的字节数（gc.alloc.rate.norm）</li>
+ * <li>结果以JSON格式（-rf json）写入target/jmh-result.json（-rff），可用于不同版本间对比</li>
+ * </ul>
+ * 对比两个版本（默认的基准只使用各版本都有的API，可以对任意版本编译）：
+ * <pre>
+ * mvn package -Dtools.version=旧版本
+ * java -jar target/benchmarks.jar -rff before.json
+ * mvn -f ../pom.xml install -DskipTests &amp;&amp; mvn package
+ * java -jar target/benchmarks.jar -rff after.json
+ * </pre>
+ * 新API的基准（src/new-api/java）在new-api profile中，只能对包含这些API的版本编译：mvn package -Pnew-api<br>
+ * 只运行部分基准：java -jar target/benchmarks.jar ReUtilBenchmark -p size=1024
+ *
+ * @author Dewly
+ *
+ */
+public class BenchmarkRunner {
+
+	/** 默认结果文件 */
+	private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+	public static void main(String[] args) throws Exception {
+		final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams() || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+
+		final ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+		if (cmdOptions.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		if (false == cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (false == cmdOptions.getResult().hasValue()) {
+			builder.result(DEFAULT_RESULT_FILE);
+		}
+		new Runner(builder.build()).run();
+	}
+}
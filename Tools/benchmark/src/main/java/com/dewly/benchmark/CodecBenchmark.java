@@ -0,0 +1,77 @@
+package com.dewly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.lang.Base64;
+import com.dewly.util.HexUtil;
+
+/**
+ * {@link Base64}和{@link HexUtil}编解码基准
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+	@Param({ "32", "4096", "1048576" })
+	public int size;
+
+	private byte[] data;
+	private byte[] base64;
+	private String hex;
+
+	@Setup
+	public void setup() {
+		data = Payloads.bytes(size);
+		base64 = Base64.encode(data, false);
+		hex = HexUtil.encodeHexStr(data);
+	}
+
+	@Benchmark
+	public byte[] base64Encode() {
+		return Base64.encode(data, false);
+	}
+
+	@Benchmark
+	public byte[] base64EncodeUrlSafe() {
+		return Base64.encodeUrlSafe(data, false);
+	}
+
+	@Benchmark
+	public byte[] base64Decode() {
+		return Base64.decode(base64);
+	}
+
+	@Benchmark
+	public String hexEncode() {
+		return HexUtil.encodeHexStr(data);
+	}
+
+	@Benchmark
+	public byte[] hexDecode() {
+		return HexUtil.decodeHex(hex);
+	}
+
+	@Benchmark
+	public byte[] jdkBase64Encode() {
+		return java.util.Base64.getEncoder().encode(data);
+	}
+}
@@ -0,0 +1,68 @@
+package com.dewly.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.date.format.FastDateFormat;
+
+/**
+ * {@link com.dewly.date.format.FastDatePrinter}基准，以{@link SimpleDateFormat}为对照
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FastDatePrinterBenchmark {
+
+	@Param({ "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "EEE, dd MMM yyyy HH:mm:ss z" })
+	public String pattern;
+
+	private FastDateFormat fastFormat;
+	private SimpleDateFormat simpleFormat;
+	private Date[] dates;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		fastFormat = FastDateFormat.getInstance(pattern);
+		simpleFormat = new SimpleDateFormat(pattern);
+		dates = Payloads.dates(1024);
+	}
+
+	@Benchmark
+	public String fastFormatDate() {
+		return fastFormat.format(nextDate());
+	}
+
+	@Benchmark
+	public String fastFormatMillis() {
+		return fastFormat.format(nextDate().getTime());
+	}
+
+	@Benchmark
+	public String simpleDateFormat() {
+		return simpleFormat.format(nextDate());
+	}
+
+	private Date nextDate() {
+		return dates[cursor++ & (dates.length - 1)];
+	}
+}
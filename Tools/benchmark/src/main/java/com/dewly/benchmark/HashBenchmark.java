@@ -0,0 +1,74 @@
+package com.dewly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.util.HashUtil;
+
+/**
+ * {@link HashUtil}基准，以{@link String#hashCode()}的算法（不使用缓存）为对照
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashBenchmark {
+
+	@Param({ "16", "256", "4096" })
+	public int length;
+
+	private String text;
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		text = Payloads.text(length).substring(0, length);
+		bytes = Payloads.bytes(length);
+	}
+
+	@Benchmark
+	public int fnvHashString() {
+		return HashUtil.fnvHash(text);
+	}
+
+	@Benchmark
+	public int fnvHashBytes() {
+		return HashUtil.fnvHash(bytes);
+	}
+
+	@Benchmark
+	public int bkdrHash() {
+		return HashUtil.bkdrHash(text);
+	}
+
+	@Benchmark
+	public long mixHash() {
+		return HashUtil.mixHash(text);
+	}
+
+	@Benchmark
+	public long tianlHash() {
+		return HashUtil.tianlHash(text);
+	}
+
+	@Benchmark
+	public int javaDefaultHash() {
+		return HashUtil.javaDefaultHash(text);
+	}
+}
@@ -0,0 +1,75 @@
+package com.dewly.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.io.IoUtil;
+
+/**
+ * {@link IoUtil}拷贝基准，内存流排除磁盘的影响，只衡量缓冲和调用开销
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IoCopyBenchmark {
+
+	@Param({ "4096", "1048576", "16777216" })
+	public int size;
+
+	private byte[] data;
+	private String text;
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setup() {
+		data = Payloads.bytes(size);
+		text = Payloads.text(size / 4);
+		out = new ByteArrayOutputStream(size);
+	}
+
+	@Benchmark
+	public long copyStream() throws IOException {
+		out.reset();
+		return IoUtil.copy(new ByteArrayInputStream(data), out);
+	}
+
+	@Benchmark
+	public long copyStreamLargeBuffer() throws IOException {
+		out.reset();
+		return IoUtil.copy(new ByteArrayInputStream(data), out, 64 * 1024);
+	}
+
+	@Benchmark
+	public long copyChannel() throws IOException {
+		out.reset();
+		return IoUtil.copy(Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out), 64 * 1024, null);
+	}
+
+	@Benchmark
+	public long copyReader() throws IOException {
+		return IoUtil.copy(new StringReader(text), new StringWriter(text.length()));
+	}
+}
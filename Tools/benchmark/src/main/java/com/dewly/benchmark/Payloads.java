@@ -0,0 +1,138 @@
+package com.dewly.benchmark;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * 基准测试使用的数据生成器<br>
+ * 使用固定的随机种子，保证不同版本、不同次运行使用相同的数据
+ *
+ * @author Dewly
+ *
+ */
+public final class Payloads {
+
+	/** 随机种子 */
+	private static final long SEED = 20170101L;
+
+	private static final String[] WORDS = { "user", "order", "id", "status", "success", "timeout", "request", "response", "cache", "config", "数据", "用户", "订单", "成功", "失败" };
+	private static final String[] LEVELS = { "INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR" };
+
+	private Payloads() {
+	}
+
+	/**
+	 * 新的随机数生成器
+	 *
+	 * @return {@link Random}
+	 */
+	public static Random random() {
+		return new Random(SEED);
+	}
+
+	/**
+	 * 由单词组成的文本，包含中英文和标点
+	 *
+	 * @param length 近似长度
+	 * @return 文本
+	 */
+	public static String text(int length) {
+		final Random random = random();
+		final StringBuilder builder = new StringBuilder(length + 16);
+		while (builder.length() < length) {
+			builder.append(WORDS[random.nextInt(WORDS.length)]);
+			builder.append(random.nextInt(10) == 0 ? "，" : " ");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 模拟应用日志
+	 *
+	 * @param lines 行数
+	 * @return 日志行
+	 */
+	public static String[] logLines(int lines) {
+		final Random random = random();
+		final String[] result = new String[lines];
+		long time = 1500000000000L;
+		for (int i = 0; i < lines; i++) {
+			time += random.nextInt(1000);
+			result[i] = String.format("2017-07-14 10:%02d:%02d.%03d %-5s [pool-1-thread-%d] com.dewly.service.OrderService - userId=%d orderId=%s ip=10.%d.%d.%d cost=%dms",
+					(time / 60000) % 60, (time / 1000) % 60, time % 1000, LEVELS[random.nextInt(LEVELS.length)], random.nextInt(16), random.nextInt(1000000),
+					Long.toHexString(random.nextLong()), random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(2000));
+		}
+		return result;
+	}
+
+	/**
+	 * CSV行
+	 *
+	 * @param fields 列数
+	 * @return CSV行
+	 */
+	public static String csvLine(int fields) {
+		final Random random = random();
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < fields; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			switch (i % 3) {
+			case 0:
+				builder.append(random.nextInt(100000));
+				break;
+			case 1:
+				builder.append(' ').append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+				break;
+			default:
+				// 空列
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 随机字节
+	 *
+	 * @param size 长度
+	 * @return 字节
+	 */
+	public static byte[] bytes(int size) {
+		final byte[] bytes = new byte[size];
+		random().nextBytes(bytes);
+		return bytes;
+	}
+
+	/**
+	 * 分布在最近一年内的时间
+	 *
+	 * @param count 个数
+	 * @return 时间
+	 */
+	public static Date[] dates(int count) {
+		final Random random = random();
+		final Date[] dates = new Date[count];
+		final long base = 1500000000000L;
+		for (int i = 0; i < count; i++) {
+			dates[i] = new Date(base + (long) (random.nextDouble() * 365 * 24 * 3600 * 1000L));
+		}
+		return dates;
+	}
+
+	/**
+	 * 查找用的下标序列
+	 *
+	 * @param count 个数
+	 * @param bound 上限（不含）
+	 * @return 下标
+	 */
+	public static int[] indexes(int count, int bound) {
+		final Random random = random();
+		final int[] indexes = new int[count];
+		for (int i = 0; i < count; i++) {
+			indexes[i] = random.nextInt(bound);
+		}
+		return indexes;
+	}
+}
@@ -0,0 +1,70 @@
+package com.dewly.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.util.ReUtil;
+
+/**
+ * {@link ReUtil}基准，使用模拟日志，覆盖字面量、前缀、字符类和一般正则<br>
+ * 多关键字匹配见new-api profile中的{@code MultiMatcherBenchmark}
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReUtilBenchmark {
+
+	private String[] lines;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		lines = Payloads.logLines(1024);
+	}
+
+	@Benchmark
+	public boolean isMatchLiteral() {
+		return ReUtil.isMatch("ERROR", nextLine());
+	}
+
+	@Benchmark
+	public String getPrefix() {
+		return ReUtil.get("^2017-07-14", nextLine(), 0);
+	}
+
+	@Benchmark
+	public String getGroup() {
+		return ReUtil.get("userId=(\\d+)", nextLine(), 1);
+	}
+
+	@Benchmark
+	public List<String> findAllDigits() {
+		return ReUtil.findAll("\\d+", nextLine(), 0);
+	}
+
+	@Benchmark
+	public String replaceAllIp() {
+		return ReUtil.replaceAll(nextLine(), "ip=(\\d+)\\.(\\d+)\\.\\d+\\.\\d+", "ip=$1.$2.*.*");
+	}
+
+	private String nextLine() {
+		return lines[cursor++ & (lines.length - 1)];
+	}
+}
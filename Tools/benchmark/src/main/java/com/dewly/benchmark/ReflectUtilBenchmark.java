@@ -0,0 +1,94 @@
+package com.dewly.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.util.ReflectUtil;
+
+/**
+ * {@link ReflectUtil}基准，主要衡量缓存命中后的查找开销
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectUtilBenchmark {
+
+	private Bean bean;
+
+	@Setup
+	public void setup() {
+		bean = new Bean();
+		bean.setName("dewly");
+	}
+
+	@Benchmark
+	public Method getMethod() {
+		return ReflectUtil.getMethod(Bean.class, "getName");
+	}
+
+	@Benchmark
+	public Field[] getFields() {
+		return ReflectUtil.getFields(Bean.class);
+	}
+
+	@Benchmark
+	public Object getFieldValue() {
+		return ReflectUtil.getFieldValue(bean, "name");
+	}
+
+	@Benchmark
+	public Bean newInstance() {
+		return ReflectUtil.newInstance(Bean.class);
+	}
+
+	/**
+	 * 测试用Bean
+	 */
+	public static class Bean {
+		private String name;
+		private int age;
+		private long createTime;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public long getCreateTime() {
+			return createTime;
+		}
+
+		public void setCreateTime(long createTime) {
+			this.createTime = createTime;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.dewly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.lang.SimpleCache;
+
+/**
+ * {@link SimpleCache}并发读写基准，键的数量超过容量时包含淘汰的开销<br>
+ * 只使用各版本都有的API，加载和容量相关的基准见new-api profile中的{@code SimpleCacheLoadBenchmark}
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SimpleCacheBenchmark {
+
+	/** 键的个数，使用默认容量 */
+	@Param({ "1024", "65536" })
+	public int keyCount;
+
+	private SimpleCache<String, String> cache;
+	private String[] keys;
+
+	@Setup
+	public void setup() {
+		cache = new SimpleCache<>();
+		keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			keys[i] = "key-" + i;
+			cache.put(keys[i], "value-" + i);
+		}
+	}
+
+	/**
+	 * 每个线程独立的游标
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int[] indexes;
+		private int position;
+
+		@Setup
+		public void setup(SimpleCacheBenchmark benchmark) {
+			indexes = Payloads.indexes(4096, benchmark.keyCount);
+			position = (int) (Thread.currentThread().getId() * 31);
+		}
+
+		int next() {
+			return indexes[position++ & (indexes.length - 1)];
+		}
+	}
+
+	@Benchmark
+	public String get(Cursor cursor) {
+		return cache.get(keys[cursor.next()]);
+	}
+
+	@Benchmark
+	public String put(Cursor cursor) {
+		final int index = cursor.next();
+		return cache.put(keys[index], keys[index]);
+	}
+}
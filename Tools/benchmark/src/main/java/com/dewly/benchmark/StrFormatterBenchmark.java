@@ -0,0 +1,72 @@
+package com.dewly.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.lang.StrFormatter;
+import com.dewly.util.StrUtil;
+
+/**
+ * {@link StrFormatter}和{@link StrUtil#format(CharSequence, Map)}基准，以{@link String#format(String, Object...)}为对照
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrFormatterBenchmark {
+
+	private static final String SHORT_TEMPLATE = "user {} login from {}";
+	private static final String LONG_TEMPLATE = "[{}] order {} of user {} changed from {} to {}, cost {}ms, escaped \\{} kept, remark: {}";
+	private static final String NAMED_TEMPLATE = "order {orderId} of user {userId} changed to {status}";
+
+	private Object[] shortArgs;
+	private Object[] longArgs;
+	private Map<String, Object> namedArgs;
+
+	@Setup
+	public void setup() {
+		shortArgs = new Object[] { "dewly", "10.0.0.1" };
+		longArgs = new Object[] { "INFO", 1234567890L, "dewly", "CREATED", "PAID", 42, Payloads.text(64) };
+		namedArgs = new HashMap<>();
+		namedArgs.put("orderId", 1234567890L);
+		namedArgs.put("userId", "dewly");
+		namedArgs.put("status", "PAID");
+	}
+
+	@Benchmark
+	public String formatShort() {
+		return StrFormatter.format(SHORT_TEMPLATE, shortArgs);
+	}
+
+	@Benchmark
+	public String formatLong() {
+		return StrFormatter.format(LONG_TEMPLATE, longArgs);
+	}
+
+	@Benchmark
+	public String formatNamed() {
+		return StrUtil.format(NAMED_TEMPLATE, namedArgs);
+	}
+
+	@Benchmark
+	public String jdkFormatShort() {
+		return String.format("user %s login from %s", shortArgs);
+	}
+}
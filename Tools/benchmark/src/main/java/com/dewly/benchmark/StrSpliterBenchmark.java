@@ -0,0 +1,73 @@
+package com.dewly.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.lang.StrSpliter;
+
+/**
+ * {@link StrSpliter}基准，以{@link String#split(String)}为对照
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrSpliterBenchmark {
+
+	private static final Pattern SEPARATOR_PATTERN = Pattern.compile("\\s*,\\s*");
+
+	@Param({ "8", "64", "512" })
+	public int fields;
+
+	private String csv;
+	private String path;
+
+	@Setup
+	public void setup() {
+		csv = Payloads.csvLine(fields);
+		path = "/data/app/" + Payloads.text(fields * 4).replace(' ', '/').replace('，', '/');
+	}
+
+	@Benchmark
+	public List<String> splitChar() {
+		return StrSpliter.split(csv, ',', true, true);
+	}
+
+	@Benchmark
+	public List<String> splitString() {
+		return StrSpliter.split(csv, ", ", 0, false, false);
+	}
+
+	@Benchmark
+	public List<String> splitPattern() {
+		return StrSpliter.split(csv, SEPARATOR_PATTERN, 0, false, true);
+	}
+
+	@Benchmark
+	public List<String> splitPath() {
+		return StrSpliter.splitPath(path);
+	}
+
+	@Benchmark
+	public String[] jdkSplit() {
+		return csv.split(",");
+	}
+}
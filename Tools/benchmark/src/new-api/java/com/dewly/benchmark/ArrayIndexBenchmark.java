@@ -0,0 +1,69 @@
+package com.dewly.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.util.ArrayIndex;
+import com.dewly.util.ArrayUtil;
+
+/**
+ * {@link ArrayIndex}各查找方式与{@link ArrayUtil#indexOf(int[], int)}线性查找的对比<br>
+ * 数组为升序且取值范围为长度的2倍，使所有查找方式都可用，约一半的查找未命中
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayIndexBenchmark {
+
+	@Param({ "8", "64", "1024", "1048576" })
+	public int size;
+
+	/** 查找方式，LINEAR表示不建立索引，直接使用{@link ArrayUtil#indexOf(int[], int)} */
+	@Param({ "LINEAR", "BINARY_SEARCH", "BITSET", "HASH" })
+	public String mode;
+
+	private int[] array;
+	private ArrayIndex index;
+	private int[] probes;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		array = Payloads.indexes(size, size * 2);
+		Arrays.sort(array);
+		if (false == "LINEAR".equals(mode)) {
+			index = ArrayIndex.of(array, ArrayIndex.Mode.valueOf(mode));
+		}
+		probes = Payloads.indexes(4096, size * 2);
+	}
+
+	@Benchmark
+	public int indexOf() {
+		final int value = probes[cursor++ & (probes.length - 1)];
+		return null == index ? ArrayUtil.indexOf(array, value) : index.indexOf(value);
+	}
+
+	@Benchmark
+	public boolean contains() {
+		final int value = probes[cursor++ & (probes.length - 1)];
+		return null == index ? ArrayUtil.contains(array, value) : index.contains(value);
+	}
+}
@@ -0,0 +1,60 @@
+package com.dewly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.util.MultiMatcher;
+
+/**
+ * {@link MultiMatcher}多关键字匹配与正则分支（a|b|c）的对比，使用模拟日志
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiMatcherBenchmark {
+
+	private static final String[] KEYWORDS = { "ERROR", "timeout", "refused", "OutOfMemory" };
+
+	private String[] lines;
+	private MultiMatcher matcher;
+	private Pattern pattern;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		lines = Payloads.logLines(1024);
+		matcher = new MultiMatcher(KEYWORDS);
+		pattern = Pattern.compile(String.join("|", KEYWORDS));
+	}
+
+	@Benchmark
+	public boolean containsAny() {
+		return matcher.containsAny(nextLine());
+	}
+
+	@Benchmark
+	public boolean regexAlternation() {
+		return pattern.matcher(nextLine()).find();
+	}
+
+	private String nextLine() {
+		return lines[cursor++ & (lines.length - 1)];
+	}
+}
@@ -0,0 +1,79 @@
+package com.dewly.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dewly.lang.SimpleCache;
+
+/**
+ * {@link SimpleCache}指定容量时的并发加载基准，键的数量超过容量时包含淘汰和重新加载的开销
+ *
+ * @author Dewly
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SimpleCacheLoadBenchmark {
+
+	/** 键的个数，容量固定为4096 */
+	@Param({ "1024", "65536" })
+	public int keyCount;
+
+	/** 是否使用弱引用键 */
+	@Param({ "false", "true" })
+	public boolean weakKeys;
+
+	private SimpleCache<String, String> cache;
+	private String[] keys;
+
+	@Setup
+	public void setup() {
+		cache = new SimpleCache<>(4096, weakKeys);
+		keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			keys[i] = "key-" + i;
+		}
+	}
+
+	/**
+	 * 每个线程独立的游标
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int[] indexes;
+		private int position;
+
+		@Setup
+		public void setup(SimpleCacheLoadBenchmark benchmark) {
+			indexes = Payloads.indexes(4096, benchmark.keyCount);
+			position = (int) (Thread.currentThread().getId() * 31);
+		}
+
+		int next() {
+			return indexes[position++ & (indexes.length - 1)];
+		}
+	}
+
+	@Benchmark
+	public String getOrLoad(Cursor cursor) {
+		final int index = cursor.next();
+		return cache.get(keys[index], () -> "value-" + index);
+	}
+}
@@ -0,0 +1,79 @@
+package com.dewly.io;
+
+/**
+ * 线程本地的缓冲池，供流拷贝等方法复用缓冲，避免每次调用都分配新数组<br>
+ * 每个线程最多缓存一个byte[]和一个char[]，借出期间从池中移除，因此同一线程嵌套借用时会分配新的数组，不会共用同一缓冲。<br>
+ * 超过{@link #MAX_POOLED_SIZE}的缓冲归还时直接丢弃。
+ *
+ * @author Dewly
+ *
+ */
+final class BufferPool {
+
+	/** 可缓存的最大长度 */
+	static final int MAX_POOLED_SIZE = 256 * 1024;
+
+	private static final ThreadLocal<byte[]> BYTES = new ThreadLocal<>();
+	private static final ThreadLocal<char[]> CHARS = new ThreadLocal<>();
+
+	private BufferPool() {
+	}
+
+	/**
+	 * 借出byte缓冲，长度可能大于请求的长度
+	 *
+	 * @param size 最小长度
+	 * @return 缓冲
+	 */
+	static byte[] borrowBytes(int size) {
+		final byte[] buffer = BYTES.get();
+		if (null != buffer && buffer.length >= size) {
+			BYTES.set(null);
+			return buffer;
+		}
+		return new byte[size];
+	}
+
+	/**
+	 * 归还byte缓冲，池中保留较大的一个
+	 *
+	 * @param buffer 缓冲
+	 */
+	static void release(byte[] buffer) {
+		if (buffer.length <= MAX_POOLED_SIZE) {
+			final byte[] pooled = BYTES.get();
+			if (null == pooled || pooled.length < buffer.length) {
+				BYTES.set(buffer);
+			}
+		}
+	}
+
+	/**
+	 * 借出char缓冲，长度可能大于请求的长度
+	 *
+	 * @param size 最小长度
+	 * @return 缓冲
+	 */
+	static char[] borrowChars(int size) {
+		final char[] buffer = CHARS.get();
+		if (null != buffer && buffer.length >= size) {
+			CHARS.set(null);
+			return buffer;
+		}
+		return new char[size];
+	}
+
+	/**
+	 * 归还char缓冲，池中保留较大的一个
+	 *
+	 * @param buffer 缓冲
+	 */
+	static void release(char[] buffer) {
+		if (buffer.length <= MAX_POOLED_SIZE) {
+			final char[] pooled = CHARS.get();
+			if (null == pooled || pooled.length < buffer.length) {
+				CHARS.set(buffer);
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.dewly.io;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ByteBuffer}相关工具类
+ *
+ * @author Dewly
+ *
+ */
+public final class BufferUtil {
+
+	/** Java 9+：sun.misc.Unsafe实例 */
+	private static final Object UNSAFE;
+	/** Java 9+：sun.misc.Unsafe#invokeCleaner(ByteBuffer) */
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			final Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+		} catch (Throwable e) {
+			// Java 8没有invokeCleaner，释放时使用DirectBuffer#cleaner()
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private BufferUtil() {
+	}
+
+	/**
+	 * 立即释放直接缓冲或解除文件映射，不等待GC<br>
+	 * 只能释放通过{@link ByteBuffer#allocateDirect(int)}或{@link java.nio.channels.FileChannel#map}直接得到的缓冲，不能是slice或duplicate。<br>
+	 * 释放后再访问此缓冲或由它创建的slice、duplicate会导致JVM崩溃，调用方必须保证缓冲不再被使用。
+	 *
+	 * @param buffer 直接缓冲
+	 * @return 是否释放成功，非直接缓冲或当前JVM不支持时返回false
+	 */
+	public static boolean clean(ByteBuffer buffer) {
+		if (null == buffer || false == buffer.isDirect()) {
+			return false;
+		}
+		try {
+			if (null != INVOKE_CLEANER && null != UNSAFE) {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				return true;
+			}
+			final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			final Object cleaner = cleanerMethod.invoke(buffer);
+			if (null == cleaner) {
+				return false;
+			}
+			cleaner.getClass().getMethod("clean").invoke(cleaner);
+			return true;
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.dewly.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.dewly.lang.Assert;
+
+/**
+ * 固定大小的字节块池，供{@link FastByteBuffer}和{@link FastByteArrayOutputStream}复用缓冲块<br>
+ * 空闲块保存在有界的全局空闲列表中，可以在任意线程借出和归还：
+ * <ul>
+ * <li>池空时借出新分配的块</li>
+ * <li>空闲列表已满或长度与块大小不符的数组归还时直接丢弃，交给GC</li>
+ * </ul>
+ * 归还后的块会被再次借出，归还方不能继续持有或访问。线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public class ByteChunkPool {
+
+	/** 默认块大小：8KB */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+	/** 默认最多缓存的空闲块数 */
+	public static final int DEFAULT_MAX_IDLE = 1024;
+
+	/** 默认的池，块大小8KB，最多缓存8MB */
+	public static final ByteChunkPool DEFAULT = new ByteChunkPool(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_IDLE);
+
+	private final int chunkSize;
+	private final ArrayBlockingQueue<byte[]> idleChunks;
+
+	/**
+	 * 创建池
+	 *
+	 * @param chunkSize 块大小
+	 * @param maxIdle 最多缓存的空闲块数
+	 * @return {@link ByteChunkPool}
+	 */
+	public static ByteChunkPool create(int chunkSize, int maxIdle) {
+		return new ByteChunkPool(chunkSize, maxIdle);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param chunkSize 块大小
+	 * @param maxIdle 最多缓存的空闲块数
+	 */
+	public ByteChunkPool(int chunkSize, int maxIdle) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		Assert.isTrue(maxIdle > 0, "Max idle must be greater than 0");
+		this.chunkSize = chunkSize;
+		this.idleChunks = new ArrayBlockingQueue<>(maxIdle);
+	}
+
+	/**
+	 * 块大小
+	 *
+	 * @return 块大小
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 当前空闲的块数
+	 *
+	 * @return 空闲的块数
+	 */
+	public int getIdleCount() {
+		return idleChunks.size();
+	}
+
+	/**
+	 * 借出一个块，内容未清零
+	 *
+	 * @return 长度为{@link #getChunkSize()}的数组
+	 */
+	public byte[] borrow() {
+		final byte[] chunk = idleChunks.poll();
+		return (null == chunk) ? new byte[chunkSize] : chunk;
+	}
+
+	/**
+	 * 归还一个块
+	 *
+	 * @param chunk 块，null或长度不符时忽略
+	 */
+	public void release(byte[] chunk) {
+		if (null != chunk && chunk.length == chunkSize) {
+			idleChunks.offer(chunk);
+		}
+	}
+
+	/**
+	 * 清空空闲块
+	 */
+	public void clear() {
+		idleChunks.clear();
+	}
+}
@@ -0,0 +1,334 @@
+package com.dewly.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 字节数组上的可复用行视图，实现{@link CharSequence}，只在需要字符时解码<br>
+ * <ul>
+ * <li>{@link #byteAt(int)}、{@link #indexOf(byte)}、{@link #startsWith(byte[])}等按字节操作，不解码</li>
+ * <li>纯ASCII的行（编码兼容ASCII时）{@link #charAt(int)}直接由字节转换，不解码</li>
+ * <li>其它行在首次按字符访问时解码到复用的字符缓冲中，非法字节替换为U+FFFD，与{@link String#String(byte[], Charset)}一致</li>
+ * </ul>
+ * 视图不复制数据，底层数组被修改后内容随之改变。非线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public final class ByteLine implements CharSequence {
+
+	/** ASCII字符0~127 */
+	private static final byte[] ASCII_BYTES = new byte[128];
+	static {
+		for (int i = 0; i < ASCII_BYTES.length; i++) {
+			ASCII_BYTES[i] = (byte) i;
+		}
+	}
+
+	private final Charset charset;
+	/** 编码对ASCII字符是否与US-ASCII一致 */
+	private final boolean isAsciiCompatible;
+
+	private byte[] bytes;
+	private int offset;
+	private int length;
+
+	/** 当前行是否纯ASCII，null表示尚未检查 */
+	private Boolean isAscii;
+	/** 解码后的字符数，-1表示尚未解码 */
+	private int charLength = -1;
+	private char[] chars;
+	private CharsetDecoder decoder;
+	private ByteBuffer byteBuffer;
+	private CharBuffer charBuffer;
+
+	/**
+	 * 构造，内容为空
+	 *
+	 * @param charset 编码
+	 */
+	public ByteLine(Charset charset) {
+		this.charset = charset;
+		this.isAsciiCompatible = isAsciiCompatible(charset);
+		this.bytes = new byte[0];
+	}
+
+	/**
+	 * 设置视图指向的区域
+	 *
+	 * @param bytes 字节数组
+	 * @param offset 开始位置
+	 * @param length 字节长度
+	 * @return this
+	 */
+	public ByteLine set(byte[] bytes, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > bytes.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + bytes.length);
+		}
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+		this.isAscii = null;
+		this.charLength = -1;
+		return this;
+	}
+
+	/**
+	 * 编码
+	 *
+	 * @return 编码
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * 底层字节数组，行内容为[{@link #getOffset()}, {@link #getOffset()} + {@link #byteLength()})
+	 *
+	 * @return 字节数组
+	 */
+	public byte[] getBuffer() {
+		return bytes;
+	}
+
+	/**
+	 * 行在底层数组中的开始位置
+	 *
+	 * @return 开始位置
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * 行的字节长度
+	 *
+	 * @return 字节长度
+	 */
+	public int byteLength() {
+		return length;
+	}
+
+	/**
+	 * 行是否为空
+	 *
+	 * @return 是否为空
+	 */
+	public boolean isEmpty() {
+		return 0 == length;
+	}
+
+	/**
+	 * 获取字节
+	 *
+	 * @param index 字节下标
+	 * @return 字节
+	 */
+	public byte byteAt(int index) {
+		checkByteIndex(index);
+		return bytes[offset + index];
+	}
+
+	/**
+	 * 查找字节第一次出现的位置
+	 *
+	 * @param b 字节
+	 * @return 字节下标，未找到返回-1
+	 */
+	public int indexOf(byte b) {
+		return indexOf(b, 0);
+	}
+
+	/**
+	 * 从指定位置开始查找字节第一次出现的位置，用于按分隔符拆分字段
+	 *
+	 * @param b 字节
+	 * @param fromIndex 开始的字节下标
+	 * @return 字节下标，未找到返回-1
+	 */
+	public int indexOf(byte b, int fromIndex) {
+		final int end = offset + length;
+		for (int i = offset + Math.max(fromIndex, 0); i < end; i++) {
+			if (bytes[i] == b) {
+				return i - offset;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 是否以指定字节开头
+	 *
+	 * @param prefix 前缀
+	 * @return 是否以指定字节开头
+	 */
+	public boolean startsWith(byte[] prefix) {
+		if (prefix.length > length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[offset + i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 是否为纯ASCII字节，结果按行缓存
+	 *
+	 * @return 是否为纯ASCII
+	 */
+	public boolean isAscii() {
+		if (null == isAscii) {
+			boolean result = true;
+			final int end = offset + length;
+			for (int i = offset; i < end; i++) {
+				if (bytes[i] < 0) {
+					result = false;
+					break;
+				}
+			}
+			isAscii = result;
+		}
+		return isAscii;
+	}
+
+	/**
+	 * 复制行的字节
+	 *
+	 * @return 新的字节数组
+	 */
+	public byte[] toBytes() {
+		return Arrays.copyOfRange(bytes, offset, offset + length);
+	}
+
+	/**
+	 * 将字节区域解码为字符串，用于只取某个字段的场景
+	 *
+	 * @param fromIndex 开始的字节下标（包含）
+	 * @param toIndex 结束的字节下标（不包含）
+	 * @return 字符串
+	 */
+	public String toString(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("from: " + fromIndex + ", to: " + toIndex + ", length: " + length);
+		}
+		if (isAsciiCompatible && isAscii()) {
+			return new String(bytes, offset + fromIndex, toIndex - fromIndex, StandardCharsets.ISO_8859_1);
+		}
+		return new String(bytes, offset + fromIndex, toIndex - fromIndex, charset);
+	}
+
+	/**
+	 * 字符长度，非ASCII的行会触发解码
+	 */
+	@Override
+	public int length() {
+		if (isAsciiCompatible && isAscii()) {
+			return length;
+		}
+		return decode();
+	}
+
+	/**
+	 * 获取字符，非ASCII的行会触发解码
+	 */
+	@Override
+	public char charAt(int index) {
+		if (isAsciiCompatible && isAscii()) {
+			checkByteIndex(index);
+			return (char) bytes[offset + index];
+		}
+		if (index < 0 || index >= decode()) {
+			throw new IndexOutOfBoundsException("index: " + index);
+		}
+		return chars[index];
+	}
+
+	/**
+	 * 按字符下标截取，返回新的字符串
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (isAsciiCompatible && isAscii()) {
+			return toString(start, end);
+		}
+		if (start < 0 || end > decode() || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end);
+		}
+		return new String(chars, start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		if (charLength >= 0) {
+			return new String(chars, 0, charLength);
+		}
+		return toString(0, length);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 检查字节下标
+	 *
+	 * @param index 字节下标
+	 */
+	private void checkByteIndex(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+	}
+
+	/**
+	 * 解码到复用的字符缓冲，同一行只解码一次
+	 *
+	 * @return 字符数
+	 */
+	private int decode() {
+		if (charLength >= 0) {
+			return charLength;
+		}
+		if (null == decoder) {
+			decoder = charset.newDecoder()//
+					.onMalformedInput(CodingErrorAction.REPLACE)//
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		final int maxChars = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+		if (null == chars || chars.length < maxChars) {
+			chars = new char[Math.max(maxChars, 64)];
+			charBuffer = CharBuffer.wrap(chars);
+		}
+		if (null == byteBuffer || byteBuffer.array() != bytes) {
+			byteBuffer = ByteBuffer.wrap(bytes);
+		}
+		byteBuffer.limit(offset + length).position(offset);
+		charBuffer.clear();
+		decoder.reset();
+		decoder.decode(byteBuffer, charBuffer, true);
+		decoder.flush(charBuffer);
+		charLength = charBuffer.position();
+		return charLength;
+	}
+
+	/**
+	 * 编码对ASCII字符是否与US-ASCII一致
+	 *
+	 * @param charset 编码
+	 * @return 是否一致
+	 */
+	private static boolean isAsciiCompatible(Charset charset) {
+		if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset)) {
+			return true;
+		}
+		final String ascii = new String(ASCII_BYTES, StandardCharsets.US_ASCII);
+		// 有状态的编码（例如ISO-2022-JP）中ASCII字节的含义依赖上下文，解码结果不一致
+		return charset.canEncode() && Arrays.equals(ASCII_BYTES, ascii.getBytes(charset)) && ascii.equals(new String(ASCII_BYTES, charset));
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,17 @@
+package com.dewly.io;
+
+/**
+ * 字节行处理器，与{@link LineHandler}相比不为每行创建字符串<br>
+ * 传入的{@link ByteLine}是读取缓冲上的视图，读取下一行时会被覆盖，只能在{@link #handle(ByteLine)}调用期间使用，需要保留时调用{@link ByteLine#toString()}或{@link ByteLine#toBytes()}
+ *
+ * @author Dewly
+ *
+ */
+public interface ByteLineHandler {
+	/**
+	 * 处理一行数据，行不含换行符
+	 *
+	 * @param line 行
+	 */
+	void handle(ByteLine line);
+}
@@ -0,0 +1,179 @@
+package com.dewly.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.dewly.lang.Assert;
+
+/**
+ * 字节级的行扫描器，在复用的缓冲中查找换行符，将每行以{@link ByteLine}视图交给{@link ByteLineHandler}<br>
+ * 与{@link BufferedReader#readLine()}相比不为每行创建字符串和字符数组，行只在处理器需要字符时才解码。
+ * <ul>
+ * <li>换行符支持\n、\r\n和\r，规则与{@link BufferedReader#readLine()}一致</li>
+ * <li>缓冲从线程本地的缓冲池借用，只使用其中设置的大小，超过缓冲长度的行会使缓冲扩容</li>
+ * <li>按字节扫描换行符要求编码中\r和\n为单字节（UTF-8、GBK、ISO-8859-1等），其它编码（例如UTF-16）回退为{@link BufferedReader}按行读取，
+ * 再将每行编码为UTF-8交给处理器，此时{@link ByteLine#getCharset()}为UTF-8</li>
+ * </ul>
+ * 扫描器不关闭流。非线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public class ByteLineScanner {
+
+	/** 默认缓冲大小：64KB */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream in;
+	private final Charset charset;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	/**
+	 * 创建扫描器
+	 *
+	 * @param in 输入流
+	 * @param charset 编码
+	 * @return {@link ByteLineScanner}
+	 */
+	public static ByteLineScanner create(InputStream in, Charset charset) {
+		return new ByteLineScanner(in, charset);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param in 输入流
+	 * @param charset 编码
+	 */
+	public ByteLineScanner(InputStream in, Charset charset) {
+		this.in = in;
+		this.charset = charset;
+	}
+
+	/**
+	 * 设置初始缓冲大小
+	 *
+	 * @param bufferSize 缓冲大小
+	 * @return this
+	 */
+	public ByteLineScanner setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	/**
+	 * 扫描到流结束，每行调用一次处理器
+	 *
+	 * @param lineHandler 行处理器
+	 * @return 行数
+	 * @throws IOException IO异常
+	 */
+	public long scan(ByteLineHandler lineHandler) throws IOException {
+		if (false == Arrays.equals(new byte[] { '\r', '\n' }, "\r\n".getBytes(charset))) {
+			return scanByReader(lineHandler);
+		}
+
+		final ByteLine line = new ByteLine(charset);
+		byte[] buffer = BufferPool.borrowBytes(bufferSize);
+		// 借到的缓冲可能大于设置的大小，只使用前limit个字节，行放不下时再扩大
+		int limit = bufferSize;
+		// 当前行的开始位置、已读数据的结束位置、下一个待检查的位置
+		int start = 0;
+		int end = 0;
+		int scanFrom = 0;
+		// 上一次读取以\r结尾，下一次读取开头的\n需要跳过
+		boolean isPendingCr = false;
+		long count = 0;
+		try {
+			while (true) {
+				int i = scanFrom;
+				byte b = 0;
+				while (i < end) {
+					b = buffer[i];
+					if ('\n' == b || '\r' == b) {
+						break;
+					}
+					i++;
+				}
+
+				if (i < end) {
+					lineHandler.handle(line.set(buffer, start, i - start));
+					count++;
+					if ('\r' == b) {
+						if (i + 1 < end) {
+							if ('\n' == buffer[i + 1]) {
+								i++;
+							}
+						} else {
+							isPendingCr = true;
+						}
+					}
+					start = scanFrom = i + 1;
+					continue;
+				}
+
+				// 缓冲中没有完整的行，移动未完成的部分到开头，仍然放不下时扩容
+				if (start > 0) {
+					System.arraycopy(buffer, start, buffer, 0, end - start);
+					end -= start;
+					start = 0;
+				}
+				if (end == limit) {
+					if (limit == buffer.length) {
+						buffer = Arrays.copyOf(buffer, buffer.length << 1);
+					}
+					limit = Math.min(limit << 1, buffer.length);
+				}
+				scanFrom = end;
+				final int read = in.read(buffer, end, limit - end);
+				if (IoUtil.EOF == read) {
+					break;
+				}
+				if (isPendingCr && read > 0) {
+					isPendingCr = false;
+					// 此时上一行已结束，start == end
+					if ('\n' == buffer[end]) {
+						start++;
+						scanFrom++;
+					}
+				}
+				end += read;
+			}
+
+			if (end > start) {
+				lineHandler.handle(line.set(buffer, start, end - start));
+				count++;
+			}
+		} finally {
+			BufferPool.release(buffer);
+		}
+		return count;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * \r和\n不是单字节的编码，使用{@link BufferedReader}读取每行后编码为UTF-8
+	 *
+	 * @param lineHandler 行处理器
+	 * @return 行数
+	 * @throws IOException IO异常
+	 */
+	private long scanByReader(ByteLineHandler lineHandler) throws IOException {
+		final ByteLine byteLine = new ByteLine(StandardCharsets.UTF_8);
+		final BufferedReader reader = IoUtil.getReader(in, charset);
+		long count = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+			lineHandler.handle(byteLine.set(bytes, 0, bytes.length));
+			count++;
+		}
+		return count;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
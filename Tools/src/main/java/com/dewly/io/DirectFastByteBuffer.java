@@ -0,0 +1,580 @@
+package com.dewly.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dewly.exceptions.UtilException;
+import com.dewly.lang.Assert;
+import com.dewly.lang.Console;
+
+/**
+ * 基于堆外内存（{@link ByteBuffer#allocateDirect(int)}）的快速缓冲，API与{@link FastByteBuffer}一致<br>
+ * 适用于几百MB的暂存数据：数据不占用Java堆，写到通道时也没有JDK内部从堆到直接缓冲的复制。
+ * <ul>
+ * <li>缓冲块大小固定（默认1MB），按需分配，{@link #reset()}后保留已分配的块以便复用</li>
+ * <li>使用完毕后必须调用{@link #release()}或{@link #close()}立即释放堆外内存</li>
+ * <li>所有实例已分配的堆外内存总量受{@link #setMaxTotalBytes(long)}限制，超过时抛出{@link UtilException}</li>
+ * <li>未释放就被GC回收的实例会被检测为泄漏：在之后分配缓冲块或调用{@link #detectLeaks()}时扣除其计数并通知{@link LeakListener}，内存由JDK在视图也不可达后回收</li>
+ * </ul>
+ * 调用{@link #release()}后不能再访问之前得到的{@link ByteBuffer}视图。非线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public class DirectFastByteBuffer implements Closeable {
+
+	/** 默认缓冲块大小：1MB */
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	/** 所有实例已分配的堆外内存 */
+	private static final AtomicLong USED_BYTES = new AtomicLong();
+	/** 检测到的泄漏次数 */
+	private static final AtomicLong LEAK_COUNT = new AtomicLong();
+	private static final ReferenceQueue<DirectFastByteBuffer> LEAK_QUEUE = new ReferenceQueue<>();
+	/** 未释放的实例的跟踪器，保持跟踪器本身可达 */
+	private static final Set<LeakTracker> TRACKERS = Collections.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+
+	private static volatile long maxTotalBytes = Long.MAX_VALUE;
+	private static volatile boolean isRecordAllocation;
+	private static volatile LeakListener leakListener = new LeakListener() {
+		@Override
+		public void onLeak(long bytes, Throwable allocation) {
+			Console.error(allocation, "DirectFastByteBuffer leaked {} bytes of direct memory, release() was not called{}", bytes,
+					(null == allocation) ? ". Call DirectFastByteBuffer.setRecordAllocation(true) to record allocations." : ", allocated at:");
+		}
+	};
+
+	private final int chunkSize;
+	private final Chunks chunks;
+	private final LeakTracker tracker;
+	/** 当前缓冲块 */
+	private ByteBuffer currentBuffer;
+	/** 当前缓冲块索引 */
+	private int currentBufferIndex = -1;
+	/** 缓冲字节数 */
+	private int size;
+
+	/**
+	 * 构造，使用默认缓冲块大小
+	 */
+	public DirectFastByteBuffer() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param chunkSize 缓冲块大小
+	 */
+	public DirectFastByteBuffer(int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+		this.chunks = new Chunks();
+		this.tracker = new LeakTracker(this, chunks, isRecordAllocation ? new Throwable("DirectFastByteBuffer allocation") : null);
+		TRACKERS.add(tracker);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Static method start
+	/**
+	 * 所有实例当前已分配的堆外内存
+	 *
+	 * @return 字节数
+	 */
+	public static long getUsedBytes() {
+		return USED_BYTES.get();
+	}
+
+	/**
+	 * 所有实例可分配的堆外内存上限
+	 *
+	 * @return 字节数
+	 */
+	public static long getMaxTotalBytes() {
+		return maxTotalBytes;
+	}
+
+	/**
+	 * 设置所有实例可分配的堆外内存上限，默认不限制（仍受JVM的-XX:MaxDirectMemorySize限制）
+	 *
+	 * @param maxTotalBytes 字节数
+	 */
+	public static void setMaxTotalBytes(long maxTotalBytes) {
+		Assert.isTrue(maxTotalBytes > 0, "Max total bytes must be greater than 0");
+		DirectFastByteBuffer.maxTotalBytes = maxTotalBytes;
+	}
+
+	/**
+	 * 设置是否记录创建实例的调用栈，泄漏时随通知一起报告，默认不记录
+	 *
+	 * @param isRecordAllocation 是否记录
+	 */
+	public static void setRecordAllocation(boolean isRecordAllocation) {
+		DirectFastByteBuffer.isRecordAllocation = isRecordAllocation;
+	}
+
+	/**
+	 * 设置泄漏监听器，默认打印到标准错误输出
+	 *
+	 * @param leakListener 泄漏监听器
+	 */
+	public static void setLeakListener(LeakListener leakListener) {
+		Assert.notNull(leakListener, "Leak listener must not be null");
+		DirectFastByteBuffer.leakListener = leakListener;
+	}
+
+	/**
+	 * 检测到的泄漏次数
+	 *
+	 * @return 泄漏次数
+	 */
+	public static long getLeakCount() {
+		return LEAK_COUNT.get();
+	}
+
+	/**
+	 * 处理已被GC回收但未释放的实例：从已分配总量中扣除其堆外内存并通知监听器<br>
+	 * 此时{@link #toByteBuffers()}得到的视图可能仍在使用，只丢弃对缓冲块的引用，内存由JDK在所有视图不可达后回收<br>
+	 * 分配缓冲块时会自动调用，只有被GC回收的实例能被检测到
+	 *
+	 * @return 本次检测到的泄漏数
+	 */
+	public static int detectLeaks() {
+		int count = 0;
+		LeakTracker leaked;
+		while (null != (leaked = (LeakTracker) LEAK_QUEUE.poll())) {
+			if (TRACKERS.remove(leaked)) {
+				final long bytes = leaked.chunks.drop();
+				// 从未分配缓冲块的实例没有占用堆外内存，不视为泄漏
+				if (bytes > 0) {
+					LEAK_COUNT.incrementAndGet();
+					count++;
+					leakListener.onLeak(bytes, leaked.allocation);
+				}
+			}
+		}
+		return count;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Static method end
+
+	/**
+	 * 向快速缓冲加入数据
+	 *
+	 * @param array 数据
+	 * @param off 偏移量
+	 * @param len 字节数
+	 * @return 快速缓冲自身
+	 */
+	public DirectFastByteBuffer append(byte[] array, int off, int len) {
+		if ((off < 0) || (len < 0) || (off + len > array.length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		checkCapacity(len);
+		int pos = off;
+		int remaining = len;
+		while (remaining > 0) {
+			ensureCurrentBuffer();
+			final int part = Math.min(remaining, currentBuffer.remaining());
+			currentBuffer.put(array, pos, part);
+			pos += part;
+			remaining -= part;
+			size += part;
+		}
+		return this;
+	}
+
+	/**
+	 * 向快速缓冲加入数据
+	 *
+	 * @param array 数据
+	 * @return 快速缓冲自身
+	 */
+	public DirectFastByteBuffer append(byte[] array) {
+		return append(array, 0, array.length);
+	}
+
+	/**
+	 * 向快速缓冲加入一个字节
+	 *
+	 * @param element 一个字节的数据
+	 * @return 快速缓冲自身
+	 */
+	public DirectFastByteBuffer append(byte element) {
+		checkCapacity(1);
+		ensureCurrentBuffer();
+		currentBuffer.put(element);
+		size++;
+		return this;
+	}
+
+	/**
+	 * 向快速缓冲加入{@link ByteBuffer}中剩余的数据，src的position移动到limit
+	 *
+	 * @param src 数据
+	 * @return 快速缓冲自身
+	 */
+	public DirectFastByteBuffer append(ByteBuffer src) {
+		checkCapacity(src.remaining());
+		final int srcLimit = src.limit();
+		try {
+			while (src.hasRemaining()) {
+				ensureCurrentBuffer();
+				final int part = Math.min(src.remaining(), currentBuffer.remaining());
+				src.limit(src.position() + part);
+				currentBuffer.put(src);
+				src.limit(srcLimit);
+				size += part;
+			}
+		} finally {
+			src.limit(srcLimit);
+		}
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * 缓冲块大小
+	 *
+	 * @return 缓冲块大小
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 本实例已分配的堆外内存，{@link #reset()}后仍保留
+	 *
+	 * @return 字节数
+	 */
+	public long capacity() {
+		return chunks.capacity;
+	}
+
+	/**
+	 * 是否已释放
+	 *
+	 * @return 是否已释放
+	 */
+	public boolean isReleased() {
+		return chunks.isFreed;
+	}
+
+	/**
+	 * 根据索引位返回一个字节
+	 *
+	 * @param index 索引位
+	 * @return 一个字节
+	 */
+	public byte get(int index) {
+		if ((index >= size) || (index < 0)) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks.buffers[index / chunkSize].get(index % chunkSize);
+	}
+
+	/**
+	 * 返回快速缓冲中的数据，复制到堆中
+	 *
+	 * @return 快速缓冲中的数据
+	 */
+	public byte[] toArray() {
+		return toArray(0, size);
+	}
+
+	/**
+	 * 返回快速缓冲中的数据，复制到堆中
+	 *
+	 * @param start 逻辑起始位置
+	 * @param len 逻辑字节长
+	 * @return 快速缓冲中的数据
+	 */
+	public byte[] toArray(int start, int len) {
+		if (start < 0 || len < 0 || start + len > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		checkNotReleased();
+		final byte[] array = new byte[len];
+		int pos = 0;
+		int index = start / chunkSize;
+		int offset = start % chunkSize;
+		while (pos < len) {
+			final ByteBuffer view = chunks.buffers[index].duplicate();
+			final int part = Math.min(chunkSize - offset, len - pos);
+			view.position(offset);
+			view.get(array, pos, part);
+			pos += part;
+			offset = 0;
+			index++;
+		}
+		return array;
+	}
+
+	/**
+	 * 返回每个已使用缓冲块的只读视图，不复制数据
+	 *
+	 * @return 缓冲块视图，没有数据时返回空数组
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		checkNotReleased();
+		final ByteBuffer[] result = new ByteBuffer[currentBufferIndex + 1];
+		for (int i = 0; i <= currentBufferIndex; i++) {
+			// 缓冲块的position为已写入的长度
+			final ByteBuffer view = chunks.buffers[i].asReadOnlyBuffer();
+			view.flip();
+			result[i] = view;
+		}
+		return result;
+	}
+
+	/**
+	 * 将数据写到通道，{@link GatheringByteChannel}一次写出所有缓冲块<br>
+	 * 只支持阻塞通道，非阻塞通道可能只写出部分数据并返回0，写出循环会空转，因此直接拒绝
+	 *
+	 * @param channel 通道，必须为阻塞通道
+	 * @return 写出的字节数
+	 * @throws IOException IO异常
+	 * @throws IllegalArgumentException 通道为非阻塞的{@link java.nio.channels.SelectableChannel}
+	 */
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		StreamCopier.checkBlocking(channel);
+		final ByteBuffer[] buffers = toByteBuffers();
+		long written = 0;
+		if (channel instanceof GatheringByteChannel) {
+			final GatheringByteChannel gathering = (GatheringByteChannel) channel;
+			int first = 0;
+			while (written < size) {
+				written += gathering.write(buffers, first, buffers.length - first);
+				while (first < buffers.length && false == buffers[first].hasRemaining()) {
+					first++;
+				}
+			}
+		} else {
+			for (ByteBuffer buffer : buffers) {
+				while (buffer.hasRemaining()) {
+					written += channel.write(buffer);
+				}
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * 将数据写到输出流，经过复用的堆缓冲
+	 *
+	 * @param out 输出流
+	 * @return 写出的字节数
+	 * @throws IOException IO异常
+	 */
+	public long writeTo(OutputStream out) throws IOException {
+		final ByteBuffer[] buffers = toByteBuffers();
+		final byte[] buffer = BufferPool.borrowBytes(Math.min(chunkSize, StreamCopier.DEFAULT_BUFFER_SIZE));
+		try {
+			for (ByteBuffer view : buffers) {
+				while (view.hasRemaining()) {
+					final int part = Math.min(buffer.length, view.remaining());
+					view.get(buffer, 0, part);
+					out.write(buffer, 0, part);
+				}
+			}
+		} finally {
+			BufferPool.release(buffer);
+		}
+		return size;
+	}
+
+	/**
+	 * 清空数据，保留已分配的缓冲块以便复用
+	 */
+	public void reset() {
+		checkNotReleased();
+		for (int i = 0; i <= currentBufferIndex; i++) {
+			chunks.buffers[i].clear();
+		}
+		size = 0;
+		currentBufferIndex = -1;
+		currentBuffer = null;
+	}
+
+	/**
+	 * 立即释放所有堆外内存，之后不能再使用此缓冲，重复调用无效果
+	 */
+	public void release() {
+		if (TRACKERS.remove(tracker)) {
+			tracker.clear();
+			chunks.free();
+		}
+		size = 0;
+		currentBufferIndex = -1;
+		currentBuffer = null;
+	}
+
+	/**
+	 * 同{@link #release()}
+	 */
+	@Override
+	public void close() {
+		release();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 检查是否已释放
+	 *
+	 * @throws IORuntimeException 已释放
+	 */
+	private void checkNotReleased() throws IORuntimeException {
+		if (chunks.isFreed) {
+			throw new IORuntimeException("DirectFastByteBuffer is released");
+		}
+	}
+
+	/**
+	 * 检查加入数据后的大小不超过int范围
+	 *
+	 * @param len 加入的字节数
+	 */
+	private void checkCapacity(int len) {
+		checkNotReleased();
+		if ((long) size + len > Integer.MAX_VALUE) {
+			throw new UtilException("DirectFastByteBuffer size exceeds {}", Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * 保证当前缓冲块有剩余空间，优先复用{@link #reset()}前分配的块
+	 */
+	private void ensureCurrentBuffer() {
+		if (null != currentBuffer && currentBuffer.hasRemaining()) {
+			return;
+		}
+		currentBufferIndex++;
+		if (currentBufferIndex == chunks.count) {
+			chunks.add(allocate(chunkSize));
+		}
+		currentBuffer = chunks.buffers[currentBufferIndex];
+	}
+
+	/**
+	 * 分配直接缓冲，先处理泄漏的实例，再检查总量上限
+	 *
+	 * @param capacity 容量
+	 * @return 直接缓冲
+	 * @throws UtilException 超过总量上限
+	 */
+	private static ByteBuffer allocate(int capacity) throws UtilException {
+		detectLeaks();
+		while (true) {
+			final long used = USED_BYTES.get();
+			if (used + capacity > maxTotalBytes) {
+				throw new UtilException("Direct memory limit exceeded, used: {}, requested: {}, max: {}", used, capacity, maxTotalBytes);
+			}
+			if (USED_BYTES.compareAndSet(used, used + capacity)) {
+				break;
+			}
+		}
+		try {
+			return ByteBuffer.allocateDirect(capacity);
+		} catch (OutOfMemoryError e) {
+			USED_BYTES.addAndGet(-capacity);
+			throw e;
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 泄漏监听器
+	 *
+	 * @author Dewly
+	 *
+	 */
+	public interface LeakListener {
+		/**
+		 * 检测到未释放就被GC回收的实例，此时其堆外内存已不计入总量，由JDK在所有视图不可达后回收
+		 *
+		 * @param bytes 泄漏的堆外内存字节数
+		 * @param allocation 创建实例时的调用栈，未开启{@link DirectFastByteBuffer#setRecordAllocation(boolean)}时为null
+		 */
+		void onLeak(long bytes, Throwable allocation);
+	}
+
+	/**
+	 * 已分配的缓冲块，由实例和泄漏跟踪器共同持有，实例被回收后仍可释放
+	 */
+	private static class Chunks {
+		private ByteBuffer[] buffers = new ByteBuffer[16];
+		private int count;
+		private long capacity;
+		private boolean isFreed;
+
+		/**
+		 * 加入缓冲块
+		 *
+		 * @param buffer 缓冲块
+		 */
+		void add(ByteBuffer buffer) {
+			if (count == buffers.length) {
+				buffers = Arrays.copyOf(buffers, count << 1);
+			}
+			buffers[count++] = buffer;
+			capacity += buffer.capacity();
+		}
+
+		/**
+		 * 立即释放所有缓冲块，只用于显式释放
+		 *
+		 * @return 释放的字节数
+		 */
+		long free() {
+			for (int i = 0; i < count; i++) {
+				BufferUtil.clean(buffers[i]);
+			}
+			return drop();
+		}
+
+		/**
+		 * 丢弃所有缓冲块的引用并扣除计数，不释放内存，用于泄漏检测：视图仍可能引用这些内存
+		 *
+		 * @return 丢弃的字节数
+		 */
+		long drop() {
+			final long freed = capacity;
+			Arrays.fill(buffers, 0, count, null);
+			USED_BYTES.addAndGet(-freed);
+			count = 0;
+			capacity = 0;
+			isFreed = true;
+			return freed;
+		}
+	}
+
+	/**
+	 * 泄漏跟踪器，实例被GC回收后进入{@link #LEAK_QUEUE}
+	 */
+	private static class LeakTracker extends PhantomReference<DirectFastByteBuffer> {
+		private final Chunks chunks;
+		private final Throwable allocation;
+
+		LeakTracker(DirectFastByteBuffer referent, Chunks chunks, Throwable allocation) {
+			super(referent, LEAK_QUEUE);
+			this.chunks = chunks;
+			this.allocation = allocation;
+		}
+	}
+}
@@ -3,6 +3,8 @@ package com.dewly.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
 /**
@@ -10,7 +12,7 @@ import java.nio.charset.Charset;
  * <p>
  * 可以通过{@link #toByteArray()}和 {@link #toString()}来获取数据
  * <p>
- * {@link #close()}方法无任何效果，当流被关闭后不会抛出IOException
+ * {@link #close()}方法无任何效果，当流被关闭后不会抛出IOException；使用{@link ByteChunkPool}构造时，{@link #close()}将缓冲区归还到池中并清空数据
  * <p>
  * 这种设计避免重新分配内存块而是分配新增的缓冲区，缓冲区不会被GC，数据也不会被拷贝到其他缓冲区。
  *
@@ -19,6 +21,7 @@ import java.nio.charset.Charset;
 public class FastByteArrayOutputStream extends OutputStream {
 
 	private final FastByteBuffer buffer;
+	private final boolean isPooled;
 
 	public FastByteArrayOutputStream() {
 		this(1024);
@@ -26,6 +29,17 @@ public class FastByteArrayOutputStream extends OutputStream {
 
 	public FastByteArrayOutputStream(int size) {
 		buffer = new FastByteBuffer(size);
+		isPooled = false;
+	}
+
+	/**
+	 * 构造，缓冲区从池中借出，用完后调用{@link #close()}或{@link #reset()}归还
+	 * 
+	 * @param pool 缓冲块池
+	 */
+	public FastByteArrayOutputStream(ByteChunkPool pool) {
+		buffer = new FastByteBuffer(pool);
+		isPooled = true;
 	}
 
 	@Override
@@ -43,11 +57,13 @@ public class FastByteArrayOutputStream extends OutputStream {
 	}
 
 	/**
-	 * 此方法无任何效果，当流被关闭后不会抛出IOException
+	 * 不使用池时此方法无任何效果，当流被关闭后不会抛出IOException；使用池时归还缓冲区并清空数据
 	 */
 	@Override
 	public void close() {
-		// nop
+		if (isPooled) {
+			buffer.reset();
+		}
 	}
 
 	public void reset() {
@@ -56,6 +72,9 @@ public class FastByteArrayOutputStream extends OutputStream {
 
 	public void writeTo(OutputStream out) throws IOException {
 		int index = buffer.index();
+		if (index < 0) {
+			return;
+		}
 		for (int i = 0; i < index; i++) {
 			byte[] buf = buffer.array(i);
 			out.write(buf);
@@ -63,6 +82,38 @@ public class FastByteArrayOutputStream extends OutputStream {
 		out.write(buffer.array(index), 0, buffer.offset());
 	}
 
+	/**
+	 * 将数据写到通道，支持时使用聚集写一次写出所有缓冲区，只支持阻塞通道
+	 * 
+	 * @param channel 通道，必须为阻塞通道
+	 * @return 写出的字节数
+	 * @throws IOException IO异常
+	 * @throws IllegalArgumentException 通道为非阻塞的{@link java.nio.channels.SelectableChannel}
+	 */
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		return buffer.writeTo(channel);
+	}
+
+	/**
+	 * 返回每个缓冲区的只读视图，不复制数据
+	 * 
+	 * @return 缓冲区视图
+	 * @see FastByteBuffer#toByteBuffers()
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		return buffer.toByteBuffers();
+	}
+
+	/**
+	 * 返回数据的只读视图，只有一个缓冲区时不复制数据
+	 * 
+	 * @return 只读视图
+	 * @see FastByteBuffer#toByteBuffer()
+	 */
+	public ByteBuffer toByteBuffer() {
+		return buffer.toByteBuffer();
+	}
+
 	public byte[] toByteArray() {
 		return buffer.toArray();
 	}
@@ -1,8 +1,14 @@
 package com.dewly.io;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * 代码移植自<a href="https://github.com/biezhi/blade">blade</a><br>
- * 快速缓冲，将数据存放在缓冲集中，取代以往的单一数组
+ * 快速缓冲，将数据存放在缓冲集中，取代以往的单一数组<br>
+ * 使用{@link ByteChunkPool}构造时，缓冲块从池中借出，{@link #reset()}时归还，之后不能再访问之前得到的缓冲块和{@link ByteBuffer}视图
  *
  * @author biezhi, looly
  * @since 1.0
@@ -38,26 +44,43 @@ public class FastByteBuffer {
 	 * 一个缓冲区的最小字节数
 	 */
 	private final int minChunkLen;
+	/**
+	 * 缓冲块池，null表示不使用池
+	 */
+	private final ByteChunkPool pool;
 
 	public FastByteBuffer() {
-		this.minChunkLen = 1024;
+		this(1024);
 	}
 
 	public FastByteBuffer(int size) {
 		this.minChunkLen = Math.abs(size);
+		this.pool = null;
 	}
 
 	/**
-	 * 分配下一个缓冲区，不会小于1024
+	 * 构造，缓冲块从池中借出，大小固定为池的块大小
+	 * 
+	 * @param pool 缓冲块池
+	 */
+	public FastByteBuffer(ByteChunkPool pool) {
+		this.minChunkLen = pool.getChunkSize();
+		this.pool = pool;
+	}
+
+	/**
+	 * 分配下一个缓冲区，不会小于1024；使用池时从池中借出
 	 * 
 	 * @param newSize 理想缓冲区字节数
 	 */
 	private void needNewBuffer(int newSize) {
-		int delta = newSize - size;
-		int newBufferSize = Math.max(minChunkLen, delta);
-
 		currentBufferIndex++;
-		currentBuffer = new byte[newBufferSize];
+		if (null != pool) {
+			currentBuffer = pool.borrow();
+		} else {
+			int delta = newSize - size;
+			currentBuffer = new byte[Math.max(minChunkLen, delta)];
+		}
 		offset = 0;
 
 		// add buffer
@@ -90,8 +113,12 @@ public class FastByteBuffer {
 		int newSize = size + len;
 		int remaining = len;
 
-		if (currentBuffer != null) {
-			// first try to fill current buffer
+		// fill current buffer first, then ask for new buffers
+		// without pool the new buffer is large enough for all remaining data
+		while (remaining > 0) {
+			if (currentBuffer == null || offset == currentBuffer.length) {
+				needNewBuffer(newSize);
+			}
 			int part = Math.min(remaining, currentBuffer.length - offset);
 			System.arraycopy(array, end - remaining, currentBuffer, offset, part);
 			remaining -= part;
@@ -99,19 +126,6 @@ public class FastByteBuffer {
 			size += part;
 		}
 
-		if (remaining > 0) {
-			// still some data left
-			// ask for new buffer
-			needNewBuffer(newSize);
-
-			// then copy remaining
-			// but this time we are sure that it will fit
-			int part = Math.min(remaining, currentBuffer.length - offset);
-			System.arraycopy(array, end - remaining, currentBuffer, offset, part);
-			offset += part;
-			size += part;
-		}
-
 		return this;
 	}
 
@@ -192,7 +206,16 @@ public class FastByteBuffer {
 		return buffers[index];
 	}
 
+	/**
+	 * 清空数据，使用池时缓冲块归还到池中
+	 */
 	public void reset() {
+		for (int i = 0; i < buffersCount; i++) {
+			if (null != pool) {
+				pool.release(buffers[i]);
+			}
+			buffers[i] = null;
+		}
 		size = 0;
 		offset = 0;
 		currentBufferIndex = -1;
@@ -200,6 +223,64 @@ public class FastByteBuffer {
 		buffersCount = 0;
 	}
 
+	/**
+	 * 返回每个缓冲块的只读视图，不复制数据
+	 * 
+	 * @return 缓冲块视图，没有数据时返回空数组
+	 */
+	public ByteBuffer[] toByteBuffers() {
+		final ByteBuffer[] result = new ByteBuffer[buffersCount];
+		for (int i = 0; i < buffersCount; i++) {
+			final int len = (i == currentBufferIndex) ? offset : buffers[i].length;
+			result[i] = ByteBuffer.wrap(buffers[i], 0, len).slice().asReadOnlyBuffer();
+		}
+		return result;
+	}
+
+	/**
+	 * 返回数据的只读视图，只有一个缓冲块时不复制数据，否则复制到新的数组
+	 * 
+	 * @return 只读视图
+	 */
+	public ByteBuffer toByteBuffer() {
+		if (buffersCount <= 1) {
+			return (0 == buffersCount) ? ByteBuffer.allocate(0).asReadOnlyBuffer() : toByteBuffers()[0];
+		}
+		return ByteBuffer.wrap(toArray()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * 将数据写到通道，{@link GatheringByteChannel}一次写出所有缓冲块<br>
+	 * 只支持阻塞通道，非阻塞通道可能只写出部分数据并返回0，写出循环会空转，因此直接拒绝
+	 * 
+	 * @param channel 通道，必须为阻塞通道
+	 * @return 写出的字节数
+	 * @throws IOException IO异常
+	 * @throws IllegalArgumentException 通道为非阻塞的{@link java.nio.channels.SelectableChannel}
+	 */
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		StreamCopier.checkBlocking(channel);
+		final ByteBuffer[] buffers = toByteBuffers();
+		long written = 0;
+		if (channel instanceof GatheringByteChannel) {
+			final GatheringByteChannel gathering = (GatheringByteChannel) channel;
+			int first = 0;
+			while (written < size) {
+				written += gathering.write(buffers, first, buffers.length - first);
+				while (first < buffers.length && false == buffers[first].hasRemaining()) {
+					first++;
+				}
+			}
+		} else {
+			for (ByteBuffer buffer : buffers) {
+				while (buffer.hasRemaining()) {
+					written += channel.write(buffer);
+				}
+			}
+		}
+		return written;
+	}
+
 	/**
 	 * 返回快速缓冲中的数据
 	 * 
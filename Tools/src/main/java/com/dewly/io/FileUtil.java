@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import com.dewly.io.file.DirSync;
 import com.dewly.io.file.FileCopier;
 import com.dewly.io.file.FileReader;
 import com.dewly.io.file.FileReader.ReaderHandler;
@@ -785,6 +786,20 @@ public final class FileUtil {
 		return FileCopier.create(src, dest).setCopyContentIfDir(true).setOverride(isOverride).copy();
 	}
 
+	/**
+	 * 增量同步目录内容，只拷贝相对上次同步新增或变化的文件<br>
+	 * 上次同步的状态记录在目标目录下的清单文件中，详见{@link DirSync}
+	 * 
+	 * @param src 源目录
+	 * @param dest 目标目录，不存在会自动创建
+	 * @param isDelete 是否删除源目录中已不存在的文件
+	 * @return 同步结果
+	 * @throws IORuntimeException IO异常
+	 */
+	public static DirSync.Result sync(File src, File dest, boolean isDelete) throws IORuntimeException {
+		return DirSync.create(src, dest).setDelete(isDelete).sync();
+	}
+
 	/**
 	 * 移动文件或者目录
 	 * 
@@ -1592,6 +1607,19 @@ public final class FileUtil {
 		FileReader.create(file, charset).readLines(lineHandler);
 	}
 
+	/**
+	 * 按行处理文件内容，不为每行创建字符串
+	 * 
+	 * @param file 文件
+	 * @param charset 编码
+	 * @param lineHandler {@link ByteLineHandler}字节行处理器
+	 * @return 行数
+	 * @throws IORuntimeException IO异常
+	 */
+	public static long readByteLines(File file, Charset charset, ByteLineHandler lineHandler) throws IORuntimeException {
+		return FileReader.create(file, charset).readByteLines(lineHandler);
+	}
+
 	/**
 	 * 按照给定的readerHandler读取文件中的数据
 	 * 
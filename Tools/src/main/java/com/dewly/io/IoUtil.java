@@ -17,7 +17,6 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.Writer;
-import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
@@ -61,7 +60,7 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static long copy(Reader reader, Writer writer) throws IOException {
-		return copy(reader, writer, DEFAULT_BUFFER_SIZE);
+		return copy(reader, writer, StreamCopier.DEFAULT_BUFFER_SIZE);
 	}
 
 	/**
@@ -78,7 +77,8 @@ public final class IoUtil {
 	}
 
 	/**
-	 * 将Reader中的内容复制到Writer中
+	 * 将Reader中的内容复制到Writer中<br>
+	 * 缓冲从线程本地的缓冲池借用，结束时flush一次，进度通知按{@link ThrottledStreamProgress}的默认间隔限流，更多设置见{@link StreamCopier}
 	 * 
 	 * @param reader Reader
 	 * @param writer Writer
@@ -88,24 +88,7 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static long copy(Reader reader, Writer writer, int bufferSize, StreamProgress streamProgress) throws IOException {
-		char[] buffer = new char[bufferSize];
-		long size = 0;
-		int readSize;
-		if (null != streamProgress) {
-			streamProgress.start();
-		}
-		while ((readSize = reader.read(buffer, 0, bufferSize)) != EOF) {
-			writer.write(buffer, 0, readSize);
-			size += readSize;
-			writer.flush();
-			if (null != streamProgress) {
-				streamProgress.progress(size);
-			}
-		}
-		if (null != streamProgress) {
-			streamProgress.finish();
-		}
-		return size;
+		return StreamCopier.create().setBufferSize(bufferSize).setStreamProgress(streamProgress).copy(reader, writer);
 	}
 
 	/**
@@ -117,7 +100,7 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static long copy(InputStream in, OutputStream out) throws IOException {
-		return copy(in, out, DEFAULT_BUFFER_SIZE);
+		return copy(in, out, StreamCopier.DEFAULT_BUFFER_SIZE);
 	}
 
 	/**
@@ -134,7 +117,9 @@ public final class IoUtil {
 	}
 
 	/**
-	 * 拷贝流
+	 * 拷贝流<br>
+	 * 缓冲从线程本地的缓冲池借用，结束时flush一次，两端都是文件流时使用{@link FileChannel}传输，
+	 * 进度通知按{@link ThrottledStreamProgress}的默认间隔限流，更多设置见{@link StreamCopier}
 	 * 
 	 * @param in 输入流
 	 * @param out 输出流
@@ -144,33 +129,7 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static long copy(InputStream in, OutputStream out, int bufferSize, StreamProgress streamProgress) throws IOException {
-		if (null == in) {
-			throw new NullPointerException("InputStream is null!");
-		}
-		if (null == out) {
-			throw new NullPointerException("OutputStream is null!");
-		}
-		if (bufferSize <= 0) {
-			bufferSize = DEFAULT_BUFFER_SIZE;
-		}
-
-		byte[] buffer = new byte[bufferSize];
-		long size = 0;
-		if (null != streamProgress) {
-			streamProgress.start();
-		}
-		for (int readSize = -1; (readSize = in.read(buffer)) != EOF;) {
-			out.write(buffer, 0, readSize);
-			size += readSize;
-			out.flush();
-			if (null != streamProgress) {
-				streamProgress.progress(size);
-			}
-		}
-		if (null != streamProgress) {
-			streamProgress.finish();
-		}
-		return size;
+		return StreamCopier.create().setBufferSize(bufferSize).setStreamProgress(streamProgress).copy(in, out);
 	}
 
 	/**
@@ -188,7 +147,7 @@ public final class IoUtil {
 	}
 
 	/**
-	 * 拷贝文件流，使用NIO
+	 * 拷贝文件流，使用NIO，从输入流的当前位置开始
 	 * 
 	 * @param in 输入
 	 * @param out 输出
@@ -203,10 +162,7 @@ public final class IoUtil {
 			throw new NullPointerException("FileOutputStream is null!");
 		}
 
-		FileChannel inChannel = in.getChannel();
-		FileChannel outChannel = out.getChannel();
-
-		return inChannel.transferTo(0, inChannel.size(), outChannel);
+		return StreamCopier.create().copy(in.getChannel(), out.getChannel());
 	}
 
 	/**
@@ -220,31 +176,7 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static long copy(ReadableByteChannel in, WritableByteChannel out, int bufferSize, StreamProgress streamProgress) throws IOException {
-		if (null == in) {
-			throw new NullPointerException("In is null!");
-		}
-		if (null == out) {
-			throw new NullPointerException("Out is null!");
-		}
-
-		ByteBuffer byteBuffer = ByteBuffer.allocate(bufferSize <= 0 ? DEFAULT_BUFFER_SIZE : bufferSize);
-		long size = 0;
-		if (null != streamProgress) {
-			streamProgress.start();
-		}
-		while (in.read(byteBuffer) != EOF) {
-			byteBuffer.flip();// 写转读
-			size += out.write(byteBuffer);
-			byteBuffer.clear();
-			if (null != streamProgress) {
-				streamProgress.progress(size);
-			}
-		}
-		if (null != streamProgress) {
-			streamProgress.finish();
-		}
-
-		return size;
+		return StreamCopier.create().setBufferSize(bufferSize).setStreamProgress(streamProgress).copy(in, out);
 	}
 	// -------------------------------------------------------------------------------------- Copy end
 
@@ -334,8 +266,12 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static String read(InputStream in, String charsetName) throws IOException {
-		FastByteArrayOutputStream out = read(in);
-		return StrUtil.isBlank(charsetName) ? out.toString() : out.toString(charsetName);
+		final FastByteArrayOutputStream out = read(in, ByteChunkPool.DEFAULT);
+		try {
+			return StrUtil.isBlank(charsetName) ? out.toString() : out.toString(charsetName);
+		} finally {
+			out.close();
+		}
 	}
 
 	/**
@@ -347,8 +283,12 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static String read(InputStream in, Charset charset) throws IOException {
-		FastByteArrayOutputStream out = read(in);
-		return null == charset ? out.toString() : out.toString(charset);
+		final FastByteArrayOutputStream out = read(in, ByteChunkPool.DEFAULT);
+		try {
+			return null == charset ? out.toString() : out.toString(charset);
+		} finally {
+			out.close();
+		}
 	}
 
 	/**
@@ -364,6 +304,25 @@ public final class IoUtil {
 		return out;
 	}
 
+	/**
+	 * 从流中读取内容，读到缓冲区从池中借出的输出流中，使用完毕后调用{@link FastByteArrayOutputStream#close()}归还缓冲区
+	 * 
+	 * @param in 输入流
+	 * @param pool 缓冲块池
+	 * @return 输出流
+	 * @throws IOException IO异常
+	 */
+	public static FastByteArrayOutputStream read(InputStream in, ByteChunkPool pool) throws IOException {
+		final FastByteArrayOutputStream out = new FastByteArrayOutputStream(pool);
+		try {
+			copy(in, out);
+		} catch (IOException | RuntimeException e) {
+			out.close();
+			throw e;
+		}
+		return out;
+	}
+
 	/**
 	 * 从Reader中读取String，读取完毕后并不关闭Reader
 	 * 
@@ -413,9 +372,12 @@ public final class IoUtil {
 	 * @throws IOException IO异常
 	 */
 	public static byte[] readBytes(InputStream in) throws IOException {
-		final FastByteArrayOutputStream out = new FastByteArrayOutputStream();
-		copy(in, out);
-		return out.toByteArray();
+		final FastByteArrayOutputStream out = read(in, ByteChunkPool.DEFAULT);
+		try {
+			return out.toByteArray();
+		} finally {
+			out.close();
+		}
 	}
 
 	/**
@@ -572,6 +534,20 @@ public final class IoUtil {
 		}
 	}
 
+	/**
+	 * 按行读取数据，针对每行的数据做处理<br>
+	 * 在复用的字节缓冲中扫描换行符，不为每行创建字符串，行只在处理器需要字符时解码，详见{@link ByteLineScanner}
+	 * 
+	 * @param in {@link InputStream}，不会被关闭
+	 * @param charset {@link Charset}编码
+	 * @param lineHandler 字节行处理器
+	 * @return 行数
+	 * @throws IOException IO异常
+	 */
+	public static long readByteLines(InputStream in, Charset charset, ByteLineHandler lineHandler) throws IOException {
+		return ByteLineScanner.create(in, charset).scan(lineHandler);
+	}
+
 	// -------------------------------------------------------------------------------------- read end
 
 	/**
@@ -0,0 +1,365 @@
+package com.dewly.io;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.dewly.lang.Assert;
+
+/**
+ * 流拷贝器<br>
+ * <ul>
+ * <li>缓冲从线程本地的缓冲池借用，不在每次拷贝时分配</li>
+ * <li>默认只在拷贝结束时flush一次，可以设置按字节数间隔flush</li>
+ * <li>两端为文件时使用{@link FileChannel#transferTo(long, long, WritableByteChannel)}（或{@link FileChannel#transferFrom(ReadableByteChannel, long, long)}）由系统直接传输</li>
+ * <li>进度通知按字节数或时间限流，不在每次读取后都通知</li>
+ * </ul>
+ * 设置完成后可以重复使用，只要不再修改设置，可以在多线程中共享。拷贝器不会关闭流。
+ *
+ * @author Dewly
+ *
+ */
+public class StreamCopier {
+
+	/** 默认缓冲大小 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	/** 每次transferTo/transferFrom的最大字节数，分段传输以便通知进度 */
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	/** 缓冲大小 */
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	/** flush间隔字节数，0表示只在结束时flush，小于0表示不flush */
+	private long flushInterval;
+	/** 进度处理器 */
+	private StreamProgress streamProgress;
+	/** 进度通知间隔字节数 */
+	private long progressBytes = ThrottledStreamProgress.DEFAULT_MIN_BYTES;
+	/** 进度通知间隔毫秒数 */
+	private long progressMillis = ThrottledStreamProgress.DEFAULT_MIN_MILLIS;
+
+	/**
+	 * 创建拷贝器，使用默认设置
+	 *
+	 * @return {@link StreamCopier}
+	 */
+	public static StreamCopier create() {
+		return new StreamCopier();
+	}
+
+	// -------------------------------------------------------------------------------------------------------- Getters and Setters start
+	/**
+	 * 缓冲大小
+	 *
+	 * @return 缓冲大小
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * 设置缓冲大小
+	 *
+	 * @param bufferSize 缓冲大小，小于等于0时使用{@link #DEFAULT_BUFFER_SIZE}
+	 * @return this
+	 */
+	public StreamCopier setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize <= 0 ? DEFAULT_BUFFER_SIZE : bufferSize;
+		return this;
+	}
+
+	/**
+	 * flush间隔字节数
+	 *
+	 * @return flush间隔字节数
+	 */
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * 设置flush间隔字节数
+	 *
+	 * @param flushInterval flush间隔字节数，0表示只在结束时flush，小于0表示不flush
+	 * @return this
+	 */
+	public StreamCopier setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+		return this;
+	}
+
+	/**
+	 * 进度处理器
+	 *
+	 * @return 进度处理器
+	 */
+	public StreamProgress getStreamProgress() {
+		return streamProgress;
+	}
+
+	/**
+	 * 设置进度处理器，使用默认的通知间隔
+	 *
+	 * @param streamProgress 进度处理器
+	 * @return this
+	 */
+	public StreamCopier setStreamProgress(StreamProgress streamProgress) {
+		this.streamProgress = streamProgress;
+		return this;
+	}
+
+	/**
+	 * 设置进度处理器
+	 *
+	 * @param streamProgress 进度处理器
+	 * @param progressBytes 通知间隔字节数，小于等于0表示每次读取后都通知
+	 * @param progressMillis 通知间隔毫秒数，小于等于0表示不按时间通知
+	 * @return this
+	 */
+	public StreamCopier setStreamProgress(StreamProgress streamProgress, long progressBytes, long progressMillis) {
+		this.streamProgress = streamProgress;
+		this.progressBytes = progressBytes;
+		this.progressMillis = progressMillis;
+		return this;
+	}
+	// -------------------------------------------------------------------------------------------------------- Getters and Setters end
+
+	// -------------------------------------------------------------------------------------------------------- Copy start
+	/**
+	 * 拷贝流，两端都是文件流时转为{@link FileChannel}传输，从输入流的当前位置开始
+	 *
+	 * @param in 输入流
+	 * @param out 输出流
+	 * @return 传输的byte数
+	 * @throws IOException IO异常
+	 */
+	public long copy(InputStream in, OutputStream out) throws IOException {
+		if (null == in) {
+			throw new NullPointerException("InputStream is null!");
+		}
+		if (null == out) {
+			throw new NullPointerException("OutputStream is null!");
+		}
+		// 子类可能重写了读写方法，只对文件流本身使用通道传输
+		if (FileInputStream.class == in.getClass() && FileOutputStream.class == out.getClass()) {
+			return copy(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel());
+		}
+
+		final StreamProgress progress = wrapProgress();
+		final byte[] buffer = BufferPool.borrowBytes(bufferSize);
+		long size = 0;
+		long unflushed = 0;
+		try {
+			if (null != progress) {
+				progress.start();
+			}
+			for (int readSize; (readSize = in.read(buffer, 0, bufferSize)) != IoUtil.EOF;) {
+				out.write(buffer, 0, readSize);
+				size += readSize;
+				if (flushInterval > 0 && (unflushed += readSize) >= flushInterval) {
+					out.flush();
+					unflushed = 0;
+				}
+				if (null != progress) {
+					progress.progress(size);
+				}
+			}
+			if (flushInterval >= 0) {
+				out.flush();
+			}
+			if (null != progress) {
+				progress.finish();
+			}
+		} finally {
+			BufferPool.release(buffer);
+		}
+		return size;
+	}
+
+	/**
+	 * 将Reader中的内容复制到Writer中
+	 *
+	 * @param reader Reader
+	 * @param writer Writer
+	 * @return 传输的char数
+	 * @throws IOException IO异常
+	 */
+	public long copy(Reader reader, Writer writer) throws IOException {
+		if (null == reader) {
+			throw new NullPointerException("Reader is null!");
+		}
+		if (null == writer) {
+			throw new NullPointerException("Writer is null!");
+		}
+
+		final StreamProgress progress = wrapProgress();
+		final char[] buffer = BufferPool.borrowChars(bufferSize);
+		long size = 0;
+		long unflushed = 0;
+		try {
+			if (null != progress) {
+				progress.start();
+			}
+			for (int readSize; (readSize = reader.read(buffer, 0, bufferSize)) != IoUtil.EOF;) {
+				writer.write(buffer, 0, readSize);
+				size += readSize;
+				if (flushInterval > 0 && (unflushed += readSize) >= flushInterval) {
+					writer.flush();
+					unflushed = 0;
+				}
+				if (null != progress) {
+					progress.progress(size);
+				}
+			}
+			if (flushInterval >= 0) {
+				writer.flush();
+			}
+			if (null != progress) {
+				progress.finish();
+			}
+		} finally {
+			BufferPool.release(buffer);
+		}
+		return size;
+	}
+
+	/**
+	 * 拷贝通道<br>
+	 * 输入为{@link FileChannel}时使用transferTo，输出为{@link FileChannel}时使用transferFrom，传输从通道的当前位置开始，结束后更新位置<br>
+	 * 只支持阻塞通道，非阻塞通道读写可能返回0，拷贝会空转，因此直接拒绝
+	 *
+	 * @param in {@link ReadableByteChannel}，必须为阻塞通道
+	 * @param out {@link WritableByteChannel}，必须为阻塞通道
+	 * @return 传输的byte数
+	 * @throws IOException IO异常
+	 * @throws IllegalArgumentException 输入或输出为非阻塞的{@link SelectableChannel}
+	 */
+	public long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		if (null == in) {
+			throw new NullPointerException("In is null!");
+		}
+		if (null == out) {
+			throw new NullPointerException("Out is null!");
+		}
+		checkBlocking(in);
+		checkBlocking(out);
+
+		final StreamProgress progress = wrapProgress();
+		if (null != progress) {
+			progress.start();
+		}
+		long size = 0;
+		if (in instanceof FileChannel) {
+			size = transferTo((FileChannel) in, out, progress);
+		} else if (out instanceof FileChannel) {
+			size = transferFrom(in, (FileChannel) out, progress);
+		}
+
+		// 通道传输提前结束或无法使用通道传输时，使用缓冲拷贝剩余部分
+		final byte[] array = BufferPool.borrowBytes(bufferSize);
+		try {
+			final ByteBuffer buffer = ByteBuffer.wrap(array, 0, bufferSize);
+			while (in.read(buffer) != IoUtil.EOF) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					size += out.write(buffer);
+				}
+				buffer.clear();
+				if (null != progress) {
+					progress.progress(size);
+				}
+			}
+		} finally {
+			BufferPool.release(array);
+		}
+
+		if (null != progress) {
+			progress.finish();
+		}
+		return size;
+	}
+	// -------------------------------------------------------------------------------------------------------- Copy end
+
+	/**
+	 * 检查通道是否为阻塞通道，非阻塞通道在缓冲未读满或写完时返回0，循环读写会空转
+	 *
+	 * @param channel 通道
+	 * @throws IllegalArgumentException 通道为非阻塞的{@link SelectableChannel}
+	 */
+	static void checkBlocking(Channel channel) throws IllegalArgumentException {
+		Assert.isTrue(false == (channel instanceof SelectableChannel && false == ((SelectableChannel) channel).isBlocking()), "Non-blocking channel is not supported: {}", channel);
+	}
+
+	// -------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 包装进度处理器，按设置的间隔限流
+	 *
+	 * @return 限流的进度处理器，未设置时返回null
+	 */
+	private StreamProgress wrapProgress() {
+		return ThrottledStreamProgress.wrap(streamProgress, progressBytes, progressMillis);
+	}
+
+	/**
+	 * 使用transferTo从文件通道的当前位置传输到末尾
+	 *
+	 * @param in 文件通道
+	 * @param out 输出通道
+	 * @param progress 进度处理器
+	 * @return 传输的byte数
+	 * @throws IOException IO异常
+	 */
+	private static long transferTo(FileChannel in, WritableByteChannel out, StreamProgress progress) throws IOException {
+		final long start = in.position();
+		final long end = in.size();
+		long position = start;
+		long transferred;
+		while (position < end) {
+			transferred = in.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, end - position), out);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+			if (null != progress) {
+				progress.progress(position - start);
+			}
+		}
+		in.position(position);
+		return position - start;
+	}
+
+	/**
+	 * 使用transferFrom从输入通道传输到文件通道的当前位置，直到输入结束
+	 *
+	 * @param in 阻塞的输入通道
+	 * @param out 文件通道
+	 * @param progress 进度处理器
+	 * @return 传输的byte数
+	 * @throws IOException IO异常
+	 */
+	private static long transferFrom(ReadableByteChannel in, FileChannel out, StreamProgress progress) throws IOException {
+		final long start = out.position();
+		long position = start;
+		long transferred;
+		do {
+			transferred = out.transferFrom(in, position, TRANSFER_CHUNK_SIZE);
+			position += transferred;
+			if (null != progress && transferred > 0) {
+				progress.progress(position - start);
+			}
+			// 阻塞通道读不满一段说明已到末尾
+		} while (transferred == TRANSFER_CHUNK_SIZE);
+		out.position(position);
+		return position - start;
+	}
+	// -------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -0,0 +1,170 @@
+package com.dewly.io;
+
+/**
+ * 限流的进度处理器<br>
+ * 包装另一个{@link StreamProgress}，距离上次通知的字节数达到minBytes或时间达到minMillis时才通知，结束前总会通知一次最终进度。<br>
+ * 非线程安全，一个实例只用于一次拷贝；多个线程共同汇报进度时使用{@link #aggregate(StreamProgress)}。
+ *
+ * @author Dewly
+ *
+ */
+public class ThrottledStreamProgress implements StreamProgress {
+
+	/** 默认通知间隔字节数：1MB */
+	public static final long DEFAULT_MIN_BYTES = 1024 * 1024;
+	/** 默认通知间隔毫秒数 */
+	public static final long DEFAULT_MIN_MILLIS = 200;
+
+	/** 被包装的进度处理器 */
+	private final StreamProgress progress;
+	/** 通知间隔字节数，小于等于0表示每次都通知 */
+	private final long minBytes;
+	/** 通知间隔纳秒数，小于等于0表示不按时间通知 */
+	private final long minNanos;
+
+	/** 最近一次收到的进度 */
+	private long currentSize;
+	/** 最近一次通知的进度 */
+	private long notifiedSize;
+	/** 最近一次通知的时间 */
+	private long notifiedNanos;
+
+	/**
+	 * 构造，使用默认间隔
+	 *
+	 * @param progress 被包装的进度处理器
+	 */
+	public ThrottledStreamProgress(StreamProgress progress) {
+		this(progress, DEFAULT_MIN_BYTES, DEFAULT_MIN_MILLIS);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param progress 被包装的进度处理器
+	 * @param minBytes 通知间隔字节数，小于等于0表示每次都通知
+	 * @param minMillis 通知间隔毫秒数，小于等于0表示不按时间通知
+	 */
+	public ThrottledStreamProgress(StreamProgress progress, long minBytes, long minMillis) {
+		this.progress = progress;
+		this.minBytes = minBytes;
+		this.minNanos = minMillis * 1000000L;
+	}
+
+	/**
+	 * 包装进度处理器，已经是{@link ThrottledStreamProgress}或为null时原样返回
+	 *
+	 * @param progress 进度处理器
+	 * @param minBytes 通知间隔字节数，小于等于0表示每次都通知
+	 * @param minMillis 通知间隔毫秒数，小于等于0表示不按时间通知
+	 * @return 限流的进度处理器
+	 */
+	public static StreamProgress wrap(StreamProgress progress, long minBytes, long minMillis) {
+		if (null == progress || progress instanceof ThrottledStreamProgress) {
+			return progress;
+		}
+		return new ThrottledStreamProgress(progress, minBytes, minMillis);
+	}
+
+	/**
+	 * 创建多个线程共享的进度汇总，各线程汇报已处理的字节数，汇总后经过限流（默认间隔）通知progress
+	 *
+	 * @param progress 进度处理器，null时返回null
+	 * @return {@link Aggregator}
+	 */
+	public static Aggregator aggregate(StreamProgress progress) {
+		return (null == progress) ? null : new Aggregator(wrap(progress, DEFAULT_MIN_BYTES, DEFAULT_MIN_MILLIS));
+	}
+
+	@Override
+	public void start() {
+		currentSize = 0;
+		notifiedSize = 0;
+		notifiedNanos = System.nanoTime();
+		progress.start();
+	}
+
+	@Override
+	public void progress(long progressSize) {
+		currentSize = progressSize;
+		if (minBytes > 0 && progressSize - notifiedSize < minBytes) {
+			if (minNanos <= 0 || System.nanoTime() - notifiedNanos < minNanos) {
+				return;
+			}
+		}
+		fire(progressSize);
+	}
+
+	@Override
+	public void finish() {
+		if (currentSize != notifiedSize) {
+			fire(currentSize);
+		}
+		progress.finish();
+	}
+
+	/**
+	 * 通知被包装的进度处理器
+	 *
+	 * @param progressSize 进度
+	 */
+	private void fire(long progressSize) {
+		notifiedSize = progressSize;
+		if (minNanos > 0) {
+			notifiedNanos = System.nanoTime();
+		}
+		progress.progress(progressSize);
+	}
+
+	/**
+	 * 多个线程共享的进度汇总，累加各线程汇报的字节数后通知进度处理器<br>
+	 * 所有方法同步，同一时间只有一个线程通知，被包装的处理器无需线程安全
+	 */
+	public static final class Aggregator {
+		private final StreamProgress progress;
+		private long total;
+
+		/**
+		 * 构造
+		 *
+		 * @param progress 进度处理器
+		 */
+		private Aggregator(StreamProgress progress) {
+			this.progress = progress;
+		}
+
+		/**
+		 * 开始
+		 */
+		public synchronized void start() {
+			total = 0;
+			progress.start();
+		}
+
+		/**
+		 * 增加已处理的字节数并通知
+		 *
+		 * @param count 字节数
+		 */
+		public synchronized void add(long count) {
+			total += count;
+			progress.progress(total);
+		}
+
+		/**
+		 * 结束，通知最终进度
+		 */
+		public synchronized void finish() {
+			progress.finish();
+		}
+
+		/**
+		 * 已处理的总字节数
+		 *
+		 * @return 总字节数
+		 */
+		public synchronized long getTotal() {
+			return total;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import com.dewly.io.IORuntimeException;
+import com.dewly.lang.Assert;
+
+/**
+ * 基于{@link AsynchronousFileChannel}的异步文件读取器<br>
+ * 读取方法立即返回{@link CompletableFuture}，不占用调用线程：
+ * <ul>
+ * <li>支持按位置读取，同一读取器可以同时发起多个互不相关的读取</li>
+ * <li>同时进行的读取数受{@link #setMaxInFlight(int)}限制，超过的读取排队等待，不阻塞调用线程</li>
+ * <li>通过{@link #setExecutor(java.util.concurrent.Executor)}指定完成结果的线程，默认在I/O线程中完成</li>
+ * </ul>
+ * 读取失败时结果以原始异常（例如{@link java.io.IOException}）完成。线程安全，使用完毕后需要关闭。
+ *
+ * @author Dewly
+ *
+ */
+public class AsyncFileReader extends AsyncFileSupport<AsyncFileReader> {
+
+	/**
+	 * 创建读取器
+	 *
+	 * @param file 文件
+	 * @return {@link AsyncFileReader}
+	 */
+	public static AsyncFileReader create(File file) {
+		return new AsyncFileReader(file);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件
+	 * @throws IORuntimeException 文件不存在或打开失败
+	 */
+	public AsyncFileReader(File file) throws IORuntimeException {
+		super(file, StandardOpenOption.READ);
+	}
+
+	/**
+	 * 读取整个文件，文件大小在调用时确定
+	 *
+	 * @return 文件内容
+	 */
+	public CompletableFuture<byte[]> readBytes() {
+		final long size;
+		try {
+			size = size();
+		} catch (IORuntimeException e) {
+			return failed((null == e.getCause()) ? e : e.getCause());
+		}
+		if (size > Integer.MAX_VALUE) {
+			return failed(new IORuntimeException("File is too large to read into byte array: " + file));
+		}
+		return read(0, (int) size);
+	}
+
+	/**
+	 * 从指定位置读取指定长度
+	 *
+	 * @param position 文件位置
+	 * @param length 长度
+	 * @return 读取的内容，到达文件末尾时可能短于指定长度
+	 */
+	public CompletableFuture<byte[]> read(long position, int length) {
+		Assert.isTrue(position >= 0 && length >= 0, "Position and length must not be negative");
+		final ByteBuffer buffer = ByteBuffer.allocate(length);
+		return submit(new ReadOperation<byte[]>(buffer, position) {
+			@Override
+			protected byte[] result() {
+				final byte[] array = buffer.array();
+				return (buffer.position() == array.length) ? array : Arrays.copyOf(array, buffer.position());
+			}
+		});
+	}
+
+	/**
+	 * 从指定位置读取到缓冲中，直到缓冲写满或到达文件末尾
+	 *
+	 * @param position 文件位置
+	 * @param dst 目标缓冲，读取期间不能被其它线程访问
+	 * @return 读取的字节数，位置已在文件末尾时为-1
+	 */
+	public CompletableFuture<Integer> read(long position, ByteBuffer dst) {
+		Assert.isTrue(position >= 0, "Position must not be negative");
+		return submit(new ReadOperation<Integer>(dst, position) {
+			@Override
+			protected Integer result() {
+				return (0 == transferred && dst.hasRemaining()) ? -1 : (int) transferred;
+			}
+		});
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 以异常完成的结果
+	 *
+	 * @param <T> 结果类型
+	 * @param e 异常
+	 * @return 结果
+	 */
+	private static <T> CompletableFuture<T> failed(Throwable e) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 读取操作
+	 *
+	 * @param <T> 结果类型
+	 */
+	private abstract class ReadOperation<T> extends Operation<T> {
+		ReadOperation(ByteBuffer buffer, long position) {
+			super(buffer, position);
+		}
+
+		@Override
+		protected void transfer() {
+			channel.read(buffer, position, null, this);
+		}
+	}
+}
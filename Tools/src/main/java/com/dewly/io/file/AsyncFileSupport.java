@@ -0,0 +1,273 @@
+package com.dewly.io.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+
+/**
+ * {@link AsyncFileReader}和{@link AsyncFileWriter}的公共部分：打开{@link AsynchronousFileChannel}，限制同时进行的操作数，在指定的{@link Executor}中完成结果
+ *
+ * @param <S> 子类类型，用于链式调用
+ * @author Dewly
+ *
+ */
+abstract class AsyncFileSupport<S extends AsyncFileSupport<S>> implements Closeable {
+
+	/** 默认最多同时进行的操作数 */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+	protected final File file;
+	protected final AsynchronousFileChannel channel;
+	private volatile Executor executor;
+	private volatile int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+	/** 正在进行的操作数 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/** 等待开始的操作 */
+	private final ConcurrentLinkedQueue<Operation<?>> pending = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件
+	 * @param options 打开选项
+	 * @throws IORuntimeException 打开失败
+	 */
+	AsyncFileSupport(File file, OpenOption... options) throws IORuntimeException {
+		Assert.notNull(file, "File must not be null");
+		this.file = file;
+		try {
+			this.channel = AsynchronousFileChannel.open(file.toPath(), options);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 文件
+	 *
+	 * @return 文件
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * 当前文件大小
+	 *
+	 * @return 文件大小
+	 * @throws IORuntimeException IO异常
+	 */
+	public long size() throws IORuntimeException {
+		try {
+			return channel.size();
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 设置完成结果的{@link Executor}，结果的后续操作在此执行；默认为null，在I/O线程中完成
+	 *
+	 * @param executor 执行器
+	 * @return this
+	 */
+	@SuppressWarnings("unchecked")
+	public S setExecutor(Executor executor) {
+		this.executor = executor;
+		return (S) this;
+	}
+
+	/**
+	 * 设置最多同时进行的操作数（默认64），超过的操作排队等待，不阻塞调用线程
+	 *
+	 * @param maxInFlight 最多同时进行的操作数
+	 * @return this
+	 */
+	@SuppressWarnings("unchecked")
+	public S setMaxInFlight(int maxInFlight) {
+		Assert.isTrue(maxInFlight > 0, "Max in-flight must be greater than 0");
+		this.maxInFlight = maxInFlight;
+		dispatch();
+		return (S) this;
+	}
+
+	/**
+	 * 正在进行的操作数
+	 *
+	 * @return 操作数
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * 关闭通道，正在进行和排队的操作以异常完成
+	 */
+	@Override
+	public void close() {
+		IoUtil.close(channel);
+	}
+
+	/**
+	 * 提交操作，有空闲名额时立即开始
+	 *
+	 * @param <T> 结果类型
+	 * @param operation 操作
+	 * @return 结果
+	 */
+	protected <T> CompletableFuture<T> submit(Operation<T> operation) {
+		pending.offer(operation);
+		dispatch();
+		return operation.future;
+	}
+
+	/**
+	 * 在名额内开始排队的操作
+	 */
+	private void dispatch() {
+		while (true) {
+			final int current = inFlight.get();
+			if (current >= maxInFlight) {
+				return;
+			}
+			if (false == inFlight.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			final Operation<?> operation = pending.poll();
+			if (null == operation) {
+				inFlight.decrementAndGet();
+				// 归还名额期间可能有新的操作排队，它们的dispatch可能因名额已满而返回
+				if (pending.isEmpty()) {
+					return;
+				}
+				continue;
+			}
+			operation.start();
+		}
+	}
+
+	/**
+	 * 异步读写操作，循环直到缓冲写满/读完或到达文件末尾
+	 *
+	 * @param <T> 结果类型
+	 */
+	protected abstract class Operation<T> implements CompletionHandler<Integer, Void> {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		protected final ByteBuffer buffer;
+		protected long position;
+		/** 已传输的字节数 */
+		protected long transferred;
+
+		/**
+		 * 构造
+		 *
+		 * @param buffer 缓冲
+		 * @param position 文件位置
+		 */
+		protected Operation(ByteBuffer buffer, long position) {
+			this.buffer = buffer;
+			this.position = position;
+		}
+
+		/**
+		 * 发起一次读或写
+		 */
+		protected abstract void transfer();
+
+		/**
+		 * 操作结束后的结果
+		 *
+		 * @return 结果
+		 */
+		protected abstract T result();
+
+		/**
+		 * 开始或继续操作
+		 */
+		void start() {
+			try {
+				transfer();
+			} catch (Throwable e) {
+				failed(e, null);
+			}
+		}
+
+		@Override
+		public void completed(Integer count, Void attachment) {
+			if (count > 0) {
+				position += count;
+				transferred += count;
+			}
+			if (count < 0 || false == buffer.hasRemaining()) {
+				final T result;
+				try {
+					result = result();
+				} catch (Throwable e) {
+					failed(e, null);
+					return;
+				}
+				finish(result, null);
+			} else {
+				start();
+			}
+		}
+
+		@Override
+		public void failed(Throwable e, Void attachment) {
+			finish(null, e);
+		}
+
+		/**
+		 * 归还名额并完成结果
+		 *
+		 * @param result 结果
+		 * @param e 异常
+		 */
+		private void finish(final T result, final Throwable e) {
+			inFlight.decrementAndGet();
+			dispatch();
+			final Executor executor = AsyncFileSupport.this.executor;
+			if (null == executor) {
+				complete(result, e);
+				return;
+			}
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						complete(result, e);
+					}
+				});
+			} catch (RejectedExecutionException rejected) {
+				complete(result, e);
+			}
+		}
+
+		/**
+		 * 完成结果
+		 *
+		 * @param result 结果
+		 * @param e 异常，非null时以异常完成
+		 */
+		private void complete(T result, Throwable e) {
+			if (null == e) {
+				future.complete(result);
+			} else {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+}
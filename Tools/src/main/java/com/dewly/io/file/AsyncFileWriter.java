@@ -0,0 +1,134 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dewly.io.FileUtil;
+import com.dewly.io.IORuntimeException;
+import com.dewly.lang.Assert;
+
+/**
+ * 基于{@link AsynchronousFileChannel}的异步文件写入器<br>
+ * 写入方法立即返回{@link CompletableFuture}，不占用调用线程：
+ * <ul>
+ * <li>支持按位置写入；{@link #append(byte[])}在调用时原子地预留文件末尾的区域，多个追加可以同时进行且互不覆盖</li>
+ * <li>同时进行的写入数受{@link #setMaxInFlight(int)}限制，超过的写入排队等待，不阻塞调用线程</li>
+ * <li>通过{@link #setExecutor(java.util.concurrent.Executor)}指定完成结果的线程，默认在I/O线程中完成</li>
+ * </ul>
+ * 写入失败时结果以原始异常（例如{@link IOException}）完成。线程安全，使用完毕后需要关闭。
+ *
+ * @author Dewly
+ *
+ */
+public class AsyncFileWriter extends AsyncFileSupport<AsyncFileWriter> {
+
+	/** 下一次追加的位置 */
+	private final AtomicLong appendPosition;
+
+	/**
+	 * 创建写入器，保留文件已有内容
+	 *
+	 * @param file 文件，不存在时创建
+	 * @return {@link AsyncFileWriter}
+	 */
+	public static AsyncFileWriter create(File file) {
+		return new AsyncFileWriter(file, true);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件，不存在时创建
+	 * @param isAppend 是否保留已有内容，否则清空文件
+	 * @throws IORuntimeException 打开失败
+	 */
+	public AsyncFileWriter(File file, boolean isAppend) throws IORuntimeException {
+		super(FileUtil.touch(file), StandardOpenOption.WRITE, isAppend ? StandardOpenOption.WRITE : StandardOpenOption.TRUNCATE_EXISTING);
+		this.appendPosition = new AtomicLong(size());
+	}
+
+	/**
+	 * 写入数据到指定位置
+	 *
+	 * @param position 文件位置
+	 * @param data 数据
+	 * @return 写入的字节数
+	 */
+	public CompletableFuture<Long> write(long position, byte[] data) {
+		return write(position, data, 0, data.length);
+	}
+
+	/**
+	 * 写入数据到指定位置
+	 *
+	 * @param position 文件位置
+	 * @param data 数据，写入完成前不能修改
+	 * @param off 数据开始位置
+	 * @param len 数据长度
+	 * @return 写入的字节数
+	 */
+	public CompletableFuture<Long> write(long position, byte[] data, int off, int len) {
+		return write(position, ByteBuffer.wrap(data, off, len));
+	}
+
+	/**
+	 * 写入缓冲中剩余的数据到指定位置
+	 *
+	 * @param position 文件位置
+	 * @param src 数据，写入期间不能被其它线程访问
+	 * @return 写入的字节数
+	 */
+	public CompletableFuture<Long> write(long position, ByteBuffer src) {
+		Assert.isTrue(position >= 0, "Position must not be negative");
+		return submit(new Operation<Long>(src, position) {
+			@Override
+			protected void transfer() {
+				channel.write(buffer, position, null, this);
+			}
+
+			@Override
+			protected Long result() {
+				return transferred;
+			}
+		});
+	}
+
+	/**
+	 * 追加数据到文件末尾，区域在调用时预留，多个追加的顺序与调用顺序一致
+	 *
+	 * @param data 数据
+	 * @return 写入的字节数
+	 */
+	public CompletableFuture<Long> append(byte[] data) {
+		return append(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * 追加缓冲中剩余的数据到文件末尾，区域在调用时预留，多个追加的顺序与调用顺序一致
+	 *
+	 * @param src 数据，写入期间不能被其它线程访问
+	 * @return 写入的字节数
+	 */
+	public CompletableFuture<Long> append(ByteBuffer src) {
+		return write(appendPosition.getAndAdd(src.remaining()), src);
+	}
+
+	/**
+	 * 将已完成的写入强制落盘，同步执行
+	 *
+	 * @param metaData 是否同时写入元数据
+	 * @throws IORuntimeException IO异常
+	 */
+	public void force(boolean metaData) throws IORuntimeException {
+		try {
+			channel.force(metaData);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,567 @@
+package com.dewly.io.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dewly.io.BufferUtil;
+import com.dewly.io.FileUtil;
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+
+/**
+ * 批量文件写入器，长期持有文件通道，适用于高频追加记录的场景<br>
+ * <ul>
+ * <li>记录在调用线程中直接编码到复用的直接缓冲块中，不生成中间的byte[]</li>
+ * <li>待写数据达到批量大小（默认64KB）或最早的待写记录超过最大延迟（默认200ms）时，作为一批提交，通过{@link FileChannel}聚集写一次写出所有缓冲块</li>
+ * <li>开启{@link #setForce(boolean)}后每批写出后调用{@link FileChannel#force(boolean)}，保证数据落盘</li>
+ * <li>线程安全：多个线程可以同时写入，单条记录不会被拆开或交错，磁盘写入期间其它线程可以继续写入下一批</li>
+ * </ul>
+ * 后台写入失败时，之后的写入和{@link #flush()}抛出{@link IORuntimeException}。使用完毕后必须调用{@link #close()}。
+ *
+ * @author Dewly
+ *
+ */
+public class BatchFileWriter implements Closeable, Flushable {
+
+	/** 默认批量大小：64KB */
+	public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+	/** 默认最大延迟：200毫秒 */
+	public static final long DEFAULT_MAX_DELAY = 200;
+	/** 缓冲块大小 */
+	private static final int BLOCK_SIZE = 16 * 1024;
+
+	private final File file;
+	private final Charset charset;
+	private final FileChannel channel;
+	private final CharsetEncoder encoder;
+	private byte[] lineSeparator;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private long maxDelay = DEFAULT_MAX_DELAY;
+	private boolean isForce;
+
+	/** 写入记录时持有，保护当前批次 */
+	private final ReentrantLock appendLock = new ReentrantLock();
+	/** 写磁盘时持有，保证批次按提交顺序写出 */
+	private final ReentrantLock writeLock = new ReentrantLock();
+	/** 当前批次的缓冲块，最后一个为正在写入的块 */
+	private ByteBuffer[] blocks = new ByteBuffer[8];
+	private int blockCount;
+	/** 当前批次中已写满的块的字节数 */
+	private long sealedBytes;
+	/** 当前批次第一条记录的写入时间 */
+	private long firstPendingTime;
+	/** 已提交、等待写出的批次 */
+	private final ConcurrentLinkedQueue<ByteBuffer[]> committedBatches = new ConcurrentLinkedQueue<>();
+	/** 写出后回收的缓冲块 */
+	private final ConcurrentLinkedQueue<ByteBuffer> freeBlocks = new ConcurrentLinkedQueue<>();
+	private ScheduledFuture<?> flushTask;
+	private volatile IOException failure;
+	private volatile boolean isClosed;
+
+	/**
+	 * 创建追加模式的写入器，编码使用{@link FileWrapper#DEFAULT_CHARSET}
+	 *
+	 * @param file 文件
+	 * @return {@link BatchFileWriter}
+	 */
+	public static BatchFileWriter create(File file) {
+		return new BatchFileWriter(file, FileWrapper.DEFAULT_CHARSET, true);
+	}
+
+	/**
+	 * 创建追加模式的写入器
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @return {@link BatchFileWriter}
+	 */
+	public static BatchFileWriter create(File file, Charset charset) {
+		return new BatchFileWriter(file, charset, true);
+	}
+
+	/**
+	 * 构造，文件不存在时创建
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @param isAppend 是否追加，否则清空已有内容
+	 * @throws IORuntimeException 打开文件失败
+	 */
+	public BatchFileWriter(File file, Charset charset, boolean isAppend) throws IORuntimeException {
+		Assert.notNull(file, "File to write content is null !");
+		this.file = file;
+		this.charset = charset;
+		this.encoder = charset.newEncoder()//
+				.onMalformedInput(CodingErrorAction.REPLACE)//
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.lineSeparator = System.lineSeparator().getBytes(charset);
+		try {
+			this.channel = FileChannel.open(FileUtil.touch(file).toPath(), StandardOpenOption.WRITE, //
+					isAppend ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * 文件
+	 *
+	 * @return 文件
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * 设置批量大小，待写数据达到此大小时提交
+	 *
+	 * @param batchSize 批量大小
+	 * @return this
+	 */
+	public BatchFileWriter setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * 设置最大延迟，最早的待写记录超过此时间后提交，小于等于0表示只按大小提交和手动{@link #flush()}
+	 *
+	 * @param maxDelay 最大延迟，单位毫秒
+	 * @return this
+	 */
+	public BatchFileWriter setMaxDelay(long maxDelay) {
+		this.maxDelay = maxDelay;
+		scheduleFlush();
+		return this;
+	}
+
+	/**
+	 * 设置每批写出后是否强制落盘
+	 *
+	 * @param isForce 是否强制落盘
+	 * @return this
+	 */
+	public BatchFileWriter setForce(boolean isForce) {
+		this.isForce = isForce;
+		return this;
+	}
+
+	/**
+	 * 设置{@link #writeLine(CharSequence)}使用的换行符，默认为系统换行符
+	 *
+	 * @param lineSeparator 换行符
+	 * @return this
+	 */
+	public BatchFileWriter setLineSeparator(String lineSeparator) {
+		this.lineSeparator = lineSeparator.getBytes(charset);
+		return this;
+	}
+
+	/**
+	 * 写入字符串
+	 *
+	 * @param content 内容
+	 * @return this
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	public BatchFileWriter write(CharSequence content) throws IORuntimeException {
+		return append(content, false);
+	}
+
+	/**
+	 * 写入一行，末尾加换行符
+	 *
+	 * @param line 行
+	 * @return this
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	public BatchFileWriter writeLine(CharSequence line) throws IORuntimeException {
+		return append(line, true);
+	}
+
+	/**
+	 * 写入多行，null元素被忽略，所有行作为一个整体写入，不与其它线程的记录交错
+	 *
+	 * @param <T> 集合元素类型
+	 * @param lines 行
+	 * @return this
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	public <T> BatchFileWriter writeLines(Collection<T> lines) throws IORuntimeException {
+		appendLock.lock();
+		try {
+			checkOpen();
+			for (T line : lines) {
+				if (null != line) {
+					encode(line.toString());
+					put(lineSeparator, 0, lineSeparator.length);
+				}
+			}
+		} finally {
+			commitIfFullAndUnlock();
+		}
+		return this;
+	}
+
+	/**
+	 * 写入数据
+	 *
+	 * @param data 数据
+	 * @param off 数据开始位置
+	 * @param len 数据长度
+	 * @return this
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	public BatchFileWriter write(byte[] data, int off, int len) throws IORuntimeException {
+		appendLock.lock();
+		try {
+			checkOpen();
+			put(data, off, len);
+		} finally {
+			commitIfFullAndUnlock();
+		}
+		return this;
+	}
+
+	/**
+	 * 写入数据
+	 *
+	 * @param data 数据
+	 * @return this
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	public BatchFileWriter write(byte[] data) throws IORuntimeException {
+		return write(data, 0, data.length);
+	}
+
+	/**
+	 * 提交并写出所有待写数据，开启{@link #setForce(boolean)}时强制落盘
+	 *
+	 * @throws IORuntimeException 写入失败
+	 */
+	@Override
+	public void flush() throws IORuntimeException {
+		appendLock.lock();
+		try {
+			commit();
+		} finally {
+			appendLock.unlock();
+		}
+		drain();
+		checkFailure();
+	}
+
+	/**
+	 * 写出所有待写数据并关闭文件，重复调用无效果
+	 *
+	 * @throws IORuntimeException 写入失败
+	 */
+	@Override
+	public void close() throws IORuntimeException {
+		appendLock.lock();
+		try {
+			if (isClosed) {
+				return;
+			}
+			isClosed = true;
+			scheduleFlush();
+			commit();
+		} finally {
+			appendLock.unlock();
+		}
+		try {
+			drain();
+		} finally {
+			writeLock.lock();
+			try {
+				IoUtil.close(channel);
+				ByteBuffer block;
+				while (null != (block = freeBlocks.poll())) {
+					BufferUtil.clean(block);
+				}
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		checkFailure();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 写入字符串，可选加换行符
+	 *
+	 * @param content 内容
+	 * @param isLine 是否加换行符
+	 * @return this
+	 */
+	private BatchFileWriter append(CharSequence content, boolean isLine) {
+		appendLock.lock();
+		try {
+			checkOpen();
+			encode(content);
+			if (isLine) {
+				put(lineSeparator, 0, lineSeparator.length);
+			}
+		} finally {
+			commitIfFullAndUnlock();
+		}
+		return this;
+	}
+
+	/**
+	 * 检查是否已关闭或后台写入失败
+	 *
+	 * @throws IORuntimeException 已关闭或写入失败
+	 */
+	private void checkOpen() throws IORuntimeException {
+		if (isClosed) {
+			throw new IORuntimeException("BatchFileWriter is closed: " + file);
+		}
+		checkFailure();
+	}
+
+	/**
+	 * 检查后台写入是否失败
+	 *
+	 * @throws IORuntimeException 写入失败
+	 */
+	private void checkFailure() throws IORuntimeException {
+		final IOException e = failure;
+		if (null != e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 编码字符串到当前批次，调用时持有appendLock
+	 *
+	 * @param content 内容
+	 */
+	private void encode(CharSequence content) {
+		final CharBuffer in = CharBuffer.wrap(content);
+		encoder.reset();
+		while (encoder.encode(in, currentBlock(), true).isOverflow()) {
+			nextBlock();
+		}
+		while (encoder.flush(currentBlock()).isOverflow()) {
+			nextBlock();
+		}
+	}
+
+	/**
+	 * 复制数据到当前批次，调用时持有appendLock
+	 *
+	 * @param data 数据
+	 * @param off 数据开始位置
+	 * @param len 数据长度
+	 */
+	private void put(byte[] data, int off, int len) {
+		int pos = off;
+		int remaining = len;
+		while (remaining > 0) {
+			ByteBuffer block = currentBlock();
+			if (false == block.hasRemaining()) {
+				block = nextBlock();
+			}
+			final int part = Math.min(remaining, block.remaining());
+			block.put(data, pos, part);
+			pos += part;
+			remaining -= part;
+		}
+	}
+
+	/**
+	 * 当前写入的块，批次为空时借出新块并记录批次开始时间
+	 *
+	 * @return 缓冲块
+	 */
+	private ByteBuffer currentBlock() {
+		if (0 == blockCount) {
+			firstPendingTime = System.currentTimeMillis();
+			return nextBlock();
+		}
+		return blocks[blockCount - 1];
+	}
+
+	/**
+	 * 封存当前块并借出新块
+	 *
+	 * @return 新的缓冲块
+	 */
+	private ByteBuffer nextBlock() {
+		if (blockCount > 0) {
+			sealedBytes += blocks[blockCount - 1].position();
+		}
+		ByteBuffer block = freeBlocks.poll();
+		if (null == block) {
+			block = ByteBuffer.allocateDirect(BLOCK_SIZE);
+		}
+		if (blockCount == blocks.length) {
+			blocks = Arrays.copyOf(blocks, blockCount << 1);
+		}
+		blocks[blockCount++] = block;
+		return block;
+	}
+
+	/**
+	 * 当前批次的字节数
+	 *
+	 * @return 字节数
+	 */
+	private long pendingBytes() {
+		return (0 == blockCount) ? 0 : sealedBytes + blocks[blockCount - 1].position();
+	}
+
+	/**
+	 * 当前批次达到批量大小时提交，然后释放appendLock并写出
+	 */
+	private void commitIfFullAndUnlock() {
+		final boolean isFull = pendingBytes() >= batchSize;
+		if (isFull) {
+			commit();
+		}
+		appendLock.unlock();
+		if (isFull) {
+			drain();
+		}
+	}
+
+	/**
+	 * 提交当前批次到待写队列，调用时持有appendLock
+	 */
+	private void commit() {
+		if (0 == blockCount) {
+			return;
+		}
+		final ByteBuffer[] batch = Arrays.copyOf(blocks, blockCount);
+		for (ByteBuffer block : batch) {
+			block.flip();
+		}
+		committedBatches.offer(batch);
+		Arrays.fill(blocks, 0, blockCount, null);
+		blockCount = 0;
+		sealedBytes = 0;
+	}
+
+	/**
+	 * 按提交顺序写出所有已提交的批次，写出后回收缓冲块
+	 */
+	private void drain() {
+		writeLock.lock();
+		try {
+			ByteBuffer[] batch;
+			boolean isWritten = false;
+			while (null != (batch = committedBatches.poll())) {
+				if (null == failure) {
+					try {
+						writeFully(batch);
+						isWritten = true;
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				for (ByteBuffer block : batch) {
+					block.clear();
+					freeBlocks.offer(block);
+				}
+			}
+			if (isWritten && isForce && null == failure) {
+				channel.force(false);
+			}
+		} catch (IOException e) {
+			failure = e;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 聚集写出一批缓冲块的全部内容
+	 *
+	 * @param batch 缓冲块
+	 * @throws IOException IO异常
+	 */
+	private void writeFully(ByteBuffer[] batch) throws IOException {
+		int first = 0;
+		while (first < batch.length) {
+			channel.write(batch, first, batch.length - first);
+			while (first < batch.length && false == batch[first].hasRemaining()) {
+				first++;
+			}
+		}
+	}
+
+	/**
+	 * 最早的待写记录超过最大延迟时提交并写出，由后台线程调用
+	 */
+	private void flushIfDue() {
+		boolean isDue = false;
+		appendLock.lock();
+		try {
+			if (false == isClosed && blockCount > 0 && System.currentTimeMillis() - firstPendingTime >= maxDelay) {
+				commit();
+				isDue = true;
+			}
+		} finally {
+			appendLock.unlock();
+		}
+		if (isDue) {
+			drain();
+		}
+	}
+
+	/**
+	 * 按最大延迟重新安排后台提交任务
+	 */
+	private synchronized void scheduleFlush() {
+		if (null != flushTask) {
+			flushTask.cancel(false);
+			flushTask = null;
+		}
+		if (maxDelay > 0 && false == isClosed) {
+			final long period = Math.max(1, maxDelay / 2);
+			flushTask = FlushScheduler.INSTANCE.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					flushIfDue();
+				}
+			}, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 所有写入器共享的后台提交线程，守护线程，首次使用时创建
+	 */
+	private static class FlushScheduler {
+		private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "BatchFileWriter-flush");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
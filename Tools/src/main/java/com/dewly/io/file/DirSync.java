@@ -0,0 +1,509 @@
+package com.dewly.io.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+
+/**
+ * 目录增量同步<br>
+ * 同步后在清单文件中记录源目录中每个文件的相对路径、大小、修改时间以及可选的内容校验和，下次同步时：
+ * <ul>
+ * <li>大小和修改时间与清单相同的文件跳过，不读取内容</li>
+ * <li>开启校验和时，大小相同但修改时间变化的文件比较校验和，内容未变只更新清单</li>
+ * <li>新增和变化的文件通过{@link FileCopier}拷贝，可并行</li>
+ * <li>开启删除时，清单中有但源目录中已不存在的文件从目标目录删除，不在清单中的目标文件不会被删除</li>
+ * </ul>
+ * 同步只比较源文件和清单，不检查目标文件的内容，删除清单文件即可强制完整同步。<br>
+ * 清单为紧凑的二进制格式：路径与前一条共享的前缀只记录长度，数值使用变长编码。
+ *
+ * <pre>
+ * DirSync.Result result = DirSync.create(src, dest).setDelete(true).sync();
+ * </pre>
+ *
+ * @author Dewly
+ *
+ */
+public class DirSync {
+
+	/** 默认清单文件名，位于目标目录下 */
+	public static final String DEFAULT_MANIFEST_NAME = ".dirsync";
+
+	/** 清单文件头 */
+	private static final int MAGIC = 0x4453594E;
+	private static final int VERSION = 1;
+	/** 清单标志：记录了校验和 */
+	private static final int FLAG_CHECKSUM = 1;
+
+	private final File src;
+	private final File dest;
+	private File manifest;
+	private boolean isChecksum;
+	private boolean isDelete;
+	private int parallelism = 1;
+
+	/**
+	 * 创建同步器
+	 *
+	 * @param src 源目录
+	 * @param dest 目标目录，不存在时创建
+	 * @return {@link DirSync}
+	 */
+	public static DirSync create(File src, File dest) {
+		return new DirSync(src, dest);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param src 源目录
+	 * @param dest 目标目录，不存在时创建
+	 */
+	public DirSync(File src, File dest) {
+		Assert.notNull(src, "Source directory is null !");
+		Assert.notNull(dest, "Destination directory is null !");
+		this.src = src;
+		this.dest = dest;
+		this.manifest = new File(dest, DEFAULT_MANIFEST_NAME);
+	}
+
+	/**
+	 * 设置清单文件，默认为目标目录下的{@link #DEFAULT_MANIFEST_NAME}
+	 *
+	 * @param manifest 清单文件
+	 * @return this
+	 */
+	public DirSync setManifest(File manifest) {
+		Assert.notNull(manifest, "Manifest file is null !");
+		this.manifest = manifest;
+		return this;
+	}
+
+	/**
+	 * 设置是否记录并比较CRC32校验和<br>
+	 * 开启后新拷贝的文件需要额外读取一次，只被修改了时间的文件不再重复拷贝
+	 *
+	 * @param isChecksum 是否记录校验和
+	 * @return this
+	 */
+	public DirSync setChecksum(boolean isChecksum) {
+		this.isChecksum = isChecksum;
+		return this;
+	}
+
+	/**
+	 * 设置是否删除源目录中已不存在的文件
+	 *
+	 * @param isDelete 是否删除
+	 * @return this
+	 */
+	public DirSync setDelete(boolean isDelete) {
+		this.isDelete = isDelete;
+		return this;
+	}
+
+	/**
+	 * 设置同时拷贝文件的线程数，默认1
+	 *
+	 * @param parallelism 线程数
+	 * @return this
+	 */
+	public DirSync setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 执行同步<br>
+	 * 拷贝失败的文件不写入清单，下次同步时重新拷贝；清单写入后抛出第一个失败的异常
+	 *
+	 * @return 同步结果
+	 * @throws IORuntimeException IO异常
+	 */
+	public Result sync() throws IORuntimeException {
+		if (false == src.isDirectory()) {
+			throw new IORuntimeException("Not a directory: " + src);
+		}
+		if (dest.exists() && false == dest.isDirectory()) {
+			throw new IORuntimeException("Src is a directory but dest is a file!");
+		}
+		dest.mkdirs();
+
+		final Map<String, Entry> oldEntries = readManifest();
+		List<Entry> entries = new ArrayList<>(Math.max(16, oldEntries.size()));
+		final List<Entry> changed = new ArrayList<>();
+		final Result result = new Result();
+		scan(oldEntries, entries, changed, result);
+
+		copy(changed, result);
+		if (isDelete) {
+			for (Entry removed : oldEntries.values()) {
+				if (delete(new File(dest, removed.path))) {
+					result.deletedCount++;
+				}
+			}
+		}
+
+		if (null != result.error) {
+			final List<Entry> copied = new ArrayList<>(entries.size());
+			for (Entry entry : entries) {
+				if (false == entry.isFailed) {
+					copied.add(entry);
+				}
+			}
+			entries = copied;
+		}
+		writeManifest(entries);
+		if (null != result.error) {
+			throw (result.error instanceof IORuntimeException) ? (IORuntimeException) result.error : new IORuntimeException(result.error);
+		}
+		return result;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 遍历源目录，与旧清单比较，旧清单中剩下的为已删除的文件
+	 *
+	 * @param oldEntries 旧清单，遍历到的文件从中移除
+	 * @param entries 新清单
+	 * @param changed 需要拷贝的文件
+	 * @param result 结果
+	 * @throws IORuntimeException IO异常
+	 */
+	private void scan(final Map<String, Entry> oldEntries, final List<Entry> entries, final List<Entry> changed, final Result result) throws IORuntimeException {
+		final Path srcRoot = src.toPath();
+		try {
+			Files.walkFileTree(srcRoot, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					final String path = srcRoot.relativize(file).toString().replace(File.separatorChar, '/');
+					final Entry entry = new Entry(path, attrs.size(), attrs.lastModifiedTime().toMillis());
+					final Entry old = oldEntries.remove(path);
+					entries.add(entry);
+					if (null != old && old.size == entry.size) {
+						if (old.lastModified == entry.lastModified) {
+							if (false == isChecksum || old.hasChecksum) {
+								entry.setChecksum(old);
+							} else {
+								// 旧清单没有校验和，只读取源文件补充
+								entry.checksum = FileCopier.checksum(file.toFile());
+								entry.hasChecksum = true;
+							}
+							result.skippedCount++;
+							return FileVisitResult.CONTINUE;
+						}
+						if (isChecksum && old.hasChecksum) {
+							entry.checksum = FileCopier.checksum(file.toFile());
+							entry.hasChecksum = true;
+							if (entry.checksum == old.checksum) {
+								// 只有修改时间变化
+								result.skippedCount++;
+								return FileVisitResult.CONTINUE;
+							}
+						}
+					}
+					changed.add(entry);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	/**
+	 * 拷贝变化的文件，需要时计算校验和，失败的文件被标记，第一个异常记录在结果中
+	 *
+	 * @param changed 变化的文件
+	 * @param result 结果
+	 */
+	private void copy(List<Entry> changed, Result result) {
+		if (changed.isEmpty()) {
+			return;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, changed.size()));
+		try {
+			final List<Future<?>> futures = new ArrayList<>(changed.size());
+			for (final Entry entry : changed) {
+				futures.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						copy(entry);
+					}
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				final Entry entry = changed.get(i);
+				try {
+					futures.get(i).get();
+					result.copiedCount++;
+					result.copiedBytes += entry.size;
+				} catch (ExecutionException e) {
+					entry.isFailed = true;
+					if (null == result.error) {
+						result.error = e.getCause();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IORuntimeException(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 拷贝单个文件
+	 *
+	 * @param entry 清单项
+	 */
+	private void copy(Entry entry) {
+		final File srcFile = new File(src, entry.path);
+		if (isChecksum && false == entry.hasChecksum) {
+			entry.checksum = FileCopier.checksum(srcFile);
+			entry.hasChecksum = true;
+		}
+		FileCopier.create(srcFile, new File(dest, entry.path)).setOverride(true).copy();
+	}
+
+	/**
+	 * 删除目标文件，并删除因此变空的上级目录（目标目录本身除外）
+	 *
+	 * @param file 目标文件
+	 * @return 是否删除了文件
+	 */
+	private boolean delete(File file) {
+		if (false == file.isFile() || false == file.delete()) {
+			return false;
+		}
+		File parent = file.getParentFile();
+		while (null != parent && false == parent.equals(dest)) {
+			final String[] children = parent.list();
+			if (null == children || children.length > 0 || false == parent.delete()) {
+				break;
+			}
+			parent = parent.getParentFile();
+		}
+		return true;
+	}
+
+	/**
+	 * 读取清单，清单不存在或为空文件时返回空Map
+	 *
+	 * @return 相对路径和清单项
+	 * @throws IORuntimeException 读取失败或格式错误
+	 */
+	private Map<String, Entry> readManifest() throws IORuntimeException {
+		if (false == manifest.isFile() || 0 == manifest.length()) {
+			return new HashMap<>();
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest.toPath()), 64 * 1024));
+			if (MAGIC != in.readInt() || VERSION != in.readUnsignedByte()) {
+				throw new IORuntimeException("Invalid manifest file: " + manifest);
+			}
+			final boolean hasChecksum = (in.readUnsignedByte() & FLAG_CHECKSUM) != 0;
+			final int count = (int) readVarLong(in);
+			final Map<String, Entry> entries = new HashMap<>((int) (count / 0.75f) + 1);
+			byte[] path = new byte[256];
+			for (int i = 0; i < count; i++) {
+				final int shared = (int) readVarLong(in);
+				final int suffix = (int) readVarLong(in);
+				if (shared + suffix > path.length) {
+					final byte[] newPath = new byte[Math.max(path.length * 2, shared + suffix)];
+					System.arraycopy(path, 0, newPath, 0, shared);
+					path = newPath;
+				}
+				in.readFully(path, shared, suffix);
+				final Entry entry = new Entry(new String(path, 0, shared + suffix, StandardCharsets.UTF_8), readVarLong(in), in.readLong());
+				if (hasChecksum) {
+					entry.checksum = in.readInt() & 0xffffffffL;
+					entry.hasChecksum = true;
+				}
+				entries.put(entry.path, entry);
+			}
+			return entries;
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
+
+	/**
+	 * 写入清单，先写临时文件再替换
+	 *
+	 * @param entries 清单项
+	 * @throws IORuntimeException IO异常
+	 */
+	private void writeManifest(List<Entry> entries) throws IORuntimeException {
+		final File parent = manifest.getAbsoluteFile().getParentFile();
+		parent.mkdirs();
+		final File temp = new File(parent, manifest.getName() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath()), 64 * 1024));
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeByte(isChecksum ? FLAG_CHECKSUM : 0);
+			writeVarLong(out, entries.size());
+			byte[] previous = new byte[0];
+			for (Entry entry : entries) {
+				final byte[] path = entry.path.getBytes(StandardCharsets.UTF_8);
+				int shared = 0;
+				final int max = Math.min(previous.length, path.length);
+				while (shared < max && previous[shared] == path[shared]) {
+					shared++;
+				}
+				writeVarLong(out, shared);
+				writeVarLong(out, path.length - shared);
+				out.write(path, shared, path.length - shared);
+				writeVarLong(out, entry.size);
+				out.writeLong(entry.lastModified);
+				if (isChecksum) {
+					out.writeInt((int) entry.checksum);
+				}
+				previous = path;
+			}
+			out.close();
+			out = null;
+			Files.move(temp.toPath(), manifest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} finally {
+			IoUtil.close(out);
+		}
+	}
+
+	/**
+	 * 写入变长编码的非负数，每字节7位，最高位表示后面还有字节
+	 *
+	 * @param out 输出
+	 * @param value 非负数
+	 * @throws IOException IO异常
+	 */
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * 读取变长编码的非负数
+	 *
+	 * @param in 输入
+	 * @return 数值
+	 * @throws IOException IO异常
+	 */
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length number");
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 清单项
+	 */
+	private static class Entry {
+		private final String path;
+		private final long size;
+		private final long lastModified;
+		private long checksum;
+		private boolean hasChecksum;
+		/** 拷贝失败，不写入清单 */
+		private boolean isFailed;
+
+		Entry(String path, long size, long lastModified) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		void setChecksum(Entry other) {
+			this.checksum = other.checksum;
+			this.hasChecksum = other.hasChecksum;
+		}
+	}
+
+	/**
+	 * 同步结果
+	 */
+	public static class Result {
+		private long copiedCount;
+		private long copiedBytes;
+		private long skippedCount;
+		private long deletedCount;
+		private Throwable error;
+
+		/**
+		 * 拷贝的文件数
+		 *
+		 * @return 文件数
+		 */
+		public long getCopiedCount() {
+			return copiedCount;
+		}
+
+		/**
+		 * 拷贝的字节数
+		 *
+		 * @return 字节数
+		 */
+		public long getCopiedBytes() {
+			return copiedBytes;
+		}
+
+		/**
+		 * 未变化而跳过的文件数
+		 *
+		 * @return 文件数
+		 */
+		public long getSkippedCount() {
+			return skippedCount;
+		}
+
+		/**
+		 * 删除的文件数
+		 *
+		 * @return 文件数
+		 */
+		public long getDeletedCount() {
+			return deletedCount;
+		}
+	}
+}
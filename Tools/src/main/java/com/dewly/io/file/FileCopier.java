@@ -2,13 +2,36 @@ package com.dewly.io.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.CopyOption;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
 
 import com.dewly.io.FileUtil;
 import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.io.StreamCopier;
+import com.dewly.io.StreamProgress;
+import com.dewly.io.ThrottledStreamProgress;
 import com.dewly.lang.Assert;
 import com.dewly.lang.copier.SrcToDestCopier;
 import com.dewly.util.StrUtil;
@@ -22,6 +45,8 @@ import com.dewly.util.StrUtil;
  * 3、目录复制到目录
  * 4、目录下的文件和目录复制到另一个目录
  * </pre>
+ * 复制目录时可以通过{@link #setParallelism(int)}并行复制文件，通过{@link #setIncremental(boolean)}跳过未变化的文件，
+ * 通过{@link #setStreamProgress(StreamProgress)}获取所有文件合计的进度。
  * 
  * @author Looly
  * @since 3.0.9
@@ -34,6 +59,20 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 	private boolean isCopyAttributes;
 	/** 当拷贝来源是目录时是否只拷贝目录下的内容 */
 	private boolean isCopyContentIfDir;
+	/** 拷贝目录时同时拷贝文件的线程数，1表示在当前线程中逐个拷贝 */
+	private int parallelism = 1;
+	/** 是否增量拷贝，目标文件未变化时跳过 */
+	private boolean isIncremental;
+	/** 增量拷贝时是否比较校验和，否则比较修改时间 */
+	private boolean isChecksum;
+	/** 进度处理器 */
+	private StreamProgress progress;
+
+	/** 不小于此大小的文件使用{@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}拷贝：1MB */
+	public static final long TRANSFER_THRESHOLD = 1024 * 1024;
+	/** 每次transferTo的最大字节数，每次之后通知进度：8MB */
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 	
 	//-------------------------------------------------------------------------------------------------------- static method start
 	/**
@@ -121,6 +160,75 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 		this.isCopyContentIfDir = isCopyContentIfDir;
 		return this;
 	}
+
+	/**
+	 * 拷贝目录时同时拷贝文件的线程数
+	 * @return 线程数
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 设置拷贝目录时同时拷贝文件的线程数，默认1，即在当前线程中逐个拷贝<br>
+	 * 大于1时遍历目录的同时在独立的线程中拷贝文件，目录结构仍在当前线程中创建
+	 * @param parallelism 线程数
+	 * @return this
+	 */
+	public FileCopier setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 是否增量拷贝
+	 * @return 是否增量拷贝
+	 */
+	public boolean isIncremental() {
+		return isIncremental;
+	}
+
+	/**
+	 * 设置是否增量拷贝<br>
+	 * 增量拷贝时目标文件大小和修改时间（或校验和，见{@link #setChecksum(boolean)}）与源文件相同则跳过，
+	 * 不同则覆盖（不受{@link #setOverride(boolean)}影响），拷贝后目标文件的修改时间设为源文件的修改时间
+	 * @param isIncremental 是否增量拷贝
+	 * @return this
+	 */
+	public FileCopier setIncremental(boolean isIncremental) {
+		this.isIncremental = isIncremental;
+		return this;
+	}
+
+	/**
+	 * 增量拷贝时是否比较校验和
+	 * @return 是否比较校验和
+	 */
+	public boolean isChecksum() {
+		return isChecksum;
+	}
+
+	/**
+	 * 设置增量拷贝时是否比较CRC32校验和而不是修改时间，大小相同的文件需要完整读取两边的内容
+	 * @param isChecksum 是否比较校验和
+	 * @return this
+	 */
+	public FileCopier setChecksum(boolean isChecksum) {
+		this.isChecksum = isChecksum;
+		return this;
+	}
+
+	/**
+	 * 设置进度处理器<br>
+	 * 进度为所有文件已拷贝和增量跳过的字节数之和，并行拷贝时也只在一个线程中同时通知，通知频率由{@link ThrottledStreamProgress}限制
+	 * @param progress 进度处理器，null表示不通知
+	 * @return this
+	 */
+	public FileCopier setStreamProgress(StreamProgress progress) {
+		this.progress = progress;
+		return this;
+	}
 	//-------------------------------------------------------------------------------------------------------- Getters and Setters end
 
 	/**
@@ -151,15 +259,22 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 			throw new IORuntimeException("Files '{}' and '{}' are equal", src, dest);
 		}
 
+		final ThrottledStreamProgress.Aggregator counter = ThrottledStreamProgress.aggregate(progress);
+		if (null != counter) {
+			counter.start();
+		}
 		if (src.isDirectory()) {// 复制目录
 			if(false == dest.isDirectory()) {
 				//源为目录，目标为文件，抛出IO异常
 				throw new IORuntimeException("Src is a directory but dest is a file!");
 			}
 			final File subDest = isCopyContentIfDir ? dest : FileUtil.mkdir(FileUtil.file(dest, src.getName()));
-			internalCopyDirContent(src, subDest);
+			internalCopyDirContent(src, subDest, counter);
 		} else {// 复制文件
-			internalCopyFile(src, dest);
+			internalCopyFile(src, dest, counter);
+		}
+		if (null != counter) {
+			counter.finish();
 		}
 		return dest;
 	}
@@ -167,38 +282,104 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 	//----------------------------------------------------------------------------------------- Private method start
 	/**
 	 * 拷贝目录内容，只用于内部，不做任何安全检查<br>
-	 * 拷贝内容的意思为源目录下的所有文件和目录拷贝到另一个目录下，而不拷贝源目录本身
+	 * 拷贝内容的意思为源目录下的所有文件和目录拷贝到另一个目录下，而不拷贝源目录本身<br>
+	 * 目录在遍历时创建，文件在当前线程或并行的线程中拷贝，任一文件拷贝失败后不再提交新的文件，等待已提交的文件结束后抛出异常
 	 * 
 	 * @param src 源目录
 	 * @param dest 目标目录
+	 * @param counter 进度计数，null表示不通知进度
 	 * @throws IORuntimeException IO异常
 	 */
-	private void internalCopyDirContent(File src, File dest) throws IORuntimeException {
-		if (null != copyFilter && false == copyFilter.accept(src)) {
-			//被过滤的目录跳过
-			return;
-		}
-		
-		if (false == dest.exists()) {
-			//目标为不存在路径，创建为目录
-			dest.mkdirs();
-		} else if (false == dest.isDirectory()) {
-			throw new IORuntimeException(StrUtil.format("Src [{}] is a directory but dest [{}] is a file!", src.getPath(), dest.getPath()));
-		}
-		
-		final String files[] = src.list();
-		File srcFile;
-		File destFile;
-		for (String file : files) {
-			srcFile = new File(src, file);
-			destFile = new File(dest, file);
-			// 递归复制
-			if (srcFile.isDirectory()) {
-				internalCopyDirContent(srcFile, destFile);
-			} else {
-				internalCopyFile(srcFile, destFile);
+	private void internalCopyDirContent(File src, File dest, final ThrottledStreamProgress.Aggregator counter) throws IORuntimeException {
+		final Path srcRoot = src.toPath();
+		final Path destRoot = dest.toPath();
+		final ExecutorService executor = (parallelism > 1) ? Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "FileCopier-" + THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		}) : null;
+		// 限制已提交未完成的文件数，避免遍历大目录时任务堆积
+		final Semaphore permits = new Semaphore(parallelism * 4);
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+
+		try {
+			Files.walkFileTree(srcRoot, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					if (null != error.get()) {
+						return FileVisitResult.TERMINATE;
+					}
+					if (null != copyFilter && false == copyFilter.accept(dir.toFile())) {
+						//被过滤的目录跳过
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					final File destDir = toDest(dir);
+					if (false == destDir.exists()) {
+						//目标为不存在路径，创建为目录
+						destDir.mkdirs();
+					} else if (false == destDir.isDirectory()) {
+						throw new IORuntimeException(StrUtil.format("Src [{}] is a directory but dest [{}] is a file!", dir, destDir.getPath()));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (null != error.get()) {
+						return FileVisitResult.TERMINATE;
+					}
+					final File srcFile = file.toFile();
+					final File destFile = toDest(file);
+					if (null == executor) {
+						internalCopyFile(srcFile, destFile, counter);
+						return FileVisitResult.CONTINUE;
+					}
+
+					permits.acquireUninterruptibly();
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								if (null == error.get()) {
+									internalCopyFile(srcFile, destFile, counter);
+								}
+							} catch (Throwable e) {
+								error.compareAndSet(null, e);
+							} finally {
+								permits.release();
+							}
+						}
+					});
+					return FileVisitResult.CONTINUE;
+				}
+
+				/**
+				 * 源路径对应的目标文件
+				 * 
+				 * @param path 源路径
+				 * @return 目标文件
+				 */
+				private File toDest(Path path) {
+					return destRoot.resolve(srcRoot.relativize(path).toString()).toFile();
+				}
+			});
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} finally {
+			if (null != executor) {
+				awaitTermination(executor);
 			}
 		}
+
+		final Throwable e = error.get();
+		if (e instanceof IORuntimeException) {
+			throw (IORuntimeException) e;
+		} else if (null != e) {
+			throw new IORuntimeException(e);
+		}
 	}
 
 	/**
@@ -211,17 +392,26 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 	 * 
 	 * @param src 源文件，必须为文件
 	 * @param dest 目标文件，如果非覆盖模式必须为目录
+	 * @param counter 进度计数，null表示不通知进度
 	 * @throws IORuntimeException IO异常
 	 */
-	private void internalCopyFile(File src, File dest) throws IORuntimeException {
+	private void internalCopyFile(File src, File dest, ThrottledStreamProgress.Aggregator counter) throws IORuntimeException {
 		if (null != copyFilter && false == copyFilter.accept(src)) {
 			//被过滤的文件跳过
 			return;
 		}
 		
-		// 如果已经存在目标文件，切为不覆盖模式，跳过之
+		final long size = src.length();
+		// 如果已经存在目标文件，切为不覆盖模式，跳过之；增量模式下未变化的跳过，变化的覆盖
 		if (dest.exists()) {
-			if(false == isOverride) {
+			if (isIncremental) {
+				if (isUnchanged(src, dest, size)) {
+					if (null != counter) {
+						counter.add(size);
+					}
+					return;
+				}
+			} else if(false == isOverride) {
 				return;
 			}
 		}else {
@@ -229,18 +419,144 @@ public class FileCopier extends SrcToDestCopier<File, FileCopier>{
 			dest.getParentFile().mkdirs();
 		}
 		
-		final ArrayList<CopyOption> optionList = new ArrayList<>(2);
-		if(isOverride) {
-			optionList.add(StandardCopyOption.REPLACE_EXISTING);
+		try {
+			if (size >= TRANSFER_THRESHOLD) {
+				transferCopy(src, dest, size, counter);
+			} else {
+				final ArrayList<CopyOption> optionList = new ArrayList<>(2);
+				if(isOverride || isIncremental) {
+					optionList.add(StandardCopyOption.REPLACE_EXISTING);
+				}
+				if(isCopyAttributes) {
+					optionList.add(StandardCopyOption.COPY_ATTRIBUTES);
+				}
+				Files.copy(src.toPath(), dest.toPath(), optionList.toArray(new CopyOption[optionList.size()]));
+				if (null != counter) {
+					counter.add(size);
+				}
+			}
+			if (isIncremental && false == isCopyAttributes) {
+				// 下次增量拷贝以修改时间判断是否变化
+				dest.setLastModified(src.lastModified());
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
 		}
-		if(isCopyAttributes) {
-			optionList.add(StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * 使用{@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}分段拷贝大文件，每段之后通知进度
+	 * 
+	 * @param src 源文件
+	 * @param dest 目标文件，存在时覆盖
+	 * @param size 源文件大小
+	 * @param counter 进度计数，null表示不通知进度
+	 * @throws IOException IO异常
+	 */
+	private void transferCopy(File src, File dest, long size, ThrottledStreamProgress.Aggregator counter) throws IOException {
+		FileChannel in = null;
+		FileChannel out = null;
+		try {
+			in = FileChannel.open(src.toPath(), StandardOpenOption.READ);
+			out = FileChannel.open(dest.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+			long position = 0;
+			while (position < size) {
+				final long count = in.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, size - position), out);
+				if (count <= 0) {
+					// 拷贝期间源文件变短
+					break;
+				}
+				position += count;
+				if (null != counter) {
+					counter.add(count);
+				}
+			}
+		} finally {
+			IoUtil.close(in);
+			IoUtil.close(out);
 		}
-		
+		if (isCopyAttributes) {
+			copyAttributes(src.toPath(), dest.toPath());
+		}
+	}
+
+	/**
+	 * 拷贝时间属性和POSIX权限（文件系统支持时），与{@link StandardCopyOption#COPY_ATTRIBUTES}一致
+	 * 
+	 * @param src 源文件
+	 * @param dest 目标文件
+	 * @throws IOException IO异常
+	 */
+	private static void copyAttributes(Path src, Path dest) throws IOException {
+		final PosixFileAttributeView srcPosix = Files.getFileAttributeView(src, PosixFileAttributeView.class);
+		final PosixFileAttributeView destPosix = Files.getFileAttributeView(dest, PosixFileAttributeView.class);
+		if (null != srcPosix && null != destPosix) {
+			destPosix.setPermissions(srcPosix.readAttributes().permissions());
+		}
+		final BasicFileAttributes attrs = Files.readAttributes(src, BasicFileAttributes.class);
+		Files.getFileAttributeView(dest, BasicFileAttributeView.class).setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+	}
+
+	/**
+	 * 增量拷贝时判断目标文件是否与源文件相同：大小相同，且修改时间相同或校验和相同
+	 * 
+	 * @param src 源文件
+	 * @param dest 目标文件
+	 * @param size 源文件大小
+	 * @return 是否相同
+	 * @throws IORuntimeException IO异常
+	 */
+	private boolean isUnchanged(File src, File dest, long size) throws IORuntimeException {
+		if (size != dest.length() || false == dest.isFile()) {
+			return false;
+		}
+		if (isChecksum) {
+			return checksum(src) == checksum(dest);
+		}
+		return src.lastModified() == dest.lastModified();
+	}
+
+	/**
+	 * 计算文件的CRC32
+	 * 
+	 * @param file 文件
+	 * @return CRC32值
+	 * @throws IORuntimeException IO异常
+	 */
+	static long checksum(File file) throws IORuntimeException {
+		final CRC32 crc = new CRC32();
+		final byte[] buffer = new byte[StreamCopier.DEFAULT_BUFFER_SIZE * 8];
+		InputStream in = null;
 		try {
-			Files.copy(src.toPath(), dest.toPath(), optionList.toArray(new CopyOption[optionList.size()]));
+			in = Files.newInputStream(file.toPath());
+			int read;
+			while ((read = in.read(buffer)) != IoUtil.EOF) {
+				crc.update(buffer, 0, read);
+			}
 		} catch (IOException e) {
 			throw new IORuntimeException(e);
+		} finally {
+			IoUtil.close(in);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * 关闭线程池并等待已提交的拷贝结束
+	 * 
+	 * @param executor 线程池
+	 * @throws IORuntimeException 等待时被中断
+	 */
+	private static void awaitTermination(ExecutorService executor) throws IORuntimeException {
+		executor.shutdown();
+		try {
+			while (false == executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				// 继续等待
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new IORuntimeException(e);
 		}
 	}
 	//----------------------------------------------------------------------------------------- Private method end
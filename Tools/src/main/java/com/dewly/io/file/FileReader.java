@@ -5,12 +5,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import com.dewly.io.ByteLineHandler;
 import com.dewly.io.FileUtil;
 import com.dewly.io.IORuntimeException;
 import com.dewly.io.IoUtil;
@@ -188,6 +190,25 @@ public class FileReader extends FileWrapper {
 		}
 	}
 	
+	/**
+	 * 按照行处理文件内容，在复用的字节缓冲中扫描换行符，不为每行创建字符串
+	 * 
+	 * @param lineHandler 字节行处理器
+	 * @return 行数
+	 * @throws IORuntimeException IO异常
+	 */
+	public long readByteLines(ByteLineHandler lineHandler) throws IORuntimeException {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(this.file);
+			return IoUtil.readByteLines(in, charset, lineHandler);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
+	
 	/**
 	 * 从文件中读取每一行数据
 	 * 
@@ -220,6 +241,26 @@ public class FileReader extends FileWrapper {
 		return result;
 	}
 
+	/**
+	 * 获得基于内存映射的读取器，适用于大文件，使用完毕后需要关闭
+	 * 
+	 * @return {@link MappedFileReader}
+	 * @throws IORuntimeException IO异常
+	 */
+	public MappedFileReader getMappedReader() throws IORuntimeException {
+		return new MappedFileReader(this.file, this.charset);
+	}
+
+	/**
+	 * 获得异步读取器，使用完毕后需要关闭
+	 * 
+	 * @return {@link AsyncFileReader}
+	 * @throws IORuntimeException IO异常
+	 */
+	public AsyncFileReader getAsyncReader() throws IORuntimeException {
+		return new AsyncFileReader(this.file);
+	}
+
 	/**
 	 * 获得一个文件读取器
 	 * 
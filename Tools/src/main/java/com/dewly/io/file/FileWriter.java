@@ -292,6 +292,28 @@ public class FileWriter extends FileWrapper{
 		}
 	}
 
+	/**
+	 * 获得一个批量写入器，长期持有文件，按大小或时间批量写出，多线程安全，使用完毕后需要关闭
+	 * 
+	 * @param isAppend 是否追加
+	 * @return {@link BatchFileWriter}
+	 * @throws IORuntimeException IO异常
+	 */
+	public BatchFileWriter getBatchWriter(boolean isAppend) throws IORuntimeException {
+		return new BatchFileWriter(file, charset, isAppend);
+	}
+
+	/**
+	 * 获得异步写入器，使用完毕后需要关闭
+	 * 
+	 * @param isAppend 是否保留已有内容
+	 * @return {@link AsyncFileWriter}
+	 * @throws IORuntimeException IO异常
+	 */
+	public AsyncFileWriter getAsyncWriter(boolean isAppend) throws IORuntimeException {
+		return new AsyncFileWriter(file, isAppend);
+	}
+
 	/**
 	 * 获得一个打印写入对象，可以有print
 	 * 
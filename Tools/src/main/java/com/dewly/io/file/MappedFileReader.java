@@ -0,0 +1,487 @@
+package com.dewly.io.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.dewly.io.BufferUtil;
+import com.dewly.io.ByteLine;
+import com.dewly.io.ByteLineHandler;
+import com.dewly.io.FileUtil;
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.io.LineHandler;
+import com.dewly.lang.Assert;
+
+/**
+ * 基于内存映射的大文件读取器<br>
+ * 按窗口（默认64MB）分段映射文件，不把整个文件读入堆内存：
+ * <ul>
+ * <li>{@link #window(int)}和{@link #slice(long, int)}返回映射内存的只读视图，不复制数据</li>
+ * <li>{@link #lineIterator()}逐个窗口扫描换行符并按需解码，跨越窗口边界的行会被正确拼接，读完的窗口立即解除映射</li>
+ * <li>{@link #close()}时立即解除所有映射，不等待GC</li>
+ * </ul>
+ * 换行符支持\n、\r\n和\r，规则与{@link java.io.BufferedReader#readLine()}一致。
+ * 按字节扫描换行符要求编码中\r和\n为单字节（UTF-8、GBK、ISO-8859-1等），其它编码（例如UTF-16）按行读取时回退为{@link java.io.BufferedReader}。<br>
+ * 注意：关闭后再访问之前得到的窗口或切片会导致JVM崩溃。非线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public class MappedFileReader implements Closeable {
+
+	/** 默认窗口大小：64MB */
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final File file;
+	private final Charset charset;
+	private final int windowSize;
+	private final FileChannel channel;
+	private final long size;
+	/** 编码中\r和\n是否为单字节 */
+	private final boolean isAsciiCompatible;
+	/** 当前映射的缓冲，关闭时统一解除映射 */
+	private final Set<MappedByteBuffer> mappedBuffers = Collections.newSetFromMap(new IdentityHashMap<MappedByteBuffer, Boolean>());
+	/** 已映射的窗口，按下标缓存 */
+	private final MappedByteBuffer[] windows;
+	private boolean isClosed;
+
+	/**
+	 * 创建读取器，编码使用{@link FileWrapper#DEFAULT_CHARSET}
+	 *
+	 * @param file 文件
+	 * @return {@link MappedFileReader}
+	 */
+	public static MappedFileReader create(File file) {
+		return new MappedFileReader(file, FileWrapper.DEFAULT_CHARSET);
+	}
+
+	/**
+	 * 创建读取器
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @return {@link MappedFileReader}
+	 */
+	public static MappedFileReader create(File file, Charset charset) {
+		return new MappedFileReader(file, charset);
+	}
+
+	// ------------------------------------------------------- Constructor start
+	/**
+	 * 构造，使用默认窗口大小
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 */
+	public MappedFileReader(File file, Charset charset) {
+		this(file, charset, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @param windowSize 窗口大小
+	 * @throws IORuntimeException 文件不存在或打开失败
+	 */
+	public MappedFileReader(File file, Charset charset, int windowSize) throws IORuntimeException {
+		Assert.isTrue(windowSize > 0, "Window size must be greater than 0");
+		if (false == FileUtil.isFile(file)) {
+			throw new IORuntimeException("Not a file: " + file);
+		}
+		this.file = file;
+		this.charset = charset;
+		this.windowSize = windowSize;
+		this.isAsciiCompatible = Arrays.equals(new byte[] { '\r', '\n' }, "\r\n".getBytes(charset));
+		try {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			this.size = channel.size();
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		final long windowCount = (size + windowSize - 1) / windowSize;
+		if (windowCount > Integer.MAX_VALUE) {
+			throw new IORuntimeException("Too many windows for file: " + file);
+		}
+		this.windows = new MappedByteBuffer[(int) windowCount];
+	}
+	// ------------------------------------------------------- Constructor end
+
+	/**
+	 * 文件
+	 *
+	 * @return 文件
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * 编码
+	 *
+	 * @return 编码
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * 打开时的文件大小
+	 *
+	 * @return 文件大小
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * 窗口大小
+	 *
+	 * @return 窗口大小
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * 窗口个数
+	 *
+	 * @return 窗口个数
+	 */
+	public int getWindowCount() {
+		return windows.length;
+	}
+
+	/**
+	 * 获取窗口的只读视图，窗口在关闭前保持映射
+	 *
+	 * @param index 窗口下标
+	 * @return 只读视图，position为0，limit为窗口长度
+	 * @throws IORuntimeException 映射失败或已关闭
+	 */
+	public ByteBuffer window(int index) throws IORuntimeException {
+		checkOpen();
+		if (null == windows[index]) {
+			windows[index] = map((long) index * windowSize, windowLength(index));
+		}
+		return windows[index].asReadOnlyBuffer();
+	}
+
+	/**
+	 * 获取指定区域的只读视图，不复制数据<br>
+	 * 区域在一个窗口内时使用窗口的映射，否则单独映射此区域，映射在关闭前保持
+	 *
+	 * @param position 开始位置
+	 * @param length 长度
+	 * @return 只读视图，position为0，limit为length
+	 * @throws IORuntimeException 映射失败或已关闭
+	 */
+	public ByteBuffer slice(long position, int length) throws IORuntimeException {
+		checkOpen();
+		Assert.isTrue(position >= 0 && length >= 0 && position + length <= size, "Region [{}, {}) is out of file size {}", position, position + length, size);
+		final int index = (int) (position / windowSize);
+		final int offset = (int) (position - (long) index * windowSize);
+		if (0 == length) {
+			return ByteBuffer.allocate(0).asReadOnlyBuffer();
+		}
+		if (offset + length <= windowSize) {
+			final ByteBuffer window = window(index);
+			window.position(offset).limit(offset + length);
+			return window.slice();
+		}
+		return map(position, length).asReadOnlyBuffer();
+	}
+
+	/**
+	 * 按行迭代，每次迭代只映射一个窗口，读完的窗口立即解除映射
+	 *
+	 * @return 行迭代器
+	 * @throws IORuntimeException 已关闭
+	 */
+	public Iterator<String> lineIterator() throws IORuntimeException {
+		checkOpen();
+		if (false == isAsciiCompatible) {
+			final List<String> lines = FileReader.create(file, charset).readLines();
+			return lines.iterator();
+		}
+		return new LineIterator();
+	}
+
+	/**
+	 * 按行处理文件内容
+	 *
+	 * @param lineHandler 行处理器
+	 * @throws IORuntimeException IO异常
+	 */
+	public void readLines(LineHandler lineHandler) throws IORuntimeException {
+		final Iterator<String> iter = lineIterator();
+		while (iter.hasNext()) {
+			lineHandler.handle(iter.next());
+		}
+	}
+
+	/**
+	 * 按行处理文件内容，不为每行创建字符串，每行以复用的{@link ByteLine}视图交给处理器
+	 *
+	 * @param lineHandler 字节行处理器
+	 * @return 行数
+	 * @throws IORuntimeException IO异常
+	 */
+	public long readByteLines(ByteLineHandler lineHandler) throws IORuntimeException {
+		checkOpen();
+		if (false == isAsciiCompatible) {
+			return FileReader.create(file, charset).readByteLines(lineHandler);
+		}
+		final LineIterator iter = new LineIterator();
+		final ByteLine line = new ByteLine(charset);
+		long count = 0;
+		while (iter.nextLine()) {
+			lineHandler.handle(line.set(iter.carry, 0, iter.carryLength));
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 读取每一行到集合中
+	 *
+	 * @param <T> 集合类型
+	 * @param collection 集合
+	 * @return 集合
+	 * @throws IORuntimeException IO异常
+	 */
+	public <T extends Collection<String>> T readLines(T collection) throws IORuntimeException {
+		final Iterator<String> iter = lineIterator();
+		while (iter.hasNext()) {
+			collection.add(iter.next());
+		}
+		return collection;
+	}
+
+	/**
+	 * 读取每一行
+	 *
+	 * @return 行列表
+	 * @throws IORuntimeException IO异常
+	 */
+	public List<String> readLines() throws IORuntimeException {
+		return readLines(new ArrayList<String>());
+	}
+
+	/**
+	 * 关闭文件并立即解除所有映射，之后不能再访问之前得到的窗口和切片
+	 */
+	@Override
+	public void close() {
+		if (isClosed) {
+			return;
+		}
+		isClosed = true;
+		for (MappedByteBuffer buffer : mappedBuffers) {
+			BufferUtil.clean(buffer);
+		}
+		mappedBuffers.clear();
+		Arrays.fill(windows, null);
+		IoUtil.close(channel);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 检查是否已关闭
+	 *
+	 * @throws IORuntimeException 已关闭
+	 */
+	private void checkOpen() throws IORuntimeException {
+		if (isClosed) {
+			throw new IORuntimeException("MappedFileReader is closed: " + file);
+		}
+	}
+
+	/**
+	 * 窗口长度
+	 *
+	 * @param index 窗口下标
+	 * @return 长度
+	 */
+	private int windowLength(int index) {
+		return (int) Math.min(windowSize, size - (long) index * windowSize);
+	}
+
+	/**
+	 * 映射区域并记录，关闭时解除
+	 *
+	 * @param position 开始位置
+	 * @param length 长度
+	 * @return 映射的缓冲
+	 * @throws IORuntimeException IO异常
+	 */
+	private MappedByteBuffer map(long position, int length) throws IORuntimeException {
+		final MappedByteBuffer buffer;
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		mappedBuffers.add(buffer);
+		return buffer;
+	}
+
+	/**
+	 * 解除映射
+	 *
+	 * @param buffer 映射的缓冲
+	 */
+	private void unmap(MappedByteBuffer buffer) {
+		if (mappedBuffers.remove(buffer)) {
+			BufferUtil.clean(buffer);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 行迭代器，逐个窗口扫描，跨窗口的行暂存在堆中
+	 *
+	 * @author Dewly
+	 *
+	 */
+	private class LineIterator implements Iterator<String> {
+
+		/** 下一个要映射的窗口 */
+		private int nextWindow;
+		/** 当前窗口，由迭代器独占，读完即解除映射 */
+		private MappedByteBuffer window;
+		/** 当前窗口的读取位置 */
+		private int position;
+		/** 当前行已读取的部分，行跨越窗口时在此拼接 */
+		private byte[] carry = new byte[256];
+		private int carryLength;
+		/** 上一个窗口以\r结尾，下一个窗口开头的\n需要跳过 */
+		private boolean isPendingCr;
+		/** 预读的下一行 */
+		private String next;
+
+		@Override
+		public boolean hasNext() {
+			if (null == next) {
+				next = readLine();
+			}
+			return null != next;
+		}
+
+		@Override
+		public String next() {
+			if (false == hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final String line = next;
+			next = null;
+			return line;
+		}
+
+		/**
+		 * 读取下一行
+		 *
+		 * @return 行，结束返回null
+		 */
+		private String readLine() {
+			return nextLine() ? new String(carry, 0, carryLength, charset) : null;
+		}
+
+		/**
+		 * 读取下一行到暂存区[0, carryLength)
+		 *
+		 * @return 是否读取到行，结束返回false
+		 */
+		private boolean nextLine() {
+			checkOpen();
+			carryLength = 0;
+			while (true) {
+				if (null == window || position >= window.limit()) {
+					if (null != window) {
+						unmap(window);
+						window = null;
+					}
+					if (nextWindow >= windows.length) {
+						return carryLength > 0;
+					}
+					window = map((long) nextWindow * windowSize, windowLength(nextWindow));
+					nextWindow++;
+					position = 0;
+				}
+
+				final int limit = window.limit();
+				if (isPendingCr) {
+					isPendingCr = false;
+					if ('\n' == window.get(position)) {
+						position++;
+						continue;
+					}
+				}
+
+				int i = position;
+				byte b = 0;
+				while (i < limit) {
+					b = window.get(i);
+					if ('\n' == b || '\r' == b) {
+						break;
+					}
+					i++;
+				}
+
+				append(position, i);
+				if (i == limit) {
+					// 本窗口内没有换行符，行跨越到下一个窗口
+					position = limit;
+					continue;
+				}
+
+				position = i + 1;
+				if ('\r' == b) {
+					if (position < limit) {
+						if ('\n' == window.get(position)) {
+							position++;
+						}
+					} else {
+						isPendingCr = true;
+					}
+				}
+				return true;
+			}
+		}
+
+		/**
+		 * 将当前窗口的[from, to)追加到暂存区
+		 *
+		 * @param from 开始位置
+		 * @param to 结束位置
+		 */
+		private void append(int from, int to) {
+			final int length = to - from;
+			if (length == 0) {
+				return;
+			}
+			if (carryLength + length > carry.length) {
+				carry = Arrays.copyOf(carry, Math.max(carry.length << 1, carryLength + length));
+			}
+			window.position(from);
+			window.get(carry, carryLength, length);
+			carryLength += length;
+		}
+	}
+}
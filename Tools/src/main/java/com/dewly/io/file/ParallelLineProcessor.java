@@ -0,0 +1,336 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+import com.dewly.io.ByteLineHandler;
+import com.dewly.io.ByteLineScanner;
+import com.dewly.io.FileUtil;
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+
+/**
+ * 并行按行处理文件<br>
+ * 将文件按字节切分为多个分段（默认8MB），分段边界对齐到行首，每个分段在{@link ForkJoinPool}中由独立的{@link ByteLineHandler}处理：
+ * <ul>
+ * <li>每行只属于它开始位置所在的分段，\r\n不会被拆开，超过分段大小的行由其开始的分段完整处理</li>
+ * <li>每个分段通过{@link FileChannel}按位置读取，分段之间不共享缓冲</li>
+ * <li>处理器由调用方提供的工厂为每个分段单独创建，无需线程安全，结果可按文件顺序合并</li>
+ * </ul>
+ * 按字节切分要求编码中\r和\n为单字节（UTF-8、GBK、ISO-8859-1等），其它编码（例如UTF-16）不切分，整个文件作为一个分段处理。
+ *
+ * <pre>
+ * LineCounter counter = ParallelLineProcessor.create(file).process(LineCounter::new, LineCounter::merge);
+ * </pre>
+ *
+ * @author Dewly
+ *
+ */
+public class ParallelLineProcessor {
+
+	/** 默认分段大小：8MB */
+	public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private final File file;
+	private final Charset charset;
+	private long chunkSize = DEFAULT_CHUNK_SIZE;
+	private ForkJoinPool pool;
+
+	/**
+	 * 创建处理器，编码使用{@link FileWrapper#DEFAULT_CHARSET}
+	 *
+	 * @param file 文件
+	 * @return {@link ParallelLineProcessor}
+	 */
+	public static ParallelLineProcessor create(File file) {
+		return new ParallelLineProcessor(file, FileWrapper.DEFAULT_CHARSET);
+	}
+
+	/**
+	 * 创建处理器
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @return {@link ParallelLineProcessor}
+	 */
+	public static ParallelLineProcessor create(File file, Charset charset) {
+		return new ParallelLineProcessor(file, charset);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param file 文件
+	 * @param charset 编码
+	 * @throws IORuntimeException 文件不存在
+	 */
+	public ParallelLineProcessor(File file, Charset charset) throws IORuntimeException {
+		if (false == FileUtil.isFile(file)) {
+			throw new IORuntimeException("Not a file: " + file);
+		}
+		this.file = file;
+		this.charset = charset;
+	}
+
+	/**
+	 * 设置分段大小，实际分段按行对齐，可能略大或略小
+	 *
+	 * @param chunkSize 分段大小
+	 * @return this
+	 */
+	public ParallelLineProcessor setChunkSize(long chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * 设置执行分段的线程池，默认{@link ForkJoinPool#commonPool()}
+	 *
+	 * @param pool 线程池
+	 * @return this
+	 */
+	public ParallelLineProcessor setPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/**
+	 * 并行处理所有行
+	 *
+	 * @param <H> 处理器类型
+	 * @param handlerSupplier 处理器工厂，每个分段调用一次
+	 * @return 每个分段的处理器，按分段在文件中的顺序排列，空文件返回空列表
+	 * @throws IORuntimeException IO异常
+	 */
+	public <H extends ByteLineHandler> List<H> process(Supplier<H> handlerSupplier) throws IORuntimeException {
+		final List<H> handlers = new ArrayList<>();
+		process(handlerSupplier, new BinaryOperator<List<H>>() {
+			@Override
+			public List<H> apply(List<H> left, List<H> right) {
+				left.addAll(right);
+				return left;
+			}
+		}, handlers);
+		return handlers;
+	}
+
+	/**
+	 * 并行处理所有行，并按文件顺序合并各分段的处理器
+	 *
+	 * @param <H> 处理器类型
+	 * @param handlerSupplier 处理器工厂，每个分段调用一次
+	 * @param combiner 合并两个相邻分段的处理器，第一个参数在前，返回合并结果（可以是任一参数）
+	 * @return 合并后的处理器，空文件返回新创建的处理器
+	 * @throws IORuntimeException IO异常
+	 */
+	public <H extends ByteLineHandler> H process(Supplier<H> handlerSupplier, BinaryOperator<H> combiner) throws IORuntimeException {
+		final List<H> handlers = process(handlerSupplier);
+		if (handlers.isEmpty()) {
+			return handlerSupplier.get();
+		}
+		H result = handlers.get(0);
+		for (int i = 1; i < handlers.size(); i++) {
+			result = combiner.apply(result, handlers.get(i));
+		}
+		return result;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 打开文件并执行分段任务，结果追加到列表
+	 *
+	 * @param <H> 处理器类型
+	 * @param handlerSupplier 处理器工厂
+	 * @param listCombiner 合并两个分段范围的结果
+	 * @param result 结果列表
+	 * @throws IORuntimeException IO异常
+	 */
+	private <H extends ByteLineHandler> void process(Supplier<H> handlerSupplier, BinaryOperator<List<H>> listCombiner, List<H> result) throws IORuntimeException {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			final long size = channel.size();
+			if (0 == size) {
+				return;
+			}
+			final boolean isSplittable = Arrays.equals(new byte[] { '\r', '\n' }, "\r\n".getBytes(charset));
+			final long realChunkSize = isSplittable ? chunkSize : size;
+			final long chunkCount = (size + realChunkSize - 1) / realChunkSize;
+			Assert.isTrue(chunkCount <= Integer.MAX_VALUE, "Too many chunks: {}", chunkCount);
+
+			final ChunkTask<H> task = new ChunkTask<>(new ChunkContext<>(channel, size, realChunkSize, handlerSupplier, listCombiner), 0, (int) chunkCount);
+			final ForkJoinPool pool = (null == this.pool) ? ForkJoinPool.commonPool() : this.pool;
+			result.addAll(pool.invoke(task));
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		} finally {
+			IoUtil.close(channel);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 分段任务共享的上下文
+	 *
+	 * @param <H> 处理器类型
+	 */
+	private class ChunkContext<H extends ByteLineHandler> {
+		private final FileChannel channel;
+		private final long size;
+		private final long chunkSize;
+		private final Supplier<H> handlerSupplier;
+		private final BinaryOperator<List<H>> combiner;
+
+		ChunkContext(FileChannel channel, long size, long chunkSize, Supplier<H> handlerSupplier, BinaryOperator<List<H>> combiner) {
+			this.channel = channel;
+			this.size = size;
+			this.chunkSize = chunkSize;
+			this.handlerSupplier = handlerSupplier;
+			this.combiner = combiner;
+		}
+
+		/**
+		 * 处理一个分段
+		 *
+		 * @param index 分段下标
+		 * @return 处理器
+		 * @throws IOException IO异常
+		 */
+		H processChunk(int index) throws IOException {
+			final long start = lineStart(index * chunkSize);
+			final long end = Math.max(start, lineStart((index + 1) * chunkSize));
+			final H handler = handlerSupplier.get();
+			if (end > start) {
+				ByteLineScanner.create(new RangeInputStream(channel, start, end), charset).scan(handler);
+			}
+			return handler;
+		}
+
+		/**
+		 * 不小于指定位置的第一个行首，\r\n中间不是行首
+		 *
+		 * @param position 位置
+		 * @return 行首位置，之后没有行时返回文件大小
+		 * @throws IOException IO异常
+		 */
+		private long lineStart(long position) throws IOException {
+			if (position <= 0) {
+				return 0;
+			}
+			if (position >= size) {
+				return size;
+			}
+			final ByteBuffer buffer = ByteBuffer.allocate(4096);
+			// 从前一个字节开始读，判断position是否紧跟在换行符之后
+			long bufferStart = position - 1;
+			boolean isAfterCr = false;
+			while (bufferStart < size) {
+				buffer.clear();
+				final int read = channel.read(buffer, bufferStart);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					final long current = bufferStart + i;
+					final byte b = buffer.get(i);
+					if (isAfterCr) {
+						return ('\n' == b) ? current + 1 : current;
+					}
+					if ('\n' == b) {
+						return current + 1;
+					}
+					if ('\r' == b) {
+						isAfterCr = true;
+					}
+				}
+				bufferStart += read;
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * 分段任务，按分段下标范围二分，结果按文件顺序合并
+	 *
+	 * @param <H> 处理器类型
+	 */
+	private static class ChunkTask<H extends ByteLineHandler> extends RecursiveTask<List<H>> {
+		private static final long serialVersionUID = 1L;
+
+		private final ChunkContext<H> context;
+		private final int from;
+		private final int to;
+
+		ChunkTask(ChunkContext<H> context, int from, int to) {
+			this.context = context;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<H> compute() {
+			if (to - from == 1) {
+				final List<H> result = new ArrayList<>(1);
+				try {
+					result.add(context.processChunk(from));
+				} catch (IOException e) {
+					throw new IORuntimeException(e);
+				}
+				return result;
+			}
+			final int middle = (from + to) >>> 1;
+			final ChunkTask<H> left = new ChunkTask<>(context, from, middle);
+			left.fork();
+			final List<H> right = new ChunkTask<>(context, middle, to).compute();
+			return context.combiner.apply(left.join(), right);
+		}
+	}
+
+	/**
+	 * 按位置读取{@link FileChannel}中[start, end)的输入流，不改变通道的位置，多个流可并发读取同一通道
+	 */
+	private static class RangeInputStream extends InputStream {
+		private final FileChannel channel;
+		private final long end;
+		private long position;
+
+		RangeInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return (IoUtil.EOF == read(b, 0, 1)) ? IoUtil.EOF : (b[0] & 0xff);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return IoUtil.EOF;
+			}
+			final int length = (int) Math.min(len, end - position);
+			final int read = channel.read(ByteBuffer.wrap(b, off, length), position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.dewly.io.watch;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.Map;
+
+/**
+ * 批量变化观察者，配合{@link DelayWatcher}使用，一批事件合并后只回调一次
+ * 
+ * @author Dewly
+ *
+ */
+public interface ChangesWatcher {
+
+	/**
+	 * 一批变化合并后执行的方法
+	 * 
+	 * @param changes 变化的路径（相对于监听路径）和合并后的事件类型，类型为{@link WatchMonitor#ENTRY_CREATE}、{@link WatchMonitor#ENTRY_MODIFY}或{@link WatchMonitor#ENTRY_DELETE}，按首次变化的顺序排列
+	 */
+	public void onChanges(Map<Path, WatchEvent.Kind<?>> changes);
+}
@@ -0,0 +1,476 @@
+package com.dewly.io.watch;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.dewly.lang.Assert;
+import com.dewly.lang.Console;
+
+/**
+ * 延迟合并事件的观察者<br>
+ * 包装{@link ChangesWatcher}，作为{@link Watcher}设置到{@link WatchMonitor}或{@link WatchRegistry}，
+ * 事件按路径合并，直到连续delay毫秒没有新事件才一次性回调{@link ChangesWatcher#onChanges(Map)}：
+ * <ul>
+ * <li>创建后修改合并为创建，多次修改合并为一次修改</li>
+ * <li>创建后删除的路径不回调</li>
+ * <li>删除后重新创建（例如编辑器的替换保存）合并为修改</li>
+ * <li>{@link WatchMonitor#OVERFLOW}时事件已丢失，重新扫描监听路径，与上次的快照比较得到变化</li>
+ * </ul>
+ * 为了在事件丢失时比较，创建时扫描一次监听路径并保存每个文件的大小和修改时间，之后只按变化的路径更新。<br>
+ * 回调默认在共享的守护线程中执行，耗时的处理可通过{@link #setExecutor(Executor)}指定线程池，同一实例的回调不会并发执行，且按产生的顺序依次回调。<br>
+ * 无法读取状态（如无权限）的路径仍作为变化回调，快照中保留其之前的状态。
+ * 
+ * <pre>
+ * WatchMonitor.createAll(dir, new DelayWatcher(changesWatcher, dir, false, 500)).start();
+ * </pre>
+ * 
+ * @author Dewly
+ *
+ */
+public class DelayWatcher implements Watcher {
+
+	/** 默认的静默时间：500毫秒 */
+	public static final long DEFAULT_DELAY = 500;
+
+	/** 被包装的观察者 */
+	private final ChangesWatcher watcher;
+	/** 监听的目录或文件，事件丢失时重新扫描 */
+	private final Path path;
+	/** 是否递归扫描子目录 */
+	private final boolean isRecursive;
+	/** 静默时间，纳秒 */
+	private final long delayNanos;
+	/** 执行回调的线程池，null表示在定时线程中执行 */
+	private volatile Executor executor;
+
+	/** 尚未回调的变化 */
+	private LinkedHashMap<Path, WatchEvent.Kind<?>> pending = new LinkedHashMap<>();
+	/** 是否有事件丢失 */
+	private boolean isOverflow;
+	/** 最近一次事件的时间 */
+	private long lastEventNanos;
+	/** 是否已安排回调 */
+	private boolean isScheduled;
+
+	/** 等待回调的批次，只由一个回调任务按顺序取出，保证回调和快照更新依次进行 */
+	private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+	/** 是否已有回调任务在执行，受{@link #batches}锁保护 */
+	private boolean isDelivering;
+	/** 快照：相对路径和文件状态，只在回调任务中访问 */
+	private Map<Path, FileState> snapshot;
+
+	/**
+	 * 构造，非递归，静默时间{@link #DEFAULT_DELAY}
+	 * 
+	 * @param watcher 被包装的观察者
+	 * @param path 监听的目录或文件
+	 */
+	public DelayWatcher(ChangesWatcher watcher, Path path) {
+		this(watcher, path, false, DEFAULT_DELAY);
+	}
+
+	/**
+	 * 构造
+	 * 
+	 * @param watcher 被包装的观察者
+	 * @param path 监听的目录或文件，与{@link WatchMonitor}或{@link WatchRegistry}中注册的路径一致
+	 * @param isRecursive 是否为递归监听，决定事件丢失时是否扫描子目录
+	 * @param delay 静默时间，毫秒
+	 */
+	public DelayWatcher(ChangesWatcher watcher, Path path, boolean isRecursive, long delay) {
+		Assert.notNull(watcher, "Watcher must not be null");
+		Assert.notNull(path, "Path must not be null");
+		Assert.isTrue(delay > 0, "Delay must be greater than 0");
+		this.watcher = watcher;
+		this.path = path;
+		this.isRecursive = isRecursive;
+		this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+		this.snapshot = scan();
+	}
+
+	/**
+	 * 设置执行回调的线程池
+	 * 
+	 * @param executor 线程池，null表示在共享的定时线程中执行
+	 * @return this
+	 */
+	public DelayWatcher setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	@Override
+	public void onCreate(WatchEvent<?> event) {
+		onEvent((Path) event.context(), StandardWatchEventKinds.ENTRY_CREATE);
+	}
+
+	@Override
+	public void onModify(WatchEvent<?> event) {
+		onEvent((Path) event.context(), StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	@Override
+	public void onDelete(WatchEvent<?> event) {
+		onEvent((Path) event.context(), StandardWatchEventKinds.ENTRY_DELETE);
+	}
+
+	@Override
+	public void onOverflow(WatchEvent<?> event) {
+		onEvent(null, StandardWatchEventKinds.OVERFLOW);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 合并事件并安排回调
+	 * 
+	 * @param context 相对路径，事件丢失时为null
+	 * @param kind 事件类型
+	 */
+	private synchronized void onEvent(Path context, WatchEvent.Kind<?> kind) {
+		if (StandardWatchEventKinds.OVERFLOW == kind) {
+			isOverflow = true;
+		} else {
+			final WatchEvent.Kind<?> merged = merge(pending.get(context), kind);
+			if (null == merged) {
+				pending.remove(context);
+			} else {
+				pending.put(context, merged);
+			}
+		}
+		lastEventNanos = System.nanoTime();
+		if (false == isScheduled) {
+			isScheduled = true;
+			schedule(delayNanos);
+		}
+	}
+
+	/**
+	 * 安排检查是否已静默
+	 * 
+	 * @param delayNanos 延迟，纳秒
+	 */
+	private void schedule(long delayNanos) {
+		DelayScheduler.INSTANCE.schedule(new Runnable() {
+			@Override
+			public void run() {
+				flushIfQuiet();
+			}
+		}, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 静默时间已到则取出变化加入回调队列，否则安排下一次检查
+	 */
+	private void flushIfQuiet() {
+		final boolean isStart;
+		synchronized (this) {
+			final long remain = delayNanos - (System.nanoTime() - lastEventNanos);
+			if (remain > 0) {
+				schedule(remain);
+				return;
+			}
+			isScheduled = false;
+			final Batch batch = new Batch(pending, isOverflow);
+			pending = new LinkedHashMap<>();
+			isOverflow = false;
+			synchronized (batches) {
+				batches.add(batch);
+				isStart = false == isDelivering;
+				isDelivering = true;
+			}
+		}
+		if (false == isStart) {
+			// 正在执行的回调任务会取出此批次
+			return;
+		}
+
+		final Executor executor = this.executor;
+		final Runnable deliverAll = new Runnable() {
+			@Override
+			public void run() {
+				deliverAll();
+			}
+		};
+		if (null == executor) {
+			deliverAll.run();
+		} else {
+			try {
+				executor.execute(deliverAll);
+			} catch (RuntimeException e) {
+				// 线程池拒绝时在定时线程中回调，避免批次一直滞留
+				Console.error(e, "Executor of DelayWatcher [{}] rejected, deliver in scheduler thread", path);
+				deliverAll.run();
+			}
+		}
+	}
+
+	/**
+	 * 按顺序回调队列中的所有批次，队列为空时结束
+	 */
+	private void deliverAll() {
+		while (true) {
+			final Batch batch;
+			synchronized (batches) {
+				batch = batches.poll();
+				if (null == batch) {
+					isDelivering = false;
+					return;
+				}
+			}
+			deliver(batch.changes, batch.isOverflow);
+		}
+	}
+
+	/**
+	 * 更新快照并回调
+	 * 
+	 * @param changes 合并后的变化
+	 * @param isOverflow 是否有事件丢失
+	 */
+	private void deliver(Map<Path, WatchEvent.Kind<?>> changes, boolean isOverflow) {
+		try {
+			if (isOverflow) {
+				changes = rescan(changes);
+			} else {
+				update(changes);
+			}
+			if (false == changes.isEmpty()) {
+				watcher.onChanges(Collections.unmodifiableMap(changes));
+			}
+		} catch (Throwable e) {
+			Console.error(e, "Watcher of [{}] error on changes {}", path, changes);
+		}
+	}
+
+	/**
+	 * 按变化的路径更新快照，无法读取状态的路径保留之前的状态，变化仍然回调
+	 * 
+	 * @param changes 变化
+	 */
+	private void update(Map<Path, WatchEvent.Kind<?>> changes) {
+		final Path base = base();
+		for (Path context : changes.keySet()) {
+			final FileState state;
+			try {
+				state = FileState.of(base.resolve(context));
+			} catch (IOException e) {
+				Console.error(e, "Watcher of [{}] can not read state of [{}]", path, context);
+				continue;
+			}
+			if (null == state) {
+				final FileState old = snapshot.remove(context);
+				if (null != old && old.isDirectory && isRecursive) {
+					// 目录删除时其下的路径不一定都有事件
+					final Iterator<Path> iterator = snapshot.keySet().iterator();
+					while (iterator.hasNext()) {
+						if (iterator.next().startsWith(context)) {
+							iterator.remove();
+						}
+					}
+				}
+			} else {
+				snapshot.put(context, state);
+			}
+		}
+	}
+
+	/**
+	 * 事件丢失后重新扫描，与快照比较得到变化<br>
+	 * 大小和修改时间都未变但收到过修改事件的文件仍作为修改
+	 * 
+	 * @param changes 丢失前后收到的变化
+	 * @return 实际的变化
+	 */
+	private Map<Path, WatchEvent.Kind<?>> rescan(Map<Path, WatchEvent.Kind<?>> changes) {
+		final Map<Path, FileState> current = scan();
+		final LinkedHashMap<Path, WatchEvent.Kind<?>> result = new LinkedHashMap<>();
+		for (Map.Entry<Path, FileState> entry : current.entrySet()) {
+			final FileState old = snapshot.get(entry.getKey());
+			if (null == old) {
+				result.put(entry.getKey(), StandardWatchEventKinds.ENTRY_CREATE);
+			} else if (false == entry.getValue().isDirectory && false == old.equals(entry.getValue())) {
+				result.put(entry.getKey(), StandardWatchEventKinds.ENTRY_MODIFY);
+			}
+		}
+		for (Path context : snapshot.keySet()) {
+			if (false == current.containsKey(context)) {
+				result.put(context, StandardWatchEventKinds.ENTRY_DELETE);
+			}
+		}
+		for (Map.Entry<Path, WatchEvent.Kind<?>> entry : changes.entrySet()) {
+			if (false == result.containsKey(entry.getKey()) && current.containsKey(entry.getKey())) {
+				result.put(entry.getKey(), StandardWatchEventKinds.ENTRY_MODIFY);
+			}
+		}
+		snapshot = current;
+		return result;
+	}
+
+	/**
+	 * 扫描监听路径，路径为文件时只包含此文件
+	 * 
+	 * @return 相对路径和文件状态
+	 */
+	private Map<Path, FileState> scan() {
+		final Map<Path, FileState> result = new HashMap<>();
+		if (Files.isRegularFile(path)) {
+			FileState state;
+			try {
+				state = FileState.of(path);
+			} catch (IOException e) {
+				// 状态未知时沿用之前的状态，不作为删除
+				Console.error(e, "Watcher of [{}] can not read state", path);
+				state = (null == snapshot) ? null : snapshot.get(path.getFileName());
+			}
+			if (null != state) {
+				result.put(path.getFileName(), state);
+			}
+			return result;
+		}
+		try {
+			Files.walkFileTree(path, Collections.<FileVisitOption>emptySet(), isRecursive ? Integer.MAX_VALUE : 1, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					if (false == path.equals(dir)) {
+						result.put(path.relativize(dir), new FileState(attrs));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					result.put(path.relativize(file), new FileState(attrs));
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new WatchException(e);
+		}
+		return result;
+	}
+
+	/**
+	 * 事件上下文的基准目录：监听目录，监听文件时为其所在目录
+	 * 
+	 * @return 基准目录
+	 */
+	private Path base() {
+		return Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+	}
+
+	/**
+	 * 合并同一路径的两个事件
+	 * 
+	 * @param previous 之前合并的事件，null表示没有
+	 * @param current 新的事件
+	 * @return 合并后的事件，null表示抵消
+	 */
+	private static WatchEvent.Kind<?> merge(WatchEvent.Kind<?> previous, WatchEvent.Kind<?> current) {
+		if (null == previous) {
+			return current;
+		}
+		if (StandardWatchEventKinds.ENTRY_CREATE == previous) {
+			// 创建后删除抵消，创建后修改仍为创建
+			return (StandardWatchEventKinds.ENTRY_DELETE == current) ? null : previous;
+		}
+		// 修改或删除之后：删除为删除，其它（包括删除后重新创建）为修改
+		return (StandardWatchEventKinds.ENTRY_DELETE == current) ? current : StandardWatchEventKinds.ENTRY_MODIFY;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 快照中的文件状态
+	 */
+	private static class FileState {
+		private final long size;
+		private final long lastModified;
+		private final boolean isDirectory;
+
+		FileState(BasicFileAttributes attrs) {
+			this.size = attrs.size();
+			this.lastModified = attrs.lastModifiedTime().toMillis();
+			this.isDirectory = attrs.isDirectory();
+		}
+
+		/**
+		 * 读取文件状态
+		 * 
+		 * @param file 文件
+		 * @return 状态，不存在时返回null
+		 * @throws IOException 无法读取状态
+		 */
+		static FileState of(Path file) throws IOException {
+			try {
+				return new FileState(Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+			} catch (NoSuchFileException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (false == (obj instanceof FileState)) {
+				return false;
+			}
+			final FileState other = (FileState) obj;
+			return size == other.size && lastModified == other.lastModified && isDirectory == other.isDirectory;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (size ^ lastModified);
+		}
+	}
+
+	/**
+	 * 取出等待回调的一批变化
+	 */
+	private static class Batch {
+		private final Map<Path, WatchEvent.Kind<?>> changes;
+		private final boolean isOverflow;
+
+		Batch(Map<Path, WatchEvent.Kind<?>> changes, boolean isOverflow) {
+			this.changes = changes;
+			this.isOverflow = isOverflow;
+		}
+	}
+
+	/**
+	 * 所有实例共享的定时线程，守护线程，首次使用时创建
+	 */
+	private static class DelayScheduler {
+		private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "DelayWatcher-flush");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
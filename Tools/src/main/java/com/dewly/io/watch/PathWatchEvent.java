@@ -0,0 +1,51 @@
+package com.dewly.io.watch;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+
+/**
+ * 上下文为相对路径的事件<br>
+ * {@link java.nio.file.WatchService}产生的事件上下文只有文件名，递归监听时替换为相对于监听根目录的路径
+ * 
+ * @author Dewly
+ *
+ */
+class PathWatchEvent implements WatchEvent<Path> {
+
+	private final WatchEvent.Kind<Path> kind;
+	private final Path context;
+	private final int count;
+
+	/**
+	 * 构造
+	 * 
+	 * @param kind 事件类型
+	 * @param context 相对路径
+	 * @param count 重复次数
+	 */
+	PathWatchEvent(WatchEvent.Kind<Path> kind, Path context, int count) {
+		this.kind = kind;
+		this.context = context;
+		this.count = count;
+	}
+
+	@Override
+	public WatchEvent.Kind<Path> kind() {
+		return kind;
+	}
+
+	@Override
+	public int count() {
+		return count;
+	}
+
+	@Override
+	public Path context() {
+		return context;
+	}
+
+	@Override
+	public String toString() {
+		return kind.name() + ": " + context;
+	}
+}
@@ -0,0 +1,512 @@
+package com.dewly.io.watch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+import com.dewly.lang.Console;
+
+/**
+ * 轮询方式的路径监听器<br>
+ * 不依赖系统的{@link java.nio.file.WatchService}，定期扫描路径并与上次的快照比较，适用于网络文件系统、overlay文件系统等系统事件不可靠的场景：
+ * <ul>
+ * <li>快照只保存相对路径字符串、路径哈希、大小和修改时间，按哈希排序存放在数组中，两次快照一次线性归并即可得到变化，每个条目占用三个long和一个路径字符串</li>
+ * <li>递归扫描时每个目录作为一个任务在{@link ForkJoinPool}中并行执行</li>
+ * <li>无法读取的文件或目录（如无权限）只输出错误，其下的条目沿用上次快照，不产生删除事件，也不中断轮询</li>
+ * <li>轮询间隔自适应：有变化时恢复为最小间隔，没有变化时逐次加倍直到最大间隔</li>
+ * </ul>
+ * 事件通过{@link Watcher}回调，上下文为相对于监听目录的路径（监听文件时为文件名）；目录只产生创建和删除事件。
+ * 
+ * @author Dewly
+ *
+ */
+public class PollingWatchMonitor extends Thread implements Closeable {
+
+	/** 默认最小轮询间隔：500毫秒 */
+	public static final long DEFAULT_MIN_INTERVAL = 500;
+	/** 默认最大轮询间隔：8秒 */
+	public static final long DEFAULT_MAX_INTERVAL = 8000;
+
+	/** 监听路径 */
+	private final Path path;
+	/** 是否递归监听子目录 */
+	private final boolean isRecursive;
+	/** 监听器 */
+	private Watcher watcher;
+	private long minInterval = DEFAULT_MIN_INTERVAL;
+	private long maxInterval = DEFAULT_MAX_INTERVAL;
+	/** 扫描目录的线程池 */
+	private ForkJoinPool pool;
+
+	/** 上次扫描的快照 */
+	private Snapshot snapshot;
+	/** 等待下次轮询和关闭通知用的锁 */
+	private final Object lock = new Object();
+	/** 监听是否已经关闭 */
+	private volatile boolean isClosed;
+
+	/**
+	 * 创建并初始化监听
+	 * 
+	 * @param path 目录或文件
+	 * @param isRecursive 是否递归监听子目录
+	 * @param watcher {@link Watcher}
+	 * @return {@link PollingWatchMonitor}
+	 */
+	public static PollingWatchMonitor create(Path path, boolean isRecursive, Watcher watcher) {
+		return new PollingWatchMonitor(path, isRecursive).setWatcher(watcher);
+	}
+
+	/**
+	 * 创建并初始化监听，不递归
+	 * 
+	 * @param path 目录或文件
+	 * @param watcher {@link Watcher}
+	 * @return {@link PollingWatchMonitor}
+	 */
+	public static PollingWatchMonitor create(String path, Watcher watcher) {
+		return create(Paths.get(path), false, watcher);
+	}
+
+	/**
+	 * 构造，立即扫描一次作为初始快照
+	 * 
+	 * @param path 目录或文件
+	 * @param isRecursive 是否递归监听子目录
+	 */
+	public PollingWatchMonitor(Path path, boolean isRecursive) {
+		Assert.notNull(path, "Path must not be null");
+		this.path = path;
+		this.isRecursive = isRecursive;
+		setName("PollingWatchMonitor-" + path.getFileName());
+		this.snapshot = scan(null);
+	}
+
+	/**
+	 * 设置监听
+	 * 
+	 * @param watcher 监听
+	 * @return this
+	 */
+	public PollingWatchMonitor setWatcher(Watcher watcher) {
+		this.watcher = watcher;
+		return this;
+	}
+
+	/**
+	 * 设置轮询间隔，没有变化时从最小间隔逐次加倍到最大间隔
+	 * 
+	 * @param minInterval 最小间隔，毫秒
+	 * @param maxInterval 最大间隔，毫秒
+	 * @return this
+	 */
+	public PollingWatchMonitor setInterval(long minInterval, long maxInterval) {
+		Assert.isTrue(minInterval > 0 && maxInterval >= minInterval, "Invalid interval: [{}, {}]", minInterval, maxInterval);
+		this.minInterval = minInterval;
+		this.maxInterval = maxInterval;
+		return this;
+	}
+
+	/**
+	 * 设置扫描目录的线程池，默认{@link ForkJoinPool#commonPool()}
+	 * 
+	 * @param pool 线程池
+	 * @return this
+	 */
+	public PollingWatchMonitor setPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	@Override
+	public void run() {
+		watch();
+	}
+
+	/**
+	 * 开始监听事件，阻塞当前进程
+	 */
+	public void watch() {
+		watch(this.watcher);
+	}
+
+	/**
+	 * 开始监听事件，阻塞当前进程
+	 * 
+	 * @param watcher 监听
+	 * @throws WatchException 监听异常，如果监听关闭抛出此异常
+	 */
+	public void watch(Watcher watcher) throws WatchException {
+		if (isClosed) {
+			throw new WatchException("Watch Monitor is closed !");
+		}
+		long interval = minInterval;
+		while (false == isClosed) {
+			synchronized (lock) {
+				try {
+					if (false == isClosed) {
+						lock.wait(interval);
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+			if (isClosed) {
+				return;
+			}
+			interval = (poll(watcher) > 0) ? minInterval : Math.min(interval * 2, maxInterval);
+		}
+	}
+
+	/**
+	 * 立即扫描一次并回调变化，可用于不启动线程时手动轮询
+	 * 
+	 * @param watcher 监听
+	 * @return 变化数
+	 */
+	public int poll(Watcher watcher) {
+		final Snapshot current = scan(snapshot);
+		final int changes = diff(snapshot, current, watcher);
+		snapshot = current;
+		return changes;
+	}
+
+	/**
+	 * 关闭监听
+	 */
+	@Override
+	public void close() {
+		isClosed = true;
+		synchronized (lock) {
+			lock.notifyAll();
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 扫描监听路径，生成按哈希排序的快照，无法读取的部分沿用上次快照
+	 * 
+	 * @param previous 上次的快照，首次扫描为null
+	 * @return 快照
+	 */
+	private Snapshot scan(Snapshot previous) {
+		final Queue<String> unknowns = new ConcurrentLinkedQueue<>();
+		final List<Entry> entries;
+		if (Files.isDirectory(path)) {
+			final DirTask task = new DirTask(path, path, isRecursive, unknowns);
+			entries = (null == pool ? ForkJoinPool.commonPool() : pool).invoke(task);
+		} else {
+			entries = new ArrayList<>(1);
+			try {
+				final Entry entry = Entry.of(path, path.getFileName());
+				if (null != entry) {
+					entries.add(entry);
+				}
+			} catch (IOException e) {
+				Console.error(e, "Skip unreadable path [{}]", path);
+				unknowns.add("");
+			}
+		}
+		return new Snapshot(carryForward(previous, entries, unknowns));
+	}
+
+	/**
+	 * 无法读取的路径及其下的条目状态未知，从上次的快照中补回，避免误报删除和之后的重新创建
+	 * 
+	 * @param previous 上次的快照，可为null
+	 * @param entries 本次扫描到的条目
+	 * @param unknowns 无法读取的相对路径，空字符串表示监听路径本身
+	 * @return 条目
+	 */
+	private List<Entry> carryForward(Snapshot previous, List<Entry> entries, Collection<String> unknowns) {
+		if (null == previous || unknowns.isEmpty()) {
+			return entries;
+		}
+		final Set<String> keys = new HashSet<>();
+		for (Entry entry : entries) {
+			keys.add(entry.key);
+		}
+		final String separator = path.getFileSystem().getSeparator();
+		for (int i = 0; i < previous.length; i++) {
+			final String key = previous.keys[i];
+			for (String unknown : unknowns) {
+				if (unknown.isEmpty() || key.equals(unknown) || key.startsWith(unknown + separator)) {
+					if (keys.add(key)) {
+						entries.add(new Entry(previous, i));
+					}
+					break;
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * 线性比较两个快照，回调变化
+	 * 
+	 * @param previous 上次的快照
+	 * @param current 本次的快照
+	 * @param watcher 监听
+	 * @return 变化数
+	 */
+	private int diff(Snapshot previous, Snapshot current, Watcher watcher) {
+		int changes = 0;
+		int i = 0;
+		int j = 0;
+		while (i < previous.length || j < current.length) {
+			final int compare;
+			if (i == previous.length) {
+				compare = 1;
+			} else if (j == current.length) {
+				compare = -1;
+			} else {
+				compare = Snapshot.compare(previous, i, current, j);
+			}
+
+			if (compare < 0) {
+				notify(watcher, StandardWatchEventKinds.ENTRY_DELETE, previous.keys[i]);
+				i++;
+				changes++;
+			} else if (compare > 0) {
+				notify(watcher, StandardWatchEventKinds.ENTRY_CREATE, current.keys[j]);
+				j++;
+				changes++;
+			} else {
+				if (current.sizes[j] >= 0 && (previous.sizes[i] != current.sizes[j] || previous.mtimes[i] != current.mtimes[j])) {
+					notify(watcher, StandardWatchEventKinds.ENTRY_MODIFY, current.keys[j]);
+					changes++;
+				}
+				i++;
+				j++;
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * 回调监听，异常只输出不中断轮询<br>
+	 * 快照中只保存路径字符串，回调时才生成{@link Path}
+	 * 
+	 * @param watcher 监听
+	 * @param kind 事件类型
+	 * @param context 相对路径
+	 */
+	private void notify(Watcher watcher, WatchEvent.Kind<Path> kind, String context) {
+		if (null == watcher) {
+			return;
+		}
+		final WatchEvent<Path> event = new PathWatchEvent(kind, path.getFileSystem().getPath(context), 1);
+		try {
+			if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+				watcher.onCreate(event);
+			} else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+				watcher.onModify(event);
+			} else {
+				watcher.onDelete(event);
+			}
+		} catch (Exception e) {
+			Console.error(e, "Watcher of [{}] error on event [{}]", path, event);
+		}
+	}
+
+	/**
+	 * 64位FNV-1a哈希
+	 * 
+	 * @param str 字符串
+	 * @return 哈希值
+	 */
+	private static long hash(String str) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < str.length(); i++) {
+			hash ^= str.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 扫描时的临时条目
+	 */
+	private static class Entry {
+		private final String key;
+		private final long hash;
+		private final long size;
+		private final long mtime;
+		private final boolean isDirectory;
+
+		/**
+		 * 从快照中恢复条目
+		 * 
+		 * @param snapshot 快照
+		 * @param i 下标
+		 */
+		Entry(Snapshot snapshot, int i) {
+			this.key = snapshot.keys[i];
+			this.hash = snapshot.hashes[i];
+			this.size = snapshot.sizes[i];
+			this.mtime = snapshot.mtimes[i];
+			this.isDirectory = snapshot.sizes[i] < 0;
+		}
+
+		Entry(Path path, BasicFileAttributes attrs) {
+			this.isDirectory = attrs.isDirectory();
+			this.key = path.toString();
+			this.hash = hash(key);
+			// 目录的大小和修改时间不比较
+			this.size = attrs.isDirectory() ? -1 : attrs.size();
+			this.mtime = attrs.isDirectory() ? 0 : attrs.lastModifiedTime().toMillis();
+		}
+
+		/**
+		 * 读取文件属性生成条目
+		 * 
+		 * @param file 文件
+		 * @param path 相对路径
+		 * @return 条目，文件不存在时返回null
+		 * @throws IOException 无法读取属性
+		 */
+		static Entry of(Path file, Path path) throws IOException {
+			try {
+				return new Entry(path, Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+			} catch (NoSuchFileException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * 紧凑的快照，各字段按(哈希, 路径)排序存放在数组中<br>
+	 * 路径只保存相对路径字符串，不保存{@link Path}对象，事件回调时再生成
+	 */
+	private static class Snapshot {
+		private final int length;
+		private final long[] hashes;
+		private final long[] sizes;
+		private final long[] mtimes;
+		private final String[] keys;
+
+		Snapshot(List<Entry> entries) {
+			final Entry[] array = entries.toArray(new Entry[entries.size()]);
+			Arrays.sort(array, new Comparator<Entry>() {
+				@Override
+				public int compare(Entry o1, Entry o2) {
+					final int result = Long.compare(o1.hash, o2.hash);
+					return (0 != result) ? result : o1.key.compareTo(o2.key);
+				}
+			});
+			this.length = array.length;
+			this.hashes = new long[length];
+			this.sizes = new long[length];
+			this.mtimes = new long[length];
+			this.keys = new String[length];
+			for (int i = 0; i < length; i++) {
+				hashes[i] = array[i].hash;
+				sizes[i] = array[i].size;
+				mtimes[i] = array[i].mtime;
+				keys[i] = array[i].key;
+			}
+		}
+
+		/**
+		 * 比较两个快照中的条目顺序，哈希相同时比较路径
+		 * 
+		 * @param a 快照a
+		 * @param i a中的下标
+		 * @param b 快照b
+		 * @param j b中的下标
+		 * @return 比较结果
+		 */
+		static int compare(Snapshot a, int i, Snapshot b, int j) {
+			final int result = Long.compare(a.hashes[i], b.hashes[j]);
+			return (0 != result) ? result : a.keys[i].compareTo(b.keys[j]);
+		}
+	}
+
+	/**
+	 * 扫描一个目录的任务，子目录分出独立的任务
+	 */
+	private static class DirTask extends RecursiveTask<List<Entry>> {
+		private static final long serialVersionUID = 1L;
+
+		private final Path root;
+		private final Path dir;
+		private final boolean isRecursive;
+		/** 无法读取的相对路径 */
+		private final Queue<String> unknowns;
+
+		DirTask(Path root, Path dir, boolean isRecursive, Queue<String> unknowns) {
+			this.root = root;
+			this.dir = dir;
+			this.isRecursive = isRecursive;
+			this.unknowns = unknowns;
+		}
+
+		@Override
+		protected List<Entry> compute() {
+			final List<Entry> entries = new ArrayList<>();
+			final List<DirTask> subTasks = new ArrayList<>();
+			DirectoryStream<Path> stream = null;
+			try {
+				stream = Files.newDirectoryStream(dir);
+				for (Path child : stream) {
+					final Path relative = root.relativize(child);
+					final Entry entry;
+					try {
+						entry = Entry.of(child, relative);
+					} catch (IOException e) {
+						Console.error(e, "Skip unreadable path [{}]", child);
+						unknowns.add(relative.toString());
+						continue;
+					}
+					if (null == entry) {
+						continue;
+					}
+					entries.add(entry);
+					if (isRecursive && entry.isDirectory) {
+						final DirTask task = new DirTask(root, child, true, unknowns);
+						task.fork();
+						subTasks.add(task);
+					}
+				}
+			} catch (NoSuchFileException e) {
+				// 扫描期间目录被删除
+			} catch (IOException e) {
+				// 无权限等原因无法读取的目录，其下的条目沿用上次快照
+				Console.error(e, "Skip unreadable directory [{}]", dir);
+				unknowns.add(root.relativize(dir).toString());
+			} catch (DirectoryIteratorException e) {
+				Console.error(e.getCause(), "Skip unreadable directory [{}]", dir);
+				unknowns.add(root.relativize(dir).toString());
+			} finally {
+				IoUtil.close(stream);
+			}
+			for (DirTask task : subTasks) {
+				entries.addAll(task.join());
+			}
+			return entries;
+		}
+	}
+}
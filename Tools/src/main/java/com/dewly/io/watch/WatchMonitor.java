@@ -169,6 +169,18 @@ public class WatchMonitor extends Thread implements Closeable{
 		watchMonitor.setWatcher(watcher);
 		return watchMonitor;
 	}
+	
+	/**
+	 * 创建并初始化监听，监听所有事件，连续delay毫秒没有新事件时合并回调一次
+	 * @param path 路径
+	 * @param delay 静默时间，毫秒
+	 * @param watcher {@link ChangesWatcher}
+	 * @return {@link WatchMonitor}
+	 * @see DelayWatcher
+	 */
+	public static WatchMonitor createDelay(Path path, long delay, ChangesWatcher watcher){
+		return createAll(path, new DelayWatcher(watcher, path, false, delay));
+	}
 	//------------------------------------------------------ Static method end
 	
 	//------------------------------------------------------ Constructor method start
@@ -268,7 +280,7 @@ public class WatchMonitor extends Thread implements Closeable{
 			WatchEvent.Kind<?> kind;
 			for (WatchEvent<?> event : wk.pollEvents()) {
 				kind = event.kind();
-				if(null != filePath && false == this.filePath.endsWith(event.context().toString())){
+				if(null != filePath && false == this.filePath.getFileName().equals(event.context())){
 //					log.debug("[{}] is not fit for [{}], pass it.", event.context(), this.filePath.getFileName());
 					continue;
 				}
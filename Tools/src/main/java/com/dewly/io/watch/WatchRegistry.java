@@ -0,0 +1,581 @@
+package com.dewly.io.watch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dewly.io.IoUtil;
+import com.dewly.lang.Assert;
+import com.dewly.lang.Console;
+import com.dewly.util.ArrayUtil;
+
+/**
+ * 多路径监听注册中心<br>
+ * 所有路径共用一个{@link WatchService}和一个分发线程，与每个路径一个{@link WatchMonitor}线程相比：
+ * <ul>
+ * <li>事件按{@link WatchKey}和文件名通过Map找到对应的{@link Watcher}，不逐个比较路径</li>
+ * <li>递归监听时自动注册新创建的子目录，子目录中在注册前已创建的文件补发创建事件（可能与系统事件重复）</li>
+ * <li>回调在指定的{@link Executor}中执行（默认一个独立的守护线程），慢的{@link Watcher}不会阻塞事件读取；同一{@link Watcher}的回调按事件顺序依次执行</li>
+ * </ul>
+ * 目录监听的事件上下文为相对于注册目录的路径（非递归时即为文件名），文件监听的事件上下文为文件名。
+ * 
+ * <pre>
+ * WatchRegistry registry = WatchRegistry.create().start();
+ * registry.register(Paths.get("/etc/app"), true, watcher);
+ * </pre>
+ * 
+ * @author Dewly
+ *
+ */
+public class WatchRegistry implements Closeable {
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	/** 监听服务 */
+	private final WatchService watchService;
+	/** 监听的目录，按WatchKey查找 */
+	private final Map<WatchKey, DirEntry> keys = new HashMap<>();
+	/** 监听的目录，按路径查找 */
+	private final Map<Path, DirEntry> dirs = new HashMap<>();
+	/** 注册的路径 */
+	private final Map<Path, Registration> registrations = new HashMap<>();
+
+	/** 执行回调的线程池 */
+	private volatile Executor executor;
+	/** 默认的回调线程池，未指定执行器时创建，关闭时一同关闭 */
+	private ExecutorService defaultExecutor;
+	/** 分发线程 */
+	private Thread dispatcher;
+	/** 是否已经关闭 */
+	private volatile boolean isClosed;
+
+	/**
+	 * 创建注册中心，需调用{@link #start()}开始分发事件
+	 * 
+	 * @return {@link WatchRegistry}
+	 * @throws WatchException 创建监听服务失败
+	 */
+	public static WatchRegistry create() throws WatchException {
+		return new WatchRegistry();
+	}
+
+	/**
+	 * 构造
+	 * 
+	 * @throws WatchException 创建监听服务失败
+	 */
+	public WatchRegistry() throws WatchException {
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException e) {
+			throw new WatchException(e);
+		}
+	}
+
+	/**
+	 * 设置执行回调的线程池，默认使用一个独立的守护线程<br>
+	 * 同一{@link Watcher}的回调不会并发执行，不同{@link Watcher}的回调可在线程池中并发执行
+	 * 
+	 * @param executor 线程池
+	 * @return this
+	 */
+	public WatchRegistry setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * 启动分发线程，重复调用无效
+	 * 
+	 * @return this
+	 * @throws WatchException 已关闭
+	 */
+	public synchronized WatchRegistry start() throws WatchException {
+		if (isClosed) {
+			throw new WatchException("Watch Registry is closed !");
+		}
+		if (null == dispatcher) {
+			dispatcher = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					dispatch();
+				}
+			}, "WatchRegistry-" + THREAD_COUNT.incrementAndGet());
+			dispatcher.setDaemon(true);
+			dispatcher.start();
+		}
+		return this;
+	}
+
+	/**
+	 * 注册监听，路径为目录时只监听目录下的直接子项，为文件时只监听此文件
+	 * 
+	 * @param path 目录或文件
+	 * @param watcher {@link Watcher}
+	 * @param events 监听的事件列表，为空表示全部事件
+	 * @return this
+	 * @throws WatchException 注册失败
+	 */
+	public WatchRegistry register(Path path, Watcher watcher, WatchEvent.Kind<?>... events) throws WatchException {
+		return register(path, false, watcher, events);
+	}
+
+	/**
+	 * 注册监听，同一路径再次注册时替换原有的{@link Watcher}
+	 * 
+	 * @param path 目录或文件
+	 * @param isRecursive 路径为目录时是否监听所有子孙目录，包括以后创建的
+	 * @param watcher {@link Watcher}
+	 * @param events 监听的事件列表，为空表示全部事件
+	 * @return this
+	 * @throws WatchException 注册失败
+	 */
+	public synchronized WatchRegistry register(Path path, boolean isRecursive, Watcher watcher, WatchEvent.Kind<?>... events) throws WatchException {
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(watcher, "Watcher must not be null");
+		if (isClosed) {
+			throw new WatchException("Watch Registry is closed !");
+		}
+		path = path.toAbsolutePath().normalize();
+		unregister(path);
+
+		final boolean isFile = Files.isRegularFile(path);
+		final Registration registration = new Registration(path, isRecursive && false == isFile, watcher, ArrayUtil.isEmpty(events) ? WatchMonitor.EVENTS_ALL : events);
+		registrations.put(path, registration);
+		try {
+			if (isFile) {
+				final DirEntry entry = dirEntry(path.getParent());
+				List<Registration> list = entry.fileRegistrations.get(path.getFileName());
+				if (null == list) {
+					list = new ArrayList<>(1);
+					entry.fileRegistrations.put(path.getFileName(), list);
+				}
+				list.add(registration);
+				entry.updateKinds();
+			} else if (registration.isRecursive) {
+				registerTree(path, Collections.singletonList(registration), false);
+			} else {
+				final DirEntry entry = dirEntry(path);
+				entry.dirRegistrations.add(registration);
+				entry.updateKinds();
+			}
+		} catch (IOException e) {
+			unregister(path);
+			throw new WatchException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * 取消注册的路径
+	 * 
+	 * @param path 注册时的路径
+	 * @return 是否有此注册
+	 */
+	public synchronized boolean unregister(Path path) {
+		final Registration registration = registrations.remove(path.toAbsolutePath().normalize());
+		if (null == registration) {
+			return false;
+		}
+		final Iterator<DirEntry> iterator = dirs.values().iterator();
+		while (iterator.hasNext()) {
+			final DirEntry entry = iterator.next();
+			if (entry.remove(registration)) {
+				if (entry.isEmpty()) {
+					entry.key.cancel();
+					keys.remove(entry.key);
+					iterator.remove();
+				} else {
+					try {
+						entry.updateKinds();
+					} catch (IOException e) {
+						// 目录可能已被删除，忽略
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 当前监听的目录数
+	 * 
+	 * @return 目录数
+	 */
+	public synchronized int getDirCount() {
+		return dirs.size();
+	}
+
+	/**
+	 * 关闭监听，停止分发线程
+	 */
+	@Override
+	public synchronized void close() {
+		isClosed = true;
+		IoUtil.close(watchService);
+		if (null != dispatcher) {
+			dispatcher.interrupt();
+		}
+		keys.clear();
+		dirs.clear();
+		registrations.clear();
+		if (null != defaultExecutor) {
+			defaultExecutor.shutdown();
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 分发线程：读取事件并分发，直到关闭
+	 */
+	private void dispatch() {
+		while (false == isClosed) {
+			final WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException e) {
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+			synchronized (this) {
+				final DirEntry entry = keys.get(key);
+				if (null == entry) {
+					continue;
+				}
+				for (WatchEvent<?> event : key.pollEvents()) {
+					try {
+						dispatch(entry, event);
+					} catch (Exception e) {
+						Console.error(e, "Dispatch watch event [{}] of [{}] error", event.context(), entry.dir);
+					}
+				}
+				if (false == key.reset()) {
+					// 目录已删除或不可访问
+					keys.remove(key);
+					dirs.remove(entry.dir);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 分发一个事件到目录上的监听，递归监听时注册新建的子目录
+	 * 
+	 * @param entry 目录
+	 * @param event 事件
+	 * @throws IOException 注册子目录失败
+	 */
+	@SuppressWarnings("unchecked")
+	private void dispatch(DirEntry entry, WatchEvent<?> event) throws IOException {
+		final WatchEvent.Kind<?> kind = event.kind();
+		if (StandardWatchEventKinds.OVERFLOW == kind) {
+			for (Registration registration : entry.dirRegistrations) {
+				registration.deliver(event);
+			}
+			for (List<Registration> list : entry.fileRegistrations.values()) {
+				for (Registration registration : list) {
+					registration.deliver(event);
+				}
+			}
+			return;
+		}
+
+		final Path name = (Path) event.context();
+		final Path child = entry.dir.resolve(name);
+		List<Registration> recursive = null;
+		for (Registration registration : entry.dirRegistrations) {
+			if (registration.accept(kind)) {
+				registration.deliver(new PathWatchEvent((WatchEvent.Kind<Path>) kind, registration.path.relativize(child), event.count()));
+			}
+			if (registration.isRecursive) {
+				if (null == recursive) {
+					recursive = new ArrayList<>(1);
+				}
+				recursive.add(registration);
+			}
+		}
+		final List<Registration> list = entry.fileRegistrations.get(name);
+		if (null != list) {
+			for (Registration registration : list) {
+				if (registration.accept(kind)) {
+					registration.deliver(event);
+				}
+			}
+		}
+
+		if (null != recursive && StandardWatchEventKinds.ENTRY_CREATE == kind && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+			registerTree(child, recursive, true);
+		}
+	}
+
+	/**
+	 * 将目录及其子孙目录加入递归监听
+	 * 
+	 * @param root 目录
+	 * @param recursive 递归监听
+	 * @param isNew 是否为新建的目录，是则对其中已有的子项补发创建事件
+	 * @throws IOException 注册失败
+	 */
+	private void registerTree(final Path root, final List<Registration> recursive, final boolean isNew) throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				final DirEntry entry = dirEntry(dir);
+				for (Registration registration : recursive) {
+					if (false == entry.dirRegistrations.contains(registration)) {
+						entry.dirRegistrations.add(registration);
+					}
+				}
+				entry.updateKinds();
+				created(dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				created(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+				// 遍历期间被删除的子项忽略
+				return FileVisitResult.CONTINUE;
+			}
+
+			/**
+			 * 补发新建目录中已有子项的创建事件
+			 * 
+			 * @param path 子项
+			 */
+			private void created(Path path) {
+				if (false == isNew || root.equals(path)) {
+					return;
+				}
+				for (Registration registration : recursive) {
+					if (registration.accept(StandardWatchEventKinds.ENTRY_CREATE)) {
+						registration.deliver(new PathWatchEvent(StandardWatchEventKinds.ENTRY_CREATE, registration.path.relativize(path), 1));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * 获取或创建目录的监听
+	 * 
+	 * @param dir 目录
+	 * @return {@link DirEntry}
+	 * @throws IOException 注册失败
+	 */
+	private DirEntry dirEntry(Path dir) throws IOException {
+		DirEntry entry = dirs.get(dir);
+		if (null == entry) {
+			entry = new DirEntry(dir);
+			entry.key = dir.register(watchService, WatchMonitor.EVENTS_ALL);
+			keys.put(entry.key, entry);
+			dirs.put(dir, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * 执行回调的线程池
+	 * 
+	 * @return 线程池
+	 */
+	private Executor executor() {
+		Executor executor = this.executor;
+		if (null != executor) {
+			return executor;
+		}
+		synchronized (this) {
+			if (null == defaultExecutor) {
+				defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						final Thread thread = new Thread(r, "WatchRegistry-callback-" + THREAD_COUNT.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+			return defaultExecutor;
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 一个被监听的目录及其上的注册
+	 */
+	private class DirEntry {
+		private final Path dir;
+		private WatchKey key;
+		/** 监听整个目录的注册 */
+		private final List<Registration> dirRegistrations = new ArrayList<>(1);
+		/** 监听目录下单个文件的注册，按文件名查找 */
+		private final Map<Path, List<Registration>> fileRegistrations = new HashMap<>();
+		/** 当前注册的事件 */
+		private Set<WatchEvent.Kind<?>> kinds;
+
+		DirEntry(Path dir) {
+			this.dir = dir;
+		}
+
+		/**
+		 * 按所有注册需要的事件重新注册，递归监听总是需要创建事件
+		 * 
+		 * @throws IOException 注册失败
+		 */
+		void updateKinds() throws IOException {
+			final Set<WatchEvent.Kind<?>> kinds = new HashSet<>();
+			for (Registration registration : dirRegistrations) {
+				Collections.addAll(kinds, registration.events);
+				if (registration.isRecursive) {
+					kinds.add(StandardWatchEventKinds.ENTRY_CREATE);
+				}
+			}
+			for (List<Registration> list : fileRegistrations.values()) {
+				for (Registration registration : list) {
+					Collections.addAll(kinds, registration.events);
+				}
+			}
+			kinds.remove(StandardWatchEventKinds.OVERFLOW);
+			if (false == kinds.equals(this.kinds)) {
+				this.kinds = kinds;
+				// 同一WatchService重复注册同一目录返回原有的WatchKey，只更新事件
+				dir.register(watchService, kinds.toArray(new WatchEvent.Kind<?>[kinds.size()]));
+			}
+		}
+
+		/**
+		 * 移除注册
+		 * 
+		 * @param registration 注册
+		 * @return 是否存在
+		 */
+		boolean remove(Registration registration) {
+			if (dirRegistrations.remove(registration)) {
+				return true;
+			}
+			final Iterator<List<Registration>> iterator = fileRegistrations.values().iterator();
+			while (iterator.hasNext()) {
+				final List<Registration> list = iterator.next();
+				if (list.remove(registration)) {
+					if (list.isEmpty()) {
+						iterator.remove();
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean isEmpty() {
+			return dirRegistrations.isEmpty() && fileRegistrations.isEmpty();
+		}
+	}
+
+	/**
+	 * 一次注册，回调按事件顺序在线程池中依次执行
+	 */
+	private class Registration implements Runnable {
+		private final Path path;
+		private final boolean isRecursive;
+		private final Watcher watcher;
+		private final WatchEvent.Kind<?>[] events;
+		/** 等待回调的事件 */
+		private final ConcurrentLinkedQueue<WatchEvent<?>> queue = new ConcurrentLinkedQueue<>();
+		/** 是否已提交到线程池 */
+		private final AtomicBoolean isScheduled = new AtomicBoolean();
+
+		Registration(Path path, boolean isRecursive, Watcher watcher, WatchEvent.Kind<?>[] events) {
+			this.path = path;
+			this.isRecursive = isRecursive;
+			this.watcher = watcher;
+			this.events = events;
+		}
+
+		/**
+		 * 是否监听此类事件
+		 * 
+		 * @param kind 事件类型
+		 * @return 是否监听
+		 */
+		boolean accept(WatchEvent.Kind<?> kind) {
+			return ArrayUtil.contains(events, kind);
+		}
+
+		/**
+		 * 加入回调队列
+		 * 
+		 * @param event 事件
+		 */
+		void deliver(WatchEvent<?> event) {
+			queue.offer(event);
+			schedule();
+		}
+
+		private void schedule() {
+			if (isScheduled.compareAndSet(false, true)) {
+				executor().execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			WatchEvent<?> event;
+			while (null != (event = queue.poll())) {
+				try {
+					onEvent(event);
+				} catch (Throwable e) {
+					Console.error(e, "Watcher of [{}] error on event [{}]", path, event);
+				}
+			}
+			isScheduled.set(false);
+			if (false == queue.isEmpty()) {
+				schedule();
+			}
+		}
+
+		private void onEvent(WatchEvent<?> event) {
+			final WatchEvent.Kind<?> kind = event.kind();
+			if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+				watcher.onCreate(event);
+			} else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+				watcher.onModify(event);
+			} else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+				watcher.onDelete(event);
+			} else if (kind == StandardWatchEventKinds.OVERFLOW) {
+				watcher.onOverflow(event);
+			}
+		}
+	}
+}
@@ -94,4 +94,12 @@ public class BoundedPriorityQueue<E> extends PriorityQueue<E>{
 	public Iterator<E> iterator() {
 		return toList().iterator();
 	}
+	
+	/**
+	 * 按堆内存储顺序遍历的迭代器，不拷贝也不排序，适用于只关心元素集合而不关心顺序的场景
+	 * @return 无序迭代器
+	 */
+	public Iterator<E> unorderedIterator() {
+		return super.iterator();
+	}
 }
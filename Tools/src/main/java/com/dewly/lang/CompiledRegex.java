@@ -0,0 +1,591 @@
+package com.dewly.lang;
+
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.dewly.util.StrUtil;
+
+/**
+ * 编译后的正则表达式<br>
+ * 编译时对正则分类，简单的正则不走{@link Matcher}，而是使用专门的匹配方式：
+ * <pre>
+ * 1、纯文本，例如：abc，使用{@link String#indexOf(String, int)}
+ * 2、带锚点的纯文本，例如：^abc、abc$、^abc$，使用startsWith/endsWith
+ * 3、单个字符类，例如：[a-z0-9_]、[一-鿿]+、\d+，使用字符查找表
+ * </pre>
+ * 其它正则使用每个线程复用的{@link Matcher}。<br>
+ * 本类只处理group 0（整体匹配），涉及分组的操作一律交给{@link Matcher}处理，行为与JDK一致。
+ *
+ * @author Dewly
+ *
+ */
+public class CompiledRegex {
+
+	/** 正则中的元字符 */
+	private static final String META_CHARS = "\\^$.|?*+()[]{}";
+	/** 允许走快速匹配的标识位 */
+	private static final int FAST_FLAGS = Pattern.DOTALL | Pattern.MULTILINE | Pattern.UNIX_LINES;
+	/** 允许锚点文本走快速匹配的标识位，多行模式和UNIX_LINES会改变^和$的含义 */
+	private static final int FAST_ANCHOR_FLAGS = Pattern.DOTALL;
+
+	/**
+	 * 正则分类
+	 */
+	public static enum Kind {
+		/** 纯文本，例如：abc */
+		LITERAL,
+		/** 开头锚定的纯文本，例如：^abc */
+		PREFIX,
+		/** 结尾锚定的纯文本，例如：abc$ */
+		SUFFIX,
+		/** 首尾锚定的纯文本，例如：^abc$ */
+		EXACT,
+		/** 单个字符类，例如：[a-z] */
+		CHAR_CLASS,
+		/** 字符类重复一次或多次，例如：[a-z]+ */
+		CHAR_CLASS_RUN,
+		/** 其它正则，使用{@link Matcher}匹配 */
+		REGEX
+	}
+
+	private final Pattern pattern;
+	private final Kind kind;
+	/** 纯文本类型的文本 */
+	private final String literal;
+	/** 字符类类型的查找表，下标为字符 */
+	private final boolean[] charTable;
+	/** 当前线程空闲的Matcher */
+	private final ThreadLocal<Matcher> idleMatcher = new ThreadLocal<>();
+
+	/**
+	 * 编译正则并分类
+	 *
+	 * @param regex 正则表达式
+	 * @param flags 正则标识位集合 {@link Pattern}
+	 * @return {@link CompiledRegex}
+	 */
+	public static CompiledRegex compile(String regex, int flags) {
+		return new CompiledRegex(Pattern.compile(regex, flags));
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param pattern {@link Pattern}
+	 */
+	public CompiledRegex(Pattern pattern) {
+		this.pattern = pattern;
+
+		final String regex = pattern.pattern();
+		final int flags = pattern.flags();
+		String literal = null;
+		boolean[] charTable = null;
+		Kind kind = Kind.REGEX;
+		if (0 == (flags & ~FAST_FLAGS)) {
+			final boolean startAnchor = regex.startsWith("^");
+			final boolean endAnchor = isEndAnchor(regex);
+			if (startAnchor || endAnchor) {
+				if (0 == (flags & ~FAST_ANCHOR_FLAGS)) {
+					literal = parseLiteral(regex, startAnchor ? 1 : 0, endAnchor ? regex.length() - 1 : regex.length());
+					if (null != literal) {
+						kind = startAnchor ? (endAnchor ? Kind.EXACT : Kind.PREFIX) : Kind.SUFFIX;
+					}
+				}
+			} else {
+				literal = parseLiteral(regex, 0, regex.length());
+				if (null != literal) {
+					kind = Kind.LITERAL;
+				} else {
+					final boolean isRun = regex.endsWith("+") && false == regex.endsWith("\\+");
+					charTable = parseCharClass(regex, isRun ? regex.length() - 1 : regex.length());
+					if (null != charTable) {
+						kind = isRun ? Kind.CHAR_CLASS_RUN : Kind.CHAR_CLASS;
+					}
+				}
+			}
+		}
+		this.kind = kind;
+		this.literal = literal;
+		this.charTable = charTable;
+	}
+
+	/**
+	 * 获得{@link Pattern}
+	 *
+	 * @return {@link Pattern}
+	 */
+	public Pattern getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * 获得正则分类
+	 *
+	 * @return 正则分类
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * 是否可以不使用{@link Matcher}直接匹配
+	 *
+	 * @return 是否可以不使用{@link Matcher}直接匹配
+	 */
+	public boolean isSimple() {
+		return Kind.REGEX != kind;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Matcher
+	/**
+	 * 借出一个重置为指定内容的{@link Matcher}，优先使用当前线程空闲的Matcher<br>
+	 * 使用完毕后须调用{@link #release(Matcher)}归还，未归还的Matcher只是无法被复用
+	 *
+	 * @param content 被匹配的内容
+	 * @return {@link Matcher}
+	 */
+	public Matcher matcher(CharSequence content) {
+		final Matcher matcher = idleMatcher.get();
+		if (null == matcher) {
+			return pattern.matcher(content);
+		}
+		// 取出后清空，嵌套调用时不会拿到正在使用的Matcher
+		idleMatcher.set(null);
+		return matcher.reset(content);
+	}
+
+	/**
+	 * 归还{@link #matcher(CharSequence)}借出的{@link Matcher}
+	 *
+	 * @param matcher {@link Matcher}
+	 */
+	public void release(Matcher matcher) {
+		// 释放对被匹配内容的引用
+		idleMatcher.set(matcher.reset(StrUtil.EMPTY));
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Match
+	/**
+	 * 获得第一个匹配的字符串
+	 *
+	 * @param content 被匹配的内容
+	 * @param groupIndex 匹配正则的分组序号
+	 * @return 匹配后得到的字符串，未匹配返回null
+	 */
+	public String get(String content, int groupIndex) {
+		if (isSimple() && 0 == groupIndex) {
+			final int start = indexOf(content, 0);
+			return start < 0 ? null : content.substring(start, endOf(content, start));
+		}
+
+		final Matcher matcher = matcher(content);
+		try {
+			return matcher.find() ? matcher.group(groupIndex) : null;
+		} finally {
+			release(matcher);
+		}
+	}
+
+	/**
+	 * 获得第一个匹配结束的位置
+	 *
+	 * @param content 被匹配的内容
+	 * @return 匹配结束的位置，未匹配返回-1
+	 */
+	public int end(String content) {
+		if (isSimple()) {
+			final int start = indexOf(content, 0);
+			return start < 0 ? -1 : endOf(content, start);
+		}
+
+		final Matcher matcher = matcher(content);
+		try {
+			return matcher.find() ? matcher.end() : -1;
+		} finally {
+			release(matcher);
+		}
+	}
+
+	/**
+	 * 取得内容中匹配的所有结果
+	 *
+	 * @param <T> 集合类型
+	 * @param content 被查找的内容
+	 * @param group 正则的分组
+	 * @param collection 返回的集合
+	 * @return 结果集
+	 */
+	public <T extends Collection<String>> T findAll(String content, int group, T collection) {
+		if (isSimple() && 0 == group) {
+			int start = indexOf(content, 0);
+			int end;
+			while (start >= 0) {
+				end = endOf(content, start);
+				collection.add(content.substring(start, end));
+				start = indexOf(content, end);
+			}
+			return collection;
+		}
+
+		final Matcher matcher = matcher(content);
+		try {
+			while (matcher.find()) {
+				collection.add(matcher.group(group));
+			}
+		} finally {
+			release(matcher);
+		}
+		return collection;
+	}
+
+	/**
+	 * 计算匹配的个数
+	 *
+	 * @param content 被查找的内容
+	 * @return 匹配个数
+	 */
+	public int count(String content) {
+		int count = 0;
+		if (isSimple()) {
+			int start = indexOf(content, 0);
+			while (start >= 0) {
+				count++;
+				start = indexOf(content, endOf(content, start));
+			}
+			return count;
+		}
+
+		final Matcher matcher = matcher(content);
+		try {
+			while (matcher.find()) {
+				count++;
+			}
+		} finally {
+			release(matcher);
+		}
+		return count;
+	}
+
+	/**
+	 * 内容是否完全匹配正则
+	 *
+	 * @param content 内容
+	 * @return 是否匹配
+	 */
+	public boolean isMatch(String content) {
+		switch (kind) {
+		case LITERAL:
+		case PREFIX:
+		case SUFFIX:
+		case EXACT:
+			// 完全匹配时锚点不起作用
+			return literal.equals(content);
+		case CHAR_CLASS:
+			return 1 == content.length() && inClass(content.charAt(0));
+		case CHAR_CLASS_RUN:
+			final int length = content.length();
+			return length > 0 && length == endOf(content, 0);
+		default:
+			final Matcher matcher = matcher(content);
+			try {
+				return matcher.matches();
+			} finally {
+				release(matcher);
+			}
+		}
+	}
+
+	/**
+	 * 替换匹配的内容，替换文本不做任何转义处理，原样替换
+	 *
+	 * @param content 被匹配的内容
+	 * @param replacement 替换文本
+	 * @param isAll 是否替换全部，false只替换第一个
+	 * @return 替换后的内容
+	 */
+	public String replace(String content, String replacement, boolean isAll) {
+		if (isSimple()) {
+			int start = indexOf(content, 0);
+			if (start < 0) {
+				return content;
+			}
+			final StringBuilder builder = new StringBuilder(content.length());
+			int last = 0;
+			do {
+				builder.append(content, last, start).append(replacement);
+				last = endOf(content, start);
+				start = isAll ? indexOf(content, last) : -1;
+			} while (start >= 0);
+			return builder.append(content, last, content.length()).toString();
+		}
+
+		final Matcher matcher = matcher(content);
+		try {
+			final String quoted = Matcher.quoteReplacement(replacement);
+			return isAll ? matcher.replaceAll(quoted) : matcher.replaceFirst(quoted);
+		} finally {
+			release(matcher);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return pattern.pattern();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 查找下一个匹配的开始位置，仅用于简单正则
+	 *
+	 * @param content 内容
+	 * @param fromIndex 开始查找的位置
+	 * @return 匹配开始位置，未找到返回-1
+	 */
+	private int indexOf(String content, int fromIndex) {
+		switch (kind) {
+		case LITERAL:
+			return content.indexOf(literal, fromIndex);
+		case PREFIX:
+			return (0 == fromIndex && content.startsWith(literal)) ? 0 : -1;
+		case SUFFIX:
+			final int suffixStart = content.length() - trailingTerminatorLength(content) - literal.length();
+			return (suffixStart >= fromIndex && content.startsWith(literal, suffixStart)) ? suffixStart : -1;
+		case EXACT:
+			return (0 == fromIndex && content.length() - trailingTerminatorLength(content) == literal.length() && content.startsWith(literal)) ? 0 : -1;
+		default:
+			// CHAR_CLASS、CHAR_CLASS_RUN
+			final int length = content.length();
+			for (int i = fromIndex; i < length; i++) {
+				if (inClass(content.charAt(i))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * 获得从start开始的匹配的结束位置，仅用于简单正则
+	 *
+	 * @param content 内容
+	 * @param start 匹配开始位置
+	 * @return 匹配结束位置
+	 */
+	private int endOf(String content, int start) {
+		switch (kind) {
+		case CHAR_CLASS:
+			return start + 1;
+		case CHAR_CLASS_RUN:
+			final int length = content.length();
+			int end = start;
+			while (end < length && inClass(content.charAt(end))) {
+				end++;
+			}
+			return end;
+		default:
+			return start + literal.length();
+		}
+	}
+
+	/**
+	 * 字符是否在字符类中
+	 *
+	 * @param c 字符
+	 * @return 是否在字符类中
+	 */
+	private boolean inClass(char c) {
+		return c < charTable.length && charTable[c];
+	}
+
+	/**
+	 * 结尾的行终止符长度，非多行模式下$可以匹配在结尾的行终止符之前
+	 *
+	 * @param content 内容
+	 * @return 行终止符长度，0、1或2
+	 */
+	private static int trailingTerminatorLength(String content) {
+		final int length = content.length();
+		if (length == 0) {
+			return 0;
+		}
+		final char last = content.charAt(length - 1);
+		if (last == '\n') {
+			return (length > 1 && content.charAt(length - 2) == '\r') ? 2 : 1;
+		}
+		return isLineTerminator(last) ? 1 : 0;
+	}
+
+	/**
+	 * 是否为行终止符
+	 *
+	 * @param c 字符
+	 * @return 是否为行终止符
+	 */
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * 正则是否以未转义的$结尾
+	 *
+	 * @param regex 正则
+	 * @return 是否以未转义的$结尾
+	 */
+	private static boolean isEndAnchor(String regex) {
+		if (false == regex.endsWith("$")) {
+			return false;
+		}
+		int backslashCount = 0;
+		for (int i = regex.length() - 2; i >= 0 && regex.charAt(i) == '\\'; i--) {
+			backslashCount++;
+		}
+		return backslashCount % 2 == 0;
+	}
+
+	/**
+	 * 解析纯文本正则，只接受普通字符和转义的标点符号
+	 *
+	 * @param regex 正则
+	 * @param begin 开始位置（包含）
+	 * @param end 结束位置（不包含）
+	 * @return 文本，非纯文本或文本为空返回null
+	 */
+	private static String parseLiteral(String regex, int begin, int end) {
+		final StringBuilder builder = new StringBuilder(end - begin);
+		char c;
+		for (int i = begin; i < end; i++) {
+			c = regex.charAt(i);
+			if (c == '\\') {
+				if (++i >= end) {
+					return null;
+				}
+				c = regex.charAt(i);
+				if (Character.isLetterOrDigit(c)) {
+					// \d、\n、\Q等
+					return null;
+				}
+			} else if (META_CHARS.indexOf(c) >= 0) {
+				return null;
+			}
+			if (isLineTerminator(c)) {
+				return null;
+			}
+			builder.append(c);
+		}
+		return builder.length() == 0 ? null : builder.toString();
+	}
+
+	/**
+	 * 解析单个字符类，支持[abc]、[a-z]、\d、\w、\s以及方括号中的\d、\w、\s<br>
+	 * 不支持取反、交集、嵌套以及代理对字符
+	 *
+	 * @param regex 正则
+	 * @param end 字符类结束位置（不包含）
+	 * @return 字符查找表，不是简单字符类返回null
+	 */
+	private static boolean[] parseCharClass(String regex, int end) {
+		if (end == 2 && regex.charAt(0) == '\\') {
+			final boolean[] table = new boolean[128];
+			return addShorthand(table, regex.charAt(1)) ? table : null;
+		}
+		if (end < 3 || regex.charAt(0) != '[' || regex.charAt(end - 1) != ']' || regex.charAt(1) == '^') {
+			return null;
+		}
+
+		// 先解析为区间，最后生成查找表
+		final StringBuilder ranges = new StringBuilder();
+		final boolean[] shorthand = new boolean[128];
+		char c;
+		for (int i = 1; i < end - 1; i++) {
+			c = regex.charAt(i);
+			if (c == '\\') {
+				c = regex.charAt(++i);
+				if (Character.isLetterOrDigit(c)) {
+					if (false == addShorthand(shorthand, c)) {
+						return null;
+					}
+					continue;
+				}
+			} else if (c == '[' || c == ']' || (c == '&' && i + 1 < end - 1 && regex.charAt(i + 1) == '&')) {
+				return null;
+			}
+			if (Character.isSurrogate(c)) {
+				return null;
+			}
+
+			char rangeEnd = c;
+			if (i + 2 < end - 1 && regex.charAt(i + 1) == '-') {
+				rangeEnd = regex.charAt(i + 2);
+				i += 2;
+				if (rangeEnd == '\\') {
+					rangeEnd = regex.charAt(++i);
+					if (Character.isLetterOrDigit(rangeEnd)) {
+						return null;
+					}
+				} else if (rangeEnd == '[' || Character.isSurrogate(rangeEnd)) {
+					return null;
+				}
+			}
+			ranges.append(c).append(rangeEnd);
+		}
+
+		int max = shorthand.length - 1;
+		for (int i = 1; i < ranges.length(); i += 2) {
+			max = Math.max(max, ranges.charAt(i));
+		}
+		final boolean[] table = new boolean[max + 1];
+		System.arraycopy(shorthand, 0, table, 0, shorthand.length);
+		for (int i = 0; i < ranges.length(); i += 2) {
+			for (int j = ranges.charAt(i); j <= ranges.charAt(i + 1); j++) {
+				table[j] = true;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * 将预定义字符类加入查找表，未开启UNICODE_CHARACTER_CLASS时均为ASCII字符
+	 *
+	 * @param table 查找表，长度至少128
+	 * @param c 预定义字符类标识，d、w或s
+	 * @return 是否为支持的预定义字符类
+	 */
+	private static boolean addShorthand(boolean[] table, char c) {
+		switch (c) {
+		case 'd':
+			fill(table, '0', '9');
+			return true;
+		case 'w':
+			fill(table, 'a', 'z');
+			fill(table, 'A', 'Z');
+			fill(table, '0', '9');
+			table['_'] = true;
+			return true;
+		case 's':
+			table[' '] = true;
+			table['\t'] = true;
+			table['\n'] = true;
+			table['\u000B'] = true;
+			table['\f'] = true;
+			table['\r'] = true;
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * 填充查找表区间
+	 *
+	 * @param table 查找表
+	 * @param from 开始字符（包含）
+	 * @param to 结束字符（包含）
+	 */
+	private static void fill(boolean[] table, char from, char to) {
+		for (int i = from; i <= to; i++) {
+			table[i] = true;
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
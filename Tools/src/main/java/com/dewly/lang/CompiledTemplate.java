@@ -0,0 +1,435 @@
+package com.dewly.lang;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.dewly.io.IORuntimeException;
+import com.dewly.util.StrUtil;
+
+/**
+ * 预编译的字符串模板<br>
+ * 模板只解析一次，将占位符位置记录下来，之后每次渲染只做拼接。支持三种占位符：
+ * <pre>
+ * 1、{}     顺序占位符，按顺序替换为参数，转义规则与{@link StrFormatter#format(String, Object...)}一致
+ * 2、{0}    序号占位符，替换为对应序号的参数
+ * 3、{key}  命名占位符，替换为Map中对应键的值
+ * </pre>
+ * 渲染时先计算出精确的结果长度，输出到{@link StringBuilder}时只扩容一次，生成字符串时只分配一次缓冲区。<br>
+ * 使用{@link #of(String)}获取的模板会被缓存，对象不可变，可在多线程间共享。
+ *
+ * @author Dewly
+ *
+ */
+public final class CompiledTemplate {
+
+	/** 模板缓存 */
+	private static final SimpleCache<String, CompiledTemplate> CACHE = new SimpleCache<>();
+	/** 渲染时存放参数字符串的线程内缓冲 */
+	private static final ThreadLocal<String[]> SCRATCH = new ThreadLocal<>();
+	/** null参数输出的文本 */
+	private static final String NULL = "null";
+
+	/** 顺序占位符 {} */
+	private static final byte TYPE_SEQUENTIAL = 0;
+	/** 被转义的顺序占位符 \{} */
+	private static final byte TYPE_ESCAPED = 1;
+	/** 前面带转义符本身的顺序占位符 \\{} */
+	private static final byte TYPE_DOUBLE_ESCAPED = 2;
+	/** 序号占位符 {0} */
+	private static final byte TYPE_INDEXED = 3;
+	/** 命名占位符 {key} */
+	private static final byte TYPE_NAMED = 4;
+
+	/** 模板 */
+	private final String template;
+	/** 占位符开始位置，即'{'的位置 */
+	private final int[] starts;
+	/** 占位符结束位置（不包含），即'}'之后的位置 */
+	private final int[] ends;
+	/** 占位符类型 */
+	private final byte[] types;
+	/** 占位符名称，即大括号中的内容 */
+	private final String[] names;
+	/** 序号占位符的序号，其它类型为-1 */
+	private final int[] indexes;
+
+	/**
+	 * 获得编译后的模板，先从缓存中查找，找不到则编译并缓存
+	 *
+	 * @param template 模板
+	 * @return {@link CompiledTemplate}
+	 */
+	public static CompiledTemplate of(String template) {
+		Assert.notNull(template, "Template must not be null");
+		return CACHE.get(template, () -> new CompiledTemplate(template));
+	}
+
+	/**
+	 * 构造，编译模板，不使用缓存
+	 *
+	 * @param template 模板
+	 */
+	public CompiledTemplate(String template) {
+		Assert.notNull(template, "Template must not be null");
+		this.template = template;
+
+		final List<int[]> found = new ArrayList<>();
+		final int length = template.length();
+		int start = template.indexOf(StrUtil.C_DELIM_START);
+		while (start >= 0) {
+			int end = start + 1;
+			char c = 0;
+			while (end < length && (c = template.charAt(end)) != StrUtil.C_DELIM_END && c != StrUtil.C_DELIM_START) {
+				end++;
+			}
+			if (end >= length) {
+				break;
+			}
+			if (c == StrUtil.C_DELIM_START) {
+				// 内部还有'{'，以最内层的为准
+				start = end;
+				continue;
+			}
+			found.add(new int[] { start, end + 1 });
+			start = template.indexOf(StrUtil.C_DELIM_START, end + 1);
+		}
+
+		final int size = found.size();
+		this.starts = new int[size];
+		this.ends = new int[size];
+		this.types = new byte[size];
+		this.names = new String[size];
+		this.indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			final int s = found.get(i)[0];
+			final int e = found.get(i)[1];
+			starts[i] = s;
+			ends[i] = e;
+			names[i] = template.substring(s + 1, e - 1);
+			indexes[i] = parseIndex(names[i]);
+			if (e - s == 2) {
+				if (s > 0 && template.charAt(s - 1) == StrUtil.C_BACKSLASH) {
+					types[i] = (s > 1 && template.charAt(s - 2) == StrUtil.C_BACKSLASH) ? TYPE_DOUBLE_ESCAPED : TYPE_ESCAPED;
+				} else {
+					types[i] = TYPE_SEQUENTIAL;
+				}
+			} else {
+				types[i] = indexes[i] >= 0 ? TYPE_INDEXED : TYPE_NAMED;
+			}
+		}
+	}
+
+	/**
+	 * 获得模板
+	 *
+	 * @return 模板
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- format
+	/**
+	 * 按顺序将 {} 替换为参数，结果与{@link StrFormatter#format(String, Object...)}一致
+	 *
+	 * @param params 参数
+	 * @return 格式化后的文本
+	 */
+	public String format(Object... params) {
+		return render(null, Mode.SEQUENTIAL, params, null);
+	}
+
+	/**
+	 * 将 {0}、{1} 等序号占位符替换为对应序号的参数，没有对应参数的占位符原样保留
+	 *
+	 * @param params 参数
+	 * @return 格式化后的文本
+	 */
+	public String indexedFormat(Object... params) {
+		return render(null, Mode.INDEXED, params, null);
+	}
+
+	/**
+	 * 将 {key} 替换为Map中对应的值，Map中不存在的键原样保留
+	 *
+	 * @param map 参数值对
+	 * @return 格式化后的文本
+	 */
+	public String format(Map<?, ?> map) {
+		return render(null, Mode.NAMED, null, map);
+	}
+
+	/**
+	 * 按顺序将 {} 替换为参数，追加到out中
+	 *
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，{@link StringBuilder}会预先扩容到精确长度
+	 * @param params 参数
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public <A extends Appendable> A append(A out, Object... params) throws IORuntimeException {
+		render(out, Mode.SEQUENTIAL, params, null);
+		return out;
+	}
+
+	/**
+	 * 将 {0}、{1} 等序号占位符替换为对应序号的参数，追加到out中
+	 *
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，{@link StringBuilder}会预先扩容到精确长度
+	 * @param params 参数
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public <A extends Appendable> A indexedAppend(A out, Object... params) throws IORuntimeException {
+		render(out, Mode.INDEXED, params, null);
+		return out;
+	}
+
+	/**
+	 * 将 {key} 替换为Map中对应的值，追加到out中
+	 *
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，{@link StringBuilder}会预先扩容到精确长度
+	 * @param map 参数值对
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public <A extends Appendable> A append(A out, Map<?, ?> map) throws IORuntimeException {
+		render(out, Mode.NAMED, null, map);
+		return out;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 渲染模板<br>
+	 * 先空跑一遍计算精确长度（同时将参数转为字符串），再实际输出
+	 *
+	 * @param out 输出，null表示生成字符串
+	 * @param mode 渲染模式
+	 * @param params 参数，NAMED模式下为null
+	 * @param map 参数值对，非NAMED模式下为null
+	 * @return out为null时返回生成的字符串，否则返回null
+	 */
+	private String render(Appendable out, Mode mode, Object[] params, Map<?, ?> map) {
+		if (0 == starts.length || (Mode.NAMED == mode ? (null == map || map.isEmpty()) : (null == params || 0 == params.length))) {
+			// 无需替换
+			if (null == out) {
+				return template;
+			}
+			write(out, template, 0, template.length());
+			return null;
+		}
+
+		final String[] values = borrowScratch(starts.length);
+		try {
+			final int length = walk(null, mode, params, map, values);
+			if (null == out) {
+				final StringBuilder builder = new StringBuilder(length);
+				walk(builder, mode, params, map, values);
+				return builder.toString();
+			}
+			if (out instanceof StringBuilder) {
+				final StringBuilder builder = (StringBuilder) out;
+				builder.ensureCapacity(builder.length() + length);
+			}
+			walk(out, mode, params, map, values);
+			return null;
+		} finally {
+			releaseScratch(values, starts.length);
+		}
+	}
+
+	/**
+	 * 遍历模板<br>
+	 * out为null时只计算长度，并将用到的占位符的值填入values；否则按values输出
+	 *
+	 * @param out 输出，null表示只计算长度
+	 * @param mode 渲染模式
+	 * @param params 参数
+	 * @param map 参数值对
+	 * @param values 占位符对应的值，下标与占位符一致，null表示占位符原样保留
+	 * @return 输出长度
+	 */
+	private int walk(Appendable out, Mode mode, Object[] params, Map<?, ?> map, String[] values) {
+		final boolean dryRun = (null == out);
+		int handled = 0;
+		int length = 0;
+		int paramIndex = 0;
+		for (int i = 0; i < starts.length; i++) {
+			if (Mode.SEQUENTIAL == mode) {
+				if (paramIndex >= params.length) {
+					// 参数用完，剩余部分原样输出
+					break;
+				}
+				switch (types[i]) {
+				case TYPE_SEQUENTIAL:
+					if (dryRun) {
+						values[i] = toStr(params[paramIndex]);
+					}
+					paramIndex++;
+					length += write(out, template, handled, starts[i]) + write(out, values[i], 0, values[i].length());
+					handled = ends[i];
+					break;
+				case TYPE_DOUBLE_ESCAPED:
+					if (dryRun) {
+						values[i] = toStr(params[paramIndex]);
+					}
+					paramIndex++;
+					// 两个转义符只保留一个
+					length += write(out, template, handled, starts[i] - 1) + write(out, values[i], 0, values[i].length());
+					handled = ends[i];
+					break;
+				case TYPE_ESCAPED:
+					// 去掉转义符，保留'{'，'}'作为普通字符在之后输出
+					length += write(out, template, handled, starts[i] - 1) + write(out, template, starts[i], starts[i] + 1);
+					handled = starts[i] + 1;
+					break;
+				default:
+					// 其它占位符在此模式下作为普通文本
+					break;
+				}
+				continue;
+			}
+
+			if (dryRun) {
+				values[i] = resolve(i, mode, params, map);
+			}
+			if (null != values[i]) {
+				length += write(out, template, handled, starts[i]) + write(out, values[i], 0, values[i].length());
+				handled = ends[i];
+			}
+		}
+		return length + write(out, template, handled, template.length());
+	}
+
+	/**
+	 * 获得序号或命名占位符的值
+	 *
+	 * @param i 占位符下标
+	 * @param mode 渲染模式
+	 * @param params 参数
+	 * @param map 参数值对
+	 * @return 值，null表示占位符原样保留
+	 */
+	private String resolve(int i, Mode mode, Object[] params, Map<?, ?> map) {
+		if (Mode.INDEXED == mode) {
+			return (TYPE_INDEXED == types[i] && indexes[i] < params.length) ? toStr(params[indexes[i]]) : null;
+		}
+
+		final String name = names[i];
+		final Object value = map.get(name);
+		if (null != value || map.containsKey(name)) {
+			return toStr(value);
+		}
+		// 键不是字符串时按toString比较
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (null != entry.getKey() && false == (entry.getKey() instanceof String) && name.equals(entry.getKey().toString())) {
+				return toStr(entry.getValue());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 输出字符串的一部分
+	 *
+	 * @param out 输出，null表示只计算长度
+	 * @param str 字符串
+	 * @param start 开始位置（包含）
+	 * @param end 结束位置（不包含）
+	 * @return 输出的长度
+	 */
+	private static int write(Appendable out, CharSequence str, int start, int end) {
+		if (null != out && end > start) {
+			try {
+				out.append(str, start, end);
+			} catch (IOException e) {
+				throw new IORuntimeException(e);
+			}
+		}
+		return end - start;
+	}
+
+	/**
+	 * 参数转为字符串
+	 *
+	 * @param obj 参数
+	 * @return 字符串，null转为"null"
+	 */
+	private static String toStr(Object obj) {
+		final String str = StrUtil.utf8Str(obj);
+		return null == str ? NULL : str;
+	}
+
+	/**
+	 * 解析序号
+	 *
+	 * @param name 占位符名称
+	 * @return 序号，非序号返回-1
+	 */
+	private static int parseIndex(String name) {
+		final int length = name.length();
+		if (0 == length || length > 9) {
+			return -1;
+		}
+		int index = 0;
+		char c;
+		for (int i = 0; i < length; i++) {
+			c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + (c - '0');
+		}
+		return index;
+	}
+
+	/**
+	 * 借出存放参数字符串的缓冲，嵌套渲染时（参数的toString中再次渲染）会新建缓冲
+	 *
+	 * @param size 需要的长度
+	 * @return 缓冲
+	 */
+	private static String[] borrowScratch(int size) {
+		final String[] scratch = SCRATCH.get();
+		if (null == scratch || scratch.length < size) {
+			return new String[Math.max(size, 16)];
+		}
+		SCRATCH.set(null);
+		return scratch;
+	}
+
+	/**
+	 * 归还缓冲，清除对参数字符串的引用
+	 *
+	 * @param scratch 缓冲
+	 * @param size 使用的长度
+	 */
+	private static void releaseScratch(String[] scratch, int size) {
+		Arrays.fill(scratch, 0, size, null);
+		SCRATCH.set(scratch);
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 渲染模式
+	 */
+	private static enum Mode {
+		/** 顺序占位符 */
+		SEQUENTIAL,
+		/** 序号占位符 */
+		INDEXED,
+		/** 命名占位符 */
+		NAMED
+	}
+}
@@ -0,0 +1,330 @@
+package com.dewly.lang;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * int类型的Top-K收集器<br>
+ * 与{@link BoundedPriorityQueue}作用相同，但直接使用int数组实现二叉堆，不装箱，比较时无需经过{@link java.util.Comparator}。<br>
+ * 每个值可以附带一个long类型的id（例如记录主键），id存放在平行数组中，只在第一次使用时创建。<br>
+ * 多线程场景下每个线程各自收集，最后通过{@link #merge(IntTopK)}合并，合并耗时为O(K log K)。<br>
+ * 对于{@link java.util.stream.IntStream}，可以使用：intStream.collect(() -&gt; new IntTopK(k), IntTopK::offer, IntTopK::merge)<br>
+ * 非线程安全。
+ *
+ * @author Dewly
+ *
+ */
+public class IntTopK {
+
+	/** 容量，即K */
+	private final int capacity;
+	/** 是否保留最大的K个值，false表示保留最小的K个值 */
+	private final boolean isLargest;
+	/** 堆，堆顶为当前保留的值中最差的一个（保留最大值时为最小值） */
+	private final int[] values;
+	/** 与values平行的id，未使用id时为null */
+	private long[] ids;
+	/** 当前元素个数 */
+	private int size;
+
+	// ------------------------------------------------------------------------------------------------------------------- Constructor start
+	/**
+	 * 构造，保留最大的K个值
+	 *
+	 * @param capacity 容量，即K
+	 */
+	public IntTopK(int capacity) {
+		this(capacity, true);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 容量，即K
+	 * @param isLargest 是否保留最大的K个值，false表示保留最小的K个值
+	 */
+	public IntTopK(int capacity, boolean isLargest) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+		this.isLargest = isLargest;
+		this.values = new int[capacity];
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Constructor end
+
+	/**
+	 * 创建用于{@link java.util.stream.Stream}的收集器，并行流中各线程的结果通过{@link #merge(IntTopK)}合并
+	 *
+	 * @param capacity 容量，即K
+	 * @param isLargest 是否保留最大的K个值，false表示保留最小的K个值
+	 * @return {@link Collector}
+	 */
+	public static Collector<Integer, IntTopK, IntTopK> collector(int capacity, boolean isLargest) {
+		return Collector.of(() -> new IntTopK(capacity, isLargest), IntTopK::offer, IntTopK::merge, Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * 创建用于{@link java.util.stream.Stream}的收集器，从元素中提取值和id，并行流中各线程的结果通过{@link #merge(IntTopK)}合并
+	 *
+	 * @param <T> 元素类型
+	 * @param capacity 容量，即K
+	 * @param isLargest 是否保留最大的K个值，false表示保留最小的K个值
+	 * @param valueFunc 提取值的函数
+	 * @param idFunc 提取id的函数
+	 * @return {@link Collector}
+	 */
+	public static <T> Collector<T, IntTopK, IntTopK> collector(int capacity, boolean isLargest, ToIntFunction<? super T> valueFunc, ToLongFunction<? super T> idFunc) {
+		return Collector.of(() -> new IntTopK(capacity, isLargest), (topK, t) -> topK.offer(valueFunc.applyAsInt(t), idFunc.applyAsLong(t)), IntTopK::merge,
+				Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * 加入值，当已满且值不优于堆顶时直接丢弃
+	 *
+	 * @param value 值
+	 * @return 是否被保留
+	 */
+	public boolean offer(int value) {
+		if (size < capacity) {
+			values[size] = value;
+			if (null != ids) {
+				ids[size] = 0;
+			}
+			siftUp(size++);
+			return true;
+		}
+		if (false == isBetter(value, values[0])) {
+			return false;
+		}
+		values[0] = value;
+		if (null != ids) {
+			ids[0] = 0;
+		}
+		siftDown(0, size);
+		return true;
+	}
+
+	/**
+	 * 加入带id的值，当已满且值不优于堆顶时直接丢弃
+	 *
+	 * @param value 值
+	 * @param id id
+	 * @return 是否被保留
+	 */
+	public boolean offer(int value, long id) {
+		if (null == ids) {
+			ids = new long[capacity];
+		}
+		if (size < capacity) {
+			values[size] = value;
+			ids[size] = id;
+			siftUp(size++);
+			return true;
+		}
+		if (false == isBetter(value, values[0])) {
+			return false;
+		}
+		values[0] = value;
+		ids[0] = id;
+		siftDown(0, size);
+		return true;
+	}
+
+	/**
+	 * 合并另一个收集器的结果，耗时O(K log K)<br>
+	 * 两者保留方向必须相同，容量以本对象为准
+	 *
+	 * @param other 另一个收集器
+	 * @return this
+	 */
+	public IntTopK merge(IntTopK other) {
+		Assert.isTrue(this.isLargest == other.isLargest, "Can not merge TopK with different order");
+		for (int i = 0; i < other.size; i++) {
+			if (null == other.ids) {
+				offer(other.values[i]);
+			} else {
+				offer(other.values[i], other.ids[i]);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 当前保留的值中最差的一个，即新值需要超过的门槛
+	 *
+	 * @return 最差的值
+	 * @throws IllegalStateException 为空时抛出
+	 */
+	public int peek() throws IllegalStateException {
+		if (0 == size) {
+			throw new IllegalStateException("TopK is empty");
+		}
+		return values[0];
+	}
+
+	/**
+	 * 排序后的值，最优的在前
+	 *
+	 * @return 值数组
+	 */
+	public int[] toArray() {
+		final int[] sortedValues = Arrays.copyOf(values, size);
+		heapSort(sortedValues, null);
+		return sortedValues;
+	}
+
+	/**
+	 * 排序后的id，顺序与{@link #toArray()}一致，未使用id时全部为0
+	 *
+	 * @return id数组
+	 */
+	public long[] toIdArray() {
+		final long[] sortedIds = (null == ids) ? new long[size] : Arrays.copyOf(ids, size);
+		heapSort(Arrays.copyOf(values, size), sortedIds);
+		return sortedIds;
+	}
+
+	/**
+	 * 当前元素个数
+	 *
+	 * @return 元素个数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 是否为空
+	 *
+	 * @return 是否为空
+	 */
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+	/**
+	 * 容量，即K
+	 *
+	 * @return 容量
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 清空，保留已分配的数组
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * a是否优于b
+	 *
+	 * @param a 值a
+	 * @param b 值b
+	 * @return a是否优于b
+	 */
+	private boolean isBetter(int a, int b) {
+		return isLargest ? a > b : a < b;
+	}
+
+	/**
+	 * 上浮，较差的值向堆顶移动
+	 *
+	 * @param i 位置
+	 */
+	private void siftUp(int i) {
+		final int value = values[i];
+		final long id = (null == ids) ? 0 : ids[i];
+		int parent;
+		while (i > 0) {
+			parent = (i - 1) >>> 1;
+			if (false == isBetter(values[parent], value)) {
+				break;
+			}
+			values[i] = values[parent];
+			if (null != ids) {
+				ids[i] = ids[parent];
+			}
+			i = parent;
+		}
+		values[i] = value;
+		if (null != ids) {
+			ids[i] = id;
+		}
+	}
+
+	/**
+	 * 下沉
+	 *
+	 * @param i 位置
+	 * @param n 堆大小
+	 */
+	private void siftDown(int i, int n) {
+		siftDown(values, ids, i, n);
+	}
+
+	/**
+	 * 下沉，较优的值向堆底移动
+	 *
+	 * @param heapValues 堆
+	 * @param heapIds 与堆平行的id，可以为null
+	 * @param i 位置
+	 * @param n 堆大小
+	 */
+	private void siftDown(int[] heapValues, long[] heapIds, int i, int n) {
+		final int value = heapValues[i];
+		final long id = (null == heapIds) ? 0 : heapIds[i];
+		final int half = n >>> 1;
+		int child;
+		while (i < half) {
+			child = (i << 1) + 1;
+			if (child + 1 < n && isBetter(heapValues[child], heapValues[child + 1])) {
+				child++;
+			}
+			if (false == isBetter(value, heapValues[child])) {
+				break;
+			}
+			heapValues[i] = heapValues[child];
+			if (null != heapIds) {
+				heapIds[i] = heapIds[child];
+			}
+			i = child;
+		}
+		heapValues[i] = value;
+		if (null != heapIds) {
+			heapIds[i] = id;
+		}
+	}
+
+	/**
+	 * 堆排序，每次把堆顶（最差的值）交换到末尾，完成后最优的值在前
+	 *
+	 * @param heapValues 堆的拷贝
+	 * @param heapIds 与堆平行的id的拷贝，可以为null
+	 */
+	private void heapSort(int[] heapValues, long[] heapIds) {
+		int tmpValue;
+		long tmpId;
+		for (int end = heapValues.length - 1; end > 0; end--) {
+			tmpValue = heapValues[0];
+			heapValues[0] = heapValues[end];
+			heapValues[end] = tmpValue;
+			if (null != heapIds) {
+				tmpId = heapIds[0];
+				heapIds[0] = heapIds[end];
+				heapIds[end] = tmpId;
+			}
+			siftDown(heapValues, heapIds, 0, end);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
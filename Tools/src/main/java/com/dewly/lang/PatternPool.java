@@ -52,7 +52,7 @@ public class PatternPool {
 
 	// -------------------------------------------------------------------------------------------------------------------------------------------------------------------
 	/** Pattern池 */
-	private static final SimpleCache<RegexWithFlag, Pattern> POOL = new SimpleCache<>();
+	private static final SimpleCache<RegexWithFlag, CompiledRegex> POOL = new SimpleCache<>();
 	
 	/**
 	 * 先从Pattern池中查找正则对应的{@link Pattern}，找不到则编译正则表达式并入池。
@@ -70,14 +70,26 @@ public class PatternPool {
 	 * @return {@link Pattern}
 	 */
 	public static Pattern get(String regex, int flags) {
-		final RegexWithFlag regexWithFlag = new RegexWithFlag(regex, flags);
-		
-		Pattern pattern = POOL.get(regexWithFlag);
-		if(null == pattern){
-			pattern = Pattern.compile(regex, flags);
-			POOL.put(regexWithFlag, pattern);
-		}
-		return pattern;
+		return getCompiled(regex, flags).getPattern();
+	}
+
+	/**
+	 * 先从Pattern池中查找正则对应的{@link CompiledRegex}，找不到则编译正则表达式、分类并入池。
+	 * @param regex 正则表达式
+	 * @return {@link CompiledRegex}
+	 */
+	public static CompiledRegex getCompiled(String regex) {
+		return getCompiled(regex, 0);
+	}
+
+	/**
+	 * 先从Pattern池中查找正则对应的{@link CompiledRegex}，找不到则编译正则表达式、分类并入池。
+	 * @param regex 正则表达式
+	 * @param flags 正则标识位集合 {@link Pattern}
+	 * @return {@link CompiledRegex}
+	 */
+	public static CompiledRegex getCompiled(String regex, int flags) {
+		return POOL.get(new RegexWithFlag(regex, flags), () -> CompiledRegex.compile(regex, flags));
 	}
 	
 	/**
@@ -87,7 +99,8 @@ public class PatternPool {
 	 * @return 移除的{@link Pattern}，可能为{@code null}
 	 */
 	public static Pattern remove(String regex, int flags){
-		return POOL.remove(new RegexWithFlag(regex, flags));
+		final CompiledRegex removed = POOL.remove(new RegexWithFlag(regex, flags));
+		return (null == removed) ? null : removed.getPattern();
 	}
 	
 	/**
@@ -1,84 +1,646 @@
 package com.dewly.lang;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Array;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.WeakHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
- * 简单缓存，无超时实现，使用{@link WeakHashMap}实现缓存自动清理
+ * 简单缓存，分段加锁实现<br>
+ * <ul>
+ * <li>按键的hash将缓存拆分为多个段，每段独立加锁，不同段之间的读写互不阻塞</li>
+ * <li>容量有上限，超出容量时按LRU（最近最少使用）淘汰</li>
+ * <li>可选写入后过期和访问后过期，过期对象在访问时惰性清理，也可调用{@link #prune()}主动清理</li>
+ * <li>可选弱引用键（同{@link WeakHashMap}），键只被缓存引用时可被回收，适合以{@link Class}等为键的缓存，避免阻止类加载器卸载</li>
+ * <li>{@link #get(Object, Supplier)}保证同一个键只加载一次，加载在锁外进行，不阻塞同段其它键的读写</li>
+ * <li>统计命中、未命中和淘汰次数</li>
+ * </ul>
+ *
  * @author Dewly
  *
  * @param <K> 键类型
  * @param <V> 值类型
  */
 public class SimpleCache<K, V> {
-	/** 池 */
-	private final Map<K, V> cache = new WeakHashMap<>();
-	
-	private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
-	private final ReadLock readLock = cacheLock.readLock();
-	private final WriteLock writeLock = cacheLock.writeLock();
+
+	/** 默认容量 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	/** 默认分段数 */
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+	/** 最大分段数 */
+	private static final int MAX_SEGMENTS = 1 << 16;
+
+	/** 分段 */
+	private final Segment[] segments;
+	/** 是否使用弱引用键 */
+	private final boolean weakKeys;
+	/** 分段掩码 */
+	private final int segmentMask;
+	/** 总容量 */
+	private final int capacity;
+	/** 写入后过期时长，单位毫秒，小于等于0表示不过期 */
+	private final long expireAfterWrite;
+	/** 访问后过期时长，单位毫秒，小于等于0表示不过期 */
+	private final long expireAfterAccess;
+
+	/** 命中次数 */
+	private final LongAdder hitCount = new LongAdder();
+	/** 未命中次数 */
+	private final LongAdder missCount = new LongAdder();
+	/** 淘汰次数（包括容量淘汰、过期清理和弱引用键被回收） */
+	private final LongAdder evictionCount = new LongAdder();
+
+	// ------------------------------------------------------------------------------------------------------------------- Constructor start
+	/**
+	 * 构造，容量为{@link #DEFAULT_CAPACITY}，不过期
+	 */
+	public SimpleCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * 构造，不过期
+	 *
+	 * @param capacity 容量，超出后按LRU淘汰
+	 */
+	public SimpleCache(int capacity) {
+		this(capacity, 0, 0);
+	}
+
+	/**
+	 * 构造，不过期
+	 *
+	 * @param capacity 容量，超出后按LRU淘汰
+	 * @param weakKeys 是否使用弱引用键，键只被缓存引用时可被回收，键按equals比较
+	 */
+	public SimpleCache(int capacity, boolean weakKeys) {
+		this(capacity, DEFAULT_CONCURRENCY_LEVEL, 0, 0, weakKeys);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 容量，超出后按LRU淘汰
+	 * @param expireAfterWrite 写入后过期时长，单位毫秒，小于等于0表示不过期
+	 * @param expireAfterAccess 访问后过期时长，单位毫秒，小于等于0表示不过期
+	 */
+	public SimpleCache(int capacity, long expireAfterWrite, long expireAfterAccess) {
+		this(capacity, DEFAULT_CONCURRENCY_LEVEL, expireAfterWrite, expireAfterAccess);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 容量，超出后按LRU淘汰
+	 * @param concurrencyLevel 并发级别，即分段数，会被调整为不小于此值的2的幂
+	 * @param expireAfterWrite 写入后过期时长，单位毫秒，小于等于0表示不过期
+	 * @param expireAfterAccess 访问后过期时长，单位毫秒，小于等于0表示不过期
+	 */
+	public SimpleCache(int capacity, int concurrencyLevel, long expireAfterWrite, long expireAfterAccess) {
+		this(capacity, concurrencyLevel, expireAfterWrite, expireAfterAccess, false);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param capacity 容量，超出后按LRU淘汰
+	 * @param concurrencyLevel 并发级别，即分段数，会被调整为不小于此值的2的幂
+	 * @param expireAfterWrite 写入后过期时长，单位毫秒，小于等于0表示不过期
+	 * @param expireAfterAccess 访问后过期时长，单位毫秒，小于等于0表示不过期
+	 * @param weakKeys 是否使用弱引用键，键只被缓存引用时可被回收，键按equals比较
+	 */
+	public SimpleCache(int capacity, int concurrencyLevel, long expireAfterWrite, long expireAfterAccess, boolean weakKeys) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be greater than 0");
+
+		// 分段数不多于容量，保证每段至少可以存放一个对象
+		int segmentCount = 1;
+		while (segmentCount < concurrencyLevel && segmentCount < capacity && segmentCount < MAX_SEGMENTS) {
+			segmentCount <<= 1;
+		}
+		this.segmentMask = segmentCount - 1;
+		this.capacity = capacity;
+		this.expireAfterWrite = expireAfterWrite;
+		this.expireAfterAccess = expireAfterAccess;
+		this.weakKeys = weakKeys;
+
+		this.segments = newArray(segmentCount);
+		final int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment(segmentCapacity);
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Constructor end
 
 	/**
 	 * 从缓存池中查找值
-	 * 
+	 *
 	 * @param key 键
-	 * @return 值
+	 * @return 值，不存在或已过期返回{@code null}
 	 */
 	public V get(K key) {
-		// 尝试读取缓存
-		readLock.lock();
+		final long now = now();
+		final Segment segment = segmentFor(key);
 		V value;
+		segment.lock();
 		try {
-			value = cache.get(key);
+			value = segment.getValue(lookupKey(key), now);
 		} finally {
-			readLock.unlock();
+			segment.unlock();
+		}
+		if (null == value) {
+			missCount.increment();
+		} else {
+			hitCount.increment();
 		}
 		return value;
 	}
-	
+
+	/**
+	 * 从缓存池中查找值，不存在时调用supplier加载并放入缓存<br>
+	 * 同一个键同时只有一个线程加载，其它线程等待加载完成后直接获得结果；加载在段锁外进行，不阻塞同段其它键的读写，加载器中也可以访问本缓存。<br>
+	 * 加载期间对此键调用{@link #put(Object, Object)}、{@link #remove(Object)}或{@link #clear()}时，加载结果只返回给等待的线程而不放入缓存。<br>
+	 * supplier返回{@code null}时不缓存。
+	 *
+	 * @param key 键
+	 * @param supplier 值不存在时的加载器
+	 * @return 值
+	 * @throws IllegalStateException 加载器中递归加载同一个键
+	 */
+	public V get(K key, Supplier<V> supplier) {
+		final Segment segment = segmentFor(key);
+		final Loader loader;
+		final boolean isOwner;
+		segment.lock();
+		try {
+			final V value = segment.getValue(lookupKey(key), now());
+			if (null != value) {
+				hitCount.increment();
+				return value;
+			}
+			missCount.increment();
+
+			final Loader loading = segment.loaders.get(key);
+			if (null == loading) {
+				loader = new Loader();
+				segment.loaders.put(key, loader);
+				isOwner = true;
+			} else {
+				loader = loading;
+				isOwner = false;
+			}
+		} finally {
+			segment.unlock();
+		}
+
+		if (false == isOwner) {
+			return loader.await();
+		}
+
+		try {
+			loader.value = supplier.get();
+		} catch (RuntimeException | Error e) {
+			loader.error = e;
+		}
+
+		segment.lock();
+		try {
+			// 加载期间键被put、remove或clear时，加载结果已过时，不放入缓存
+			if (segment.loaders.get(key) == loader) {
+				segment.loaders.remove(key);
+				if (null != loader.value) {
+					// 加载可能耗时，重新取时间作为写入时间
+					segment.put(newKey(key, segment), new CacheObj<>(loader.value, now()));
+				}
+			}
+		} finally {
+			segment.unlock();
+		}
+		loader.latch.countDown();
+		return loader.result();
+	}
+
 	/**
 	 * 放入缓存
+	 *
 	 * @param key 键
 	 * @param value 值
 	 * @return 值
 	 */
-	public V put(K key, V value){
-		writeLock.lock();
+	public V put(K key, V value) {
+		final Segment segment = segmentFor(key);
+		segment.lock();
 		try {
-			cache.put(key, value);
+			segment.loaders.remove(key);
+			segment.put(newKey(key, segment), new CacheObj<>(value, now()));
 		} finally {
-			writeLock.unlock();
+			segment.unlock();
 		}
 		return value;
 	}
 
 	/**
 	 * 移除缓存
-	 * 
+	 *
 	 * @param key 键
 	 * @return 移除的值
 	 */
 	public V remove(K key) {
-		writeLock.lock();
+		final Segment segment = segmentFor(key);
+		final CacheObj<V> removed;
+		segment.lock();
 		try {
-			return cache.remove(key);
+			segment.loaders.remove(key);
+			removed = segment.remove(lookupKey(key));
 		} finally {
-			writeLock.unlock();
+			segment.unlock();
 		}
+		return (null == removed) ? null : removed.value;
 	}
 
 	/**
-	 * 清空缓存池
+	 * 清空缓存池，统计数据不清空
 	 */
 	public void clear() {
-		writeLock.lock();
-		try {
-			this.cache.clear();
-		} finally {
-			writeLock.unlock();
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				segment.clear();
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 清理过期对象，未设置过期时长时什么也不做
+	 *
+	 * @return 清理的对象数
+	 */
+	public int prune() {
+		if (false == isExpirable()) {
+			return 0;
+		}
+
+		final long now = now();
+		int count = 0;
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				segment.expungeStaleKeys();
+				final Iterator<CacheObj<V>> iterator = segment.values().iterator();
+				while (iterator.hasNext()) {
+					if (isExpired(iterator.next(), now)) {
+						iterator.remove();
+						count++;
+					}
+				}
+			} finally {
+				segment.unlock();
+			}
+		}
+		evictionCount.add(count);
+		return count;
+	}
+
+	/**
+	 * 缓存对象数，可能包含尚未清理的过期对象和键已被回收的对象
+	 *
+	 * @return 缓存对象数
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				size += segment.size();
+			} finally {
+				segment.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 获得容量
+	 *
+	 * @return 容量
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 获得命中次数
+	 *
+	 * @return 命中次数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 获得未命中次数
+	 *
+	 * @return 未命中次数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 获得淘汰次数，包括超出容量淘汰和过期清理
+	 *
+	 * @return 淘汰次数
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SimpleCache [capacity=" + capacity + ", size=" + size() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() + ", evictionCount=" + getEvictionCount() + "]";
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 创建段数组
+	 *
+	 * @param <T> 元素类型
+	 * @param length 长度
+	 * @param empty 不传，用于获得元素类型
+	 * @return 数组
+	 */
+	@SafeVarargs
+	@SuppressWarnings("unchecked")
+	private static <T> T[] newArray(int length, T... empty) {
+		return (T[]) Array.newInstance(empty.getClass().getComponentType(), length);
+	}
+
+	/**
+	 * 查找用的键，弱引用键模式下包装为不入队的{@link WeakKey}
+	 *
+	 * @param key 键
+	 * @return 段内Map的键
+	 */
+	private Object lookupKey(K key) {
+		return (weakKeys && null != key) ? new WeakKey(key, null) : key;
+	}
+
+	/**
+	 * 存放用的键，弱引用键模式下包装为{@link WeakKey}，被回收后进入段的引用队列
+	 *
+	 * @param key 键
+	 * @param segment 键所在的段
+	 * @return 段内Map的键
+	 */
+	private Object newKey(K key, Segment segment) {
+		return (weakKeys && null != key) ? new WeakKey(key, segment.queue) : key;
+	}
+
+	/**
+	 * 是否设置了过期时长
+	 *
+	 * @return 是否设置了过期时长
+	 */
+	private boolean isExpirable() {
+		return expireAfterWrite > 0 || expireAfterAccess > 0;
+	}
+
+	/**
+	 * 当前时间，未设置过期时长时不读取系统时钟
+	 *
+	 * @return 当前毫秒数，未设置过期时长返回0
+	 */
+	private long now() {
+		return isExpirable() ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) : 0;
+	}
+
+	/**
+	 * 对象是否过期
+	 *
+	 * @param cacheObj 缓存对象
+	 * @param now 当前时间
+	 * @return 是否过期
+	 */
+	private boolean isExpired(CacheObj<V> cacheObj, long now) {
+		if (expireAfterWrite > 0 && now - cacheObj.writeTime >= expireAfterWrite) {
+			return true;
+		}
+		return expireAfterAccess > 0 && now - cacheObj.accessTime >= expireAfterAccess;
+	}
+
+	/**
+	 * 获得键所在的段
+	 *
+	 * @param key 键
+	 * @return 段
+	 */
+	private Segment segmentFor(K key) {
+		int h = (null == key) ? 0 : key.hashCode();
+		// 扰动，避免低位相同的hash集中在同一段
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return segments[h & segmentMask];
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 缓存分段，按访问顺序排序的{@link LinkedHashMap}，超出段容量时淘汰最久未使用的对象<br>
+	 * 弱引用键模式下Map的键为{@link WeakKey}，被回收的键在每次操作前清理<br>
+	 * 所有操作须在持有段锁时调用
+	 */
+	private final class Segment extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+
+		private final LinkedHashMap<Object, CacheObj<V>> map;
+		/** 正在加载的键 */
+		final Map<K, Loader> loaders = new HashMap<>();
+		/** 被回收的弱引用键 */
+		final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+		Segment(final int segmentCapacity) {
+			this.map = new LinkedHashMap<Object, CacheObj<V>>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, CacheObj<V>> eldest) {
+					if (size() > segmentCapacity) {
+						evictionCount.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+
+		/**
+		 * 获取未过期的值，过期的对象会被移除
+		 *
+		 * @param key 键
+		 * @param now 当前时间
+		 * @return 值
+		 */
+		V getValue(Object key, long now) {
+			expungeStaleKeys();
+			final CacheObj<V> cacheObj = map.get(key);
+			if (null == cacheObj) {
+				return null;
+			}
+			if (isExpired(cacheObj, now)) {
+				map.remove(key);
+				evictionCount.increment();
+				return null;
+			}
+			cacheObj.accessTime = now;
+			return cacheObj.value;
+		}
+
+		void put(Object key, CacheObj<V> cacheObj) {
+			expungeStaleKeys();
+			map.put(key, cacheObj);
+		}
+
+		CacheObj<V> remove(Object key) {
+			expungeStaleKeys();
+			return map.remove(key);
+		}
+
+		void clear() {
+			map.clear();
+			loaders.clear();
+			// 已清空，丢弃队列中的引用
+			while (null != queue.poll()) {
+			}
+		}
+
+		int size() {
+			expungeStaleKeys();
+			return map.size();
+		}
+
+		/**
+		 * 移除键已被回收的对象，非弱引用键模式下队列始终为空
+		 */
+		void expungeStaleKeys() {
+			Object ref;
+			while (null != (ref = queue.poll())) {
+				// WeakKey与自身相等，被回收后仍可按引用本身移除
+				if (null != map.remove(ref)) {
+					evictionCount.increment();
+				}
+			}
+		}
+
+		Iterable<CacheObj<V>> values() {
+			return map.values();
+		}
+	}
+
+	/**
+	 * 正在进行的加载，等待的线程在{@link #latch}上阻塞
+	 */
+	private final class Loader {
+		/** 加载线程，用于检测递归加载 */
+		final Thread thread = Thread.currentThread();
+		final CountDownLatch latch = new CountDownLatch(1);
+		V value;
+		Throwable error;
+
+		/**
+		 * 等待加载完成
+		 *
+		 * @return 加载的值
+		 */
+		V await() {
+			if (thread == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of the same key");
+			}
+			boolean interrupted = false;
+			while (true) {
+				try {
+					latch.await();
+					break;
+				} catch (InterruptedException e) {
+					// 加载结果对所有等待线程都有效，等待完成后恢复中断状态
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return result();
+		}
+
+		/**
+		 * 加载结果，加载器抛出的异常原样抛出
+		 *
+		 * @return 加载的值
+		 */
+		V result() {
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * 弱引用键，缓存hash，按引用对象的equals比较；被回收后只与自身相等
+	 */
+	private static final class WeakKey extends WeakReference<Object> {
+		private final int hash;
+
+		WeakKey(Object key, ReferenceQueue<Object> queue) {
+			super(key, queue);
+			this.hash = key.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj instanceof WeakKey) {
+				final Object key = get();
+				return null != key && key.equals(((WeakKey) obj).get());
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * 缓存对象，记录写入和访问时间
+	 *
+	 * @param <V> 值类型
+	 */
+	private static class CacheObj<V> {
+		private final V value;
+		private final long writeTime;
+		private long accessTime;
+
+		CacheObj(V value, long now) {
+			this.value = value;
+			this.writeTime = now;
+			this.accessTime = now;
 		}
 	}
 }
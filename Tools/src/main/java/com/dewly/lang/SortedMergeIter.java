@@ -0,0 +1,183 @@
+package com.dewly.lang;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.dewly.exceptions.UtilException;
+
+/**
+ * 多路归并迭代器<br>
+ * 将多个已排序的迭代器按照比较器惰性归并为一个有序迭代器，内部使用以各路当前元素为键的二叉堆，每取出一个元素耗时O(log k)，只会读取实际取出的元素。<br>
+ * 比较相等的元素按照输入迭代器的顺序输出，同一输入内保持原有顺序，结果与将所有输入拼接后稳定排序一致。<br>
+ * 如果发现某一路输入未排序则抛出{@link UtilException}。<br>
+ * 非线程安全。
+ *
+ * @author Dewly
+ *
+ * @param <T> 元素类型
+ */
+public class SortedMergeIter<T> implements Iterator<T> {
+
+	/** 比较器，null表示使用自然顺序 */
+	private final Comparator<? super T> comparator;
+	/** 各路输入 */
+	private final Iterator<? extends T>[] iters;
+	/** 各路当前元素 */
+	private final Object[] heads;
+	/** 堆，存放输入下标，堆顶为当前最小元素所在的输入 */
+	private final int[] heap;
+	/** 堆大小，即未耗尽的输入数 */
+	private int size;
+	/** 剩余可输出的元素数 */
+	private long remaining = Long.MAX_VALUE;
+
+	/**
+	 * 构造
+	 *
+	 * @param comparator 比较器，null表示使用自然顺序，此时元素必须实现{@link Comparable}
+	 * @param iters 已排序的输入，只读取不修改
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public SortedMergeIter(Comparator<? super T> comparator, Iterator<? extends T>... iters) {
+		this.comparator = comparator;
+		this.iters = iters;
+		this.heads = new Object[iters.length];
+		this.heap = new int[iters.length];
+		for (int i = 0; i < iters.length; i++) {
+			if (null != iters[i] && iters[i].hasNext()) {
+				heads[i] = iters[i].next();
+				heap[size] = i;
+				siftUp(size++);
+			}
+		}
+	}
+
+	/**
+	 * 跳过指定个数的元素，跳过的元素不会被保存
+	 *
+	 * @param n 跳过的个数
+	 * @return this
+	 */
+	public SortedMergeIter<T> skip(long n) {
+		while (n-- > 0 && hasNext()) {
+			next();
+		}
+		return this;
+	}
+
+	/**
+	 * 限制之后最多输出的元素个数
+	 *
+	 * @param maxSize 最多输出的个数
+	 * @return this
+	 */
+	public SortedMergeIter<T> limit(long maxSize) {
+		Assert.isTrue(maxSize >= 0, "MaxSize must not be negative");
+		this.remaining = maxSize;
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return size > 0 && remaining > 0;
+	}
+
+	@Override
+	public T next() {
+		if (false == hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final int index = heap[0];
+		@SuppressWarnings("unchecked")
+		final T result = (T) heads[index];
+		final Iterator<? extends T> iter = iters[index];
+		if (iter.hasNext()) {
+			final T head = iter.next();
+			if (compare(head, result) < 0) {
+				throw new UtilException("Input [{}] is not sorted: [{}] after [{}]", index, head, result);
+			}
+			heads[index] = head;
+		} else {
+			heads[index] = null;
+			heap[0] = heap[--size];
+		}
+		if (size > 0) {
+			siftDown(0);
+		}
+		remaining--;
+		return result;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 比较两个元素
+	 *
+	 * @param a 元素a
+	 * @param b 元素b
+	 * @return 比较结果
+	 */
+	@SuppressWarnings("unchecked")
+	private int compare(Object a, Object b) {
+		if (null == comparator) {
+			return ((Comparable<Object>) a).compareTo(b);
+		}
+		return comparator.compare((T) a, (T) b);
+	}
+
+	/**
+	 * 输入i的当前元素是否应排在输入j之前，相等时下标小的在前，保证稳定
+	 *
+	 * @param i 输入下标i
+	 * @param j 输入下标j
+	 * @return 是否在前
+	 */
+	private boolean isBefore(int i, int j) {
+		final int result = compare(heads[i], heads[j]);
+		return result < 0 || (0 == result && i < j);
+	}
+
+	/**
+	 * 上浮
+	 *
+	 * @param pos 堆中位置
+	 */
+	private void siftUp(int pos) {
+		final int index = heap[pos];
+		int parent;
+		while (pos > 0) {
+			parent = (pos - 1) >>> 1;
+			if (false == isBefore(index, heap[parent])) {
+				break;
+			}
+			heap[pos] = heap[parent];
+			pos = parent;
+		}
+		heap[pos] = index;
+	}
+
+	/**
+	 * 下沉
+	 *
+	 * @param pos 堆中位置
+	 */
+	private void siftDown(int pos) {
+		final int index = heap[pos];
+		final int half = size >>> 1;
+		int child;
+		while (pos < half) {
+			child = (pos << 1) + 1;
+			if (child + 1 < size && isBefore(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (false == isBefore(heap[child], index)) {
+				break;
+			}
+			heap[pos] = heap[child];
+			pos = child;
+		}
+		heap[pos] = index;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
@@ -4,7 +4,8 @@ import com.dewly.util.ArrayUtil;
 import com.dewly.util.StrUtil;
 
 /**
- * 字符串格式化工具
+ * 字符串格式化工具<br>
+ * 模板由{@link CompiledTemplate}编译并缓存
  * @author Looly
  *
  */
@@ -26,47 +27,7 @@ public class StrFormatter {
 		if (StrUtil.isBlank(strPattern) || ArrayUtil.isEmpty(argArray)) {
 			return strPattern;
 		}
-		final int strPatternLength = strPattern.length();
-
-		//初始化定义好的长度以获得更好的性能
-		StringBuilder sbuf = new StringBuilder(strPatternLength + 50);
-
-		int handledPosition = 0;//记录已经处理到的位置
-		int delimIndex;//占位符所在位置
-		for (int argIndex = 0; argIndex < argArray.length; argIndex++) {
-			delimIndex = strPattern.indexOf(StrUtil.EMPTY_JSON, handledPosition);
-			if (delimIndex == -1) {//剩余部分无占位符
-				if (handledPosition == 0) { //不带占位符的模板直接返回
-					return strPattern;
-				} else { //字符串模板剩余部分不再包含占位符，加入剩余部分后返回结果
-					sbuf.append(strPattern, handledPosition, strPatternLength);
-					return sbuf.toString();
-				}
-			} else {
-				if (delimIndex > 0 && strPattern.charAt(delimIndex - 1) == StrUtil.C_BACKSLASH) {//转义符
-					if (delimIndex > 1 && strPattern.charAt(delimIndex - 2) == StrUtil.C_BACKSLASH) {//双转义符
-						//转义符之前还有一个转义符，占位符依旧有效
-						sbuf.append(strPattern, handledPosition, delimIndex - 1);
-						sbuf.append(StrUtil.utf8Str(argArray[argIndex]));
-						handledPosition = delimIndex + 2;
-					} else {
-						//占位符被转义
-						argIndex--;
-						sbuf.append(strPattern, handledPosition, delimIndex - 1);
-						sbuf.append(StrUtil.C_DELIM_START);
-						handledPosition = delimIndex + 1;
-					}
-				} else {//正常占位符
-					sbuf.append(strPattern, handledPosition, delimIndex);
-					sbuf.append(StrUtil.utf8Str(argArray[argIndex]));
-					handledPosition = delimIndex + 2;
-				}
-			}
-		}
-		// append the characters following the last {} pair.
-		//加入最后一个占位符后所有的字符
-		sbuf.append(strPattern, handledPosition, strPattern.length());
-		
-		return sbuf.toString();
+		// 模板编译后缓存，之后只做拼接
+		return CompiledTemplate.of(strPattern).format(argArray);
 	}
 }
@@ -0,0 +1,203 @@
+package com.dewly.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.dewly.io.IORuntimeException;
+
+/**
+ * {@link Appendable}包装，供join等方法直接向调用方的缓冲输出<br>
+ * <ul>
+ * <li>{@link StringBuilder}直接调用其原始类型的append方法</li>
+ * <li>{@link Writer}和其它{@link Appendable}的整数写入复用同一个字符缓冲，不生成中间字符串</li>
+ * <li>{@link IOException}包装为{@link IORuntimeException}</li>
+ * </ul>
+ * 非线程安全，只在一次join调用内使用
+ *
+ * @author Dewly
+ *
+ */
+final class Appender {
+
+	/** long最长为20个字符（含负号） */
+	private static final int MAX_LONG_CHARS = 20;
+
+	private final Appendable out;
+	/** out为StringBuilder时的引用，用于快速路径 */
+	private final StringBuilder builder;
+	/** out为Writer时的引用，用于快速路径 */
+	private final Writer writer;
+	/** 整数转字符的缓冲，按需创建 */
+	private char[] digits;
+
+	/**
+	 * 构造
+	 *
+	 * @param out 输出
+	 */
+	Appender(Appendable out) {
+		this.out = out;
+		this.builder = (out instanceof StringBuilder) ? (StringBuilder) out : null;
+		this.writer = (out instanceof Writer) ? (Writer) out : null;
+	}
+
+	/**
+	 * 输出为{@link StringBuilder}时预先扩容
+	 *
+	 * @param additional 将要追加的长度
+	 * @return this
+	 */
+	Appender ensureCapacity(int additional) {
+		if (null != builder && additional > 0) {
+			builder.ensureCapacity(builder.length() + additional);
+		}
+		return this;
+	}
+
+	/**
+	 * 追加字符串，null追加"null"
+	 *
+	 * @param csq 字符串
+	 * @return this
+	 */
+	Appender append(CharSequence csq) {
+		if (null != builder) {
+			builder.append(csq);
+			return this;
+		}
+		try {
+			out.append(csq);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * 追加字符
+	 *
+	 * @param c 字符
+	 * @return this
+	 */
+	Appender append(char c) {
+		if (null != builder) {
+			builder.append(c);
+			return this;
+		}
+		try {
+			out.append(c);
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * 追加整数，不装箱不生成中间字符串
+	 *
+	 * @param value 值
+	 * @return this
+	 */
+	Appender append(long value) {
+		if (null != builder) {
+			builder.append(value);
+			return this;
+		}
+		if (null == digits) {
+			digits = new char[MAX_LONG_CHARS];
+		}
+		int pos = MAX_LONG_CHARS;
+		// 以负数计算，避免Long.MIN_VALUE取反溢出
+		long v = value > 0 ? -value : value;
+		do {
+			digits[--pos] = (char) ('0' - (v % 10));
+			v /= 10;
+		} while (v != 0);
+		if (value < 0) {
+			digits[--pos] = '-';
+		}
+		try {
+			if (null != writer) {
+				writer.write(digits, pos, MAX_LONG_CHARS - pos);
+			} else {
+				for (int i = pos; i < MAX_LONG_CHARS; i++) {
+					out.append(digits[i]);
+				}
+			}
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * 追加boolean
+	 *
+	 * @param value 值
+	 * @return this
+	 */
+	Appender append(boolean value) {
+		return append(value ? "true" : "false");
+	}
+
+	/**
+	 * 追加float
+	 *
+	 * @param value 值
+	 * @return this
+	 */
+	Appender append(float value) {
+		if (null != builder) {
+			builder.append(value);
+			return this;
+		}
+		return append(Float.toString(value));
+	}
+
+	/**
+	 * 追加double
+	 *
+	 * @param value 值
+	 * @return this
+	 */
+	Appender append(double value) {
+		if (null != builder) {
+			builder.append(value);
+			return this;
+		}
+		return append(Double.toString(value));
+	}
+
+	/**
+	 * 追加对象，{@link CharSequence}直接追加，其它对象调用{@link String#valueOf(Object)}
+	 *
+	 * @param obj 对象
+	 * @return this
+	 */
+	Appender append(Object obj) {
+		if (obj instanceof CharSequence) {
+			return append((CharSequence) obj);
+		}
+		if (null != builder) {
+			builder.append(obj);
+			return this;
+		}
+		return append(String.valueOf(obj));
+	}
+
+	/**
+	 * 整数的十进制字符数（含负号）
+	 *
+	 * @param value 值
+	 * @return 字符数
+	 */
+	static int stringSize(long value) {
+		int size = 1;
+		long v = value > 0 ? -value : value;
+		while (v <= -10) {
+			v /= 10;
+			size++;
+		}
+		return value < 0 ? size + 1 : size;
+	}
+}
@@ -0,0 +1,518 @@
+package com.dewly.util;
+
+import java.util.Arrays;
+
+import com.dewly.lang.Assert;
+
+/**
+ * 原始类型数组的查找索引<br>
+ * {@link ArrayUtil#indexOf(int[], int)}等方法每次都是线性查找，对同一个数组反复查找时，可以先建立索引，之后每次查找为O(1)或O(log n)：
+ * <ul>
+ * <li>{@link Mode#BITSET}：整数类型且取值范围较密集（范围不超过元素个数的4倍）时，使用位图判断是否存在，使用按值偏移的数组记录位置</li>
+ * <li>{@link Mode#BINARY_SEARCH}：数组已升序排列时二分查找</li>
+ * <li>{@link Mode#HASH}：其它情况使用开放寻址的原始类型Hash表</li>
+ * </ul>
+ * 元素比较规则与{@link ArrayUtil}相同，即使用==比较：浮点数的NaN不与任何值相等，0.0与-0.0相等。<br>
+ * 索引建立后修改原数组不会反映到索引中。索引不可变，可以在多线程中共享。
+ *
+ * @author Dewly
+ *
+ */
+public final class ArrayIndex {
+
+	/**
+	 * 查找方式
+	 */
+	public enum Mode {
+		/** 二分查找，要求数组升序 */
+		BINARY_SEARCH,
+		/** 位图，仅用于整数类型 */
+		BITSET,
+		/** 开放寻址Hash表 */
+		HASH
+	}
+
+	/** 自动选择时，位图的取值范围不超过元素个数的倍数 */
+	private static final int DENSE_FACTOR = 4;
+	/** 位图的取值范围上限 */
+	private static final long MAX_BITSET_RANGE = 1L << 28;
+	/** 空槽位标记 */
+	private static final int EMPTY = -1;
+
+	/** 查找方式 */
+	private final Mode mode;
+	/** 是否为浮点数数组 */
+	private final boolean isFloating;
+	/** 元素个数 */
+	private final int size;
+
+	/** BINARY_SEARCH：升序的键；HASH：Hash表的键 */
+	private long[] keys;
+	/** BITSET：最小值，其它值以此为偏移 */
+	private long min;
+	/** BITSET：位图 */
+	private long[] words;
+	/** HASH：Hash表掩码 */
+	private int mask;
+	/** BITSET、HASH：值第一次出现的位置，HASH中{@link #EMPTY}表示空槽位 */
+	private int[] firsts;
+	/** BITSET、HASH：值最后一次出现的位置 */
+	private int[] lasts;
+
+	// ------------------------------------------------------------------------------------------------------------------- of
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(long[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(long[] array, Mode mode) {
+		return new ArrayIndex(array.clone(), false, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(int[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(int[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = array[i];
+		}
+		return new ArrayIndex(keys, false, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(short[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(short[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = array[i];
+		}
+		return new ArrayIndex(keys, false, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(char[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(char[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = array[i];
+		}
+		return new ArrayIndex(keys, false, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(byte[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(byte[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = array[i];
+		}
+		return new ArrayIndex(keys, false, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(double[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引，浮点数不支持{@link Mode#BITSET}
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(double[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = toKey(array[i]);
+		}
+		return new ArrayIndex(keys, true, mode);
+	}
+
+	/**
+	 * 建立索引，自动选择查找方式
+	 *
+	 * @param array 数组
+	 * @return 索引
+	 */
+	public static ArrayIndex of(float[] array) {
+		return of(array, null);
+	}
+
+	/**
+	 * 建立索引，浮点数不支持{@link Mode#BITSET}
+	 *
+	 * @param array 数组
+	 * @param mode 查找方式，null表示自动选择
+	 * @return 索引
+	 */
+	public static ArrayIndex of(float[] array, Mode mode) {
+		final long[] keys = new long[array.length];
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = toKey(array[i]);
+		}
+		return new ArrayIndex(keys, true, mode);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Constructor
+	/**
+	 * 构造
+	 *
+	 * @param keys 数组转换后的键，整数为原值，浮点数为{@link #toKey(double)}的结果；此数组会被索引直接使用
+	 * @param isFloating 是否为浮点数数组
+	 * @param mode 查找方式，null表示自动选择
+	 */
+	private ArrayIndex(long[] keys, boolean isFloating, Mode mode) {
+		this.isFloating = isFloating;
+		this.size = keys.length;
+
+		long minKey = Long.MAX_VALUE;
+		long maxKey = Long.MIN_VALUE;
+		boolean isSorted = true;
+		for (int i = 0; i < keys.length; i++) {
+			minKey = Math.min(minKey, keys[i]);
+			maxKey = Math.max(maxKey, keys[i]);
+			if (i > 0 && keys[i] < keys[i - 1]) {
+				isSorted = false;
+			}
+		}
+		// 差值溢出时为负数
+		final long range = maxKey - minKey;
+
+		if (null == mode) {
+			if (false == isFloating && keys.length > 0 && range >= 0 && range < Math.min((long) keys.length * DENSE_FACTOR, MAX_BITSET_RANGE)) {
+				mode = Mode.BITSET;
+			} else if (isSorted) {
+				mode = Mode.BINARY_SEARCH;
+			} else {
+				mode = Mode.HASH;
+			}
+		}
+		this.mode = mode;
+
+		switch (mode) {
+		case BINARY_SEARCH:
+			Assert.isTrue(isSorted, "Array must be sorted in ascending order for binary search");
+			this.keys = keys;
+			break;
+		case BITSET:
+			Assert.isTrue(false == isFloating, "Bitset is not supported for floating point array");
+			Assert.isTrue(range >= 0 && range < MAX_BITSET_RANGE, "Value range [{}, {}] is too large for bitset", minKey, maxKey);
+			buildBitset(keys, keys.length > 0 ? minKey : 0, keys.length > 0 ? (int) range + 1 : 0);
+			break;
+		default:
+			buildHash(keys);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Lookup
+	/**
+	 * 是否包含指定值
+	 *
+	 * @param value 值，char、byte、short、int会自动转为long
+	 * @return 是否包含
+	 */
+	public boolean contains(long value) {
+		return indexOf(value) > ArrayUtil.INDEX_NOT_FOUND;
+	}
+
+	/**
+	 * 是否包含指定值
+	 *
+	 * @param value 值，float会自动转为double
+	 * @return 是否包含
+	 */
+	public boolean contains(double value) {
+		return indexOf(value) > ArrayUtil.INDEX_NOT_FOUND;
+	}
+
+	/**
+	 * 指定值第一次出现的位置，未找到返回{@link ArrayUtil#INDEX_NOT_FOUND}
+	 *
+	 * @param value 值，char、byte、short、int会自动转为long
+	 * @return 位置
+	 */
+	public int indexOf(long value) {
+		return find(isFloating ? toKey((double) value) : value, true);
+	}
+
+	/**
+	 * 指定值第一次出现的位置，未找到返回{@link ArrayUtil#INDEX_NOT_FOUND}
+	 *
+	 * @param value 值，float会自动转为double
+	 * @return 位置
+	 */
+	public int indexOf(double value) {
+		if (isFloating) {
+			return Double.isNaN(value) ? ArrayUtil.INDEX_NOT_FOUND : find(toKey(value), true);
+		}
+		return (value == (long) value) ? find((long) value, true) : ArrayUtil.INDEX_NOT_FOUND;
+	}
+
+	/**
+	 * 指定值最后一次出现的位置，未找到返回{@link ArrayUtil#INDEX_NOT_FOUND}
+	 *
+	 * @param value 值，char、byte、short、int会自动转为long
+	 * @return 位置
+	 */
+	public int lastIndexOf(long value) {
+		return find(isFloating ? toKey((double) value) : value, false);
+	}
+
+	/**
+	 * 指定值最后一次出现的位置，未找到返回{@link ArrayUtil#INDEX_NOT_FOUND}
+	 *
+	 * @param value 值，float会自动转为double
+	 * @return 位置
+	 */
+	public int lastIndexOf(double value) {
+		if (isFloating) {
+			return Double.isNaN(value) ? ArrayUtil.INDEX_NOT_FOUND : find(toKey(value), false);
+		}
+		return (value == (long) value) ? find((long) value, false) : ArrayUtil.INDEX_NOT_FOUND;
+	}
+
+	/**
+	 * 查找方式
+	 *
+	 * @return 查找方式
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * 原数组长度
+	 *
+	 * @return 原数组长度
+	 */
+	public int size() {
+		return size;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 查找键
+	 *
+	 * @param key 键
+	 * @param isFirst true返回第一次出现的位置，false返回最后一次出现的位置
+	 * @return 位置
+	 */
+	private int find(long key, boolean isFirst) {
+		switch (mode) {
+		case BITSET:
+			final long offset = key - min;
+			if (offset < 0 || offset >= firsts.length || 0 == (words[(int) (offset >>> 6)] & (1L << offset))) {
+				return ArrayUtil.INDEX_NOT_FOUND;
+			}
+			return isFirst ? firsts[(int) offset] : lasts[(int) offset];
+		case BINARY_SEARCH:
+			final int index = isFirst ? lowerBound(key) : upperBound(key) - 1;
+			return (index >= 0 && index < keys.length && keys[index] == key) ? index : ArrayUtil.INDEX_NOT_FOUND;
+		default:
+			int slot = hash(key) & mask;
+			while (EMPTY != firsts[slot]) {
+				if (keys[slot] == key) {
+					return isFirst ? firsts[slot] : lasts[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return ArrayUtil.INDEX_NOT_FOUND;
+		}
+	}
+
+	/**
+	 * 第一个不小于key的位置
+	 *
+	 * @param key 键
+	 * @return 位置
+	 */
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = keys.length;
+		int mid;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			if (keys[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 第一个大于key的位置
+	 *
+	 * @param key 键
+	 * @return 位置
+	 */
+	private int upperBound(long key) {
+		int low = 0;
+		int high = keys.length;
+		int mid;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			if (keys[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 建立位图
+	 *
+	 * @param keys 键
+	 * @param minKey 最小键
+	 * @param range 取值范围
+	 */
+	private void buildBitset(long[] keys, long minKey, int range) {
+		this.min = minKey;
+		this.words = new long[(range + 63) >>> 6];
+		this.firsts = new int[range];
+		this.lasts = new int[range];
+		int offset;
+		for (int i = 0; i < keys.length; i++) {
+			offset = (int) (keys[i] - minKey);
+			if (0 == (words[offset >>> 6] & (1L << offset))) {
+				words[offset >>> 6] |= 1L << offset;
+				firsts[offset] = i;
+			}
+			lasts[offset] = i;
+		}
+	}
+
+	/**
+	 * 建立Hash表，负载因子不超过0.5
+	 *
+	 * @param arrayKeys 键
+	 */
+	private void buildHash(long[] arrayKeys) {
+		final int capacity = Math.max(Integer.highestOneBit(Math.max(arrayKeys.length, 1)) << 2, 16);
+		this.mask = capacity - 1;
+		this.keys = new long[capacity];
+		this.firsts = new int[capacity];
+		this.lasts = new int[capacity];
+		Arrays.fill(firsts, EMPTY);
+		long key;
+		int slot;
+		for (int i = 0; i < arrayKeys.length; i++) {
+			key = arrayKeys[i];
+			slot = hash(key) & mask;
+			while (EMPTY != firsts[slot] && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (EMPTY == firsts[slot]) {
+				keys[slot] = key;
+				firsts[slot] = i;
+			}
+			lasts[slot] = i;
+		}
+	}
+
+	/**
+	 * 键的hash，乘法散列后取高位
+	 *
+	 * @param key 键
+	 * @return hash
+	 */
+	private static int hash(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+	}
+
+	/**
+	 * 浮点数转为键，键的大小顺序与浮点数一致，0.0与-0.0转为相同的键
+	 *
+	 * @param value 浮点数
+	 * @return 键
+	 */
+	private static long toKey(double value) {
+		if (0 == value) {
+			return 0;
+		}
+		final long bits = Double.doubleToRawLongBits(value);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+}
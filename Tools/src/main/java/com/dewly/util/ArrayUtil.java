@@ -5,10 +5,14 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import com.dewly.exceptions.UtilException;
+import com.dewly.io.IORuntimeException;
 import com.dewly.lang.Editor;
 
 /**
@@ -1362,6 +1366,66 @@ public class ArrayUtil {
 		return obj.toString();
 	}
 
+	/**
+	 * 数组或集合转String并追加到out中，格式与{@link #toString(Object)}相同，不生成中间字符串<br>
+	 * obj为{@code null}时追加"null"
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param obj 集合或数组对象
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A toString(A out, Object obj) throws IORuntimeException {
+		final Appender appender = new Appender(out);
+		if (null != obj && obj.getClass().isArray()) {
+			appendArray(appender, obj, null);
+		} else {
+			appender.append(String.valueOf(obj));
+		}
+		return out;
+	}
+
+	/**
+	 * 按{@link Arrays#deepToString(Object[])}的格式将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param dejaVu 已经在输出中的数组，用于检测自引用，{@code null}表示顶层
+	 */
+	private static void appendArray(Appender appender, Object array, Set<Object[]> dejaVu) {
+		appender.append('[');
+		if (array instanceof Object[]) {
+			final Object[] objs = (Object[]) array;
+			if (null == dejaVu) {
+				dejaVu = Collections.newSetFromMap(new IdentityHashMap<Object[], Boolean>());
+			}
+			dejaVu.add(objs);
+			Object item;
+			for (int i = 0; i < objs.length; i++) {
+				if (i > 0) {
+					appender.append(", ");
+				}
+				item = objs[i];
+				if (null == item) {
+					appender.append("null");
+				} else if (item.getClass().isArray()) {
+					if (dejaVu.contains(item)) {
+						appender.append("[...]");
+					} else {
+						appendArray(appender, item, dejaVu);
+					}
+				} else {
+					appender.append(item.toString());
+				}
+			}
+			dejaVu.remove(objs);
+		} else {
+			appendJoin(appender, array, ", ");
+		}
+		appender.append(']');
+	}
+
 	/**
 	 * 获取数组长度<br>
 	 * 如果参数为{@code null}，返回0
@@ -1399,26 +1463,26 @@ public class ArrayUtil {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (T item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			if (ArrayUtil.isArray(item)) {
-				sb.append(join(ArrayUtil.wrap(item), conjunction));
-			} else if (item instanceof Iterable<?>) {
-				sb.append(CollectionUtil.join((Iterable<?>) item, conjunction));
-			} else if (item instanceof Iterator<?>) {
-				sb.append(CollectionUtil.join((Iterator<?>) item, conjunction));
-			} else {
-				sb.append(item);
-			}
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不生成中间字符串<br>
+	 * 元素为数组、{@link Iterable}或{@link Iterator}时递归连接
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param <T> 被处理的集合
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable, T> A joinTo(A out, T[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1428,22 +1492,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(long[] array, String conjunction) {
+	public static String join(long[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (long item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, long[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1453,22 +1523,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(int[] array, String conjunction) {
+	public static String join(int[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (int item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, int[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1478,22 +1554,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(short[] array, String conjunction) {
+	public static String join(short[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (short item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, short[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1503,22 +1585,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(char[] array, String conjunction) {
+	public static String join(char[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (char item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, char[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1528,22 +1616,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(byte[] array, String conjunction) {
+	public static String join(byte[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (byte item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, byte[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1553,22 +1647,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(boolean[] array, String conjunction) {
+	public static String join(boolean[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (boolean item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, boolean[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1578,22 +1678,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(float[] array, String conjunction) {
+	public static String join(float[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (float item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, float[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1603,22 +1709,28 @@ public class ArrayUtil {
 	 * @param conjunction 分隔符
 	 * @return 连接后的字符串
 	 */
-	public static String join(double[] array, String conjunction) {
+	public static String join(double[] array, CharSequence conjunction) {
 		if (null == array) {
 			return null;
 		}
+		return joinTo(new StringBuilder(joinLength(array, conjunction)), array, conjunction).toString();
+	}
 
-		final StringBuilder sb = new StringBuilder();
-		boolean isFirst = true;
-		for (double item : array) {
-			if (isFirst) {
-				isFirst = false;
-			} else {
-				sb.append(conjunction);
-			}
-			sb.append(item);
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不装箱、不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, double[] array, CharSequence conjunction) throws IORuntimeException {
+		if (null != array) {
+			appendJoin(new Appender(out), array, conjunction);
 		}
-		return sb.toString();
+		return out;
 	}
 
 	/**
@@ -1629,6 +1741,9 @@ public class ArrayUtil {
 	 * @return 连接后的字符串
 	 */
 	public static String join(Object array, CharSequence conjunction) {
+		if (null == array) {
+			return null;
+		}
 		if (isArray(array)) {
 			final Class<?> componentType = array.getClass().getComponentType();
 			if (componentType.isPrimitive()) {
@@ -1660,6 +1775,350 @@ public class ArrayUtil {
 		throw new UtilException(StrUtil.format("[{}] is not a Array!", array.getClass()));
 	}
 
+	/**
+	 * 以 conjunction 为分隔符将数组追加到out中，不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param array 数组，可以是原始类型数组，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable> A joinTo(A out, Object array, CharSequence conjunction) throws IORuntimeException {
+		if (null == array) {
+			return out;
+		}
+		if (false == isArray(array)) {
+			throw new UtilException(StrUtil.format("[{}] is not a Array!", array.getClass()));
+		}
+		appendJoin(new Appender(out), array, conjunction);
+		return out;
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}，按数组类型分派
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	static void appendJoin(Appender appender, Object array, CharSequence conjunction) {
+		if (array instanceof Object[]) {
+			appendJoin(appender, (Object[]) array, conjunction);
+		} else if (array instanceof long[]) {
+			appendJoin(appender, (long[]) array, conjunction);
+		} else if (array instanceof int[]) {
+			appendJoin(appender, (int[]) array, conjunction);
+		} else if (array instanceof short[]) {
+			appendJoin(appender, (short[]) array, conjunction);
+		} else if (array instanceof char[]) {
+			appendJoin(appender, (char[]) array, conjunction);
+		} else if (array instanceof byte[]) {
+			appendJoin(appender, (byte[]) array, conjunction);
+		} else if (array instanceof boolean[]) {
+			appendJoin(appender, (boolean[]) array, conjunction);
+		} else if (array instanceof float[]) {
+			appendJoin(appender, (float[]) array, conjunction);
+		} else if (array instanceof double[]) {
+			appendJoin(appender, (double[]) array, conjunction);
+		} else {
+			throw new UtilException("Unknown array type: [{}]", array.getClass());
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, Object[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appendItem(appender, array[i], conjunction);
+		}
+	}
+
+	/**
+	 * 将join的单个元素写入{@link Appender}，元素为数组、{@link Iterable}或{@link Iterator}时递归连接
+	 * 
+	 * @param appender {@link Appender}
+	 * @param item 元素
+	 * @param conjunction 分隔符
+	 */
+	static void appendItem(Appender appender, Object item, CharSequence conjunction) {
+		if (null != item && item.getClass().isArray()) {
+			appendJoin(appender, item, conjunction);
+		} else if (item instanceof Iterable<?>) {
+			CollectionUtil.appendJoin(appender, ((Iterable<?>) item).iterator(), conjunction);
+		} else if (item instanceof Iterator<?>) {
+			CollectionUtil.appendJoin(appender, (Iterator<?>) item, conjunction);
+		} else {
+			appender.append(item);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, long[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, int[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, short[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, char[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, byte[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, boolean[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, float[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将数组写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 */
+	private static void appendJoin(Appender appender, double[] array, CharSequence conjunction) {
+		for (int i = 0; i < array.length; i++) {
+			if (i > 0) {
+				appender.append(conjunction);
+			}
+			appender.append(array[i]);
+		}
+	}
+
+	/**
+	 * 分隔符的总长度
+	 * 
+	 * @param count 元素个数
+	 * @param conjunction 分隔符，{@code null}按"null"计算
+	 * @return 分隔符的总长度
+	 */
+	private static long conjunctionLength(int count, CharSequence conjunction) {
+		return count > 1 ? (long) (count - 1) * (null == conjunction ? 4 : conjunction.length()) : 0;
+	}
+
+	/**
+	 * 将计算出的长度限制在数组最大长度内
+	 * 
+	 * @param length 长度
+	 * @return 可用于初始化{@link StringBuilder}的容量
+	 */
+	private static int capacity(long length) {
+		return (int) Math.min(length, Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(long[] array, CharSequence conjunction) {
+		long length = conjunctionLength(array.length, conjunction);
+		for (long item : array) {
+			length += Appender.stringSize(item);
+		}
+		return capacity(length);
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(int[] array, CharSequence conjunction) {
+		long length = conjunctionLength(array.length, conjunction);
+		for (int item : array) {
+			length += Appender.stringSize(item);
+		}
+		return capacity(length);
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(short[] array, CharSequence conjunction) {
+		long length = conjunctionLength(array.length, conjunction);
+		for (short item : array) {
+			length += Appender.stringSize(item);
+		}
+		return capacity(length);
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(byte[] array, CharSequence conjunction) {
+		long length = conjunctionLength(array.length, conjunction);
+		for (byte item : array) {
+			length += Appender.stringSize(item);
+		}
+		return capacity(length);
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(char[] array, CharSequence conjunction) {
+		return capacity(array.length + conjunctionLength(array.length, conjunction));
+	}
+
+	/**
+	 * 计算join结果的精确长度
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(boolean[] array, CharSequence conjunction) {
+		long length = conjunctionLength(array.length, conjunction);
+		for (boolean item : array) {
+			length += item ? 4 : 5;
+		}
+		return capacity(length);
+	}
+
+	/**
+	 * 估算join结果的长度，按每个元素12个字符估算
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(float[] array, CharSequence conjunction) {
+		return capacity(array.length * 12L + conjunctionLength(array.length, conjunction));
+	}
+
+	/**
+	 * 估算join结果的长度，按每个元素20个字符估算
+	 * 
+	 * @param array 数组
+	 * @param conjunction 分隔符
+	 * @return 长度
+	 */
+	private static int joinLength(double[] array, CharSequence conjunction) {
+		return capacity(array.length * 20L + conjunctionLength(array.length, conjunction));
+	}
+
 	/**
 	 * {@link ByteBuffer} 转byte数组
 	 * 
@@ -19,15 +19,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.Stack;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 import com.dewly.exceptions.UtilException;
+import com.dewly.io.IORuntimeException;
 import com.dewly.lang.BoundedPriorityQueue;
 import com.dewly.lang.Editor;
 import com.dewly.lang.Matcher;
+import com.dewly.lang.SortedMergeIter;
 
 /**
  * 集合相关工具类，包括数组
@@ -54,18 +58,13 @@ public class CollectionUtil {
 	public static <T> Collection<T> union(final Collection<T> coll1, final Collection<T> coll2) {
 		final ArrayList<T> list = new ArrayList<>();
 		if (isEmpty(coll1)) {
-			list.addAll(coll2);
+			if (isNotEmpty(coll2)) {
+				list.addAll(coll2);
+			}
 		} else if (isEmpty(coll2)) {
 			list.addAll(coll1);
 		} else {
-			final Map<T, Integer> map1 = countMap(coll1);
-			final Map<T, Integer> map2 = countMap(coll2);
-			final Set<T> elts = newHashSet(coll2);
-			for (T t : elts) {
-				for (int i = 0, m = Math.max(map1.get(t)!=null?map1.get(t):0, map2.get(t)!=null?map2.get(t):0); i < m; i++) {
-					list.add(t);
-				}
-			}
+			return MultisetOperation.UNION.apply(coll1, coll2, null);
 		}
 		return list;
 	}
@@ -103,18 +102,10 @@ public class CollectionUtil {
 	 * @return 交集的集合，返回 {@link ArrayList}
 	 */
 	public static <T> Collection<T> intersection(final Collection<T> coll1, final Collection<T> coll2) {
-		final ArrayList<T> list = new ArrayList<>();
 		if (isNotEmpty(coll1) && isNotEmpty(coll2)) {
-			final Map<T, Integer> map1 = countMap(coll1);
-			final Map<T, Integer> map2 = countMap(coll2);
-			final Set<T> elts = newHashSet(coll2);
-			for (T t : elts) {
-				for (int i = 0, m = Math.min(map1.get(t)!=null?map1.get(t):0, map2.get(t)!=null?map2.get(t):0); i < m; i++) {
-					list.add(t);
-				}
-			}
+			return MultisetOperation.INTERSECTION.apply(coll1, coll2, null);
 		}
-		return list;
+		return new ArrayList<>();
 	}
 
 	/**
@@ -157,19 +148,209 @@ public class CollectionUtil {
 	 */
 	public static <T> Collection<T> disjunction(final Collection<T> coll1, final Collection<T> coll2) {
 		final ArrayList<T> list = new ArrayList<>();
-		if (isNotEmpty(coll1) && isNotEmpty(coll2)) {
-			final Map<T, Integer> map1 = countMap(coll1);
-			final Map<T, Integer> map2 = countMap(coll2);
-			final Set<T> elts = newHashSet(coll2);
-			for (T t : elts) {
-				for (int i = 0, m = Math.max(map1.get(t)!=null?map1.get(t):0, map2.get(t)!=null?map2.get(t):0) - Math.min(map1.get(t)!=null?map1.get(t):0, map2.get(t)!=null?map2.get(t):0); i < m; i++) {
-					list.add(t);
-				}
+		if (isEmpty(coll1)) {
+			if (isNotEmpty(coll2)) {
+				list.addAll(coll2);
 			}
+		} else if (isEmpty(coll2)) {
+			list.addAll(coll1);
+		} else {
+			return MultisetOperation.DISJUNCTION.apply(coll1, coll2, null);
 		}
 		return list;
 	}
 
+	// ------------------------------------------------------------------------------------------------- parallel union, intersection and disjunction
+	/**
+	 * 两个大集合的并集，规则同{@link #union(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用{@link ForkJoinPool#commonPool()}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 并集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelUnion(final Collection<T> coll1, final Collection<T> coll2) {
+		return parallelUnion(coll1, coll2, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 两个大集合的并集，规则同{@link #union(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用指定的{@link ForkJoinPool}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @param pool {@link ForkJoinPool}
+	 * @return 并集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelUnion(final Collection<T> coll1, final Collection<T> coll2, ForkJoinPool pool) {
+		return MultisetOperation.UNION.apply(nullToEmpty(coll1), nullToEmpty(coll2), pool);
+	}
+
+	/**
+	 * 两个大集合的交集，规则同{@link #intersection(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用{@link ForkJoinPool#commonPool()}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 交集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelIntersection(final Collection<T> coll1, final Collection<T> coll2) {
+		return parallelIntersection(coll1, coll2, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 两个大集合的交集，规则同{@link #intersection(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用指定的{@link ForkJoinPool}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @param pool {@link ForkJoinPool}
+	 * @return 交集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelIntersection(final Collection<T> coll1, final Collection<T> coll2, ForkJoinPool pool) {
+		return MultisetOperation.INTERSECTION.apply(nullToEmpty(coll1), nullToEmpty(coll2), pool);
+	}
+
+	/**
+	 * 两个大集合的差集，规则同{@link #disjunction(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用{@link ForkJoinPool#commonPool()}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @return 差集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelDisjunction(final Collection<T> coll1, final Collection<T> coll2) {
+		return parallelDisjunction(coll1, coll2, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 两个大集合的差集，规则同{@link #disjunction(Collection, Collection)}<br>
+	 * 元素总数较多时按hash将两个集合分区，使用指定的{@link ForkJoinPool}并行计算每个分区后拼接结果；<br>
+	 * 一方远小于另一方时只对较小的一方计数，在当前线程中探测较大的一方
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @param pool {@link ForkJoinPool}
+	 * @return 差集的集合，返回 {@link ArrayList}
+	 */
+	public static <T> Collection<T> parallelDisjunction(final Collection<T> coll1, final Collection<T> coll2, ForkJoinPool pool) {
+		return MultisetOperation.DISJUNCTION.apply(nullToEmpty(coll1), nullToEmpty(coll2), pool);
+	}
+
+	/**
+	 * 两个int数组的并集，规则同{@link #union(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 并集
+	 */
+	public static int[] union(int[] array1, int[] array2) {
+		return MultisetOperation.UNION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * 两个int数组的交集，规则同{@link #intersection(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 交集
+	 */
+	public static int[] intersection(int[] array1, int[] array2) {
+		return MultisetOperation.INTERSECTION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * 两个int数组的差集，规则同{@link #disjunction(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 差集
+	 */
+	public static int[] disjunction(int[] array1, int[] array2) {
+		return MultisetOperation.DISJUNCTION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * 两个long数组的并集，规则同{@link #union(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 并集
+	 */
+	public static long[] union(long[] array1, long[] array2) {
+		return MultisetOperation.UNION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * 两个long数组的交集，规则同{@link #intersection(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 交集
+	 */
+	public static long[] intersection(long[] array1, long[] array2) {
+		return MultisetOperation.INTERSECTION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * 两个long数组的差集，规则同{@link #disjunction(Collection, Collection)}，不装箱<br>
+	 * 结果有序；一方远小于另一方时只对较小的一方排序，结果保持较大一方的顺序
+	 * 
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 差集
+	 */
+	public static long[] disjunction(long[] array1, long[] array2) {
+		return MultisetOperation.DISJUNCTION.apply(nullToEmpty(array1), nullToEmpty(array2));
+	}
+
+	/**
+	 * null转为空集合
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param coll 集合
+	 * @return 集合，不为null
+	 */
+	private static <T> Collection<T> nullToEmpty(Collection<T> coll) {
+		return null == coll ? Collections.<T>emptyList() : coll;
+	}
+
+	/**
+	 * null转为空数组
+	 * 
+	 * @param array 数组
+	 * @return 数组，不为null
+	 */
+	private static int[] nullToEmpty(int[] array) {
+		return null == array ? new int[0] : array;
+	}
+
+	/**
+	 * null转为空数组
+	 * 
+	 * @param array 数组
+	 * @return 数组，不为null
+	 */
+	private static long[] nullToEmpty(long[] array) {
+		return null == array ? new long[0] : array;
+	}
+
 	/**
 	 * 其中一个集合在另一个集合中是否至少包含一个元素，既是两个集合是否至少有一个共同的元素
 	 * 
@@ -251,29 +432,63 @@ public class CollectionUtil {
 		if (null == iterator) {
 			return null;
 		}
+		return joinTo(new StringBuilder(), iterator, conjunction).toString();
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将集合追加到out中，不生成中间字符串
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param <T> 集合元素类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param iterable {@link Iterable}，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable, T> A joinTo(A out, Iterable<T> iterable, CharSequence conjunction) throws IORuntimeException {
+		if (null != iterable) {
+			appendJoin(new Appender(out), iterable.iterator(), conjunction);
+		}
+		return out;
+	}
 
-		final StringBuilder sb = new StringBuilder();
+	/**
+	 * 以 conjunction 为分隔符将集合追加到out中，不生成中间字符串<br>
+	 * 元素为数组、{@link Iterable}或{@link Iterator}时递归连接
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param <T> 集合元素类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param iterator 集合，{@code null}时不追加任何内容
+	 * @param conjunction 分隔符
+	 * @return out
+	 * @throws IORuntimeException 输出到out出错
+	 */
+	public static <A extends Appendable, T> A joinTo(A out, Iterator<T> iterator, CharSequence conjunction) throws IORuntimeException {
+		if (null != iterator) {
+			appendJoin(new Appender(out), iterator, conjunction);
+		}
+		return out;
+	}
+
+	/**
+	 * 以 conjunction 为分隔符将集合写入{@link Appender}
+	 * 
+	 * @param appender {@link Appender}
+	 * @param iterator 集合
+	 * @param conjunction 分隔符
+	 */
+	static void appendJoin(Appender appender, Iterator<?> iterator, CharSequence conjunction) {
 		boolean isFirst = true;
-		T item;
 		while (iterator.hasNext()) {
 			if (isFirst) {
 				isFirst = false;
 			} else {
-				sb.append(conjunction);
-			}
-
-			item = iterator.next();
-			if (ArrayUtil.isArray(item)) {
-				sb.append(ArrayUtil.join(ArrayUtil.wrap(item), conjunction));
-			} else if (item instanceof Iterable<?>) {
-				sb.append(join((Iterable<?>) item, conjunction));
-			} else if (item instanceof Iterator<?>) {
-				sb.append(join((Iterator<?>) item, conjunction));
-			} else {
-				sb.append(item);
+				appender.append(conjunction);
 			}
+			ArrayUtil.appendItem(appender, iterator.next(), conjunction);
 		}
-		return sb.toString();
 	}
 
 	/**
@@ -1282,38 +1497,132 @@ public class CollectionUtil {
 	// ------------------------------------------------------------------------------------------------- sort
 	/**
 	 * 将多个集合排序并显示不同的段落（分页）<br>
-	 * 采用先排序，后截断的方式取分页的部分
+	 * 如果每个集合都已按照比较器排序（例如按分片查询的结果），则多路归并，不复制也不排序；否则采用先排序，后截断的方式取分页的部分。<br>
+	 * 判断是否已排序需要遍历每个集合（与比较器相同的{@link SortedSet}除外），已知集合有序时使用{@link #sortPageAll(int, int, Comparator, boolean, Collection...)}，只读取到所取页为止的元素。
 	 * 
 	 * @param <T> 集合元素类型
 	 * @param pageNo 页码，从1开始
 	 * @param numPerPage 每页的条目数
-	 * @param comparator 比较器
+	 * @param comparator 比较器，null表示自然顺序
 	 * @param colls 集合数组
 	 * @return 分页后的段落内容
 	 */
 	@SafeVarargs
+	@SuppressWarnings("varargs")
 	public static <T> List<T> sortPageAll(int pageNo, int numPerPage, Comparator<T> comparator, Collection<T>... colls) {
+		return sortPageAll(pageNo, numPerPage, comparator, false, colls);
+	}
+
+	/**
+	 * 将多个集合排序并显示不同的段落（分页）<br>
+	 * assumeSorted为true时不预先检查是否有序，直接多路归并，只读取前pageNo * numPerPage个元素（另加每个集合的下一个元素）；
+	 * 归并中发现逆序时退回先排序后截断的方式。未读取到的部分不做检查，如果其中有逆序，结果不保证正确。<br>
+	 * assumeSorted为false时同{@link #sortPageAll(int, int, Comparator, Collection...)}。
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始
+	 * @param numPerPage 每页的条目数
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param assumeSorted 是否视为每个集合都已按照比较器排序
+	 * @param colls 集合数组
+	 * @return 分页后的段落内容
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <T> List<T> sortPageAll(int pageNo, int numPerPage, Comparator<T> comparator, boolean assumeSorted, Collection<T>... colls) {
+		if (false == assumeSorted && false == isAllSorted(comparator, colls)) {
+			return sortPageAllBySort(pageNo, numPerPage, comparator, colls);
+		}
+		try {
+			return sortPageAllByMerge(pageNo, numPerPage, comparator, colls);
+		} catch (UtilException e) {
+			// 已读取的部分中有逆序
+			return sortPageAllBySort(pageNo, numPerPage, comparator, colls);
+		}
+	}
+
+	/**
+	 * 将多个集合排序后，返回指定页的迭代器，元素在迭代时才归并取出<br>
+	 * 与{@link #sortPageAll(int, int, Comparator, Collection...)}不同，最后一页不足numPerPage时返回剩余的元素，越界时返回空迭代器。<br>
+	 * 集合均已排序时归并，否则先排序再截断；判断是否已排序需要遍历每个集合。
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始
+	 * @param numPerPage 每页的条目数
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param colls 集合数组
+	 * @return 分页后的段落内容迭代器
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <T> Iterator<T> sortPageIter(int pageNo, int numPerPage, Comparator<T> comparator, Collection<T>... colls) {
+		return sortPageIter(pageNo, numPerPage, comparator, false, colls);
+	}
+
+	/**
+	 * 将多个集合排序后，返回指定页的迭代器，元素在迭代时才归并取出<br>
+	 * assumeSorted为true时不预先检查是否有序，只读取到所取页为止的元素，归并中发现逆序时抛出{@link UtilException}（可能在迭代过程中）；
+	 * 未读取到的部分不做检查。<br>
+	 * assumeSorted为false时同{@link #sortPageIter(int, int, Comparator, Collection...)}。
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始
+	 * @param numPerPage 每页的条目数
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param assumeSorted 是否视为每个集合都已按照比较器排序
+	 * @param colls 集合数组
+	 * @return 分页后的段落内容迭代器
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <T> Iterator<T> sortPageIter(int pageNo, int numPerPage, Comparator<T> comparator, boolean assumeSorted, Collection<T>... colls) {
+		final int[] startEnd = PageUtil.transToStartEnd(pageNo, numPerPage);
+		if (assumeSorted || isAllSorted(comparator, colls)) {
+			return mergeSorted(comparator, colls).skip(startEnd[0]).limit(startEnd[1] - startEnd[0]);
+		}
+
 		final List<T> result = new ArrayList<>();
 		for (Collection<T> coll : colls) {
 			result.addAll(coll);
 		}
-
 		Collections.sort(result, comparator);
+		final int size = result.size();
+		return result.subList(Math.min(startEnd[0], size), Math.min(startEnd[1], size)).iterator();
+	}
 
-		int resultSize = result.size();
-		// 每页条目数大于总数直接返回所有
-		if (resultSize <= numPerPage) {
-			return result;
-		}
-		final int[] startEnd = PageUtil.transToStartEnd(pageNo, numPerPage);
-		if (startEnd[1] > resultSize) {
-			// 越界直接返回空
-			return new ArrayList<>();
+	/**
+	 * 将多个已排序的集合惰性归并为一个有序迭代器，比较相等的元素按集合顺序输出<br>
+	 * 遇到未排序的集合时，在迭代过程中抛出{@link UtilException}
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param colls 已排序的集合数组
+	 * @return {@link SortedMergeIter}
+	 */
+	@SafeVarargs
+	public static <T> SortedMergeIter<T> mergeSorted(Comparator<? super T> comparator, Collection<? extends T>... colls) {
+		@SuppressWarnings("unchecked")
+		final Iterator<? extends T>[] iters = (Iterator<? extends T>[]) new Iterator<?>[colls.length];
+		for (int i = 0; i < colls.length; i++) {
+			iters[i] = colls[i].iterator();
 		}
-
-		return result.subList(startEnd[0], startEnd[1]);
+		return new SortedMergeIter<>(comparator, iters);
 	}
 
+	/**
+	 * 将多个已排序的迭代器惰性归并为一个有序迭代器，比较相等的元素按迭代器顺序输出<br>
+	 * 遇到未排序的输入时，在迭代过程中抛出{@link UtilException}
+	 * 
+	 * @param <T> 元素类型
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param iters 已排序的迭代器数组
+	 * @return {@link SortedMergeIter}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <T> SortedMergeIter<T> mergeSorted(Comparator<? super T> comparator, Iterator<? extends T>... iters) {
+		return new SortedMergeIter<>(comparator, iters);
+	}
 	/**
 	 * 将多个集合排序并显示不同的段落（分页）<br>
 	 * 采用{@link BoundedPriorityQueue}实现分页取局部
@@ -1346,6 +1655,111 @@ public class CollectionUtil {
 		return queue.toList().subList(startEnd[0], startEnd[1]);
 	}
 
+	// ------------------------------------------------------------------------------------------------------------------- Private method start for sortPage
+	/**
+	 * 将多个已排序的集合归并后截断分页，只读取到所取页为止的元素
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始
+	 * @param numPerPage 每页的条目数
+	 * @param comparator 比较器
+	 * @param colls 已排序的集合数组
+	 * @return 分页后的段落内容
+	 * @throws UtilException 归并中发现逆序
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	private static <T> List<T> sortPageAllByMerge(int pageNo, int numPerPage, Comparator<T> comparator, Collection<T>... colls) throws UtilException {
+		int resultSize = 0;
+		for (Collection<T> coll : colls) {
+			resultSize += coll.size();
+		}
+		// 每页条目数大于总数直接返回所有
+		if (resultSize <= numPerPage) {
+			return newArrayList(mergeSorted(comparator, colls));
+		}
+		final int[] startEnd = PageUtil.transToStartEnd(pageNo, numPerPage);
+		if (startEnd[1] > resultSize) {
+			// 越界直接返回空
+			return new ArrayList<>();
+		}
+
+		final List<T> result = new ArrayList<>(numPerPage);
+		final Iterator<T> iter = mergeSorted(comparator, colls).skip(startEnd[0]).limit(numPerPage);
+		while (iter.hasNext()) {
+			result.add(iter.next());
+		}
+		return result;
+	}
+
+	/**
+	 * 将多个集合拼接排序后截断分页
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param pageNo 页码，从1开始
+	 * @param numPerPage 每页的条目数
+	 * @param comparator 比较器
+	 * @param colls 集合数组
+	 * @return 分页后的段落内容
+	 */
+	@SafeVarargs
+	private static <T> List<T> sortPageAllBySort(int pageNo, int numPerPage, Comparator<T> comparator, Collection<T>... colls) {
+		final List<T> result = new ArrayList<>();
+		for (Collection<T> coll : colls) {
+			result.addAll(coll);
+		}
+
+		Collections.sort(result, comparator);
+
+		int resultSize = result.size();
+		// 每页条目数大于总数直接返回所有
+		if (resultSize <= numPerPage) {
+			return result;
+		}
+		final int[] startEnd = PageUtil.transToStartEnd(pageNo, numPerPage);
+		if (startEnd[1] > resultSize) {
+			// 越界直接返回空
+			return new ArrayList<>();
+		}
+
+		return result.subList(startEnd[0], startEnd[1]);
+	}
+
+	/**
+	 * 所有集合是否都已按照比较器排序<br>
+	 * 比较器相同的{@link SortedSet}直接视为已排序，其它集合逐个比较相邻元素，遇到逆序立即返回
+	 * 
+	 * @param <T> 集合元素类型
+	 * @param comparator 比较器，null表示自然顺序
+	 * @param colls 集合数组
+	 * @return 是否都已排序
+	 */
+	@SafeVarargs
+	@SuppressWarnings("unchecked")
+	private static <T> boolean isAllSorted(Comparator<T> comparator, Collection<T>... colls) {
+		for (Collection<T> coll : colls) {
+			if (coll instanceof SortedSet && ObjectUtil.equal(comparator, ((SortedSet<T>) coll).comparator())) {
+				continue;
+			}
+			final Iterator<T> iter = coll.iterator();
+			if (false == iter.hasNext()) {
+				continue;
+			}
+			T pre = iter.next();
+			T current;
+			while (iter.hasNext()) {
+				current = iter.next();
+				final int result = (null == comparator) ? ((Comparable<T>) current).compareTo(pre) : comparator.compare(current, pre);
+				if (result < 0) {
+					return false;
+				}
+				pre = current;
+			}
+		}
+		return true;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end for sortPage
+
 	/**
 	 * 排序集合，排序不会修改原集合
 	 * 
@@ -0,0 +1,516 @@
+package com.dewly.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.dewly.lang.Assert;
+
+/**
+ * 多关键字匹配器，基于Aho-Corasick自动机<br>
+ * 由一组关键字构建一次，之后对任意文本只扫描一遍即可找出所有关键字，耗时与关键字个数无关。<br>
+ * 支持以下选项：
+ * <pre>
+ * 1、忽略大小写
+ * 2、全词匹配：关键字前后不能紧挨字母、数字或下划线
+ * </pre>
+ * 构建完成后对象不可变，可在多线程间共享。
+ *
+ * @author Dewly
+ *
+ */
+public class MultiMatcher {
+
+	/** ASCII字符使用完整状态转移表，无需回溯失败指针 */
+	private static final int ASCII_SIZE = 128;
+
+	/** 关键字，下标即关键字序号 */
+	private final String[] keywords;
+	/** 是否忽略大小写 */
+	private final boolean ignoreCase;
+	/** 是否全词匹配 */
+	private final boolean wholeWord;
+
+	/** ASCII状态转移表，下标为：状态 * 128 + 字符 */
+	private final int[] asciiDelta;
+	/** 非ASCII子节点字符，按字符排序 */
+	private final char[][] childChars;
+	/** 非ASCII子节点，与childChars一一对应 */
+	private final int[][] childNodes;
+	/** 失败指针 */
+	private final int[] fail;
+	/** 以此状态结束的关键字序号，-1表示无 */
+	private final int[] nodeKeyword;
+	/** 沿失败指针最近的带关键字的状态，-1表示无 */
+	private final int[] outputLink;
+
+	// ------------------------------------------------------------------------------------------------------------------- Constructor start
+	/**
+	 * 构造，区分大小写，非全词匹配
+	 *
+	 * @param keywords 关键字
+	 */
+	public MultiMatcher(CharSequence... keywords) {
+		this(Arrays.asList(keywords), false, false);
+	}
+
+	/**
+	 * 构造<br>
+	 * 空关键字被忽略，重复的关键字只保留第一个
+	 *
+	 * @param keywords 关键字
+	 * @param ignoreCase 是否忽略大小写
+	 * @param wholeWord 是否全词匹配
+	 */
+	public MultiMatcher(Collection<? extends CharSequence> keywords, boolean ignoreCase, boolean wholeWord) {
+		Assert.notNull(keywords, "Keywords must not be null");
+		this.keywords = new String[keywords.size()];
+		this.ignoreCase = ignoreCase;
+		this.wholeWord = wholeWord;
+
+		// 构建字典树
+		final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+		final List<Integer> nodeKeywordList = new ArrayList<>();
+		children.add(new TreeMap<Character, Integer>());
+		nodeKeywordList.add(-1);
+		int index = 0;
+		for (CharSequence keyword : keywords) {
+			this.keywords[index] = (null == keyword) ? null : keyword.toString();
+			if (StrUtil.isNotEmpty(keyword)) {
+				int node = 0;
+				for (int i = 0; i < keyword.length(); i++) {
+					final char c = fold(keyword.charAt(i));
+					Integer next = children.get(node).get(c);
+					if (null == next) {
+						next = children.size();
+						children.get(node).put(c, next);
+						children.add(new TreeMap<Character, Integer>());
+						nodeKeywordList.add(-1);
+					}
+					node = next;
+				}
+				if (nodeKeywordList.get(node) < 0) {
+					nodeKeywordList.set(node, index);
+				}
+			}
+			index++;
+		}
+
+		final int size = children.size();
+		this.asciiDelta = new int[size * ASCII_SIZE];
+		this.childChars = new char[size][];
+		this.childNodes = new int[size][];
+		this.fail = new int[size];
+		this.nodeKeyword = new int[size];
+		this.outputLink = new int[size];
+		for (int node = 0; node < size; node++) {
+			this.nodeKeyword[node] = nodeKeywordList.get(node);
+			final Map<Character, Integer> nonAscii = new HashMap<>();
+			for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+				if (entry.getKey() < ASCII_SIZE) {
+					asciiDelta[node * ASCII_SIZE + entry.getKey()] = entry.getValue();
+				} else {
+					nonAscii.put(entry.getKey(), entry.getValue());
+				}
+			}
+			this.childChars[node] = new char[nonAscii.size()];
+			this.childNodes[node] = new int[nonAscii.size()];
+			int i = 0;
+			for (Map.Entry<Character, Integer> entry : new TreeMap<>(nonAscii).entrySet()) {
+				this.childChars[node][i] = entry.getKey();
+				this.childNodes[node][i] = entry.getValue();
+				i++;
+			}
+		}
+
+		// 广度优先计算失败指针，同时将ASCII转移表补全为完整的自动机
+		this.outputLink[0] = -1;
+		final ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int c = 0; c < ASCII_SIZE; c++) {
+			final int child = asciiDelta[c];
+			if (child != 0) {
+				queue.add(child);
+			}
+		}
+		for (int child : childNodes[0]) {
+			queue.add(child);
+		}
+		for (int child : queue) {
+			fail[child] = 0;
+			outputLink[child] = -1;
+		}
+		while (false == queue.isEmpty()) {
+			final int node = queue.poll();
+			for (int c = 0; c < ASCII_SIZE; c++) {
+				final int child = asciiDelta[node * ASCII_SIZE + c];
+				// 节点出队前其转移表只包含字典树中的真实子节点，非0即为子节点
+				if (child != 0) {
+					linkChild(child, asciiDelta[fail[node] * ASCII_SIZE + c]);
+					queue.add(child);
+				} else {
+					asciiDelta[node * ASCII_SIZE + c] = asciiDelta[fail[node] * ASCII_SIZE + c];
+				}
+			}
+			for (int i = 0; i < childChars[node].length; i++) {
+				linkChild(childNodes[node][i], nonAsciiNext(fail[node], childChars[node][i]));
+				queue.add(childNodes[node][i]);
+			}
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Constructor end
+
+	/**
+	 * 获得关键字
+	 *
+	 * @return 关键字数组的拷贝
+	 */
+	public String[] getKeywords() {
+		return keywords.clone();
+	}
+
+	/**
+	 * 是否忽略大小写
+	 *
+	 * @return 是否忽略大小写
+	 */
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	/**
+	 * 是否全词匹配
+	 *
+	 * @return 是否全词匹配
+	 */
+	public boolean isWholeWord() {
+		return wholeWord;
+	}
+
+	/**
+	 * 文本中是否包含任意一个关键字
+	 *
+	 * @param text 文本
+	 * @return 是否包含
+	 */
+	public boolean containsAny(CharSequence text) {
+		return null != findFirst(text);
+	}
+
+	/**
+	 * 查找第一个匹配，即结束位置最靠前的匹配，找到后立即停止扫描
+	 *
+	 * @param text 文本
+	 * @return 匹配，未找到返回{@code null}
+	 */
+	public Hit findFirst(CharSequence text) {
+		if (StrUtil.isEmpty(text)) {
+			return null;
+		}
+		final Hit[] result = new Hit[1];
+		scan(text, (keywordIndex, start, end) -> {
+			result[0] = new Hit(keywords[keywordIndex], keywordIndex, start, end);
+			return false;
+		});
+		return result[0];
+	}
+
+	/**
+	 * 查找所有匹配，包括互相重叠的匹配，按结束位置排序
+	 *
+	 * @param text 文本
+	 * @return 匹配列表
+	 */
+	public List<Hit> findAll(CharSequence text) {
+		return findAll(text, true);
+	}
+
+	/**
+	 * 查找所有匹配
+	 *
+	 * @param text 文本
+	 * @param isOverlap 是否包括互相重叠的匹配，false时从左到右取最长的不重叠匹配，结果按开始位置排序
+	 * @return 匹配列表
+	 */
+	public List<Hit> findAll(CharSequence text, boolean isOverlap) {
+		final List<Hit> hits = new ArrayList<>();
+		if (StrUtil.isEmpty(text)) {
+			return hits;
+		}
+		if (isOverlap) {
+			scan(text, (keywordIndex, start, end) -> {
+				hits.add(new Hit(keywords[keywordIndex], keywordIndex, start, end));
+				return true;
+			});
+			return hits;
+		}
+
+		final int[] longest = longestAt(text);
+		if (null != longest) {
+			final int length = text.length();
+			for (int i = 0; i < length; i++) {
+				if (longest[i] >= 0) {
+					final String keyword = keywords[longest[i]];
+					hits.add(new Hit(keyword, longest[i], i, i + keyword.length()));
+					i += keyword.length() - 1;
+				}
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * 替换所有关键字，从左到右取最长的不重叠匹配替换
+	 *
+	 * @param text 文本
+	 * @param replacement 替换文本
+	 * @return 替换后的文本
+	 */
+	public String replaceAll(CharSequence text, CharSequence replacement) {
+		return replaceAll(text, replacement, null);
+	}
+
+	/**
+	 * 替换所有关键字，从左到右取最长的不重叠匹配替换
+	 *
+	 * @param text 文本
+	 * @param replacements 替换文本，与关键字按序号一一对应
+	 * @return 替换后的文本
+	 */
+	public String replaceAll(CharSequence text, CharSequence[] replacements) {
+		Assert.isTrue(replacements.length >= keywords.length, "Replacements length {} is less than keywords length {}", replacements.length, keywords.length);
+		return replaceAll(text, null, replacements);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 替换所有关键字
+	 *
+	 * @param text 文本
+	 * @param replacement 统一的替换文本，replacements为null时使用
+	 * @param replacements 按关键字序号对应的替换文本
+	 * @return 替换后的文本
+	 */
+	private String replaceAll(CharSequence text, CharSequence replacement, CharSequence[] replacements) {
+		if (StrUtil.isEmpty(text)) {
+			return (null == text) ? null : text.toString();
+		}
+		final int[] longest = longestAt(text);
+		if (null == longest) {
+			return text.toString();
+		}
+
+		final int length = text.length();
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			if (longest[i] >= 0) {
+				builder.append(null == replacements ? replacement : replacements[longest[i]]);
+				i += keywords[longest[i]].length() - 1;
+			} else {
+				builder.append(text.charAt(i));
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 扫描一遍文本，计算每个位置开始的最长关键字
+	 *
+	 * @param text 文本
+	 * @return 每个位置开始的最长关键字序号，-1表示无；没有任何匹配返回{@code null}
+	 */
+	private int[] longestAt(CharSequence text) {
+		final int[][] holder = new int[1][];
+		scan(text, (keywordIndex, start, end) -> {
+			int[] longest = holder[0];
+			if (null == longest) {
+				longest = new int[text.length()];
+				Arrays.fill(longest, -1);
+				holder[0] = longest;
+			}
+			if (longest[start] < 0 || keywords[longest[start]].length() < end - start) {
+				longest[start] = keywordIndex;
+			}
+			return true;
+		});
+		return holder[0];
+	}
+
+	/**
+	 * 扫描文本，每个匹配回调一次
+	 *
+	 * @param text 文本
+	 * @param handler 匹配处理器
+	 */
+	private void scan(CharSequence text, HitHandler handler) {
+		final int length = text.length();
+		int state = 0;
+		char c;
+		for (int i = 0; i < length; i++) {
+			c = fold(text.charAt(i));
+			state = (c < ASCII_SIZE) ? asciiDelta[state * ASCII_SIZE + c] : nonAsciiNext(state, c);
+
+			int output = nodeKeyword[state] >= 0 ? state : outputLink[state];
+			while (output >= 0) {
+				final int keywordIndex = nodeKeyword[output];
+				final int end = i + 1;
+				final int start = end - keywords[keywordIndex].length();
+				if (false == wholeWord || isWordBoundary(text, start, end)) {
+					if (false == handler.onHit(keywordIndex, start, end)) {
+						return;
+					}
+				}
+				output = outputLink[output];
+			}
+		}
+	}
+
+	/**
+	 * 非ASCII字符的状态转移，沿失败指针回溯
+	 *
+	 * @param state 当前状态
+	 * @param c 字符
+	 * @return 下一状态
+	 */
+	private int nonAsciiNext(int state, char c) {
+		while (true) {
+			final int i = Arrays.binarySearch(childChars[state], c);
+			if (i >= 0) {
+				return childNodes[state][i];
+			}
+			if (0 == state) {
+				return 0;
+			}
+			state = fail[state];
+		}
+	}
+
+	/**
+	 * 设置子节点的失败指针和输出指针
+	 *
+	 * @param child 子节点
+	 * @param failTarget 失败指针指向的状态
+	 */
+	private void linkChild(int child, int failTarget) {
+		fail[child] = failTarget;
+		outputLink[child] = nodeKeyword[failTarget] >= 0 ? failTarget : outputLink[failTarget];
+	}
+
+	/**
+	 * 匹配位置是否为完整单词
+	 *
+	 * @param text 文本
+	 * @param start 开始位置
+	 * @param end 结束位置
+	 * @return 是否为完整单词
+	 */
+	private static boolean isWordBoundary(CharSequence text, int start, int end) {
+		return (start == 0 || false == isWordChar(text.charAt(start - 1))) && (end == text.length() || false == isWordChar(text.charAt(end)));
+	}
+
+	/**
+	 * 是否为单词字符，即字母、数字或下划线
+	 *
+	 * @param c 字符
+	 * @return 是否为单词字符
+	 */
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c) || c == StrUtil.C_UNDERLINE;
+	}
+
+	/**
+	 * 忽略大小写时统一字符大小写
+	 *
+	 * @param c 字符
+	 * @return 统一后的字符
+	 */
+	private char fold(char c) {
+		return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 匹配处理器
+	 */
+	private static interface HitHandler {
+		/**
+		 * 处理一个匹配
+		 *
+		 * @param keywordIndex 关键字序号
+		 * @param start 开始位置（包含）
+		 * @param end 结束位置（不包含）
+		 * @return 是否继续扫描
+		 */
+		boolean onHit(int keywordIndex, int start, int end);
+	}
+
+	/**
+	 * 一次匹配
+	 */
+	public static class Hit {
+		private final String keyword;
+		private final int index;
+		private final int start;
+		private final int end;
+
+		/**
+		 * 构造
+		 *
+		 * @param keyword 关键字
+		 * @param index 关键字序号
+		 * @param start 开始位置（包含）
+		 * @param end 结束位置（不包含）
+		 */
+		public Hit(String keyword, int index, int start, int end) {
+			this.keyword = keyword;
+			this.index = index;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * 获得匹配的关键字（构建时传入的原始形式）
+		 *
+		 * @return 关键字
+		 */
+		public String getKeyword() {
+			return keyword;
+		}
+
+		/**
+		 * 获得关键字序号
+		 *
+		 * @return 关键字序号
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * 获得匹配开始位置（包含）
+		 *
+		 * @return 开始位置
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * 获得匹配结束位置（不包含）
+		 *
+		 * @return 结束位置
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		@Override
+		public String toString() {
+			return keyword + "[" + start + ", " + end + ")";
+		}
+	}
+}
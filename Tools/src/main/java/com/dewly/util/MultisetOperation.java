@@ -0,0 +1,387 @@
+package com.dewly.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * 多重集合（允许重复元素）的并集、交集、差集运算，供{@link CollectionUtil}使用<br>
+ * 元素x在两个集合中的个数分别为c1和c2时，结果中x的个数为：并集max(c1, c2)，交集min(c1, c2)，差集|c1 - c2|。<br>
+ * <ul>
+ * <li>只对较小的一方计数，较大的一方逐个探测并抵消计数，不为较大的一方建立Map</li>
+ * <li>两方都很大时，按hash将两方分区，在{@link ForkJoinPool}中并行计算每个分区，最后拼接结果</li>
+ * <li>int[]和long[]排序后归并计算，不装箱</li>
+ * </ul>
+ *
+ * @author Dewly
+ *
+ */
+enum MultisetOperation {
+
+	/** 并集 */
+	UNION(true, true, true),
+	/** 交集 */
+	INTERSECTION(false, true, false),
+	/** 差集 */
+	DISJUNCTION(true, false, true);
+
+	/** 较小的一方不超过较大的一方的1/SMALL_RATIO时，只对较小的一方计数，不分区 */
+	private static final int SMALL_RATIO = 16;
+	/** 两方元素总数达到此值时并行分区计算 */
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/** 较大一方中未被抵消的元素是否输出 */
+	private final boolean isEmitUnmatched;
+	/** 较大一方中被抵消的元素是否输出 */
+	private final boolean isEmitMatched;
+	/** 较小一方中剩余未被抵消的元素是否输出 */
+	private final boolean isEmitLeftover;
+
+	/**
+	 * 构造
+	 *
+	 * @param isEmitUnmatched 较大一方中未被抵消的元素是否输出
+	 * @param isEmitMatched 较大一方中被抵消的元素是否输出
+	 * @param isEmitLeftover 较小一方中剩余未被抵消的元素是否输出
+	 */
+	MultisetOperation(boolean isEmitUnmatched, boolean isEmitMatched, boolean isEmitLeftover) {
+		this.isEmitUnmatched = isEmitUnmatched;
+		this.isEmitMatched = isEmitMatched;
+		this.isEmitLeftover = isEmitLeftover;
+	}
+
+	/**
+	 * 结果中元素的个数
+	 *
+	 * @param count1 元素在集合1中的个数
+	 * @param count2 元素在集合2中的个数
+	 * @return 结果中元素的个数
+	 */
+	int count(int count1, int count2) {
+		switch (this) {
+		case UNION:
+			return Math.max(count1, count2);
+		case INTERSECTION:
+			return Math.min(count1, count2);
+		default:
+			return Math.abs(count1 - count2);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Object
+	/**
+	 * 计算两个集合，元素较多或两方相差悬殊时自动选择计算方式
+	 *
+	 * @param <T> 元素类型
+	 * @param coll1 集合1
+	 * @param coll2 集合2
+	 * @param pool 并行计算使用的{@link ForkJoinPool}，null表示只在当前线程计算
+	 * @return 结果
+	 */
+	@SuppressWarnings("unchecked")
+	<T> List<T> apply(Collection<T> coll1, Collection<T> coll2, ForkJoinPool pool) {
+		final Object[] array1 = coll1.toArray();
+		final Object[] array2 = coll2.toArray();
+		final int min = Math.min(array1.length, array2.length);
+		final int max = Math.max(array1.length, array2.length);
+		if (null == pool || pool.getParallelism() < 2 || min + max < PARALLEL_THRESHOLD || (long) min * SMALL_RATIO <= max) {
+			return (List<T>) apply(array1, array2);
+		}
+
+		final int bits = partitionBits(pool.getParallelism());
+		final Object[][] parts1 = partition(array1, bits, pool);
+		final Object[][] parts2 = partition(array2, bits, pool);
+		final List<ForkJoinTask<ArrayList<Object>>> tasks = new ArrayList<>(parts1.length);
+		for (int i = 0; i < parts1.length; i++) {
+			final Object[] part1 = parts1[i];
+			final Object[] part2 = parts2[i];
+			tasks.add(pool.submit(() -> apply(part1, part2)));
+		}
+		final List<ArrayList<Object>> results = new ArrayList<>(tasks.size());
+		int size = 0;
+		for (ForkJoinTask<ArrayList<Object>> task : tasks) {
+			final ArrayList<Object> partResult = task.join();
+			size += partResult.size();
+			results.add(partResult);
+		}
+		final ArrayList<Object> result = new ArrayList<>(size);
+		for (ArrayList<Object> partResult : results) {
+			result.addAll(partResult);
+		}
+		return (List<T>) result;
+	}
+
+	/**
+	 * 在当前线程计算两个数组，只对较小的一方计数
+	 *
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 结果
+	 */
+	private ArrayList<Object> apply(Object[] array1, Object[] array2) {
+		final Object[] small = array1.length <= array2.length ? array1 : array2;
+		final Object[] large = small == array1 ? array2 : array1;
+
+		final Map<Object, int[]> remaining = new HashMap<>(Math.max((int) (small.length / 0.75f) + 1, 16));
+		int[] counter;
+		for (Object obj : small) {
+			counter = remaining.get(obj);
+			if (null == counter) {
+				remaining.put(obj, new int[] { 1 });
+			} else {
+				counter[0]++;
+			}
+		}
+
+		final ArrayList<Object> result = new ArrayList<>(isEmitUnmatched ? large.length + small.length : small.length);
+		for (Object obj : large) {
+			counter = remaining.get(obj);
+			if (null != counter && counter[0] > 0) {
+				counter[0]--;
+				if (isEmitMatched) {
+					result.add(obj);
+				}
+			} else if (isEmitUnmatched) {
+				result.add(obj);
+			}
+		}
+		if (isEmitLeftover) {
+			for (Map.Entry<Object, int[]> entry : remaining.entrySet()) {
+				for (int i = entry.getValue()[0]; i > 0; i--) {
+					result.add(entry.getKey());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 分区数的位数，分区数为并行度的4倍左右，最多1024个分区
+	 *
+	 * @param parallelism 并行度
+	 * @return 分区位数
+	 */
+	private static int partitionBits(int parallelism) {
+		final int bits = 32 - Integer.numberOfLeadingZeros(parallelism - 1) + 2;
+		return Math.min(Math.max(bits, 1), 10);
+	}
+
+	/**
+	 * 按hash将数组分区，相同的元素一定在同一分区<br>
+	 * 使用hash的高位分区，避免分区内的{@link HashMap}只用到部分桶
+	 *
+	 * @param array 数组
+	 * @param bits 分区位数
+	 * @param pool {@link ForkJoinPool}
+	 * @return 分区
+	 */
+	private static Object[][] partition(Object[] array, int bits, ForkJoinPool pool) {
+		final int shift = 32 - bits;
+		final short[] partIds = new short[array.length];
+		pool.submit(() -> IntStream.range(0, array.length).parallel().forEach(i -> {
+			final Object obj = array[i];
+			partIds[i] = (short) (((null == obj ? 0 : obj.hashCode()) * 0x9E3779B9) >>> shift);
+		})).join();
+
+		final int[] counts = new int[1 << bits];
+		for (short partId : partIds) {
+			counts[partId]++;
+		}
+		final Object[][] parts = new Object[counts.length][];
+		for (int i = 0; i < parts.length; i++) {
+			parts[i] = new Object[counts[i]];
+		}
+		final int[] positions = new int[counts.length];
+		for (int i = 0; i < array.length; i++) {
+			parts[partIds[i]][positions[partIds[i]]++] = array[i];
+		}
+		return parts;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- int
+	/**
+	 * 计算两个int数组，结果有序（较小的一方不超过较大的一方的1/16时保持较大一方的顺序）
+	 *
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 结果
+	 */
+	int[] apply(int[] array1, int[] array2) {
+		final int[] small = array1.length <= array2.length ? array1 : array2;
+		final int[] large = small == array1 ? array2 : array1;
+		final int[] result = new int[isEmitUnmatched ? large.length + small.length : small.length];
+		int size = 0;
+
+		if ((long) small.length * SMALL_RATIO <= large.length) {
+			// 较小的一方去重计数后二分查找
+			final int[] sorted = small.clone();
+			Arrays.sort(sorted);
+			final int[] remaining = new int[sorted.length];
+			int distinct = 0;
+			for (int i = 0; i < sorted.length; i++) {
+				if (0 == i || sorted[i] != sorted[distinct - 1]) {
+					sorted[distinct++] = sorted[i];
+				}
+				remaining[distinct - 1]++;
+			}
+			int index;
+			for (int value : large) {
+				index = Arrays.binarySearch(sorted, 0, distinct, value);
+				if (index >= 0 && remaining[index] > 0) {
+					remaining[index]--;
+					if (isEmitMatched) {
+						result[size++] = value;
+					}
+				} else if (isEmitUnmatched) {
+					result[size++] = value;
+				}
+			}
+			if (isEmitLeftover) {
+				for (int i = 0; i < distinct; i++) {
+					for (int j = remaining[i]; j > 0; j--) {
+						result[size++] = sorted[i];
+					}
+				}
+			}
+			return Arrays.copyOf(result, size);
+		}
+
+		final int[] sorted1 = sort(array1.clone());
+		final int[] sorted2 = sort(array2.clone());
+		int i = 0, j = 0;
+		int value, count1, count2;
+		while (i < sorted1.length || j < sorted2.length) {
+			if (j == sorted2.length || (i < sorted1.length && sorted1[i] < sorted2[j])) {
+				value = sorted1[i];
+			} else {
+				value = sorted2[j];
+			}
+			count1 = 0;
+			while (i < sorted1.length && sorted1[i] == value) {
+				i++;
+				count1++;
+			}
+			count2 = 0;
+			while (j < sorted2.length && sorted2[j] == value) {
+				j++;
+				count2++;
+			}
+			for (int k = count(count1, count2); k > 0; k--) {
+				result[size++] = value;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * 排序，数组较大时并行排序
+	 *
+	 * @param array 数组
+	 * @return 排序后的数组
+	 */
+	private static int[] sort(int[] array) {
+		if (array.length >= PARALLEL_THRESHOLD) {
+			Arrays.parallelSort(array);
+		} else {
+			Arrays.sort(array);
+		}
+		return array;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- long
+	/**
+	 * 计算两个long数组，结果有序（较小的一方不超过较大的一方的1/16时保持较大一方的顺序）
+	 *
+	 * @param array1 数组1
+	 * @param array2 数组2
+	 * @return 结果
+	 */
+	long[] apply(long[] array1, long[] array2) {
+		final long[] small = array1.length <= array2.length ? array1 : array2;
+		final long[] large = small == array1 ? array2 : array1;
+		final long[] result = new long[isEmitUnmatched ? large.length + small.length : small.length];
+		int size = 0;
+
+		if ((long) small.length * SMALL_RATIO <= large.length) {
+			// 较小的一方去重计数后二分查找
+			final long[] sorted = small.clone();
+			Arrays.sort(sorted);
+			final int[] remaining = new int[sorted.length];
+			int distinct = 0;
+			for (int i = 0; i < sorted.length; i++) {
+				if (0 == i || sorted[i] != sorted[distinct - 1]) {
+					sorted[distinct++] = sorted[i];
+				}
+				remaining[distinct - 1]++;
+			}
+			int index;
+			for (long value : large) {
+				index = Arrays.binarySearch(sorted, 0, distinct, value);
+				if (index >= 0 && remaining[index] > 0) {
+					remaining[index]--;
+					if (isEmitMatched) {
+						result[size++] = value;
+					}
+				} else if (isEmitUnmatched) {
+					result[size++] = value;
+				}
+			}
+			if (isEmitLeftover) {
+				for (int i = 0; i < distinct; i++) {
+					for (int j = remaining[i]; j > 0; j--) {
+						result[size++] = sorted[i];
+					}
+				}
+			}
+			return Arrays.copyOf(result, size);
+		}
+
+		final long[] sorted1 = sort(array1.clone());
+		final long[] sorted2 = sort(array2.clone());
+		int i = 0, j = 0;
+		long value;
+		int count1, count2;
+		while (i < sorted1.length || j < sorted2.length) {
+			if (j == sorted2.length || (i < sorted1.length && sorted1[i] < sorted2[j])) {
+				value = sorted1[i];
+			} else {
+				value = sorted2[j];
+			}
+			count1 = 0;
+			while (i < sorted1.length && sorted1[i] == value) {
+				i++;
+				count1++;
+			}
+			count2 = 0;
+			while (j < sorted2.length && sorted2[j] == value) {
+				j++;
+				count2++;
+			}
+			for (int k = count(count1, count2); k > 0; k--) {
+				result[size++] = value;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * 排序，数组较大时并行排序
+	 *
+	 * @param array 数组
+	 * @return 排序后的数组
+	 */
+	private static long[] sort(long[] array) {
+		if (array.length >= PARALLEL_THRESHOLD) {
+			Arrays.parallelSort(array);
+		} else {
+			Arrays.sort(array);
+		}
+		return array;
+	}
+}
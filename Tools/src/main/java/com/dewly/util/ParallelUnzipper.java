@@ -0,0 +1,628 @@
+package com.dewly.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.dewly.exceptions.UtilException;
+import com.dewly.io.BufferUtil;
+import com.dewly.io.IoUtil;
+import com.dewly.io.StreamProgress;
+import com.dewly.io.ThrottledStreamProgress;
+import com.dewly.lang.Assert;
+
+/**
+ * 并行解压器<br>
+ * 直接解析Zip文件的中央目录，多个线程按位置并发读取同一个{@link FileChannel}解压条目：
+ * <ul>
+ * <li>中央目录通过内存映射只读取一次，支持ZIP64</li>
+ * <li>解压前校验所有条目路径，包含“..”或绝对路径等会写出到目标目录之外的条目（zip-slip）直接拒绝，不解压任何内容</li>
+ * <li>解压前一次性按顺序创建所有需要的目录，重名的条目只解压中央目录中最后一个</li>
+ * <li>每个工作线程复用自己的{@link Inflater}和缓冲，条目按在文件中的位置顺序领取</li>
+ * <li>可通过glob表达式只解压部分条目，进度为所有条目解压后的字节数之和</li>
+ * </ul>
+ * 只支持STORED和DEFLATED，不支持加密的条目。解压后校验CRC和大小。
+ *
+ * <pre>
+ * ParallelUnzipper.create(zipFile, destDir).setFilter("**.class").unzip();
+ * </pre>
+ *
+ * @author Dewly
+ *
+ */
+public class ParallelUnzipper {
+
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+	private static final int FLAG_ENCRYPTED = 1;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final File zipFile;
+	private final File destDir;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private Charset charset = StandardCharsets.UTF_8;
+	private List<PathMatcher> matchers;
+	private StreamProgress progress;
+
+	/**
+	 * 创建解压器
+	 *
+	 * @param zipFile Zip文件
+	 * @param destDir 解压到的目录，不存在时创建
+	 * @return {@link ParallelUnzipper}
+	 */
+	public static ParallelUnzipper create(File zipFile, File destDir) {
+		return new ParallelUnzipper(zipFile, destDir);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param zipFile Zip文件
+	 * @param destDir 解压到的目录，不存在时创建
+	 */
+	public ParallelUnzipper(File zipFile, File destDir) {
+		Assert.notNull(zipFile, "Zip file must not be null");
+		Assert.notNull(destDir, "Destination directory must not be null");
+		this.zipFile = zipFile;
+		this.destDir = destDir;
+	}
+
+	/**
+	 * 设置解压线程数，默认为CPU核数
+	 *
+	 * @param parallelism 线程数
+	 * @return this
+	 */
+	public ParallelUnzipper setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 设置未标记UTF-8的条目名的编码，默认UTF-8
+	 *
+	 * @param charset 编码
+	 * @return this
+	 */
+	public ParallelUnzipper setCharset(Charset charset) {
+		Assert.notNull(charset, "Charset must not be null");
+		this.charset = charset;
+		return this;
+	}
+
+	/**
+	 * 设置只解压条目名匹配任一glob表达式的条目，语法见{@link java.nio.file.FileSystem#getPathMatcher(String)}，例如“**.class”、“META-INF/*”
+	 *
+	 * @param globs glob表达式，为空表示全部解压
+	 * @return this
+	 */
+	public ParallelUnzipper setFilter(String... globs) {
+		if (ArrayUtil.isEmpty(globs)) {
+			this.matchers = null;
+			return this;
+		}
+		final List<PathMatcher> matchers = new ArrayList<>(globs.length);
+		for (String glob : globs) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+		}
+		this.matchers = matchers;
+		return this;
+	}
+
+	/**
+	 * 设置进度处理器，进度为所有线程合计的解压后字节数，通知频率由{@link ThrottledStreamProgress}限制
+	 *
+	 * @param progress 进度处理器，null表示不通知
+	 * @return this
+	 */
+	public ParallelUnzipper setStreamProgress(StreamProgress progress) {
+		this.progress = progress;
+		return this;
+	}
+
+	/**
+	 * 执行解压，已存在的文件被覆盖
+	 *
+	 * @return 解压的文件数，不含目录，重名的条目只计一次
+	 * @throws UtilException IO异常、格式错误或条目路径非法
+	 */
+	public int unzip() throws UtilException {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(zipFile.toPath(), StandardOpenOption.READ);
+			final Path root = destDir.toPath().toAbsolutePath().normalize();
+			// 同一目标路径只保留最后一个条目，避免多个线程同时写出同一文件
+			final Map<Path, Entry> targets = new HashMap<>();
+			final TreeSet<Path> dirs = new TreeSet<>();
+			dirs.add(root);
+			for (Entry entry : readCentralDirectory(channel)) {
+				// 先校验路径，非法的条目名在过滤前就拒绝
+				entry.target = resolve(root, entry.name);
+				// “./”等指向目标目录本身的条目无需解压
+				if (root.equals(entry.target) || false == accept(root.relativize(entry.target))) {
+					continue;
+				}
+				if (entry.isDirectory()) {
+					dirs.add(entry.target);
+				} else {
+					targets.put(entry.target, entry);
+					dirs.add(entry.target.getParent());
+				}
+			}
+			// TreeSet中父目录排在子目录之前
+			for (Path dir : dirs) {
+				Files.createDirectories(dir);
+			}
+
+			final List<Entry> files = new ArrayList<>(targets.values());
+			Collections.sort(files, new Comparator<Entry>() {
+				@Override
+				public int compare(Entry o1, Entry o2) {
+					return Long.compare(o1.offset, o2.offset);
+				}
+			});
+			extract(channel, files);
+			return files.size();
+		} catch (IOException e) {
+			throw new UtilException(e);
+		} finally {
+			IoUtil.close(channel);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 在多个线程中解压文件条目，任一条目失败后其它线程不再领取新条目
+	 *
+	 * @param channel Zip文件通道
+	 * @param files 文件条目，按位置排序
+	 * @throws UtilException 解压失败
+	 */
+	private void extract(final FileChannel channel, final List<Entry> files) throws UtilException {
+		if (files.isEmpty()) {
+			return;
+		}
+		final ThrottledStreamProgress.Aggregator counter = ThrottledStreamProgress.aggregate(progress);
+		if (null != counter) {
+			counter.start();
+		}
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final int workers = Math.min(parallelism, files.size());
+		final ExecutorService executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "ParallelUnzipper-" + THREAD_COUNT.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			for (int i = 0; i < workers; i++) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						final Worker worker = new Worker(channel, counter);
+						try {
+							int index;
+							while (null == error.get() && (index = next.getAndIncrement()) < files.size()) {
+								worker.extract(files.get(index));
+							}
+						} catch (Throwable e) {
+							error.compareAndSet(null, e);
+						} finally {
+							worker.inflater.end();
+						}
+					}
+				});
+			}
+			executor.shutdown();
+			while (false == executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				// 继续等待
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new UtilException(e);
+		}
+
+		final Throwable e = error.get();
+		if (e instanceof UtilException) {
+			throw (UtilException) e;
+		} else if (null != e) {
+			throw new UtilException(e);
+		}
+		if (null != counter) {
+			counter.finish();
+		}
+	}
+
+	/**
+	 * 读取中央目录
+	 *
+	 * @param channel Zip文件通道
+	 * @return 所有条目
+	 * @throws IOException IO异常
+	 * @throws UtilException 格式错误，包括长度或偏移超出范围
+	 */
+	private List<Entry> readCentralDirectory(FileChannel channel) throws IOException {
+		final long fileSize = channel.size();
+		// 结束记录22字节，之后最多65535字节的注释
+		final int tailSize = (int) Math.min(fileSize, 22 + 0xFFFF);
+		final ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+		int endPosition = -1;
+		for (int i = tailSize - 22; i >= 0; i--) {
+			if (END_SIGNATURE == tail.getInt(i)) {
+				endPosition = i;
+				break;
+			}
+		}
+		if (endPosition < 0) {
+			throw new UtilException("Not a zip file: {}", zipFile);
+		}
+
+		long count = tail.getShort(endPosition + 10) & 0xFFFF;
+		long centralSize = tail.getInt(endPosition + 12) & ZIP64_MAGIC;
+		long centralOffset = tail.getInt(endPosition + 16) & ZIP64_MAGIC;
+		if (ZIP64_MAGIC_COUNT == count || ZIP64_MAGIC == centralSize || ZIP64_MAGIC == centralOffset) {
+			final long locatorPosition = fileSize - tailSize + endPosition - 20;
+			if (locatorPosition >= 0) {
+				final ByteBuffer locator = read(channel, locatorPosition, 20);
+				if (ZIP64_LOCATOR_SIGNATURE == locator.getInt(0)) {
+					final long zip64EndOffset = locator.getLong(8);
+					if (zip64EndOffset < 0 || zip64EndOffset + 56 > fileSize) {
+						throw new UtilException("Invalid zip64 end locator: {}", zipFile);
+					}
+					final ByteBuffer end = read(channel, zip64EndOffset, 56);
+					if (ZIP64_END_SIGNATURE != end.getInt(0)) {
+						throw new UtilException("Invalid zip64 end record: {}", zipFile);
+					}
+					count = end.getLong(32);
+					centralSize = end.getLong(40);
+					centralOffset = end.getLong(48);
+				}
+			}
+		}
+		if (count < 0 || centralSize < 0 || centralOffset < 0 || centralOffset + centralSize > fileSize || centralSize > Integer.MAX_VALUE) {
+			throw new UtilException("Invalid central directory: {}", zipFile);
+		}
+
+		final MappedByteBuffer central = channel.map(FileChannel.MapMode.READ_ONLY, centralOffset, centralSize);
+		try {
+			central.order(ByteOrder.LITTLE_ENDIAN);
+			final List<Entry> entries = new ArrayList<>((int) Math.min(count, 1 << 20));
+			int position = 0;
+			while (position + 46 <= centralSize) {
+				if (CENTRAL_HEADER_SIGNATURE != central.getInt(position)) {
+					break;
+				}
+				final Entry entry = new Entry();
+				final int flags = central.getShort(position + 8) & 0xFFFF;
+				entry.method = central.getShort(position + 10) & 0xFFFF;
+				entry.dosTime = central.getInt(position + 12) & ZIP64_MAGIC;
+				entry.crc = central.getInt(position + 16) & ZIP64_MAGIC;
+				entry.compressedSize = central.getInt(position + 20) & ZIP64_MAGIC;
+				entry.size = central.getInt(position + 24) & ZIP64_MAGIC;
+				final int nameLength = central.getShort(position + 28) & 0xFFFF;
+				final int extraLength = central.getShort(position + 30) & 0xFFFF;
+				final int commentLength = central.getShort(position + 32) & 0xFFFF;
+				entry.offset = central.getInt(position + 42) & ZIP64_MAGIC;
+				if (position + 46L + nameLength + extraLength + commentLength > centralSize) {
+					throw new UtilException("Truncated central directory: {}", zipFile);
+				}
+
+				final byte[] name = new byte[nameLength];
+				central.position(position + 46);
+				central.get(name);
+				entry.name = new String(name, (0 != (flags & FLAG_UTF8)) ? StandardCharsets.UTF_8 : charset);
+				if (0 != (flags & FLAG_ENCRYPTED)) {
+					throw new UtilException("Encrypted zip entry is not supported: {}", entry.name);
+				}
+				readZip64Extra(central, position + 46 + nameLength, extraLength, entry);
+				if (entry.size < 0 || entry.compressedSize < 0 || entry.offset < 0 || entry.offset + entry.compressedSize > fileSize) {
+					throw new UtilException("Invalid size or offset of zip entry: {}", entry.name);
+				}
+				entries.add(entry);
+				position += 46 + nameLength + extraLength + commentLength;
+			}
+			if (entries.size() != count) {
+				throw new UtilException("Invalid central directory, expected {} entries but found {}: {}", count, entries.size(), zipFile);
+			}
+			return entries;
+		} finally {
+			BufferUtil.clean(central);
+		}
+	}
+
+	/**
+	 * 读取ZIP64扩展字段，替换中央目录中为0xFFFFFFFF的大小和偏移
+	 *
+	 * @param central 中央目录
+	 * @param start 扩展字段开始位置
+	 * @param length 扩展字段长度
+	 * @param entry 条目
+	 */
+	private static void readZip64Extra(ByteBuffer central, int start, int length, Entry entry) {
+		int position = start;
+		final int end = start + length;
+		while (position + 4 <= end) {
+			final int id = central.getShort(position) & 0xFFFF;
+			final int size = central.getShort(position + 2) & 0xFFFF;
+			if (1 == id) {
+				int field = position + 4;
+				final int fieldEnd = Math.min(field + size, end);
+				if (ZIP64_MAGIC == entry.size && field + 8 <= fieldEnd) {
+					entry.size = central.getLong(field);
+					field += 8;
+				}
+				if (ZIP64_MAGIC == entry.compressedSize && field + 8 <= fieldEnd) {
+					entry.compressedSize = central.getLong(field);
+					field += 8;
+				}
+				if (ZIP64_MAGIC == entry.offset && field + 8 <= fieldEnd) {
+					entry.offset = central.getLong(field);
+				}
+				return;
+			}
+			position += 4 + size;
+		}
+	}
+
+	/**
+	 * 是否解压此条目
+	 *
+	 * @param path 条目相对于目标目录的路径
+	 * @return 是否匹配过滤条件
+	 */
+	private boolean accept(Path path) {
+		if (null == matchers) {
+			return true;
+		}
+		for (PathMatcher matcher : matchers) {
+			if (matcher.matches(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 条目在目标目录中的路径，不在目标目录下时拒绝
+	 *
+	 * @param root 规范化的目标目录
+	 * @param name 条目名
+	 * @return 目标路径，“./”等条目为目标目录本身
+	 * @throws UtilException 条目路径非法
+	 */
+	private static Path resolve(Path root, String name) throws UtilException {
+		final String relative = StrUtil.removeSuffix(name.replace('\\', '/'), "/");
+		final Path target;
+		try {
+			target = root.resolve(relative).normalize();
+		} catch (RuntimeException e) {
+			throw new UtilException(e, "Illegal zip entry path: {}", name);
+		}
+		if (relative.startsWith("/") || false == target.startsWith(root)) {
+			throw new UtilException("Illegal zip entry path, outside of destination: {}", name);
+		}
+		return target;
+	}
+
+	/**
+	 * 按位置读取指定长度
+	 *
+	 * @param channel 通道
+	 * @param position 位置
+	 * @param length 长度
+	 * @return 小端序缓冲
+	 * @throws IOException IO异常
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of zip file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * MS-DOS时间转为Java时间
+	 *
+	 * @param dosTime MS-DOS日期和时间
+	 * @return 毫秒数，无效时返回-1
+	 */
+	private static long javaTime(long dosTime) {
+		try {
+			final LocalDateTime dateTime = LocalDateTime.of((int) ((dosTime >> 25) & 0x7f) + 1980, (int) ((dosTime >> 21) & 0x0f), (int) ((dosTime >> 16) & 0x1f), //
+					(int) ((dosTime >> 11) & 0x1f), (int) ((dosTime >> 5) & 0x3f), (int) ((dosTime << 1) & 0x3e));
+			return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		} catch (RuntimeException e) {
+			return -1;
+		}
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 中央目录中的条目
+	 */
+	private static class Entry {
+		private String name;
+		private int method;
+		private long dosTime;
+		private long crc;
+		private long compressedSize;
+		private long size;
+		/** 本地文件头的位置 */
+		private long offset;
+		/** 解压到的路径 */
+		private Path target;
+
+		boolean isDirectory() {
+			return name.endsWith("/");
+		}
+	}
+
+	/**
+	 * 工作线程的解压状态，复用{@link Inflater}和缓冲
+	 */
+	private class Worker {
+		private final FileChannel channel;
+		private final ThrottledStreamProgress.Aggregator counter;
+		private final Inflater inflater = new Inflater(true);
+		private final byte[] input = new byte[BUFFER_SIZE];
+		private final byte[] output = new byte[BUFFER_SIZE];
+		private final ByteBuffer inputBuffer = ByteBuffer.wrap(input);
+		private final CRC32 crc = new CRC32();
+
+		Worker(FileChannel channel, ThrottledStreamProgress.Aggregator counter) {
+			this.channel = channel;
+			this.counter = counter;
+		}
+
+		/**
+		 * 解压一个文件条目
+		 *
+		 * @param entry 条目
+		 * @throws IOException IO异常
+		 * @throws DataFormatException 压缩数据错误
+		 */
+		void extract(Entry entry) throws IOException, DataFormatException {
+			if (METHOD_STORED != entry.method && METHOD_DEFLATED != entry.method) {
+				throw new UtilException("Unsupported compression method {} of zip entry: {}", entry.method, entry.name);
+			}
+			final ByteBuffer local = read(channel, entry.offset, 30);
+			if (LOCAL_HEADER_SIGNATURE != local.getInt(0)) {
+				throw new UtilException("Invalid local header of zip entry: {}", entry.name);
+			}
+			long position = entry.offset + 30 + (local.getShort(26) & 0xFFFF) + (local.getShort(28) & 0xFFFF);
+			final long end = position + entry.compressedSize;
+
+			crc.reset();
+			inflater.reset();
+			long written = 0;
+			OutputStream out = null;
+			try {
+				out = Files.newOutputStream(entry.target);
+				while (true) {
+					if (METHOD_DEFLATED == entry.method) {
+						if (inflater.finished()) {
+							break;
+						}
+						if (inflater.needsInput()) {
+							if (position >= end) {
+								throw new UtilException("Truncated zip entry: {}", entry.name);
+							}
+							position += fill(position, end);
+							inflater.setInput(input, 0, inputBuffer.position());
+						}
+						final int count = inflater.inflate(output);
+						if (0 == count && inflater.needsDictionary()) {
+							throw new UtilException("Zip entry needs a preset dictionary: {}", entry.name);
+						}
+						write(out, output, count);
+						written += count;
+					} else {
+						if (position >= end) {
+							break;
+						}
+						final int count = fill(position, end);
+						position += count;
+						write(out, input, count);
+						written += count;
+					}
+				}
+			} finally {
+				IoUtil.close(out);
+			}
+
+			if (written != entry.size || crc.getValue() != entry.crc) {
+				throw new UtilException("Zip entry is corrupted, CRC or size mismatch: {}", entry.name);
+			}
+			final long time = javaTime(entry.dosTime);
+			if (time >= 0) {
+				entry.target.toFile().setLastModified(time);
+			}
+		}
+
+		/**
+		 * 从指定位置读取压缩数据到输入缓冲
+		 *
+		 * @param position 位置
+		 * @param end 条目数据结束位置
+		 * @return 读取的字节数
+		 * @throws IOException IO异常
+		 */
+		private int fill(long position, long end) throws IOException {
+			inputBuffer.clear();
+			inputBuffer.limit((int) Math.min(input.length, end - position));
+			final int read = channel.read(inputBuffer, position);
+			if (read <= 0) {
+				throw new IOException("Unexpected end of zip file");
+			}
+			return read;
+		}
+
+		/**
+		 * 写出解压后的数据并更新CRC和进度
+		 *
+		 * @param out 输出
+		 * @param bytes 数据
+		 * @param count 长度
+		 * @throws IOException IO异常
+		 */
+		private void write(OutputStream out, byte[] bytes, int count) throws IOException {
+			if (count <= 0) {
+				return;
+			}
+			out.write(bytes, 0, count);
+			crc.update(bytes, 0, count);
+			if (null != counter) {
+				counter.add(count);
+			}
+		}
+	}
+}
@@ -0,0 +1,899 @@
+package com.dewly.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.dewly.exceptions.UtilException;
+import com.dewly.io.ByteChunkPool;
+import com.dewly.io.FastByteArrayOutputStream;
+import com.dewly.io.FileUtil;
+import com.dewly.io.IORuntimeException;
+import com.dewly.io.IoUtil;
+import com.dewly.io.StreamCopier;
+import com.dewly.lang.Assert;
+
+/**
+ * 并行压缩的Zip写出器<br>
+ * 每个条目在工作线程中压缩到池化的缓冲中，再由调用线程按添加顺序依次写出本地文件头、数据和最后的中央目录：
+ * <ul>
+ * <li>条目大小在写出前已知，本地文件头直接写入CRC和大小，不使用数据描述符</li>
+ * <li>已经压缩过的格式（jpg、png、mp4、zip等）使用STORED，文件内容由调用线程直接拷贝，不占用缓冲</li>
+ * <li>超过溢出阈值的条目压缩到临时文件，不占用堆内存</li>
+ * <li>同时等待写出的条目数不超过线程数的两倍，且缓冲在内存中的总字节数不超过限制</li>
+ * <li>条目或归档超过4GB、条目数超过65535时自动使用ZIP64格式</li>
+ * </ul>
+ * 条目名使用UTF-8编码。写出失败后归档已不完整，不再写出中央目录。非线程安全，只能在一个线程中添加条目。
+ *
+ * <pre>
+ * ParallelZipWriter writer = ParallelZipWriter.create(zipFile);
+ * try {
+ * 	writer.add("a/b.txt", file);
+ * } finally {
+ * 	writer.close();
+ * }
+ * </pre>
+ *
+ * @author Dewly
+ *
+ */
+public class ParallelZipWriter implements Closeable {
+
+	/** 默认使用STORED的扩展名（小写），这些格式再压缩几乎没有收益 */
+	public static final Set<String> DEFAULT_STORED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(//
+			"jpg", "jpeg", "png", "gif", "webp", "heic", //
+			"mp3", "aac", "ogg", "flac", "mp4", "m4a", "m4v", "mov", "avi", "mkv", "webm", //
+			"zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst", "lz4", "jar", "war", "apk", //
+			"docx", "xlsx", "pptx", "pdf")));
+	/** 默认溢出阈值：超过16MB的条目压缩到临时文件 */
+	public static final long DEFAULT_SPILL_THRESHOLD = 16 * 1024 * 1024;
+	/** 默认等待写出的条目在内存中缓冲的最大总字节数：128MB */
+	public static final long DEFAULT_MAX_PENDING_BYTES = 128 * 1024 * 1024;
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+	private static final int VERSION_DEFAULT = 20;
+	private static final int VERSION_ZIP64 = 45;
+	/** 标志：文件名为UTF-8编码 */
+	private static final int FLAG_UTF8 = 0x800;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** 溢出阈值上限，保证内存缓冲的大小不超过int范围 */
+	private static final long MAX_SPILL_THRESHOLD = 1024 * 1024 * 1024;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+	/** 压缩结果使用的缓冲块池 */
+	private static final ByteChunkPool CHUNK_POOL = ByteChunkPool.create(BUFFER_SIZE, 256);
+
+	private final OutputStream out;
+	/** 已写出的字节数，即下一个条目的偏移 */
+	private long offset;
+	private final List<CentralEntry> entries = new ArrayList<>();
+	private final Set<String> names = new HashSet<>();
+	/** 按添加顺序等待写出的条目 */
+	private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+	/** 等待写出的条目在内存中缓冲的估计字节数 */
+	private long pendingBytes;
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int level = Deflater.DEFAULT_COMPRESSION;
+	private Set<String> storedExtensions = DEFAULT_STORED_EXTENSIONS;
+	private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+	private long maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+	private ExecutorService executor;
+	private boolean isFinished;
+	/** 是否写出失败，失败后不再写出中央目录 */
+	private boolean isFailed;
+
+	/**
+	 * 创建写出器，写出到文件
+	 *
+	 * @param zipFile Zip文件，父目录不存在时自动创建
+	 * @return {@link ParallelZipWriter}
+	 */
+	public static ParallelZipWriter create(File zipFile) {
+		return new ParallelZipWriter(FileUtil.getOutputStream(zipFile));
+	}
+
+	/**
+	 * 创建写出器，写出到流
+	 *
+	 * @param out 输出流，{@link #close()}时关闭
+	 * @return {@link ParallelZipWriter}
+	 */
+	public static ParallelZipWriter create(OutputStream out) {
+		return new ParallelZipWriter(out);
+	}
+
+	/**
+	 * 构造
+	 *
+	 * @param out 输出流，{@link #close()}时关闭
+	 */
+	public ParallelZipWriter(OutputStream out) {
+		Assert.notNull(out, "OutputStream must not be null");
+		this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+	}
+
+	/**
+	 * 设置压缩线程数，默认为CPU核数，需在添加条目前设置
+	 *
+	 * @param parallelism 线程数
+	 * @return this
+	 */
+	public ParallelZipWriter setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 设置压缩级别
+	 *
+	 * @param level 压缩级别，0~9或{@link Deflater#DEFAULT_COMPRESSION}
+	 * @return this
+	 */
+	public ParallelZipWriter setLevel(int level) {
+		Assert.isTrue((level >= 0 && level <= 9) || Deflater.DEFAULT_COMPRESSION == level, "Invalid compression level: {}", level);
+		this.level = level;
+		return this;
+	}
+
+	/**
+	 * 设置使用STORED（不压缩）的扩展名，默认{@link #DEFAULT_STORED_EXTENSIONS}
+	 *
+	 * @param storedExtensions 小写的扩展名，不带“.”，null表示全部压缩
+	 * @return this
+	 */
+	public ParallelZipWriter setStoredExtensions(Set<String> storedExtensions) {
+		this.storedExtensions = (null == storedExtensions) ? Collections.<String>emptySet() : storedExtensions;
+		return this;
+	}
+
+	/**
+	 * 设置溢出阈值，超过阈值的条目压缩到临时文件而不是内存缓冲，默认{@link #DEFAULT_SPILL_THRESHOLD}
+	 *
+	 * @param spillThreshold 阈值，字节数，不超过1GB
+	 * @return this
+	 */
+	public ParallelZipWriter setSpillThreshold(long spillThreshold) {
+		Assert.isTrue(spillThreshold >= 0 && spillThreshold <= MAX_SPILL_THRESHOLD, "Invalid spill threshold: {}", spillThreshold);
+		this.spillThreshold = spillThreshold;
+		return this;
+	}
+
+	/**
+	 * 设置等待写出的条目在内存中缓冲的最大总字节数，超过时先写出最早的条目，默认{@link #DEFAULT_MAX_PENDING_BYTES}
+	 *
+	 * @param maxPendingBytes 最大字节数
+	 * @return this
+	 */
+	public ParallelZipWriter setMaxPendingBytes(long maxPendingBytes) {
+		Assert.isTrue(maxPendingBytes > 0, "Max pending bytes must be greater than 0");
+		this.maxPendingBytes = maxPendingBytes;
+		return this;
+	}
+
+	/**
+	 * 添加文件或目录，目录添加目录条目并递归添加其下所有文件和目录
+	 *
+	 * @param path 在压缩文件中的路径，使用“/”分隔，目录的路径为空时不添加目录条目，其下内容直接放在根下
+	 * @param file 文件或目录
+	 * @return this
+	 * @throws UtilException IO异常或路径重复
+	 */
+	public ParallelZipWriter add(String path, final File file) throws UtilException {
+		path = normalize(path);
+		if (file.isDirectory()) {
+			if (false == path.isEmpty()) {
+				addDir(path);
+			}
+			final File[] children = file.listFiles();
+			if (null != children) {
+				for (File child : children) {
+					add(path.isEmpty() ? child.getName() : path + "/" + child.getName(), child);
+				}
+			}
+			return this;
+		}
+
+		addFile(checkName(path), file, file.lastModified(), null);
+		return this;
+	}
+
+	/**
+	 * 添加数据
+	 *
+	 * @param path 在压缩文件中的路径，使用“/”分隔
+	 * @param data 数据，写出前不能修改
+	 * @return this
+	 * @throws UtilException IO异常或路径重复
+	 */
+	public ParallelZipWriter add(String path, final byte[] data) throws UtilException {
+		final String name = checkName(normalize(path));
+		final long lastModified = System.currentTimeMillis();
+		final File spill = (data.length > spillThreshold && false == isStored(name)) ? createTemp() : null;
+		submit(new Callable<Compressed>() {
+			@Override
+			public Compressed call() throws IOException {
+				if (isStored(name)) {
+					final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(CHUNK_POOL);
+					buffer.write(data, 0, data.length);
+					final CRC32 crc = new CRC32();
+					crc.update(data, 0, data.length);
+					return new Compressed(name, METHOD_STORED, crc.getValue(), data.length, data.length, lastModified, buffer, null);
+				}
+				return deflate(name, new ByteArrayInputStream(data), lastModified, spill);
+			}
+		}, data.length, null, spill);
+		return this;
+	}
+
+	/**
+	 * 添加流中的数据，流在当前线程中读取到缓冲后再压缩，不关闭流<br>
+	 * 超过溢出阈值时剩余部分转存到临时文件，按文件压缩
+	 *
+	 * @param path 在压缩文件中的路径，使用“/”分隔
+	 * @param in 输入流
+	 * @return this
+	 * @throws UtilException IO异常或路径重复
+	 */
+	public ParallelZipWriter add(String path, InputStream in) throws UtilException {
+		final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(CHUNK_POOL);
+		File source = null;
+		OutputStream sourceOut = null;
+		byte[] data = null;
+		try {
+			final byte[] bytes = new byte[StreamCopier.DEFAULT_BUFFER_SIZE];
+			int read;
+			while (IoUtil.EOF != (read = in.read(bytes))) {
+				if (null != sourceOut) {
+					sourceOut.write(bytes, 0, read);
+				} else {
+					buffer.write(bytes, 0, read);
+					if (buffer.size() > spillThreshold) {
+						source = createTemp();
+						sourceOut = new FileOutputStream(source);
+						buffer.writeTo(sourceOut);
+					}
+				}
+			}
+			if (null == source) {
+				data = buffer.toByteArray();
+			}
+		} catch (IOException e) {
+			IoUtil.close(sourceOut);
+			FileUtil.del(source);
+			throw new UtilException(e);
+		} finally {
+			buffer.close();
+		}
+		if (null != data) {
+			return add(path, data);
+		}
+
+		try {
+			sourceOut.close();
+			addFile(checkName(normalize(path)), source, System.currentTimeMillis(), source);
+		} catch (IOException e) {
+			FileUtil.del(source);
+			throw new UtilException(e);
+		} catch (RuntimeException e) {
+			FileUtil.del(source);
+			throw e;
+		}
+		return this;
+	}
+
+	/**
+	 * 添加目录条目
+	 *
+	 * @param path 在压缩文件中的路径，使用“/”分隔，结尾的“/”可省略
+	 * @return this
+	 * @throws UtilException IO异常或路径重复
+	 */
+	public ParallelZipWriter addDir(String path) throws UtilException {
+		final String name = checkName(normalize(path) + "/");
+		final long lastModified = System.currentTimeMillis();
+		submit(new Callable<Compressed>() {
+			@Override
+			public Compressed call() {
+				return new Compressed(name, METHOD_STORED, 0, 0, 0, lastModified, null, null);
+			}
+		}, 0, null, null);
+		return this;
+	}
+
+	/**
+	 * 写出所有条目和中央目录，不关闭输出流，之后不能再添加条目
+	 *
+	 * @throws UtilException IO异常，或之前已写出失败
+	 */
+	public void finish() throws UtilException {
+		if (isFinished) {
+			return;
+		}
+		if (isFailed) {
+			throw new UtilException("Zip writer failed, the archive is incomplete !");
+		}
+		try {
+			while (false == pending.isEmpty()) {
+				writeNext();
+			}
+			writeCentralDirectory();
+			out.flush();
+			isFinished = true;
+		} catch (IOException e) {
+			throw new UtilException(e);
+		} finally {
+			if (false == isFinished) {
+				isFailed = true;
+			}
+			shutdown();
+		}
+	}
+
+	/**
+	 * 写出剩余的条目和中央目录并关闭输出流，之前已写出失败时只关闭输出流
+	 *
+	 * @throws UtilException IO异常
+	 */
+	@Override
+	public void close() throws UtilException {
+		try {
+			if (false == isFailed) {
+				finish();
+			}
+		} finally {
+			IoUtil.close(out);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------------- Private method start
+	/**
+	 * 添加文件条目
+	 *
+	 * @param name 已检查的条目名
+	 * @param file 文件
+	 * @param lastModified 修改时间
+	 * @param temp 写出后删除的临时文件，null表示不删除
+	 * @throws UtilException IO异常
+	 */
+	private void addFile(final String name, final File file, final long lastModified, File temp) throws UtilException {
+		if (isStored(name)) {
+			// 工作线程只计算CRC，内容写出时直接从文件拷贝
+			submit(new Callable<Compressed>() {
+				@Override
+				public Compressed call() throws IOException {
+					final CRC32 crc = new CRC32();
+					final long size = checksum(file, crc);
+					return new Compressed(name, METHOD_STORED, crc.getValue(), size, size, lastModified, null, file);
+				}
+			}, 0, temp, null);
+			return;
+		}
+
+		final long length = file.length();
+		final File spill = (length > spillThreshold) ? createTemp() : null;
+		submit(new Callable<Compressed>() {
+			@Override
+			public Compressed call() throws IOException {
+				InputStream in = null;
+				try {
+					in = new FileInputStream(file);
+					return deflate(name, in, lastModified, spill);
+				} finally {
+					IoUtil.close(in);
+				}
+			}
+		}, (null == spill) ? length : 0, temp, spill);
+	}
+
+	/**
+	 * 提交压缩任务，等待写出的条目过多或缓冲的字节数超过限制时先写出最早的条目
+	 *
+	 * @param task 压缩任务
+	 * @param bytes 在内存中缓冲的估计字节数
+	 * @param source 写出后删除的临时源文件，可为null
+	 * @param spill 压缩结果的临时文件，可为null
+	 * @throws UtilException IO异常
+	 */
+	private void submit(Callable<Compressed> task, long bytes, File source, File spill) throws UtilException {
+		if (null == executor) {
+			executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r, "ParallelZipWriter-" + THREAD_COUNT.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		pending.add(new Pending(executor.submit(task), bytes, source, spill));
+		pendingBytes += bytes;
+		try {
+			while (pending.size() > parallelism * 2 || (pendingBytes > maxPendingBytes && pending.size() > 1)) {
+				writeNext();
+			}
+		} catch (IOException e) {
+			shutdown();
+			throw new UtilException(e);
+		}
+	}
+
+	/**
+	 * 等待最早的条目压缩完成并写出，失败时标记写出失败
+	 *
+	 * @throws IOException IO异常
+	 */
+	private void writeNext() throws IOException {
+		final Pending next = pending.poll();
+		pendingBytes -= next.bytes;
+		// 写出中途失败时偏移已不可信，成功写出后才清除失败标记
+		isFailed = true;
+		try {
+			final Compressed entry;
+			try {
+				entry = next.future.get();
+			} catch (ExecutionException e) {
+				shutdown();
+				final Throwable cause = e.getCause();
+				throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+			} catch (InterruptedException e) {
+				shutdown();
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			writeEntry(entry);
+		} finally {
+			next.deleteTemps();
+		}
+		isFailed = false;
+	}
+
+	/**
+	 * 写出条目的本地文件头和数据
+	 *
+	 * @param entry 压缩完成的条目
+	 * @throws IOException IO异常
+	 */
+	private void writeEntry(Compressed entry) throws IOException {
+		final long localOffset = offset;
+		final boolean isZip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+		final ByteBuffer header = buffer(30 + entry.name.length + (isZip64 ? 20 : 0));
+		header.putInt(LOCAL_HEADER_SIGNATURE);
+		header.putShort((short) (isZip64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) entry.method);
+		header.putInt((int) entry.dosTime);
+		header.putInt((int) entry.crc);
+		header.putInt((int) (isZip64 ? ZIP64_MAGIC : entry.compressedSize));
+		header.putInt((int) (isZip64 ? ZIP64_MAGIC : entry.size));
+		header.putShort((short) entry.name.length);
+		header.putShort((short) (isZip64 ? 20 : 0));
+		header.put(entry.name);
+		if (isZip64) {
+			header.putShort((short) 1);
+			header.putShort((short) 16);
+			header.putLong(entry.size);
+			header.putLong(entry.compressedSize);
+		}
+		write(header);
+
+		if (null != entry.data) {
+			try {
+				entry.data.writeTo(out);
+			} finally {
+				entry.data.close();
+			}
+		} else if (null != entry.file) {
+			InputStream in = null;
+			final long copied;
+			try {
+				in = new FileInputStream(entry.file);
+				copied = IoUtil.copy(in, out, BUFFER_SIZE);
+			} finally {
+				IoUtil.close(in);
+			}
+			if (copied != entry.compressedSize) {
+				throw new IOException(StrUtil.format("File [{}] changed while zipping", entry.file));
+			}
+		}
+		offset += entry.compressedSize;
+		entries.add(new CentralEntry(entry, localOffset));
+	}
+
+	/**
+	 * 写出中央目录和结束记录
+	 *
+	 * @throws IOException IO异常
+	 */
+	private void writeCentralDirectory() throws IOException {
+		final long centralOffset = offset;
+		for (CentralEntry entry : entries) {
+			final boolean isSizeZip64 = entry.size >= ZIP64_MAGIC;
+			final boolean isCompressedSizeZip64 = entry.compressedSize >= ZIP64_MAGIC;
+			final boolean isOffsetZip64 = entry.offset >= ZIP64_MAGIC;
+			final int extraLength = (isSizeZip64 || isCompressedSizeZip64 || isOffsetZip64) ? 4 + 8 * ((isSizeZip64 ? 1 : 0) + (isCompressedSizeZip64 ? 1 : 0) + (isOffsetZip64 ? 1 : 0)) : 0;
+			final int version = (extraLength > 0) ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+			final ByteBuffer header = buffer(46 + entry.name.length + extraLength);
+			header.putInt(CENTRAL_HEADER_SIGNATURE);
+			header.putShort((short) version);
+			header.putShort((short) version);
+			header.putShort((short) FLAG_UTF8);
+			header.putShort((short) entry.method);
+			header.putInt((int) entry.dosTime);
+			header.putInt((int) entry.crc);
+			header.putInt((int) (isCompressedSizeZip64 ? ZIP64_MAGIC : entry.compressedSize));
+			header.putInt((int) (isSizeZip64 ? ZIP64_MAGIC : entry.size));
+			header.putShort((short) entry.name.length);
+			header.putShort((short) extraLength);
+			// 注释长度、起始磁盘号、内部属性
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			// 外部属性：MS-DOS目录标志
+			header.putInt(entry.isDirectory() ? 0x10 : 0);
+			header.putInt((int) (isOffsetZip64 ? ZIP64_MAGIC : entry.offset));
+			header.put(entry.name);
+			if (extraLength > 0) {
+				header.putShort((short) 1);
+				header.putShort((short) (extraLength - 4));
+				if (isSizeZip64) {
+					header.putLong(entry.size);
+				}
+				if (isCompressedSizeZip64) {
+					header.putLong(entry.compressedSize);
+				}
+				if (isOffsetZip64) {
+					header.putLong(entry.offset);
+				}
+			}
+			write(header);
+		}
+
+		final long centralSize = offset - centralOffset;
+		final int count = entries.size();
+		if (count >= ZIP64_MAGIC_COUNT || centralSize >= ZIP64_MAGIC || centralOffset >= ZIP64_MAGIC) {
+			final long zip64EndOffset = offset;
+			final ByteBuffer end = buffer(56 + 20);
+			end.putInt(ZIP64_END_SIGNATURE);
+			// 记录剩余部分的长度
+			end.putLong(44);
+			end.putShort((short) VERSION_ZIP64);
+			end.putShort((short) VERSION_ZIP64);
+			end.putInt(0);
+			end.putInt(0);
+			end.putLong(count);
+			end.putLong(count);
+			end.putLong(centralSize);
+			end.putLong(centralOffset);
+			end.putInt(ZIP64_LOCATOR_SIGNATURE);
+			end.putInt(0);
+			end.putLong(zip64EndOffset);
+			end.putInt(1);
+			write(end);
+		}
+
+		final ByteBuffer end = buffer(22);
+		end.putInt(END_SIGNATURE);
+		end.putShort((short) 0);
+		end.putShort((short) 0);
+		end.putShort((short) Math.min(count, ZIP64_MAGIC_COUNT));
+		end.putShort((short) Math.min(count, ZIP64_MAGIC_COUNT));
+		end.putInt((int) Math.min(centralSize, ZIP64_MAGIC));
+		end.putInt((int) Math.min(centralOffset, ZIP64_MAGIC));
+		end.putShort((short) 0);
+		write(end);
+	}
+
+	/**
+	 * 压缩流中的数据到池化的缓冲或临时文件
+	 *
+	 * @param name 条目名
+	 * @param in 输入流
+	 * @param lastModified 修改时间
+	 * @param spill 压缩结果写出到的临时文件，null表示写出到池化的缓冲
+	 * @return 压缩结果
+	 * @throws IOException IO异常
+	 */
+	private Compressed deflate(String name, InputStream in, long lastModified, File spill) throws IOException {
+		final FastByteArrayOutputStream buffer = (null == spill) ? new FastByteArrayOutputStream(CHUNK_POOL) : null;
+		final OutputStream target = (null == spill) ? buffer : new FileOutputStream(spill);
+		final Deflater deflater = new Deflater(level, true);
+		final CRC32 crc = new CRC32();
+		final byte[] input = new byte[BUFFER_SIZE];
+		final byte[] output = new byte[BUFFER_SIZE];
+		long size = 0;
+		try {
+			int read;
+			while (IoUtil.EOF != (read = in.read(input))) {
+				crc.update(input, 0, read);
+				size += read;
+				deflater.setInput(input, 0, read);
+				while (false == deflater.needsInput()) {
+					target.write(output, 0, deflater.deflate(output));
+				}
+			}
+			deflater.finish();
+			while (false == deflater.finished()) {
+				target.write(output, 0, deflater.deflate(output));
+			}
+			if (null != spill) {
+				target.close();
+			}
+			return new Compressed(name, METHOD_DEFLATED, crc.getValue(), deflater.getBytesWritten(), size, lastModified, buffer, spill);
+		} catch (IOException e) {
+			// 归还池化的缓冲，临时文件由写出线程删除
+			IoUtil.close(target);
+			throw e;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * 创建临时文件，用于转存流或大条目的压缩结果
+	 *
+	 * @return 临时文件
+	 * @throws UtilException IO异常
+	 */
+	private static File createTemp() throws UtilException {
+		try {
+			return FileUtil.createTempFile("zip", null, null, false);
+		} catch (IORuntimeException e) {
+			throw new UtilException(e);
+		}
+	}
+
+	/**
+	 * 计算文件的CRC32
+	 *
+	 * @param file 文件
+	 * @param crc CRC32
+	 * @return 文件大小
+	 * @throws IOException IO异常
+	 */
+	private static long checksum(File file, CRC32 crc) throws IOException {
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		InputStream in = null;
+		long size = 0;
+		try {
+			in = FileUtil.getInputStream(file);
+			int read;
+			while (IoUtil.EOF != (read = in.read(buffer))) {
+				crc.update(buffer, 0, read);
+				size += read;
+			}
+		} finally {
+			IoUtil.close(in);
+		}
+		return size;
+	}
+
+	/**
+	 * 是否使用STORED
+	 *
+	 * @param name 条目名
+	 * @return 是否不压缩
+	 */
+	private boolean isStored(String name) {
+		return storedExtensions.contains(FileUtil.extName(name).toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * 检查名称非空、未重复且编码后长度不超过限制
+	 *
+	 * @param name 条目名
+	 * @return 条目名
+	 * @throws UtilException 已写出、名称为空或重复
+	 */
+	private String checkName(String name) throws UtilException {
+		if (isFinished) {
+			throw new UtilException("Zip writer is finished !");
+		}
+		if (isFailed) {
+			throw new UtilException("Zip writer failed, the archive is incomplete !");
+		}
+		if (name.isEmpty() || "/".equals(name)) {
+			throw new UtilException("Zip entry name must not be empty");
+		}
+		if (false == names.add(name)) {
+			throw new UtilException("Duplicate zip entry: {}", name);
+		}
+		if (name.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+			throw new UtilException("Zip entry name too long: {}", name);
+		}
+		return name;
+	}
+
+	/**
+	 * 规范化路径：使用“/”分隔，去掉开头和结尾的“/”
+	 *
+	 * @param path 路径
+	 * @return 路径
+	 */
+	private static String normalize(String path) {
+		Assert.notNull(path, "Path must not be null");
+		path = path.replace('\\', '/');
+		int start = 0;
+		int end = path.length();
+		while (start < end && '/' == path.charAt(start)) {
+			start++;
+		}
+		while (end > start && '/' == path.charAt(end - 1)) {
+			end--;
+		}
+		return path.substring(start, end);
+	}
+
+	/**
+	 * 小端序的头部缓冲
+	 *
+	 * @param size 大小
+	 * @return 缓冲
+	 */
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * 写出头部并累计偏移
+	 *
+	 * @param buffer 已填满的头部
+	 * @throws IOException IO异常
+	 */
+	private void write(ByteBuffer buffer) throws IOException {
+		out.write(buffer.array(), 0, buffer.position());
+		offset += buffer.position();
+	}
+
+	/**
+	 * 停止压缩线程，丢弃未写出的条目并删除其临时文件
+	 */
+	private void shutdown() {
+		if (null != executor) {
+			executor.shutdownNow();
+		}
+		for (Pending next : pending) {
+			next.future.cancel(true);
+			next.deleteTemps();
+		}
+		pending.clear();
+		pendingBytes = 0;
+	}
+
+	/**
+	 * Java时间转为MS-DOS时间，1980年以前按1980年1月1日
+	 *
+	 * @param time 毫秒数
+	 * @return MS-DOS日期和时间
+	 */
+	private static long dosTime(long time) {
+		final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		if (dateTime.getYear() < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return ((dateTime.getYear() - 1980L) << 25) | ((long) dateTime.getMonthValue() << 21) | ((long) dateTime.getDayOfMonth() << 16) //
+				| ((long) dateTime.getHour() << 11) | ((long) dateTime.getMinute() << 5) | (dateTime.getSecond() >> 1);
+	}
+	// ------------------------------------------------------------------------------------------------------------------- Private method end
+
+	/**
+	 * 已提交等待写出的条目
+	 */
+	private static class Pending {
+		private final Future<Compressed> future;
+		/** 在内存中缓冲的估计字节数 */
+		private final long bytes;
+		/** 转存流的临时源文件 */
+		private final File source;
+		/** 压缩结果的临时文件 */
+		private final File spill;
+
+		Pending(Future<Compressed> future, long bytes, File source, File spill) {
+			this.future = future;
+			this.bytes = bytes;
+			this.source = source;
+			this.spill = spill;
+		}
+
+		/**
+		 * 删除临时文件
+		 */
+		void deleteTemps() {
+			FileUtil.del(source);
+			FileUtil.del(spill);
+		}
+	}
+
+	/**
+	 * 压缩完成等待写出的条目
+	 */
+	private static class Compressed {
+		private final byte[] name;
+		private final int method;
+		private final long crc;
+		private final long compressedSize;
+		private final long size;
+		private final long dosTime;
+		/** 压缩后的数据，null表示从文件拷贝或没有内容 */
+		private final FastByteArrayOutputStream data;
+		/** 直接拷贝的文件：STORED时为原文件，溢出时为压缩结果的临时文件 */
+		private final File file;
+
+		Compressed(String name, int method, long crc, long compressedSize, long size, long lastModified, FastByteArrayOutputStream data, File file) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.dosTime = dosTime(lastModified);
+			this.data = data;
+			this.file = file;
+		}
+	}
+
+	/**
+	 * 中央目录中的条目
+	 */
+	private static class CentralEntry {
+		private final byte[] name;
+		private final int method;
+		private final long crc;
+		private final long compressedSize;
+		private final long size;
+		private final long dosTime;
+		private final long offset;
+
+		CentralEntry(Compressed entry, long offset) {
+			this.name = entry.name;
+			this.method = entry.method;
+			this.crc = entry.crc;
+			this.compressedSize = entry.compressedSize;
+			this.size = entry.size;
+			this.dosTime = entry.dosTime;
+			this.offset = offset;
+		}
+
+		boolean isDirectory() {
+			return name.length > 0 && '/' == name[name.length - 1];
+		}
+	}
+}
@@ -8,12 +8,14 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.dewly.lang.CompiledRegex;
 import com.dewly.lang.PatternPool;
 import com.dewly.lang.Validator;
 
 /**
  * 正则相关工具类<br>
- * 常用正则请见 {@link Validator}
+ * 常用正则请见 {@link Validator}<br>
+ * 传入正则字符串的方法使用{@link PatternPool}中缓存的{@link CompiledRegex}，纯文本和简单字符类的正则不经过{@link Matcher}
  * 
  * @author Dewly
  */
@@ -42,9 +44,7 @@ public class ReUtil {
 			return null;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		return get(pattern, content, groupIndex);
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).get(content, groupIndex);
 	}
 	
 	/**
@@ -136,9 +136,7 @@ public class ReUtil {
 			return content;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		return delFirst(pattern, content);
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).replace(content, StrUtil.EMPTY, false);
 	}
 	
 	/**
@@ -168,9 +166,7 @@ public class ReUtil {
 			return content;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		return delAll(pattern, content);
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).replace(content, StrUtil.EMPTY, true);
 	}
 	
 	/**
@@ -188,6 +184,21 @@ public class ReUtil {
 		return pattern.matcher(content).replaceAll(StrUtil.EMPTY);
 	}
 	
+	/**
+	 * 删除多关键字匹配器匹配到的全部内容，只扫描一遍文本
+	 * 
+	 * @param matcher 多关键字匹配器
+	 * @param content 被匹配的内容
+	 * @return 删除后剩余的内容
+	 */
+	public static String delAll(MultiMatcher matcher, String content) {
+		if(null == matcher || StrUtil.isEmpty(content)){
+			return content;
+		}
+		
+		return matcher.replaceAll(content, StrUtil.EMPTY);
+	}
+	
 	/**
 	 * 删除正则匹配到的内容之前的字符 如果没有找到，则返回原文
 	 * 
@@ -200,11 +211,9 @@ public class ReUtil {
 			return content;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		Matcher matcher = pattern.matcher(content);
-		if (matcher.find()) {
-			return StrUtil.sub(content, matcher.end(), content.length());
+		final int end = PatternPool.getCompiled(regex, Pattern.DOTALL).end(content);
+		if (end >= 0) {
+			return StrUtil.sub(content, end, content.length());
 		}
 		return content;
 	}
@@ -233,12 +242,15 @@ public class ReUtil {
 	 * @return 结果集
 	 */
 	public static <T extends Collection<String>> T findAll(String regex, String content, int group, T collection) {
-		if(null == regex){
+		if(null == regex || null == content){
 			return null;
 		}
 		
-		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		return findAll(pattern, content, group, collection);
+		if(null == collection){
+			throw new NullPointerException("Null collection param provided!");
+		}
+		
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).findAll(content, group, collection);
 	}
 	
 	/**
@@ -287,13 +299,11 @@ public class ReUtil {
 	 * @return 匹配个数
 	 */
 	public static int count(String regex, String content){
-		if(null == regex){
+		if(null == regex || null == content){
 			return 0;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		return count(pattern, content);
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).count(content);
 	}
 	
 	/**
@@ -315,6 +325,53 @@ public class ReUtil {
 		
 		return count;
 	}
+	
+	/**
+	 * 计算指定字符串中，多关键字匹配器匹配到的个数，互相重叠的匹配只计算最长的一个
+	 * @param matcher 多关键字匹配器
+	 * @param content 被查找的内容
+	 * @return 匹配个数
+	 */
+	public static int count(MultiMatcher matcher, String content){
+		if(null == matcher || null == content){
+			return 0;
+		}
+		
+		return matcher.findAll(content, false).size();
+	}
+	
+	/**
+	 * 取得内容中多关键字匹配器匹配到的所有结果，互相重叠的匹配只取最长的一个
+	 * 
+	 * @param matcher 多关键字匹配器
+	 * @param content 被查找的内容
+	 * @return 结果列表，为内容中匹配到的原文
+	 */
+	public static List<String> findAll(MultiMatcher matcher, String content) {
+		if(null == matcher || null == content){
+			return null;
+		}
+		
+		final List<MultiMatcher.Hit> hits = matcher.findAll(content, false);
+		final List<String> result = new ArrayList<>(hits.size());
+		for (MultiMatcher.Hit hit : hits) {
+			result.add(content.substring(hit.getStart(), hit.getEnd()));
+		}
+		return result;
+	}
+	
+	/**
+	 * 内容中是否包含多关键字匹配器中的任意一个关键字
+	 * @param matcher 多关键字匹配器
+	 * @param content 内容
+	 * @return 是否包含，内容为null返回false
+	 */
+	public static boolean contains(MultiMatcher matcher, String content) {
+		if(null == matcher || null == content) {
+			return false;
+		}
+		return matcher.containsAny(content);
+	}
 
 	/**
 	 * 从字符串中获得第一个整数
@@ -343,9 +400,7 @@ public class ReUtil {
 			return true;
 		}
 		
-//		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		final Pattern pattern = PatternPool.get(regex, Pattern.DOTALL);
-		return isMatch(pattern, content);
+		return PatternPool.getCompiled(regex, Pattern.DOTALL).isMatch(content);
 	}
 	
 	/**
@@ -371,8 +426,22 @@ public class ReUtil {
 	 * @return 处理后的文本
 	 */
 	public static String replaceAll(String content, String regex, String replacementTemplate) {
-		final Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
-		return replaceAll(content, pattern, replacementTemplate);
+		final CompiledRegex compiledRegex = PatternPool.getCompiled(regex, Pattern.DOTALL);
+		if(StrUtil.isEmpty(content)){
+			return content;
+		}
+		
+		if(compiledRegex.isSimple() && replacementTemplate.indexOf('$') < 0){
+			// 模板中没有分组变量，直接原样替换
+			return compiledRegex.replace(content, replacementTemplate, true);
+		}
+		
+		final Matcher matcher = compiledRegex.matcher(content);
+		try {
+			return replaceAll(content, matcher, replacementTemplate);
+		} finally {
+			compiledRegex.release(matcher);
+		}
 	}
 	
 	/**
@@ -389,7 +458,17 @@ public class ReUtil {
 			return content;
 		}
 		
-		final Matcher matcher = pattern.matcher(content);
+		return replaceAll(content, pattern.matcher(content), replacementTemplate);
+	}
+	
+	/**
+	 * 正则替换指定值
+	 * @param content 文本
+	 * @param matcher 已重置为content的{@link Matcher}
+	 * @param replacementTemplate 替换的文本模板，可以使用$1类似的变量提取正则匹配出的内容
+	 * @return 处理后的文本
+	 */
+	private static String replaceAll(String content, Matcher matcher, String replacementTemplate) {
 		boolean result = matcher.find();
 		if (result) {
 			final Set<String> varNums = findAll(PatternPool.GROUP_VAR, replacementTemplate, 1, new HashSet<String>());
@@ -21,12 +21,13 @@ import com.dewly.lang.SimpleCache;
  */
 public class ReflectUtil {
 
+	// 以类为键的缓存使用弱引用键（同原WeakHashMap实现），并受容量上限约束，避免无限持有类及其类加载器
 	/** 构造对象缓存 */
-	private static final SimpleCache<Class<?>, Constructor<?>[]> CONSTRUCTORS_CACHE = new SimpleCache<>();
+	private static final SimpleCache<Class<?>, Constructor<?>[]> CONSTRUCTORS_CACHE = new SimpleCache<>(SimpleCache.DEFAULT_CAPACITY, true);
 	/** 字段缓存 */
-	private static final SimpleCache<Class<?>, Field[]> FIELDS_CACHE = new SimpleCache<>();
+	private static final SimpleCache<Class<?>, Field[]> FIELDS_CACHE = new SimpleCache<>(SimpleCache.DEFAULT_CAPACITY, true);
 	/** 方法缓存 */
-	private static final SimpleCache<Class<?>, Method[]> METHODS_CACHE = new SimpleCache<>();
+	private static final SimpleCache<Class<?>, Method[]> METHODS_CACHE = new SimpleCache<>(SimpleCache.DEFAULT_CAPACITY, true);
 
 	// --------------------------------------------------------------------------------------------------------- Constructor
 	/**
@@ -65,13 +66,7 @@ public class ReflectUtil {
 	@SuppressWarnings("unchecked")
 	public static <T> Constructor<T>[] getConstructors(Class<T> beanClass) throws SecurityException {
 		Assert.notNull(beanClass);
-		Constructor<?>[] constructors = CONSTRUCTORS_CACHE.get(beanClass);
-		if (null != constructors) {
-			return (Constructor<T>[]) constructors;
-		}
-
-		constructors = getConstructorsDirectly(beanClass);
-		return (Constructor<T>[]) CONSTRUCTORS_CACHE.put(beanClass, constructors);
+		return (Constructor<T>[]) CONSTRUCTORS_CACHE.get(beanClass, () -> getConstructorsDirectly(beanClass));
 	}
 
 	/**
@@ -115,13 +110,7 @@ public class ReflectUtil {
 	 * @throws SecurityException 安全检查异常
 	 */
 	public static Field[] getFields(Class<?> beanClass) throws SecurityException {
-		Field[] allFields = FIELDS_CACHE.get(beanClass);
-		if (null != allFields) {
-			return allFields;
-		}
-
-		allFields = getFieldsDirectly(beanClass, true);
-		return FIELDS_CACHE.put(beanClass, allFields);
+		return FIELDS_CACHE.get(beanClass, () -> getFieldsDirectly(beanClass, true));
 	}
 
 	/**
@@ -330,13 +319,7 @@ public class ReflectUtil {
 	 * @throws SecurityException 安全检查异常
 	 */
 	public static Method[] getMethods(Class<?> beanClass) throws SecurityException {
-		Method[] allMethods = METHODS_CACHE.get(beanClass);
-		if (null != allMethods) {
-			return allMethods;
-		}
-
-		allMethods = getMethodsDirectly(beanClass, true);
-		return METHODS_CACHE.put(beanClass, allMethods);
+		return METHODS_CACHE.get(beanClass, () -> getMethodsDirectly(beanClass, true));
 	}
 
 	/**
@@ -8,8 +8,8 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
+import com.dewly.lang.CompiledTemplate;
 import com.dewly.lang.StrFormatter;
 import com.dewly.lang.StrSpliter;
 
@@ -526,6 +526,36 @@ public class StrUtil {
 		return str.toString().toLowerCase().contains(testStr.toString().toLowerCase());
 	}
 
+	/**
+	 * 是否包含多关键字匹配器中的任意一个关键字，只扫描一遍字符串<br>
+	 * 需要忽略大小写时，构建{@link MultiMatcher}时指定即可
+	 * 
+	 * @param str 被检测字符串
+	 * @param matcher 多关键字匹配器
+	 * @return 是否包含，字符串为<code>null</code>返回false
+	 */
+	public static boolean containsAny(CharSequence str, MultiMatcher matcher) {
+		if (null == str || null == matcher) {
+			return false;
+		}
+		return matcher.containsAny(str);
+	}
+
+	/**
+	 * 替换多关键字匹配器匹配到的所有关键字，只扫描一遍字符串，互相重叠的匹配只替换最长的一个
+	 * 
+	 * @param str 字符串
+	 * @param matcher 多关键字匹配器
+	 * @param replacement 替换文本
+	 * @return 替换后的字符串
+	 */
+	public static String replace(CharSequence str, MultiMatcher matcher, CharSequence replacement) {
+		if (isEmpty(str) || null == matcher) {
+			return (null == str) ? null : str.toString();
+		}
+		return matcher.replaceAll(str, replacement);
+	}
+
 	/**
 	 * 获得set或get方法对应的标准属性名<br>
 	 * 例如：setName 返回 name
@@ -1194,11 +1224,7 @@ public class StrUtil {
 			return template.toString();
 		}
 
-		final String template2 = template.toString();
-		for (Entry<?, ?> entry : map.entrySet()) {
-			template = template2.replace("{" + entry.getKey() + "}", utf8Str(entry.getValue()));
-		}
-		return template2;
+		return CompiledTemplate.of(template.toString()).format(map);
 	}
 
 	/**
@@ -1417,6 +1443,21 @@ public class StrUtil {
 		return ArrayUtil.join(objs, conjunction);
 	}
 
+	/**
+	 * 以 conjunction 为分隔符将多个对象追加到out中，不生成中间字符串
+	 * 
+	 * @see ArrayUtil#joinTo(Appendable, Object[], CharSequence)
+	 * 
+	 * @param <A> {@link Appendable}类型
+	 * @param out 输出，例如{@link StringBuilder}、{@link java.io.Writer}
+	 * @param conjunction 分隔符
+	 * @param objs 数组
+	 * @return out
+	 */
+	public static <A extends Appendable> A joinTo(A out, CharSequence conjunction, Object... objs) {
+		return ArrayUtil.joinTo(out, objs, conjunction);
+	}
+
 	/**
 	 * 将驼峰式命名的字符串转换为下划线方式。如果转换前的驼峰式命名的字符串为空，则返回空字符串。<br>
 	 * 例如：HelloWorld=》hello_world
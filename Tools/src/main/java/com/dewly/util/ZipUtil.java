@@ -7,18 +7,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.util.Enumeration;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import com.dewly.exceptions.UtilException;
+import com.dewly.io.ByteChunkPool;
 import com.dewly.io.FastByteArrayOutputStream;
 import com.dewly.io.FileUtil;
 import com.dewly.io.IoUtil;
+import com.dewly.io.StreamCopier;
 
 /**
  * 压缩工具类
@@ -86,6 +88,7 @@ public class ZipUtil {
 
 	/**
 	 * 对文件或文件目录进行压缩<br>
+	 * 文件在多个线程中并行压缩，已压缩格式的文件不再压缩，详见{@link ParallelZipWriter}
 	 * 
 	 * @param zipFile 生成的Zip文件，包括文件名。注意：zipPath不能是srcPath路径下的子文件夹
 	 * @param withSrcDir 是否包含被打包目录
@@ -96,9 +99,8 @@ public class ZipUtil {
 	public static File zip(File zipFile, boolean withSrcDir, File... srcFiles) throws UtilException {
 		validateFiles(zipFile, srcFiles);
 
-		ZipOutputStream out = null;
+		final ParallelZipWriter writer = ParallelZipWriter.create(zipFile);
 		try {
-			out = getZipOutputStream(zipFile);
 			for (File srcFile : srcFiles) {
 				// 如果只是压缩一个文件，则需要截取该文件的父目录
 				String srcRootDir = srcFile.getCanonicalPath();
@@ -106,13 +108,12 @@ public class ZipUtil {
 					srcRootDir = srcFile.getParent();
 				}
 				// 调用递归压缩方法进行目录或文件压缩
-				zip(srcFile, srcRootDir, out);
-				out.flush();
+				zip(srcFile, srcRootDir, writer);
 			}
 		} catch (IOException e) {
 			throw new UtilException(e);
 		} finally {
-			IoUtil.close(out);
+			writer.close();
 		}
 		return zipFile;
 	}
@@ -212,37 +213,30 @@ public class ZipUtil {
 	}
 
 	/**
-	 * 解压
+	 * 解压<br>
+	 * 条目在多个线程中并行解压，路径在解压目录之外的条目被拒绝，详见{@link ParallelUnzipper}
 	 * 
 	 * @param zipFile zip文件
 	 * @param outFile 解压到的目录
 	 * @return 解压的目录
 	 * @throws UtilException IO异常
 	 */
-	@SuppressWarnings("unchecked")
 	public static File unzip(File zipFile, File outFile) throws UtilException {
-		ZipFile zipFileObj = null;
-		try {
-			zipFileObj = new ZipFile(zipFile);
-			final Enumeration<ZipEntry> em = (Enumeration<ZipEntry>) zipFileObj.entries();
-			ZipEntry zipEntry = null;
-			File outItemFile = null;
-			while (em.hasMoreElements()) {
-				zipEntry = em.nextElement();
-				outItemFile = new File(outFile, zipEntry.getName());
-				if (zipEntry.isDirectory()) {
-					outItemFile.mkdirs();
-				} else {
-					FileUtil.touch(outItemFile);
-					copy(zipFileObj, zipEntry, outItemFile);
-				}
-			}
-		} catch (IOException e) {
-			throw new UtilException(e);
-		} finally {
-			IoUtil.close(zipFileObj);
+		ParallelUnzipper.create(zipFile, outFile).unzip();
+		return outFile;
+	}
 
-		}
+	/**
+	 * 解压条目名匹配任一glob表达式的条目，例如“**.class”
+	 * 
+	 * @param zipFile zip文件
+	 * @param outFile 解压到的目录
+	 * @param globs glob表达式
+	 * @return 解压的目录
+	 * @throws UtilException IO异常
+	 */
+	public static File unzip(File zipFile, File outFile, String... globs) throws UtilException {
+		ParallelUnzipper.create(zipFile, outFile).setFilter(globs).unzip();
 		return outFile;
 	}
 
@@ -291,18 +285,62 @@ public class ZipUtil {
 	 * @throws UtilException IO异常
 	 */
 	public static byte[] gzip(File file) throws UtilException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream((int) file.length());
-		GZIPOutputStream gos = null;
-		BufferedInputStream in;
+		final FastByteArrayOutputStream bos = new FastByteArrayOutputStream(ByteChunkPool.DEFAULT);
 		try {
-			gos = new GZIPOutputStream(bos);
-			in = FileUtil.getInputStream(file);
-			IoUtil.copy(in, gos);
+			gzip(file, bos);
 			return bos.toByteArray();
+		} finally {
+			bos.close();
+		}
+	}
+
+	/**
+	 * Gzip压缩文件，压缩结果直接写出到流，不在内存中缓存
+	 * 
+	 * @param file 被压缩的文件
+	 * @param out 输出流，不关闭
+	 * @return 压缩前的字节数
+	 * @throws UtilException IO异常
+	 */
+	public static long gzip(File file, OutputStream out) throws UtilException {
+		BufferedInputStream in = null;
+		try {
+			in = FileUtil.getInputStream(file);
+			return gzip(in, out);
+		} finally {
+			IoUtil.close(in);
+		}
+	}
+
+	/**
+	 * Gzip压缩文件，压缩结果直接写出到通道，不在内存中缓存
+	 * 
+	 * @param file 被压缩的文件
+	 * @param channel 输出通道，不关闭
+	 * @return 压缩前的字节数
+	 * @throws UtilException IO异常
+	 */
+	public static long gzip(File file, WritableByteChannel channel) throws UtilException {
+		return gzip(file, Channels.newOutputStream(channel));
+	}
+
+	/**
+	 * Gzip压缩流，压缩结果直接写出到流，不在内存中缓存
+	 * 
+	 * @param in 输入流，不关闭
+	 * @param out 输出流，不关闭
+	 * @return 压缩前的字节数
+	 * @throws UtilException IO异常
+	 */
+	public static long gzip(InputStream in, OutputStream out) throws UtilException {
+		try {
+			final GZIPOutputStream gos = new GZIPOutputStream(out, StreamCopier.DEFAULT_BUFFER_SIZE * 8);
+			final long size = IoUtil.copy(in, gos, StreamCopier.DEFAULT_BUFFER_SIZE * 8);
+			gos.finish();
+			gos.flush();
+			return size;
 		} catch (IOException e) {
 			throw new UtilException(e);
-		} finally {
-			IoUtil.close(gos);
 		}
 	}
 
@@ -365,28 +403,22 @@ public class ZipUtil {
 	/**
 	 * 递归压缩文件夹
 	 * 
-	 * @param out 压缩文件存储对象
+	 * @param writer 压缩文件写出器
 	 * @param srcRootDir 压缩文件夹根目录的子路径
 	 * @param file 当前递归压缩的文件或目录对象
 	 * @throws UtilException IO异常
 	 */
-	private static void zip(File file, String srcRootDir, ZipOutputStream out) throws UtilException {
+	private static void zip(File file, String srcRootDir, ParallelZipWriter writer) throws UtilException {
 		if (file == null) {
 			return;
 		}
 
 		if (file.isFile()) {// 如果是文件，则直接压缩该文件
 			final String subPath = FileUtil.subPath(srcRootDir, file); // 获取文件相对于压缩文件夹根目录的子路径
-			BufferedInputStream in = null;
-			try {
-				in = FileUtil.getInputStream(file);
-				zip(in, subPath, out);
-			} finally {
-				IoUtil.close(in);
-			}
+			writer.add(subPath, file);
 		} else {// 如果是目录，则压缩压缩目录中的文件或子目录
 			for (File childFile : file.listFiles()) {
-				zip(childFile, srcRootDir, out);
+				zip(childFile, srcRootDir, writer);
 			}
 		}
 	}
@@ -453,26 +485,6 @@ public class ZipUtil {
 		}
 	}
 
-	/**
-	 * 从Zip文件流中拷贝文件出来
-	 * 
-	 * @param zipFile Zip文件
-	 * @param zipEntry zip文件中的子文件
-	 * @param outItemFile 输出到的文件
-	 * @throws IOException IO异常
-	 */
-	private static void copy(ZipFile zipFile, ZipEntry zipEntry, File outItemFile) throws IOException {
-		InputStream in = null;
-		OutputStream out = null;
-		try {
-			in = zipFile.getInputStream(zipEntry);
-			out = FileUtil.getOutputStream(outItemFile);
-			IoUtil.copy(in, out);
-		} finally {
-			IoUtil.close(out);
-			IoUtil.close(in);
-		}
-	}
 	// ---------------------------------------------------------------------------------------------- Private method end
 
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dewly.io;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link ByteLineScanner}
+ * @author dewly
+ *
+ */
+public class ByteLineScannerTest {
+
+	@Test
+	public void lineBreakTest() throws IOException{
+		String text = "a\nbb\r\nccc\r\rd\n\ne";
+		// 先用大缓冲扫描，使线程本地的池中留下大缓冲，之后的小缓冲仍须只读取设置的大小
+		scan(text, StandardCharsets.UTF_8, 1024);
+		// 缓冲为1时每行都跨越缓冲边界，\r\n也会被拆开
+		for (int bufferSize : new int[]{1, 2, 3, 1024}) {
+			final List<Integer> readLengths = new ArrayList<>();
+			Assert.assertEquals(readByReader(text, StandardCharsets.UTF_8), scan(text, StandardCharsets.UTF_8, bufferSize, readLengths));
+			Assert.assertEquals(bufferSize, readLengths.get(0).intValue());
+		}
+		Assert.assertEquals(Arrays.asList("a", ""), scan("a\r\n\r", StandardCharsets.UTF_8, 1));
+		Assert.assertEquals(new ArrayList<String>(), scan("", StandardCharsets.UTF_8, 16));
+	}
+
+	@Test
+	public void byteLineTest() throws IOException{
+		String text = "GET /index.html 200\n中文 路径 404\n";
+		final List<String> firstFields = new ArrayList<>();
+		final List<Integer> lengths = new ArrayList<>();
+		final List<Character> lastChars = new ArrayList<>();
+		long count = IoUtil.readByteLines(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, new ByteLineHandler() {
+			@Override
+			public void handle(ByteLine line) {
+				firstFields.add(line.toString(0, line.indexOf((byte) ' ')));
+				lengths.add(line.length());
+				lastChars.add(line.charAt(line.length() - 1));
+			}
+		});
+		Assert.assertEquals(2, count);
+		Assert.assertEquals(Arrays.asList("GET", "中文"), firstFields);
+		Assert.assertEquals(Arrays.asList(19, 9), lengths);
+		Assert.assertEquals(Arrays.asList('0', '4'), lastChars);
+
+		ByteLine line = new ByteLine(StandardCharsets.UTF_8).set("x中y".getBytes(StandardCharsets.UTF_8), 0, 5);
+		Assert.assertFalse(line.isAscii());
+		Assert.assertEquals("中y", line.subSequence(1, 3).toString());
+		Assert.assertEquals("x中y", line.toString());
+		Assert.assertTrue(line.startsWith(new byte[]{'x'}));
+	}
+
+	@Test
+	public void charsetTest() throws IOException{
+		Random random = new Random(7);
+		char[] alphabet = "ab \r\n中é😀".toCharArray();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append(alphabet[random.nextInt(alphabet.length)]);
+		}
+		String text = sb.toString();
+		for (Charset charset : new Charset[]{StandardCharsets.UTF_8, Charset.forName("GBK"), StandardCharsets.UTF_16LE}) {
+			Assert.assertEquals(readByReader(text, charset), scan(text, charset, 7));
+		}
+	}
+
+	private static List<String> scan(String text, Charset charset, int bufferSize) throws IOException{
+		return scan(text, charset, bufferSize, new ArrayList<Integer>());
+	}
+
+	/**
+	 * 扫描并记录每次读取请求的长度
+	 */
+	private static List<String> scan(String text, Charset charset, int bufferSize, final List<Integer> readLengths) throws IOException{
+		final List<String> lines = new ArrayList<>();
+		InputStream in = new ByteArrayInputStream(text.getBytes(charset)) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				readLengths.add(len);
+				return super.read(b, off, len);
+			}
+		};
+		ByteLineScanner.create(in, charset).setBufferSize(bufferSize).scan(new ByteLineHandler() {
+			@Override
+			public void handle(ByteLine line) {
+				lines.add(line.toString());
+			}
+		});
+		return lines;
+	}
+
+	private static List<String> readByReader(String text, Charset charset) throws IOException{
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(text.getBytes(charset)), charset));
+		List<String> lines = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		return lines;
+	}
+}
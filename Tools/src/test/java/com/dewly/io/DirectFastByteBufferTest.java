@@ -0,0 +1,131 @@
+package com.dewly.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.exceptions.UtilException;
+
+/**
+ * {@link DirectFastByteBuffer}
+ * @author dewly
+ *
+ */
+public class DirectFastByteBufferTest {
+
+	@Test
+	public void appendTest() throws IOException{
+		byte[] data = new byte[1000];
+		new Random(8).nextBytes(data);
+		long usedBefore = DirectFastByteBuffer.getUsedBytes();
+		
+		try(DirectFastByteBuffer buffer = new DirectFastByteBuffer(64)){
+			buffer.append(data, 0, 100).append((byte) 7).append(ByteBuffer.wrap(data, 100, 900));
+			Assert.assertEquals(1001, buffer.size());
+			Assert.assertEquals(7, buffer.get(100));
+			Assert.assertEquals(data[500], buffer.get(501));
+			Assert.assertArrayEquals(new FastByteBuffer().append(data, 0, 100).append((byte) 7).append(data, 100, 900).toArray(), buffer.toArray());
+			Assert.assertArrayEquals(Arrays.copyOfRange(data, 199, 399), buffer.toArray(200, 200));
+			Assert.assertEquals(usedBefore + 16 * 64, DirectFastByteBuffer.getUsedBytes());
+			
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Assert.assertEquals(1001, buffer.writeTo(Channels.newChannel(out)));
+			Assert.assertArrayEquals(buffer.toArray(), out.toByteArray());
+			out.reset();
+			buffer.writeTo(out);
+			Assert.assertArrayEquals(buffer.toArray(), out.toByteArray());
+			
+			// reset后复用已分配的块
+			buffer.reset();
+			buffer.append(data);
+			Assert.assertEquals(16 * 64, buffer.capacity());
+			Assert.assertArrayEquals(data, buffer.toArray());
+			
+			buffer.release();
+			Assert.assertTrue(buffer.isReleased());
+		}
+		Assert.assertEquals(usedBefore, DirectFastByteBuffer.getUsedBytes());
+	}
+
+	@Test
+	public void nonBlockingChannelTest() throws IOException {
+		final DirectFastByteBuffer buffer = new DirectFastByteBuffer(1024);
+		final Pipe pipe = Pipe.open();
+		try {
+			buffer.append(new byte[1024 * 1024]);
+			pipe.sink().configureBlocking(false);
+			buffer.writeTo(pipe.sink());
+			Assert.fail("Non-blocking channel must be rejected");
+		} catch (IllegalArgumentException e) {
+			// 预期异常
+		} finally {
+			buffer.release();
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+
+	@Test
+	public void maxTotalBytesTest(){
+		long max = DirectFastByteBuffer.getMaxTotalBytes();
+		DirectFastByteBuffer.setMaxTotalBytes(DirectFastByteBuffer.getUsedBytes() + 100);
+		DirectFastByteBuffer buffer = new DirectFastByteBuffer(60);
+		try {
+			buffer.append(new byte[60]);
+			buffer.append(new byte[1]);
+			Assert.fail();
+		} catch (UtilException e) {
+			Assert.assertEquals(60, buffer.capacity());
+		} finally {
+			buffer.release();
+			DirectFastByteBuffer.setMaxTotalBytes(max);
+		}
+	}
+
+	@Test
+	public void leakTest() throws InterruptedException{
+		long usedBefore = DirectFastByteBuffer.getUsedBytes();
+		long leakCount = DirectFastByteBuffer.getLeakCount();
+		new DirectFastByteBuffer(128).append(new byte[10]);
+		Assert.assertEquals(usedBefore + 128, DirectFastByteBuffer.getUsedBytes());
+		
+		for (int i = 0; i < 50 && DirectFastByteBuffer.getLeakCount() == leakCount; i++) {
+			System.gc();
+			Thread.sleep(20);
+			DirectFastByteBuffer.detectLeaks();
+		}
+		Assert.assertEquals(leakCount + 1, DirectFastByteBuffer.getLeakCount());
+		Assert.assertEquals(usedBefore, DirectFastByteBuffer.getUsedBytes());
+	}
+
+	@Test
+	public void leakWithViewTest() throws InterruptedException{
+		long leakCount = DirectFastByteBuffer.getLeakCount();
+		byte[] data = new byte[200];
+		new Random(9).nextBytes(data);
+		// 只保留视图，缓冲本身不可达
+		ByteBuffer[] views = new DirectFastByteBuffer(128).append(data).toByteBuffers();
+		
+		for (int i = 0; i < 50 && DirectFastByteBuffer.getLeakCount() == leakCount; i++) {
+			System.gc();
+			Thread.sleep(20);
+			DirectFastByteBuffer.detectLeaks();
+		}
+		Assert.assertEquals(leakCount + 1, DirectFastByteBuffer.getLeakCount());
+		
+		// 泄漏检测后视图的内存仍然有效
+		for (int i = 0; i < 128; i++) {
+			Assert.assertEquals(data[i], views[0].get(i));
+		}
+		for (int i = 0; i < 72; i++) {
+			Assert.assertEquals(data[128 + i], views[1].get(i));
+		}
+	}
+}
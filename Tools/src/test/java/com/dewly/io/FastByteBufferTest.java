@@ -0,0 +1,101 @@
+package com.dewly.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link FastByteBuffer}
+ * @author dewly
+ *
+ */
+public class FastByteBufferTest {
+
+	@Test
+	public void pooledTest() throws IOException{
+		ByteChunkPool pool = ByteChunkPool.create(16, 8);
+		byte[] data = new byte[100];
+		new Random(5).nextBytes(data);
+		
+		FastByteBuffer buffer = new FastByteBuffer(pool);
+		buffer.append(data, 0, 10).append((byte) 1).append(data, 10, 90);
+		Assert.assertEquals(101, buffer.size());
+		Assert.assertEquals(7, buffer.toByteBuffers().length);
+		Assert.assertEquals(data[50], buffer.get(51));
+		Assert.assertArrayEquals(buffer.toArray(), buffer.toArray(0, buffer.size()));
+		
+		buffer.reset();
+		Assert.assertTrue(buffer.isEmpty());
+		Assert.assertEquals(7, pool.getIdleCount());
+		buffer.append(data);
+		Assert.assertEquals(0, pool.getIdleCount());
+		Assert.assertArrayEquals(data, buffer.toArray());
+	}
+
+	@Test
+	public void writeToChannelTest() throws IOException{
+		byte[] data = new byte[5000];
+		new Random(6).nextBytes(data);
+		
+		FastByteArrayOutputStream out = new FastByteArrayOutputStream(ByteChunkPool.create(1000, 2));
+		out.write(data, 0, data.length);
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		Assert.assertEquals(data.length, out.writeTo(Channels.newChannel(target)));
+		Assert.assertArrayEquals(data, target.toByteArray());
+		
+		// FileChannel支持聚集写
+		File file = File.createTempFile("fastbuffer", ".bin");
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			Assert.assertEquals(data.length, out.writeTo(channel));
+			Assert.assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+		} finally {
+			file.delete();
+		}
+		
+		ByteBuffer[] views = out.toByteBuffers();
+		Assert.assertEquals(5, views.length);
+		Assert.assertTrue(views[0].isReadOnly());
+		Assert.assertEquals(data[1000], views[1].get(0));
+		
+		out.close();
+		Assert.assertEquals(0, out.size());
+		target.reset();
+		out.writeTo(target);
+		Assert.assertEquals(0, target.size());
+		
+		FastByteArrayOutputStream single = new FastByteArrayOutputStream();
+		single.write(data, 0, 10);
+		Assert.assertEquals(ByteBuffer.wrap(data, 0, 10), single.toByteBuffer());
+		Assert.assertEquals("中文", IoUtil.read(new ByteArrayInputStream("中文".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void nonBlockingChannelTest() throws IOException {
+		final FastByteBuffer buffer = new FastByteBuffer(1024);
+		buffer.append(new byte[1024 * 1024]);
+		final Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			// 管道缓冲写满后非阻塞写返回0，不能空转
+			buffer.writeTo(pipe.sink());
+			Assert.fail("Non-blocking channel must be rejected");
+		} catch (IllegalArgumentException e) {
+			// 预期异常
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+}
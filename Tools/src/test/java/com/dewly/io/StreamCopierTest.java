@@ -0,0 +1,121 @@
+package com.dewly.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link StreamCopier}
+ * @author dewly
+ *
+ */
+public class StreamCopierTest {
+
+	@Test
+	public void flushOnceTest() throws IOException{
+		byte[] data = new byte[100000];
+		new Random(1).nextBytes(data);
+		CountFlushOutputStream out = new CountFlushOutputStream();
+		
+		Assert.assertEquals(data.length, IoUtil.copy(new ByteArrayInputStream(data), out, 1024, null));
+		Assert.assertArrayEquals(data, out.toByteArray());
+		Assert.assertEquals(1, out.flushCount);
+		
+		out = new CountFlushOutputStream();
+		StreamCopier.create().setBufferSize(1000).setFlushInterval(30000).copy(new ByteArrayInputStream(data), out);
+		// 每30000字节一次，结束时一次
+		Assert.assertEquals(4, out.flushCount);
+	}
+
+	@Test
+	public void throttledProgressTest() throws IOException{
+		final long[] counts = new long[2];
+		StreamProgress progress = new StreamProgress() {
+			@Override
+			public void start() {
+			}
+			@Override
+			public void progress(long progressSize) {
+				counts[0]++;
+				counts[1] = progressSize;
+			}
+			@Override
+			public void finish() {
+			}
+		};
+		StreamCopier.create().setBufferSize(100).setStreamProgress(progress, 10000, 0).copy(new ByteArrayInputStream(new byte[25050]), new ByteArrayOutputStream());
+		// 10000、20000各一次，结束时补充最终进度
+		Assert.assertEquals(3, counts[0]);
+		Assert.assertEquals(25050, counts[1]);
+	}
+
+	@Test
+	public void fileTransferTest() throws IOException{
+		File src = File.createTempFile("copier", ".src");
+		File dest = File.createTempFile("copier", ".dest");
+		try {
+			byte[] data = new byte[300000];
+			new Random(2).nextBytes(data);
+			Files.write(src.toPath(), data);
+			
+			try(FileInputStream in = new FileInputStream(src); FileOutputStream out = new FileOutputStream(dest)){
+				Assert.assertEquals(1000, in.skip(1000));
+				Assert.assertEquals(data.length - 1000, IoUtil.copy(in, out));
+				Assert.assertEquals(IoUtil.EOF, in.read());
+			}
+			Assert.assertArrayEquals(Arrays.copyOfRange(data, 1000, data.length), Files.readAllBytes(dest.toPath()));
+		} finally {
+			src.delete();
+			dest.delete();
+		}
+	}
+
+	@Test
+	public void nonBlockingChannelTest() throws IOException {
+		final Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			final StreamCopier copier = StreamCopier.create();
+			try {
+				copier.copy(Channels.newChannel(new ByteArrayInputStream(new byte[1024])), pipe.sink());
+				Assert.fail("Non-blocking output must be rejected");
+			} catch (IllegalArgumentException e) {
+				// 预期异常
+			}
+
+			pipe.source().configureBlocking(false);
+			try {
+				copier.copy(pipe.source(), Channels.newChannel(new ByteArrayOutputStream()));
+				Assert.fail("Non-blocking input must be rejected");
+			} catch (IllegalArgumentException e) {
+				// 预期异常
+			}
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+
+	/**
+	 * 记录flush次数的输出流
+	 */
+	private static class CountFlushOutputStream extends ByteArrayOutputStream {
+		int flushCount;
+
+		@Override
+		public void flush() throws IOException {
+			flushCount++;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link AsyncFileReader}和{@link AsyncFileWriter}
+ * @author dewly
+ *
+ */
+public class AsyncFileTest {
+
+	@Test
+	public void writeAndReadTest() throws Exception{
+		File file = File.createTempFile("async", ".bin");
+		final ExecutorService pool = Executors.newSingleThreadExecutor();
+		final AtomicInteger executed = new AtomicInteger();
+		Executor executor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				executed.incrementAndGet();
+				pool.execute(command);
+			}
+		};
+		try {
+			byte[] data = new byte[100000];
+			new Random(9).nextBytes(data);
+			
+			try(AsyncFileWriter writer = new AsyncFileWriter(file, false).setMaxInFlight(2)){
+				List<CompletableFuture<Long>> futures = new ArrayList<>();
+				for (int i = 0; i < 10; i++) {
+					futures.add(writer.append(Arrays.copyOfRange(data, i * 10000, (i + 1) * 10000)));
+				}
+				long total = 0;
+				for (CompletableFuture<Long> future : futures) {
+					total += future.get();
+				}
+				Assert.assertEquals(data.length, total);
+				Assert.assertEquals(0, writer.getInFlight());
+				writer.write(0, new byte[]{1, 2}).get();
+				data[0] = 1;
+				data[1] = 2;
+			}
+			Assert.assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+			
+			try(AsyncFileReader reader = FileReader.create(file).getAsyncReader().setExecutor(executor).setMaxInFlight(3)){
+				Assert.assertArrayEquals(data, reader.readBytes().get());
+				Assert.assertArrayEquals(Arrays.copyOfRange(data, 99990, 100000), reader.read(99990, 100).get());
+				
+				// 结果在指定的执行器中完成
+				Assert.assertEquals(2, executed.get());
+				
+				ByteBuffer buffer = ByteBuffer.allocate(10);
+				Assert.assertEquals(Integer.valueOf(10), reader.read(500, buffer).get());
+				Assert.assertEquals(data[500], buffer.get(0));
+				Assert.assertEquals(Integer.valueOf(-1), reader.read(data.length, ByteBuffer.allocate(1)).get());
+			}
+		} finally {
+			pool.shutdown();
+			file.delete();
+		}
+	}
+
+	@Test
+	public void closedTest() throws IOException, InterruptedException{
+		File file = File.createTempFile("async", ".bin");
+		try {
+			AsyncFileReader reader = AsyncFileReader.create(file);
+			reader.close();
+			try {
+				reader.read(0, 1).get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof IOException);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
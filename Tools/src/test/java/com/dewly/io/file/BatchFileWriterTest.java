@@ -0,0 +1,108 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.IORuntimeException;
+
+/**
+ * {@link BatchFileWriter}
+ * @author dewly
+ *
+ */
+public class BatchFileWriterTest {
+
+	@Test
+	public void concurrentWriteTest() throws Exception{
+		File file = File.createTempFile("batch", ".log");
+		try {
+			final BatchFileWriter writer = BatchFileWriter.create(file).setBatchSize(1000).setLineSeparator("\n");
+			Thread[] threads = new Thread[4];
+			for (int t = 0; t < threads.length; t++) {
+				final int id = t;
+				threads[t] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < 2000; i++) {
+							writer.writeLine("线程" + id + "-" + i);
+						}
+					}
+				});
+				threads[t].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			writer.close();
+			
+			List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+			Assert.assertEquals(8000, lines.size());
+			Set<String> expected = new HashSet<>();
+			for (int t = 0; t < threads.length; t++) {
+				for (int i = 0; i < 2000; i++) {
+					expected.add("线程" + t + "-" + i);
+				}
+			}
+			Assert.assertEquals(expected, new HashSet<>(lines));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void thresholdTest() throws IOException, InterruptedException{
+		File file = File.createTempFile("batch", ".log");
+		try {
+			Files.write(file.toPath(), "old\n".getBytes(StandardCharsets.UTF_8));
+			// 最大延迟足够长，检查期间后台线程不会写出
+			try(BatchFileWriter writer = new BatchFileWriter(file, StandardCharsets.UTF_8, false).setBatchSize(10).setMaxDelay(60000).setForce(true)){
+				writer.setLineSeparator("\n").writeLine("a");
+				// 未达到批量大小
+				Assert.assertEquals(0, file.length());
+				writer.writeLines(Arrays.asList("bbbbbbbbbb", null));
+				Assert.assertEquals(13, file.length());
+			}
+			
+			try(BatchFileWriter writer = new BatchFileWriter(file, StandardCharsets.UTF_8, true).setBatchSize(10).setMaxDelay(50)){
+				// 超过最大延迟后由后台线程写出
+				writer.write(new byte[]{'c'});
+				for (int i = 0; i < 100 && file.length() < 14; i++) {
+					Thread.sleep(10);
+				}
+				Assert.assertEquals(14, file.length());
+				writer.write("d");
+				writer.flush();
+				Assert.assertEquals("a\nbbbbbbbbbb\ncd", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+			}
+			
+			try(BatchFileWriter writer = FileWriter.create(file).getBatchWriter(true)){
+				writer.writeLines(Collections.singletonList("e"));
+			}
+			Assert.assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).startsWith("a\nbbbbbbbbbb\ncde"));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IORuntimeException.class)
+	public void closedTest() throws IOException{
+		File file = File.createTempFile("batch", ".log");
+		try {
+			BatchFileWriter writer = BatchFileWriter.create(file);
+			writer.close();
+			writer.write("a");
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.FileUtil;
+
+/**
+ * {@link DirSync}
+ * @author dewly
+ *
+ */
+public class DirSyncTest {
+
+	@Test
+	public void syncTest() throws Exception{
+		File src = Files.createTempDirectory("syncSrc").toFile();
+		File dest = Files.createTempDirectory("syncDest").toFile();
+		for (int i = 0; i < 10; i++) {
+			File file = new File(src, "dir" + (i % 2) + "/file" + i + ".txt");
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), ("content" + i).getBytes());
+		}
+		new File(src, "sub/deep").mkdirs();
+		Files.write(new File(src, "sub/deep/gone.txt").toPath(), "gone".getBytes());
+		try {
+			DirSync sync = DirSync.create(src, dest).setDelete(true).setParallelism(3);
+			DirSync.Result result = sync.sync();
+			Assert.assertEquals(11, result.getCopiedCount());
+			Assert.assertEquals(0, result.getSkippedCount());
+			Assert.assertEquals("content3", new String(Files.readAllBytes(new File(dest, "dir1/file3.txt").toPath())));
+
+			// 修改、删除和新增
+			File changed = new File(src, "dir0/file4.txt");
+			Files.write(changed.toPath(), "changed".getBytes());
+			changed.setLastModified(changed.lastModified() + 2000);
+			FileUtil.del(new File(src, "sub"));
+			Files.write(new File(src, "new.txt").toPath(), "new".getBytes());
+
+			result = sync.sync();
+			Assert.assertEquals(2, result.getCopiedCount());
+			Assert.assertEquals(9, result.getSkippedCount());
+			Assert.assertEquals(1, result.getDeletedCount());
+			Assert.assertEquals("changed", new String(Files.readAllBytes(new File(dest, "dir0/file4.txt").toPath())));
+			Assert.assertFalse(new File(dest, "sub").exists());
+			Assert.assertTrue(new File(dest, "new.txt").isFile());
+		} finally {
+			FileUtil.del(src);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void checksumTest() throws Exception{
+		File src = Files.createTempDirectory("syncSrc").toFile();
+		File dest = Files.createTempDirectory("syncDest").toFile();
+		File manifest = File.createTempFile("sync", ".manifest");
+		try {
+			File file = new File(src, "a.txt");
+			Files.write(file.toPath(), "aaa".getBytes());
+			DirSync sync = DirSync.create(src, dest).setManifest(manifest).setChecksum(true);
+			Assert.assertEquals(1, sync.sync().getCopiedCount());
+			Assert.assertFalse(new File(dest, DirSync.DEFAULT_MANIFEST_NAME).exists());
+
+			// 只修改时间，内容未变
+			file.setLastModified(file.lastModified() + 5000);
+			DirSync.Result result = sync.sync();
+			Assert.assertEquals(0, result.getCopiedCount());
+			Assert.assertEquals(1, result.getSkippedCount());
+
+			Files.write(file.toPath(), "bbb".getBytes());
+			file.setLastModified(file.lastModified() + 10000);
+			Assert.assertEquals(1, sync.sync().getCopiedCount());
+			Assert.assertEquals("bbb", new String(Files.readAllBytes(new File(dest, "a.txt").toPath())));
+		} finally {
+			FileUtil.del(src);
+			FileUtil.del(dest);
+			FileUtil.del(manifest);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.FileUtil;
+import com.dewly.io.StreamProgress;
+
+/**
+ * {@link FileCopier}
+ * @author dewly
+ *
+ */
+public class FileCopierTest {
+
+	@Test
+	public void parallelCopyTest() throws Exception{
+		File src = Files.createTempDirectory("copySrc").toFile();
+		File dest = Files.createTempDirectory("copyDest").toFile();
+		try {
+			long total = 0;
+			Random random = new Random(3);
+			for (int i = 0; i < 20; i++) {
+				byte[] data = new byte[(i == 0) ? (int)FileCopier.TRANSFER_THRESHOLD + 10 : random.nextInt(5000)];
+				random.nextBytes(data);
+				File file = new File(src, "d" + (i % 3) + "/f" + i);
+				file.getParentFile().mkdirs();
+				Files.write(file.toPath(), data);
+				total += data.length;
+			}
+			new File(src, "empty").mkdirs();
+
+			final AtomicLong reported = new AtomicLong();
+			StreamProgress progress = new StreamProgress() {
+				@Override
+				public void start() {
+				}
+				@Override
+				public void progress(long progressSize) {
+					reported.set(progressSize);
+				}
+				@Override
+				public void finish() {
+				}
+			};
+			FileCopier.create(src, dest).setCopyContentIfDir(true).setParallelism(4).setStreamProgress(progress).copy();
+			Assert.assertEquals(total, reported.get());
+			Assert.assertTrue(new File(dest, "empty").isDirectory());
+			for (int i = 0; i < 20; i++) {
+				String name = "d" + (i % 3) + "/f" + i;
+				Assert.assertArrayEquals(Files.readAllBytes(new File(src, name).toPath()), Files.readAllBytes(new File(dest, name).toPath()));
+			}
+		} finally {
+			FileUtil.del(src);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void incrementalCopyTest() throws Exception{
+		File src = Files.createTempDirectory("copySrc").toFile();
+		File dest = Files.createTempDirectory("copyDest").toFile();
+		try {
+			File a = new File(src, "a.txt");
+			File b = new File(src, "b.txt");
+			Files.write(a.toPath(), "aaa".getBytes());
+			Files.write(b.toPath(), "bbb".getBytes());
+			FileCopier copier = FileCopier.create(src, dest).setCopyContentIfDir(true).setIncremental(true);
+			copier.copy();
+
+			File destA = new File(dest, "a.txt");
+			File destB = new File(dest, "b.txt");
+			Assert.assertEquals(a.lastModified(), destA.lastModified());
+			// 目标被修改但大小和修改时间不变，增量拷贝跳过
+			Files.write(destA.toPath(), "xxx".getBytes());
+			destA.setLastModified(a.lastModified());
+			Files.write(b.toPath(), "bbbb".getBytes());
+			copier.copy();
+			Assert.assertEquals("xxx", new String(Files.readAllBytes(destA.toPath())));
+			Assert.assertEquals("bbbb", new String(Files.readAllBytes(destB.toPath())));
+
+			// 校验和模式可以发现内容变化
+			copier.setChecksum(true).copy();
+			Assert.assertEquals("aaa", new String(Files.readAllBytes(destA.toPath())));
+		} finally {
+			FileUtil.del(src);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void copyAttributesTest() throws Exception{
+		File src = File.createTempFile("copySrc", ".txt");
+		File dest = new File(src.getPath() + ".bak");
+		try {
+			Files.write(src.toPath(), "abc".getBytes());
+			src.setLastModified(1000000000000L);
+			FileCopier.create(src, dest).setCopyAttributes(true).copy();
+			Assert.assertEquals(1000000000000L, dest.lastModified());
+		} finally {
+			FileUtil.del(src);
+			FileUtil.del(dest);
+		}
+	}
+}
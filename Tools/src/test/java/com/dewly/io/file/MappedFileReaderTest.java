@@ -0,0 +1,75 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.ByteLine;
+import com.dewly.io.ByteLineHandler;
+import com.dewly.io.FileUtil;
+
+/**
+ * {@link MappedFileReader}
+ * @author dewly
+ *
+ */
+public class MappedFileReaderTest {
+
+	@Test
+	public void readLinesTest() throws IOException{
+		File file = File.createTempFile("mapped", ".txt");
+		try {
+			// 窗口为4字节，使行和\r\n跨越窗口边界
+			Files.write(file.toPath(), "第一行\r\nab\r\rcdefghij\n\nlast".getBytes(StandardCharsets.UTF_8));
+			try(MappedFileReader reader = new MappedFileReader(file, StandardCharsets.UTF_8, 4)){
+				Assert.assertEquals(Arrays.asList("第一行", "ab", "", "cdefghij", "", "last"), reader.readLines());
+				Assert.assertEquals(FileReader.create(file).readLines(), reader.readLines());
+				
+				final List<String> byteLines = new ArrayList<>();
+				Assert.assertEquals(6, reader.readByteLines(new ByteLineHandler() {
+					@Override
+					public void handle(ByteLine line) {
+						byteLines.add(line.toString());
+					}
+				}));
+				Assert.assertEquals(reader.readLines(), byteLines);
+				
+				// LineHandler可以直接使用lambda，不与字节行处理器的重载冲突
+				final List<String> handled = new ArrayList<>();
+				FileUtil.readLines(file, StandardCharsets.UTF_8, line -> handled.add(line));
+				Assert.assertEquals(byteLines, handled);
+				
+				ByteBuffer slice = reader.slice(11, 3);
+				Assert.assertEquals(3, slice.remaining());
+				Assert.assertEquals('a', slice.get(0));
+				Assert.assertEquals('\r', slice.get(2));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void windowTest() throws IOException{
+		File file = File.createTempFile("mapped", ".bin");
+		try {
+			Files.write(file.toPath(), new byte[10]);
+			try(MappedFileReader reader = MappedFileReader.create(file)){
+				List<String> lines = reader.readLines();
+				Assert.assertEquals(1, lines.size());
+				Assert.assertEquals(1, reader.getWindowCount());
+				Assert.assertEquals(10, reader.window(0).remaining());
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
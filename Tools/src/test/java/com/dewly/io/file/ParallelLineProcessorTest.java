@@ -0,0 +1,88 @@
+package com.dewly.io.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.ByteLine;
+import com.dewly.io.ByteLineHandler;
+
+/**
+ * {@link ParallelLineProcessor}
+ * @author dewly
+ *
+ */
+public class ParallelLineProcessorTest {
+
+	@Test
+	public void processTest() throws IOException{
+		Random random = new Random(3);
+		String[] parts = {"a", "中文", "bcdefg", "\n", "\r\n", "\r", ""};
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			sb.append(parts[random.nextInt(parts.length)]);
+		}
+		// 一行超过多个分段
+		sb.append("\n").append(new String(new char[100]).replace('\0', 'x'));
+		
+		File file = File.createTempFile("parallel", ".txt");
+		try {
+			Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+			List<String> expected = FileReader.create(file).readLines();
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				for (long chunkSize : new long[]{1, 2, 7, 64, 1024 * 1024}) {
+					List<Collector> collectors = ParallelLineProcessor.create(file).setChunkSize(chunkSize).setPool(pool).process(new Supplier<Collector>() {
+						@Override
+						public Collector get() {
+							return new Collector();
+						}
+					});
+					
+					Collector merged = new Collector();
+					for (Collector collector : collectors) {
+						merged.lines.addAll(collector.lines);
+					}
+					Assert.assertEquals(expected, merged.lines);
+				}
+			} finally {
+				pool.shutdown();
+			}
+			
+			Collector combined = ParallelLineProcessor.create(file).setChunkSize(100).process(new Supplier<Collector>() {
+				@Override
+				public Collector get() {
+					return new Collector();
+				}
+			}, new BinaryOperator<Collector>() {
+				@Override
+				public Collector apply(Collector left, Collector right) {
+					left.lines.addAll(right.lines);
+					return left;
+				}
+			});
+			Assert.assertEquals(expected, combined.lines);
+		} finally {
+			file.delete();
+		}
+	}
+	
+	private static class Collector implements ByteLineHandler{
+		private final List<String> lines = new ArrayList<>();
+		
+		@Override
+		public void handle(ByteLine line) {
+			lines.add(line.toString());
+		}
+	}
+}
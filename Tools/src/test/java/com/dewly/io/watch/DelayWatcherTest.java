@@ -0,0 +1,168 @@
+package com.dewly.io.watch;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.FileUtil;
+import com.dewly.util.StrUtil;
+
+/**
+ * {@link DelayWatcher}
+ * @author dewly
+ *
+ */
+public class DelayWatcherTest {
+
+	@Test
+	public void coalesceTest() throws Exception{
+		final Path dir = Files.createTempDirectory("delay");
+		try {
+			Files.write(dir.resolve("old.txt"), "old".getBytes());
+			Files.write(dir.resolve("replaced.txt"), "old".getBytes());
+			final BlockingQueue<Map<Path, WatchEvent.Kind<?>>> batches = new LinkedBlockingQueue<>();
+			DelayWatcher watcher = new DelayWatcher(new ChangesWatcher() {
+				@Override
+				public void onChanges(Map<Path, WatchEvent.Kind<?>> changes) {
+					batches.add(changes);
+				}
+			}, dir, false, 100);
+
+			watcher.onCreate(event("new.txt"));
+			watcher.onModify(event("new.txt"));
+			watcher.onCreate(event("tmp.swp"));
+			watcher.onDelete(event("tmp.swp"));
+			watcher.onDelete(event("replaced.txt"));
+			watcher.onCreate(event("replaced.txt"));
+			watcher.onModify(event("old.txt"));
+			watcher.onModify(event("old.txt"));
+
+			Map<Path, WatchEvent.Kind<?>> changes = batches.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull(changes);
+			Assert.assertEquals(3, changes.size());
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_CREATE, changes.get(Paths.get("new.txt")));
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, changes.get(Paths.get("replaced.txt")));
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, changes.get(Paths.get("old.txt")));
+			Assert.assertNull(batches.poll(300, TimeUnit.MILLISECONDS));
+		} finally {
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	@Test
+	public void overflowTest() throws Exception{
+		final Path dir = Files.createTempDirectory("delay");
+		try {
+			Files.write(dir.resolve("a.txt"), "a".getBytes());
+			Files.write(dir.resolve("b.txt"), "b".getBytes());
+			final BlockingQueue<Map<Path, WatchEvent.Kind<?>>> batches = new LinkedBlockingQueue<>();
+			DelayWatcher watcher = new DelayWatcher(new ChangesWatcher() {
+				@Override
+				public void onChanges(Map<Path, WatchEvent.Kind<?>> changes) {
+					batches.add(changes);
+				}
+			}, dir, false, 50);
+
+			Files.delete(dir.resolve("a.txt"));
+			Files.write(dir.resolve("b.txt"), "bb".getBytes());
+			Files.write(dir.resolve("c.txt"), "c".getBytes());
+			watcher.onOverflow(event(null));
+
+			Map<Path, WatchEvent.Kind<?>> changes = batches.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull(changes);
+			Assert.assertEquals(3, changes.size());
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_DELETE, changes.get(Paths.get("a.txt")));
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, changes.get(Paths.get("b.txt")));
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_CREATE, changes.get(Paths.get("c.txt")));
+		} finally {
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	@Test
+	public void unreadableTest() throws Exception{
+		final Path dir = Files.createTempDirectory("delay");
+		try {
+			Files.write(dir.resolve("a.txt"), "a".getBytes());
+			final BlockingQueue<Map<Path, WatchEvent.Kind<?>>> batches = new LinkedBlockingQueue<>();
+			DelayWatcher watcher = new DelayWatcher(new ChangesWatcher() {
+				@Override
+				public void onChanges(Map<Path, WatchEvent.Kind<?>> changes) {
+					batches.add(changes);
+				}
+			}, dir, false, 50);
+
+			// 文件名过长，读取状态时抛出IOException
+			final String tooLong = StrUtil.repeat("x", 1000);
+			watcher.onModify(event(tooLong));
+			watcher.onModify(event("a.txt"));
+
+			Map<Path, WatchEvent.Kind<?>> changes = batches.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull(changes);
+			Assert.assertEquals(2, changes.size());
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, changes.get(Paths.get(tooLong)));
+			Assert.assertEquals(StandardWatchEventKinds.ENTRY_MODIFY, changes.get(Paths.get("a.txt")));
+		} finally {
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	@Test
+	public void orderTest() throws Exception{
+		final Path dir = Files.createTempDirectory("delay");
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final CountDownLatch blocked = new CountDownLatch(1);
+			final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+			final CountDownLatch done = new CountDownLatch(5);
+			DelayWatcher watcher = new DelayWatcher(new ChangesWatcher() {
+				@Override
+				public void onChanges(Map<Path, WatchEvent.Kind<?>> changes) {
+					try {
+						// 第一批阻塞，期间后续批次进入队列
+						blocked.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					delivered.add(changes.keySet().iterator().next().toString());
+					done.countDown();
+				}
+			}, dir, false, 10).setExecutor(executor);
+
+			List<String> expected = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				watcher.onCreate(event("f" + i));
+				expected.add("f" + i);
+				Thread.sleep(60);
+			}
+			blocked.countDown();
+			Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+			Assert.assertEquals(expected, delivered);
+		} finally {
+			executor.shutdownNow();
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	/**
+	 * 事件类型由调用的方法决定，这里只需要上下文
+	 */
+	private static WatchEvent<?> event(String context) {
+		return new PathWatchEvent(StandardWatchEventKinds.ENTRY_MODIFY, (null == context) ? null : Paths.get(context), 1);
+	}
+}
@@ -0,0 +1,127 @@
+package com.dewly.io.watch;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.dewly.io.FileUtil;
+
+/**
+ * {@link PollingWatchMonitor}
+ * @author dewly
+ *
+ */
+public class PollingWatchMonitorTest {
+
+	@Test
+	public void pollTest() throws Exception{
+		final Path dir = Files.createTempDirectory("polling");
+		try {
+			Files.write(dir.resolve("a.txt"), "a".getBytes());
+			Files.write(dir.resolve("b.txt"), "b".getBytes());
+			Files.createDirectories(dir.resolve("sub"));
+			PollingWatchMonitor monitor = new PollingWatchMonitor(dir, true);
+
+			Files.delete(dir.resolve("a.txt"));
+			Files.write(dir.resolve("b.txt"), "bb".getBytes());
+			Files.createDirectories(dir.resolve("sub/deep"));
+			Files.write(dir.resolve("sub/deep/c.txt"), "c".getBytes());
+
+			RecordWatcher watcher = new RecordWatcher();
+			Assert.assertEquals(4, monitor.poll(watcher));
+			Collections.sort(watcher.events);
+			Assert.assertEquals("[ENTRY_CREATE: sub/deep, ENTRY_CREATE: sub/deep/c.txt, ENTRY_DELETE: a.txt, ENTRY_MODIFY: b.txt]", watcher.events.toString());
+
+			watcher.events.clear();
+			Assert.assertEquals(0, monitor.poll(watcher));
+			Assert.assertTrue(watcher.events.isEmpty());
+		} finally {
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	@Test
+	public void pollUnreadableDirTest() throws Exception{
+		final Path dir = Files.createTempDirectory("polling");
+		final File locked = dir.resolve("locked").toFile();
+		try {
+			Files.createDirectories(dir.resolve("locked/inner"));
+			Files.write(dir.resolve("locked/inner/c.txt"), "c".getBytes());
+			Files.write(dir.resolve("a.txt"), "a".getBytes());
+			PollingWatchMonitor monitor = new PollingWatchMonitor(dir, true);
+
+			// 只在一次轮询中收回权限
+			locked.setReadable(false);
+			locked.setExecutable(false);
+			// root等用户不受权限限制时跳过
+			Assume.assumeFalse(locked.canRead());
+
+			Files.write(dir.resolve("b.txt"), "b".getBytes());
+			RecordWatcher watcher = new RecordWatcher();
+			Assert.assertEquals(1, monitor.poll(watcher));
+			Assert.assertEquals("[ENTRY_CREATE: b.txt]", watcher.events.toString());
+
+			// 恢复权限后未变化的条目不产生事件
+			locked.setReadable(true);
+			locked.setExecutable(true);
+			watcher.events.clear();
+			Assert.assertEquals(0, monitor.poll(watcher));
+			Assert.assertTrue(watcher.events.isEmpty());
+		} finally {
+			locked.setReadable(true);
+			locked.setExecutable(true);
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	@Test
+	public void watchTest() throws Exception{
+		final Path dir = Files.createTempDirectory("polling");
+		final RecordWatcher watcher = new RecordWatcher();
+		PollingWatchMonitor monitor = PollingWatchMonitor.create(dir, false, watcher).setInterval(20, 100);
+		try {
+			monitor.start();
+			Files.write(dir.resolve("new.txt"), "new".getBytes());
+			for (int i = 0; i < 250 && watcher.events.isEmpty(); i++) {
+				Thread.sleep(20);
+			}
+			Assert.assertEquals("[ENTRY_CREATE: new.txt]", watcher.events.toString());
+		} finally {
+			monitor.close();
+			monitor.join(5000);
+			Assert.assertFalse(monitor.isAlive());
+			FileUtil.del(dir.toFile());
+		}
+	}
+
+	private static class RecordWatcher extends SimpleWatcher {
+		private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void onCreate(WatchEvent<?> event) {
+			record(event);
+		}
+
+		@Override
+		public void onModify(WatchEvent<?> event) {
+			record(event);
+		}
+
+		@Override
+		public void onDelete(WatchEvent<?> event) {
+			record(event);
+		}
+
+		private void record(WatchEvent<?> event) {
+			events.add(event.kind().name() + ": " + event.context().toString().replace(File.separatorChar, '/'));
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.dewly.io.watch;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.io.FileUtil;
+
+/**
+ * {@link WatchRegistry}
+ * @author dewly
+ *
+ */
+public class WatchRegistryTest {
+
+	@Test
+	public void recursiveTest() throws Exception{
+		final Path root = Files.createTempDirectory("watch");
+		final Set<String> created = ConcurrentHashMap.newKeySet();
+		final Set<String> modified = ConcurrentHashMap.newKeySet();
+		WatchRegistry registry = WatchRegistry.create().start();
+		try {
+			registry.register(root, true, new SimpleWatcher() {
+				@Override
+				public void onCreate(WatchEvent<?> event) {
+					created.add(event.context().toString().replace(File.separatorChar, '/'));
+				}
+			});
+			Path config = Files.write(root.resolve("app.conf"), "a".getBytes());
+			registry.register(config, new SimpleWatcher() {
+				@Override
+				public void onModify(WatchEvent<?> event) {
+					modified.add(event.context().toString());
+				}
+			}, WatchMonitor.ENTRY_MODIFY);
+
+			Files.createDirectories(root.resolve("a/b"));
+			Files.write(root.resolve("a/b/c.txt"), "c".getBytes());
+			Files.write(config, "b".getBytes());
+			Assert.assertTrue(waitFor(created, "a/b/c.txt"));
+			Assert.assertTrue(created.contains("a"));
+			Assert.assertTrue(waitFor(modified, "app.conf"));
+			Assert.assertEquals(3, registry.getDirCount());
+
+			// 新目录注册后再创建的文件通过系统事件收到
+			Files.write(root.resolve("a/b/d.txt"), "d".getBytes());
+			Assert.assertTrue(waitFor(created, "a/b/d.txt"));
+
+			Assert.assertTrue(registry.unregister(root));
+			Assert.assertEquals(1, registry.getDirCount());
+			Assert.assertFalse(registry.unregister(Paths.get("not-registered")));
+		} finally {
+			registry.close();
+			FileUtil.del(root.toFile());
+		}
+	}
+
+	private static boolean waitFor(Set<String> set, String value) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			if (set.contains(value)) {
+				return true;
+			}
+			Thread.sleep(20);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,134 @@
+package com.dewly.lang;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link SimpleCache}
+ * @author dewly
+ *
+ */
+public class SimpleCacheTest {
+
+	@Test
+	public void lruTest(){
+		SimpleCache<String, String> cache = new SimpleCache<>(2, 1, 0, 0);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		// 访问a，使b成为最久未使用
+		Assert.assertEquals("1", cache.get("a"));
+		cache.put("c", "3");
+
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals("1", cache.get("a"));
+		Assert.assertEquals("3", cache.get("c"));
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertEquals(3, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void getWithSupplierTest(){
+		SimpleCache<String, String> cache = new SimpleCache<>();
+		final AtomicInteger count = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals("value", cache.get("key", () -> {
+				count.incrementAndGet();
+				return "value";
+			}));
+		}
+		Assert.assertEquals(1, count.get());
+		Assert.assertEquals("value", cache.remove("key"));
+		Assert.assertNull(cache.get("key"));
+	}
+
+	@Test
+	public void loadOutsideLockTest() throws InterruptedException{
+		// 单段，加载期间同段的其它键仍可读写，加载器中也可访问缓存
+		final SimpleCache<String, String> cache = new SimpleCache<>(16, 1, 0, 0);
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger count = new AtomicInteger();
+		Thread loader = new Thread(() -> cache.get("slow", () -> {
+			count.incrementAndGet();
+			loading.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return cache.get("inner", () -> "innerValue") + "!";
+		}));
+		loader.start();
+		Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+		cache.put("other", "1");
+		Assert.assertEquals("1", cache.get("other"));
+
+		// 同一个键的其它线程等待加载结果，不重复加载
+		final String[] waited = new String[1];
+		Thread waiter = new Thread(() -> waited[0] = cache.get("slow", () -> "again"));
+		waiter.start();
+		release.countDown();
+		loader.join(5000);
+		waiter.join(5000);
+		Assert.assertEquals("innerValue!", waited[0]);
+		Assert.assertEquals("innerValue!", cache.get("slow"));
+		Assert.assertEquals(1, count.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void recursiveLoadTest(){
+		final SimpleCache<String, String> cache = new SimpleCache<>();
+		cache.get("key", () -> cache.get("key", () -> "value"));
+	}
+
+	@Test
+	public void loaderExceptionTest(){
+		SimpleCache<String, String> cache = new SimpleCache<>();
+		try {
+			cache.get("key", () -> {
+				throw new IllegalArgumentException("load failed");
+			});
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("load failed", e.getMessage());
+		}
+		// 失败不缓存，可重新加载
+		Assert.assertEquals("value", cache.get("key", () -> "value"));
+	}
+
+	@Test
+	public void weakKeysTest() throws InterruptedException{
+		// 容量16时每段只能存放一个对象，两个键落在同一段会被LRU淘汰，使用默认容量
+		SimpleCache<Object, String> cache = new SimpleCache<>(SimpleCache.DEFAULT_CAPACITY, true);
+		Object key = new Object();
+		cache.put(key, "1");
+		cache.put(new String("weak"), "2");
+		// 按equals比较
+		Assert.assertEquals("1", cache.get(key));
+
+		key = null;
+		for (int i = 0; i < 50 && cache.size() > 0; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(2, cache.getEvictionCount());
+	}
+
+	@Test
+	public void expireTest() throws InterruptedException{
+		SimpleCache<String, String> cache = new SimpleCache<>(16, 10, 0);
+		cache.put("a", "1");
+		Assert.assertEquals("1", cache.get("a"));
+		Thread.sleep(30);
+		Assert.assertNull(cache.get("a"));
+		Assert.assertEquals(1, cache.getEvictionCount());
+	}
+}
@@ -0,0 +1,106 @@
+package com.dewly.lang;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.util.StrUtil;
+
+/**
+ * {@link StrFormatter}和{@link CompiledTemplate}
+ * @author dewly
+ *
+ */
+public class StrFormatterTest {
+
+	@Test
+	public void formatTest(){
+		Assert.assertEquals("this is a for b", StrFormatter.format("this is {} for {}", "a", "b"));
+		Assert.assertEquals("a", StrFormatter.format("{}", "a"));
+		Assert.assertEquals("ab", StrFormatter.format("{}{}", "a", "b"));
+		Assert.assertEquals("null and 1", StrFormatter.format("{} and {}", null, 1));
+		// 无占位符或无参数时原样返回
+		Assert.assertEquals("no placeholder", StrFormatter.format("no placeholder", "a"));
+		Assert.assertEquals("{} kept", StrFormatter.format("{} kept"));
+		Assert.assertNull(StrFormatter.format(null, "a"));
+		// 不成对的大括号和其它占位符作为普通文本
+		Assert.assertEquals("{a} x {", StrFormatter.format("{a} {} {", "x"));
+		Assert.assertEquals("{x}", StrFormatter.format("{{}}", "x"));
+	}
+
+	@Test
+	public void escapeTest(){
+		// \{} 输出 {}，且不消耗参数
+		Assert.assertEquals("this is {} for a", StrFormatter.format("this is \\{} for {}", "a", "b"));
+		// \\{} 输出 \ 和参数
+		Assert.assertEquals("this is \\a for b", StrFormatter.format("this is \\\\{} for {}", "a", "b"));
+		// 位于末尾的转义
+		Assert.assertEquals("a then {}", StrFormatter.format("{} then \\{}", "a", "b"));
+		Assert.assertEquals("a then \\b", StrFormatter.format("{} then \\\\{}", "a", "b"));
+		Assert.assertEquals("a\\", StrFormatter.format("{}\\", "a"));
+		Assert.assertEquals("{}", StrFormatter.format("\\{}", "a"));
+	}
+
+	@Test
+	public void argCountTest(){
+		// 参数少于占位符，剩余占位符原样保留
+		Assert.assertEquals("a and {} and {}", StrFormatter.format("{} and {} and {}", "a"));
+		Assert.assertEquals("a and {} and \\{}", StrFormatter.format("{} and {} and \\{}", "a"));
+		// 参数多于占位符，多余参数忽略
+		Assert.assertEquals("a only", StrFormatter.format("{} only", "a", "b", "c"));
+		Assert.assertEquals("{} b", StrFormatter.format("\\{} {}", "b", "c"));
+	}
+
+	@Test
+	public void indexedFormatTest(){
+		CompiledTemplate template = CompiledTemplate.of("{1}{0}{2}{}");
+		Assert.assertEquals("ba{2}{}", template.indexedFormat("a", "b"));
+		Assert.assertEquals("{1}{0}{2}{}", template.indexedFormat());
+	}
+
+	@Test
+	public void namedFormatTest(){
+		Map<Object, Object> map = new HashMap<>();
+		map.put("a", "aValue");
+		map.put("b", "bValue");
+		map.put("nullValue", null);
+		map.put(1, "one");
+
+		// 修复前此方法原样返回模板
+		Assert.assertEquals("aValue and bValue", StrUtil.format("{a} and {b}", map));
+		// 不存在的键原样保留，值为null输出null，非字符串键按toString匹配
+		Assert.assertEquals("aValue {missing} null one {}", StrUtil.format("{a} {missing} {nullValue} {1} {}", map));
+		Assert.assertEquals("{a}", StrUtil.format("{a}", new HashMap<String, Object>()));
+		Assert.assertEquals("{a}", StrUtil.format("{a}", (Map<?, ?>) null));
+		Assert.assertNull(StrUtil.format(null, map));
+	}
+
+	@Test
+	public void appendTest(){
+		CompiledTemplate template = CompiledTemplate.of("{} for {}");
+		StringBuilder builder = new StringBuilder("prefix:");
+		Assert.assertSame(builder, template.append(builder, "a", "b"));
+		Assert.assertEquals("prefix:a for b", builder.toString());
+
+		StringWriter writer = new StringWriter();
+		template.append(writer, "a");
+		CompiledTemplate.of(" {1}{0}").indexedAppend(writer, "x", "y");
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", "dewly");
+		CompiledTemplate.of(" hi {name}").append(writer, map);
+		Assert.assertEquals("a for {} yx hi dewly", writer.toString());
+
+		// 无参数时原样追加
+		Assert.assertEquals("{} for {}", template.append(new StringBuilder()).toString());
+	}
+
+	@Test
+	public void cacheTest(){
+		Assert.assertSame(CompiledTemplate.of("cached {}"), CompiledTemplate.of("cached {}"));
+		Assert.assertEquals(StrFormatter.format("cached {}", "a"), new CompiledTemplate("cached {}").format("a"));
+	}
+}
@@ -0,0 +1,59 @@
+package com.dewly.lang;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link IntTopK}、{@link LongTopK}、{@link DoubleTopK}
+ * @author dewly
+ *
+ */
+public class TopKTest {
+
+	@Test
+	public void intTopKTest(){
+		final int[] data = new Random(1).ints(1000, -500, 500).toArray();
+		final IntTopK topK = new IntTopK(10);
+		for (int value : data) {
+			topK.offer(value);
+		}
+		final int[] sorted = data.clone();
+		Arrays.sort(sorted);
+		final int[] expected = new int[10];
+		for (int i = 0; i < 10; i++) {
+			expected[i] = sorted[sorted.length - 1 - i];
+		}
+		Assert.assertArrayEquals(expected, topK.toArray());
+		Assert.assertEquals(expected[9], topK.peek());
+
+		final IntTopK smallest = IntStream.of(data).boxed().collect(IntTopK.collector(5, false));
+		Assert.assertArrayEquals(Arrays.copyOf(sorted, 5), smallest.toArray());
+	}
+
+	@Test
+	public void idAndMergeTest(){
+		final LongTopK a = new LongTopK(3);
+		a.offer(5, 105);
+		a.offer(1, 101);
+		a.offer(9, 109);
+		final LongTopK b = new LongTopK(3);
+		b.offer(7, 107);
+		b.offer(2, 102);
+
+		a.merge(b);
+		Assert.assertArrayEquals(new long[] { 9, 7, 5 }, a.toArray());
+		Assert.assertArrayEquals(new long[] { 109, 107, 105 }, a.toIdArray());
+	}
+
+	@Test
+	public void parallelCollectorTest(){
+		final DoubleTopK topK = IntStream.range(0, 10000).parallel().boxed()
+				.collect(DoubleTopK.collector(3, true, i -> i / 2.0, i -> i));
+		Assert.assertArrayEquals(new double[] { 4999.5, 4999, 4998.5 }, topK.toArray(), 0);
+		Assert.assertArrayEquals(new long[] { 9999, 9998, 9997 }, topK.toIdArray());
+	}
+}
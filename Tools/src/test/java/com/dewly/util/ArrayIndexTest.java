@@ -0,0 +1,51 @@
+package com.dewly.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.util.ArrayIndex.Mode;
+
+/**
+ * {@link ArrayIndex}
+ * @author dewly
+ *
+ */
+public class ArrayIndexTest {
+
+	@Test
+	public void modeTest(){
+		Assert.assertEquals(Mode.BITSET, ArrayIndex.of(new int[]{5, 3, 8, 3, 6}).getMode());
+		Assert.assertEquals(Mode.BINARY_SEARCH, ArrayIndex.of(new long[]{1, 100, 100, 10000}).getMode());
+		Assert.assertEquals(Mode.HASH, ArrayIndex.of(new long[]{10000, 1, 100}).getMode());
+		Assert.assertEquals(Mode.HASH, ArrayIndex.of(new double[]{2.0, 1.0}).getMode());
+	}
+
+	@Test
+	public void indexOfTest(){
+		int[] array = {7, 3, 9, 3, 1000000, 7};
+		for (Mode mode : new Mode[]{Mode.BITSET, Mode.HASH}) {
+			ArrayIndex index = ArrayIndex.of(array, mode);
+			Assert.assertEquals(ArrayUtil.indexOf(array, 3), index.indexOf(3));
+			Assert.assertEquals(ArrayUtil.lastIndexOf(array, 7), index.lastIndexOf(7));
+			Assert.assertTrue(index.contains(1000000));
+			Assert.assertFalse(index.contains(8));
+		}
+
+		long[] sorted = {-5, 1, 1, 1, 20};
+		ArrayIndex index = ArrayIndex.of(sorted);
+		Assert.assertEquals(1, index.indexOf(1));
+		Assert.assertEquals(3, index.lastIndexOf(1));
+		Assert.assertEquals(-1, index.indexOf(2));
+	}
+
+	@Test
+	public void floatingTest(){
+		double[] array = {1.5, -0.0, Double.NaN, -2.5};
+		ArrayIndex index = ArrayIndex.of(array);
+		Assert.assertEquals(1, index.indexOf(0.0));
+		Assert.assertEquals(3, index.indexOf(-2.5));
+		Assert.assertEquals(-1, index.indexOf(Double.NaN));
+		Assert.assertTrue(ArrayIndex.of(new char[]{'a', 'c'}).contains('c'));
+		Assert.assertTrue(ArrayIndex.of(new float[]{1f, 2f}, Mode.BINARY_SEARCH).contains(2));
+	}
+}
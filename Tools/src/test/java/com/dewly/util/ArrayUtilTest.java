@@ -1,6 +1,9 @@
 package com.dewly.util;
 
+import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -99,4 +102,85 @@ public class ArrayUtilTest {
 		Map<String, Integer> map = ArrayUtil.zip(keys, values, true);
 		Assert.assertEquals(map.toString(), "{a=1, b=2, c=3}");
 	}
+
+	@Test
+	public void joinPrimitiveTest(){
+		final long[] longs = { Long.MIN_VALUE, 0, Long.MAX_VALUE, -1 };
+		assertJoin("-9223372036854775808,0,9223372036854775807,-1", ArrayUtil.join(longs, ","), ArrayUtil.join((Object) longs, ","), out -> ArrayUtil.joinTo(out, longs, ","));
+		final int[] ints = { Integer.MIN_VALUE, 0, Integer.MAX_VALUE, -10 };
+		assertJoin("-2147483648,0,2147483647,-10", ArrayUtil.join(ints, ","), ArrayUtil.join((Object) ints, ","), out -> ArrayUtil.joinTo(out, ints, ","));
+		final short[] shorts = { Short.MIN_VALUE, 7, Short.MAX_VALUE };
+		assertJoin("-32768,7,32767", ArrayUtil.join(shorts, ","), ArrayUtil.join((Object) shorts, ","), out -> ArrayUtil.joinTo(out, shorts, ","));
+		final byte[] bytes = { Byte.MIN_VALUE, 0, Byte.MAX_VALUE };
+		assertJoin("-128,0,127", ArrayUtil.join(bytes, ","), ArrayUtil.join((Object) bytes, ","), out -> ArrayUtil.joinTo(out, bytes, ","));
+		final char[] chars = { 'a', '\u4e2d', 'z' };
+		assertJoin("a,\u4e2d,z", ArrayUtil.join(chars, ","), ArrayUtil.join((Object) chars, ","), out -> ArrayUtil.joinTo(out, chars, ","));
+		final boolean[] booleans = { true, false };
+		assertJoin("true,false", ArrayUtil.join(booleans, ","), ArrayUtil.join((Object) booleans, ","), out -> ArrayUtil.joinTo(out, booleans, ","));
+		final float[] floats = { Float.NaN, -0.0f, 0.0f, Float.POSITIVE_INFINITY, 1.5f, 1e10f };
+		assertJoin("NaN,-0.0,0.0,Infinity,1.5,1.0E10", ArrayUtil.join(floats, ","), ArrayUtil.join((Object) floats, ","), out -> ArrayUtil.joinTo(out, floats, ","));
+		final double[] doubles = { Double.NaN, -0.0d, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, 0.1d };
+		assertJoin("NaN,-0.0,-Infinity,4.9E-324,0.1", ArrayUtil.join(doubles, ","), ArrayUtil.join((Object) doubles, ","), out -> ArrayUtil.joinTo(out, doubles, ","));
+
+		final int[] empty = {};
+		assertJoin("", ArrayUtil.join(empty, ","), ArrayUtil.join((Object) empty, ","), out -> ArrayUtil.joinTo(out, empty, ","));
+		final Object single = new long[] { 42 };
+		assertJoin("42", ArrayUtil.join(single, ","), ArrayUtil.join(single, ","), out -> ArrayUtil.joinTo(out, single, ","));
+	}
+
+	@Test
+	public void joinObjectTest(){
+		// 元素为null时输出"null"，嵌套的数组和集合递归连接
+		Object[] array = { "a", null, 1, new int[] { 2, 3 }, Arrays.asList("b", null) };
+		Assert.assertEquals("a-null-1-2-3-b-null", ArrayUtil.join(array, "-"));
+		Assert.assertEquals("a-null-1-2-3-b-null", ArrayUtil.joinTo(new StringWriter(), array, "-").toString());
+		Assert.assertEquals("a-null-1-2-3-b-null", ArrayUtil.joinTo(new StringBuffer(), (Object) array, "-").toString());
+		Assert.assertEquals("1,null,a", StrUtil.join(",", 1, null, "a"));
+		Assert.assertEquals(">1,null,a", StrUtil.joinTo(new StringBuilder(">"), ",", 1, null, "a").toString());
+
+		// 数组为null时join返回null，joinTo不追加任何内容
+		Assert.assertNull(ArrayUtil.join((String[]) null, ","));
+		Assert.assertNull(ArrayUtil.join((int[]) null, ","));
+		Assert.assertNull(ArrayUtil.join((Object) null, ","));
+		Assert.assertEquals("x", ArrayUtil.joinTo(new StringBuilder("x"), (String[]) null, ",").toString());
+		Assert.assertEquals("x", ArrayUtil.joinTo(new StringBuilder("x"), (double[]) null, ",").toString());
+		Assert.assertEquals("x", ArrayUtil.joinTo(new StringWriter().append('x'), (Object) null, ",").toString());
+	}
+
+	@Test
+	public void joinConjunctionTest(){
+		// 分隔符可以是任意CharSequence
+		StringBuilder conjunction = new StringBuilder(" | ");
+		Assert.assertEquals("1 | 2", ArrayUtil.join(new int[] { 1, 2 }, conjunction));
+		Assert.assertEquals("1 | 2", ArrayUtil.join((Object) new long[] { 1, 2 }, conjunction));
+		Assert.assertEquals("a | b", ArrayUtil.join(new String[] { "a", "b" }, conjunction));
+		Assert.assertEquals("12", ArrayUtil.join(new byte[] { 1, 2 }, ""));
+	}
+
+	@Test
+	public void toStringAppendableTest(){
+		Object[] array = { 1, new long[] { Long.MIN_VALUE }, null, new String[] { "a" } };
+		array[2] = array;
+		Assert.assertEquals(Arrays.deepToString(array), ArrayUtil.toString(new StringBuilder(), array).toString());
+		Assert.assertEquals(Arrays.deepToString(array), ArrayUtil.toString(new StringWriter(), array).toString());
+		Assert.assertEquals(Arrays.toString(new double[] { Double.NaN, -0.0d }), ArrayUtil.toString(new StringWriter(), new double[] { Double.NaN, -0.0d }).toString());
+		Assert.assertEquals("null", ArrayUtil.toString(new StringWriter(), null).toString());
+		Assert.assertEquals("text", ArrayUtil.toString(new StringWriter(), "text").toString());
+	}
+
+	/**
+	 * 检查join结果，并分别输出到{@link StringBuilder}、{@link StringWriter}（整数走字符缓冲）和其它{@link Appendable}，结果都应与期望相同
+	 * 
+	 * @param expected 期望结果
+	 * @param joined join的结果
+	 * @param joinedObject join(Object, CharSequence)的结果
+	 * @param joiner 调用joinTo
+	 */
+	private static void assertJoin(String expected, String joined, String joinedObject, Function<Appendable, Appendable> joiner){
+		Assert.assertEquals(expected, joined);
+		Assert.assertEquals(expected, joinedObject);
+		Assert.assertEquals(expected, joiner.apply(new StringBuilder()).toString());
+		Assert.assertEquals(expected, joiner.apply(new StringWriter()).toString());
+		Assert.assertEquals(expected, joiner.apply(new StringBuffer()).toString());
+	}
 }
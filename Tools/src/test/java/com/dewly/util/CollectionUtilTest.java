@@ -1,8 +1,15 @@
 package com.dewly.util;
 
+import java.io.StringWriter;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -27,6 +34,56 @@ public class CollectionUtilTest {
 		Assert.assertArrayEquals(new Integer[]{1 }, union.toArray());
 	}
 	
+	@Test
+	public void joinToTest(){
+		List<Object> list = Arrays.asList(1, null, new long[] { Long.MIN_VALUE }, Arrays.asList("a", "b"));
+		Assert.assertEquals("1, null, -9223372036854775808, a, b", CollectionUtil.join(list, ", "));
+		Assert.assertEquals(">1, null, -9223372036854775808, a, b", CollectionUtil.joinTo(new StringBuilder(">"), list, ", ").toString());
+		Assert.assertEquals("1, null, -9223372036854775808, a, b", CollectionUtil.joinTo(new StringWriter(), list.iterator(), ", ").toString());
+		Assert.assertEquals("x", CollectionUtil.joinTo(new StringBuilder("x"), (Iterable<Object>) null, ",").toString());
+		Assert.assertNull(CollectionUtil.join((Iterable<Object>) null, ","));
+	}
+	
+	@Test
+	public void multisetTest(){
+		List<String> list1 = Arrays.asList("a", "b", "c", "c", "c", "d");
+		List<String> list2 = Arrays.asList("a", "b", "c", "c", "e");
+		
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "c", "c", "d", "e"), sorted(CollectionUtil.union(list1, list2)));
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "c"), sorted(CollectionUtil.intersection(list1, list2)));
+		Assert.assertEquals(Arrays.asList("c", "d", "e"), sorted(CollectionUtil.disjunction(list1, list2)));
+		
+		Assert.assertArrayEquals(new int[]{1, 2, 3, 3, 3, 4, 5}, CollectionUtil.union(new int[]{3, 1, 3, 2, 3, 4}, new int[]{5, 3, 2, 1, 3}));
+		Assert.assertArrayEquals(new long[]{1, 2, 3, 3}, CollectionUtil.intersection(new long[]{3, 1, 3, 2, 3, 4}, new long[]{5, 3, 2, 1, 3}));
+		Assert.assertArrayEquals(new int[]{3, 4, 5}, CollectionUtil.disjunction(new int[]{3, 1, 3, 2, 3, 4}, new int[]{5, 3, 2, 1, 3}));
+	}
+	
+	@Test
+	public void parallelMultisetTest(){
+		List<Integer> list1 = new ArrayList<>();
+		List<Integer> list2 = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			list1.add(i % 50000);
+			list2.add(i % 70000);
+		}
+		
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Assert.assertEquals(sorted(CollectionUtil.union(list1, list2)), sorted(CollectionUtil.parallelUnion(list1, list2, pool)));
+			Assert.assertEquals(sorted(CollectionUtil.intersection(list1, list2)), sorted(CollectionUtil.parallelIntersection(list1, list2, pool)));
+			Assert.assertEquals(sorted(CollectionUtil.disjunction(list1, list2)), sorted(CollectionUtil.parallelDisjunction(list1, list2, pool)));
+			Assert.assertEquals(120000, CollectionUtil.parallelUnion(list1, list2, pool).size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	private static <T extends Comparable<T>> List<T> sorted(Collection<T> coll){
+		List<T> list = new ArrayList<>(coll);
+		Collections.sort(list);
+		return list;
+	}
+	
 	@Test
 	public void countTest(){
 		List<Integer> asList = Arrays.asList(1,3,4,3);
@@ -44,5 +101,84 @@ public class CollectionUtilTest {
 		
 	}
 	
+	@Test
+	public void sortPageAllTest(){
+		List<Integer> shard1 = Arrays.asList(1, 4, 7, 10);
+		List<Integer> shard2 = Arrays.asList(2, 5, 8);
+		List<Integer> shard3 = Arrays.asList(3, 6, 9);
+		
+		// 已排序，多路归并
+		Assert.assertEquals(Arrays.asList(4, 5, 6), CollectionUtil.sortPageAll(2, 3, null, shard1, shard2, shard3));
+		Assert.assertEquals(Arrays.asList(10), CollectionUtil.newArrayList(CollectionUtil.sortPageIter(4, 3, null, shard1, shard2, shard3)));
+		
+		// 未排序，回退为先排序再截断
+		List<Integer> unsorted = Arrays.asList(9, 3, 6);
+		Assert.assertEquals(Arrays.asList(4, 5, 6), CollectionUtil.sortPageAll(2, 3, null, Arrays.asList(1, 4, 7, 10), Arrays.asList(2, 5, 8), unsorted));
+		Assert.assertEquals(Arrays.asList(4, 5, 6), CollectionUtil.newArrayList(CollectionUtil.sortPageIter(2, 3, null, shard1, shard2, unsorted)));
+	}
+	
+	@Test
+	public void sortPageAllAssumeSortedTest(){
+		final AtomicInteger reads = new AtomicInteger();
+		List<Collection<Integer>> shards = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			shards.add(countingRange(i, 4, 1000, reads));
+		}
+		@SuppressWarnings("unchecked")
+		Collection<Integer>[] colls = shards.toArray(new Collection[0]);
+		
+		// 只读取到所取页为止的元素和每路的下一个元素
+		Assert.assertEquals(Arrays.asList(10, 11, 12, 13, 14), CollectionUtil.sortPageAll(3, 5, null, true, colls));
+		Assert.assertTrue(reads.get() <= 15 + 4);
+		reads.set(0);
+		Assert.assertEquals(Arrays.asList(10, 11, 12, 13, 14), CollectionUtil.newArrayList(CollectionUtil.sortPageIter(3, 5, null, true, colls)));
+		Assert.assertTrue(reads.get() <= 15 + 4);
+		
+		// 不指定时预先检查，读取全部元素
+		reads.set(0);
+		Assert.assertEquals(Arrays.asList(10, 11, 12, 13, 14), CollectionUtil.sortPageAll(3, 5, null, colls));
+		Assert.assertTrue(reads.get() >= 4000);
+		
+		// 已读取的部分中有逆序时回退为先排序再截断
+		List<Integer> unsorted = Arrays.asList(3, 2, 9);
+		Assert.assertEquals(Arrays.asList(3, 4, 5), CollectionUtil.sortPageAll(2, 3, null, true, Arrays.asList(1, 4, 7, 10), Arrays.asList(2, 5, 8), unsorted));
+	}
+	
+	/**
+	 * 从start开始，步长为step的有序集合，记录读取的元素数
+	 * 
+	 * @param start 开始
+	 * @param step 步长
+	 * @param size 元素数
+	 * @param reads 读取计数
+	 * @return 集合
+	 */
+	private static Collection<Integer> countingRange(final int start, final int step, final int size, final AtomicInteger reads){
+		return new AbstractCollection<Integer>() {
+			@Override
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					private int index;
+					
+					@Override
+					public boolean hasNext() {
+						return index < size;
+					}
+					
+					@Override
+					public Integer next() {
+						reads.incrementAndGet();
+						return start + step * index++;
+					}
+				};
+			}
+			
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+	
 	
 }
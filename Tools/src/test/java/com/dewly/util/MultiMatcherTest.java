@@ -0,0 +1,33 @@
+package com.dewly.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@link MultiMatcher}
+ * @author dewly
+ *
+ */
+public class MultiMatcherTest {
+
+	@Test
+	public void findAllTest(){
+		MultiMatcher matcher = new MultiMatcher("he", "she", "his", "hers");
+		List<MultiMatcher.Hit> hits = matcher.findAll("ushers");
+		Assert.assertEquals("[she[1, 4), he[2, 4), hers[2, 6)]", hits.toString());
+		Assert.assertEquals("she", matcher.findFirst("ushers").getKeyword());
+		Assert.assertEquals("u*rs", matcher.replaceAll("ushers", "*"));
+	}
+
+	@Test
+	public void optionTest(){
+		MultiMatcher matcher = new MultiMatcher(Arrays.asList("error", "WARN"), true, true);
+		Assert.assertTrue(StrUtil.containsAny("2017 ERROR: disk full", matcher));
+		Assert.assertFalse(StrUtil.containsAny("errors: 0, warnings: 0", matcher));
+		Assert.assertEquals(Arrays.asList("Warn", "error"), ReUtil.findAll(matcher, "Warn, error or errors"));
+		Assert.assertEquals(" or errors", ReUtil.delAll(matcher, "error or errors"));
+	}
+}
@@ -0,0 +1,249 @@
+package com.dewly.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.exceptions.UtilException;
+import com.dewly.io.FileUtil;
+import com.dewly.io.StreamProgress;
+
+/**
+ * {@link ParallelUnzipper}
+ * @author dewly
+ *
+ */
+public class ParallelUnzipperTest {
+
+	@Test
+	public void unzipTest() throws Exception{
+		File zipFile = File.createTempFile("unzip", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			Random random = new Random(5);
+			byte[] binary = new byte[300000];
+			random.nextBytes(binary);
+			byte[] text = StrUtil.repeat("text\n", 50000).getBytes(StandardCharsets.UTF_8);
+			try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+				out.putNextEntry(new ZipEntry("empty/"));
+				out.putNextEntry(new ZipEntry("a/b/text.txt"));
+				out.write(text);
+				ZipEntry stored = new ZipEntry("a/binary.bin");
+				stored.setMethod(ZipEntry.STORED);
+				stored.setSize(binary.length);
+				CRC32 crc = new CRC32();
+				crc.update(binary);
+				stored.setCrc(crc.getValue());
+				out.putNextEntry(stored);
+				out.write(binary);
+				for (int i = 0; i < 100; i++) {
+					out.putNextEntry(new ZipEntry("many/f" + i + ".class"));
+					out.write(("class" + i).getBytes(StandardCharsets.UTF_8));
+				}
+			}
+
+			final AtomicLong reported = new AtomicLong();
+			StreamProgress progress = new StreamProgress() {
+				@Override
+				public void start() {
+				}
+				@Override
+				public void progress(long progressSize) {
+					reported.set(progressSize);
+				}
+				@Override
+				public void finish() {
+				}
+			};
+			Assert.assertEquals(102, ParallelUnzipper.create(zipFile, dest).setParallelism(4).setStreamProgress(progress).unzip());
+			Assert.assertTrue(new File(dest, "empty").isDirectory());
+			Assert.assertArrayEquals(text, Files.readAllBytes(new File(dest, "a/b/text.txt").toPath()));
+			Assert.assertArrayEquals(binary, Files.readAllBytes(new File(dest, "a/binary.bin").toPath()));
+			Assert.assertEquals("class42", new String(Files.readAllBytes(new File(dest, "many/f42.class").toPath()), StandardCharsets.UTF_8));
+			Assert.assertTrue(reported.get() > text.length + binary.length);
+
+			// 按glob选择
+			File selected = new File(dest, "selected");
+			ZipUtil.unzip(zipFile, selected, "many/f1*.class");
+			Assert.assertEquals(11, selected.toPath().resolve("many").toFile().list().length);
+			Assert.assertFalse(new File(selected, "a").exists());
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void parallelZipWriterTest() throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ParallelZipWriter writer = ParallelZipWriter.create(bytes);
+		for (int i = 0; i < 1000; i++) {
+			writer.add("d" + (i % 10) + "/f" + i + ".txt", ("content" + i).getBytes(StandardCharsets.UTF_8));
+		}
+		writer.close();
+		File zipFile = File.createTempFile("unzip", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			Files.write(zipFile.toPath(), bytes.toByteArray());
+			Assert.assertEquals(1000, ParallelUnzipper.create(zipFile, dest).unzip());
+			Assert.assertEquals("content999", new String(Files.readAllBytes(new File(dest, "d9/f999.txt").toPath()), StandardCharsets.UTF_8));
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void duplicateNameTest() throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+			out.putNextEntry(new ZipEntry("dup/a.txt"));
+			out.write("first".getBytes(StandardCharsets.UTF_8));
+			out.putNextEntry(new ZipEntry("dup/b.txt"));
+			out.write("second".getBytes(StandardCharsets.UTF_8));
+		}
+		// ZipOutputStream不允许重名，改写第二个条目的名称
+		String content = new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1).replace("dup/b.txt", "dup/a.txt");
+		File zipFile = File.createTempFile("dup", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			Files.write(zipFile.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+			Assert.assertEquals(1, ParallelUnzipper.create(zipFile, dest).setParallelism(2).unzip());
+			Assert.assertEquals("second", new String(Files.readAllBytes(new File(dest, "dup/a.txt").toPath()), StandardCharsets.UTF_8));
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void invalidNameTest() throws Exception{
+		File zipFile = File.createTempFile("invalid", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+				out.putNextEntry(new ZipEntry("bad\u0000name.txt"));
+				out.write(1);
+			}
+			try {
+				ParallelUnzipper.create(zipFile, dest).setFilter("**").unzip();
+				Assert.fail("invalid entry name must be rejected");
+			} catch (UtilException e) {
+				Assert.assertTrue(e.getMessage().contains("Illegal zip entry path"));
+			}
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void dotEntryTest() throws Exception{
+		File zipFile = File.createTempFile("dot", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+				out.putNextEntry(new ZipEntry("./"));
+				out.putNextEntry(new ZipEntry("a.txt"));
+				out.write(1);
+			}
+			Assert.assertEquals(1, ParallelUnzipper.create(zipFile, dest).unzip());
+			Assert.assertTrue(new File(dest, "a.txt").isFile());
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test
+	public void corruptCentralDirectoryTest() throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+			out.putNextEntry(new ZipEntry("a.txt"));
+			out.write(1);
+		}
+		byte[] zip = bytes.toByteArray();
+
+		// 文件名长度超出中央目录
+		byte[] longName = zip.clone();
+		int central = lastIndexOf(longName, 0x02014b50);
+		longName[central + 28] = (byte) 0xFF;
+		longName[central + 29] = (byte) 0xFF;
+		assertCorrupt(longName);
+
+		// ZIP64定位记录中的偏移为负数
+		int end = lastIndexOf(zip, 0x06054b50);
+		ByteBuffer locator = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+		locator.putInt(0x07064b50).putInt(0).putLong(-1L).putInt(1);
+		ByteArrayOutputStream zip64 = new ByteArrayOutputStream();
+		zip64.write(zip, 0, end);
+		zip64.write(locator.array());
+		zip64.write(zip, end, zip.length - end);
+		byte[] badLocator = zip64.toByteArray();
+		// 条目数标记为ZIP64
+		badLocator[end + 20 + 10] = (byte) 0xFF;
+		badLocator[end + 20 + 11] = (byte) 0xFF;
+		assertCorrupt(badLocator);
+	}
+
+	@Test
+	public void zipSlipTest() throws Exception{
+		File zipFile = File.createTempFile("slip", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+				out.putNextEntry(new ZipEntry("good.txt"));
+				out.write(1);
+				out.putNextEntry(new ZipEntry("../evil.txt"));
+				out.write(2);
+			}
+			try {
+				ParallelUnzipper.create(zipFile, dest).unzip();
+				Assert.fail("zip-slip entry must be rejected");
+			} catch (UtilException e) {
+				Assert.assertTrue(e.getMessage().contains("../evil.txt"));
+			}
+			Assert.assertFalse(new File(dest, "good.txt").exists());
+			Assert.assertFalse(new File(dest.getParentFile(), "evil.txt").exists());
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	private static void assertCorrupt(byte[] zip) throws Exception{
+		File zipFile = File.createTempFile("corrupt", ".zip");
+		File dest = Files.createTempDirectory("unzipDest").toFile();
+		try {
+			Files.write(zipFile.toPath(), zip);
+			ParallelUnzipper.create(zipFile, dest).unzip();
+			Assert.fail("corrupt zip must be rejected");
+		} catch (UtilException e) {
+			// 预期异常
+		} finally {
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	private static int lastIndexOf(byte[] data, int signature) {
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = data.length - 4; i >= 0; i--) {
+			if (signature == buffer.getInt(i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
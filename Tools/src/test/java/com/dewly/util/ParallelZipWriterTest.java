@@ -0,0 +1,241 @@
+package com.dewly.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.exceptions.UtilException;
+import com.dewly.io.FileUtil;
+import com.dewly.io.IoUtil;
+
+/**
+ * {@link ParallelZipWriter}
+ * @author dewly
+ *
+ */
+public class ParallelZipWriterTest {
+
+	@Test
+	public void zipTest() throws Exception{
+		File dir = Files.createTempDirectory("zipSrc").toFile();
+		File zipFile = File.createTempFile("parallel", ".zip");
+		try {
+			Random random = new Random(7);
+			byte[] image = new byte[100000];
+			random.nextBytes(image);
+			Files.write(new File(dir, "photo.JPG").toPath(), image);
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < 20000; i++) {
+				builder.append("line ").append(i).append('\n');
+			}
+			byte[] text = builder.toString().getBytes(StandardCharsets.UTF_8);
+			new File(dir, "sub").mkdirs();
+			Files.write(new File(dir, "sub/text.txt").toPath(), text);
+
+			ParallelZipWriter writer = ParallelZipWriter.create(zipFile).setParallelism(3);
+			try {
+				writer.add("root", dir);
+				writer.add("中文.txt", "中文内容".getBytes(StandardCharsets.UTF_8));
+				writer.add("stream.bin", new ByteArrayInputStream(new byte[0]));
+			} finally {
+				writer.close();
+			}
+
+			try (ZipFile zip = new ZipFile(zipFile)) {
+				Assert.assertEquals(6, zip.size());
+				ZipEntry photo = zip.getEntry("root/photo.JPG");
+				Assert.assertEquals(ZipEntry.STORED, photo.getMethod());
+				Assert.assertArrayEquals(image, IoUtil.readBytes(zip.getInputStream(photo)));
+				ZipEntry textEntry = zip.getEntry("root/sub/text.txt");
+				Assert.assertEquals(ZipEntry.DEFLATED, textEntry.getMethod());
+				Assert.assertTrue(textEntry.getCompressedSize() < text.length);
+				Assert.assertArrayEquals(text, IoUtil.readBytes(zip.getInputStream(textEntry)));
+				Assert.assertTrue(zip.getEntry("root/sub/").isDirectory());
+				Assert.assertEquals("中文内容", new String(IoUtil.readBytes(zip.getInputStream(zip.getEntry("中文.txt"))), StandardCharsets.UTF_8));
+				Assert.assertEquals(0, zip.getEntry("stream.bin").getSize());
+			}
+
+			// 按本地文件头顺序读取
+			int count = 0;
+			try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zipFile.toPath()))) {
+				while (null != in.getNextEntry()) {
+					IoUtil.readBytes(in);
+					count++;
+				}
+			}
+			Assert.assertEquals(6, count);
+		} finally {
+			FileUtil.del(dir);
+			FileUtil.del(zipFile);
+		}
+	}
+
+	@Test
+	public void zip64CountTest() throws Exception{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelZipWriter writer = ParallelZipWriter.create(out).setParallelism(2);
+		for (int i = 0; i < 70000; i++) {
+			writer.add("f" + i, new byte[] { (byte) i });
+		}
+		writer.close();
+
+		File zipFile = File.createTempFile("zip64", ".zip");
+		try {
+			Files.write(zipFile.toPath(), out.toByteArray());
+			try (ZipFile zip = new ZipFile(zipFile)) {
+				Assert.assertEquals(70000, zip.size());
+				Assert.assertArrayEquals(new byte[] { (byte) 69999 }, IoUtil.readBytes(zip.getInputStream(zip.getEntry("f69999"))));
+			}
+		} finally {
+			FileUtil.del(zipFile);
+		}
+	}
+
+	@Test
+	public void spillTest() throws Exception{
+		File file = File.createTempFile("spill", ".txt");
+		File zipFile = File.createTempFile("spill", ".zip");
+		try {
+			byte[] text = StrUtil.repeat("spill line\n", 10000).getBytes(StandardCharsets.UTF_8);
+			Files.write(file.toPath(), text);
+			byte[] image = new byte[50000];
+			new Random(7).nextBytes(image);
+
+			ParallelZipWriter writer = ParallelZipWriter.create(zipFile).setParallelism(2).setSpillThreshold(1024).setMaxPendingBytes(4096);
+			try {
+				writer.add("file.txt", file);
+				writer.add("data.txt", text);
+				writer.add("stream.txt", new ByteArrayInputStream(text));
+				writer.add("stream.png", new ByteArrayInputStream(image));
+				writer.add("small.txt", "small".getBytes(StandardCharsets.UTF_8));
+			} finally {
+				writer.close();
+			}
+
+			try (ZipFile zip = new ZipFile(zipFile)) {
+				Assert.assertEquals(5, zip.size());
+				Assert.assertArrayEquals(text, IoUtil.readBytes(zip.getInputStream(zip.getEntry("file.txt"))));
+				Assert.assertArrayEquals(text, IoUtil.readBytes(zip.getInputStream(zip.getEntry("data.txt"))));
+				Assert.assertArrayEquals(text, IoUtil.readBytes(zip.getInputStream(zip.getEntry("stream.txt"))));
+				Assert.assertEquals(ZipEntry.DEFLATED, zip.getEntry("stream.txt").getMethod());
+				Assert.assertEquals(ZipEntry.STORED, zip.getEntry("stream.png").getMethod());
+				Assert.assertArrayEquals(image, IoUtil.readBytes(zip.getInputStream(zip.getEntry("stream.png"))));
+				Assert.assertEquals("small", new String(IoUtil.readBytes(zip.getInputStream(zip.getEntry("small.txt"))), StandardCharsets.UTF_8));
+			}
+		} finally {
+			FileUtil.del(file);
+			FileUtil.del(zipFile);
+		}
+	}
+
+	@Test
+	public void failureTest() throws Exception{
+		final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		// 只失败一次，之后恢复写入
+		OutputStream out = new FilterOutputStream(written) {
+			private boolean isFailed;
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				if (false == isFailed && written.size() + len > 100000) {
+					isFailed = true;
+					throw new IOException("No space left");
+				}
+				written.write(b, off, len);
+			}
+		};
+		byte[] image = new byte[200000];
+		new Random(7).nextBytes(image);
+
+		ParallelZipWriter writer = ParallelZipWriter.create(out).setParallelism(1);
+		writer.add("a.png", image);
+		writer.add("b.txt", "b".getBytes(StandardCharsets.UTF_8));
+		try {
+			writer.finish();
+			Assert.fail("finish should fail");
+		} catch (UtilException e) {
+			// 预期异常
+		}
+		try {
+			writer.finish();
+			Assert.fail("finish should fail again");
+		} catch (UtilException e) {
+			// 预期异常
+		}
+		writer.close();
+
+		// 失败后不能写出中央目录的结束记录
+		byte[] bytes = written.toByteArray();
+		for (int i = 0; i + 3 < bytes.length; i++) {
+			Assert.assertFalse(0x50 == bytes[i] && 0x4b == bytes[i + 1] && 0x05 == bytes[i + 2] && 0x06 == bytes[i + 3]);
+		}
+	}
+
+	@Test
+	public void rootDirTest() throws Exception{
+		File dir = Files.createTempDirectory("zipRoot").toFile();
+		File zipFile = File.createTempFile("root", ".zip");
+		File dest = Files.createTempDirectory("unzipRoot").toFile();
+		try {
+			new File(dir, "sub").mkdirs();
+			Files.write(new File(dir, "sub/a.txt").toPath(), "a".getBytes(StandardCharsets.UTF_8));
+			ParallelZipWriter writer = ParallelZipWriter.create(zipFile);
+			try {
+				writer.add("", dir);
+			} finally {
+				writer.close();
+			}
+
+			try (ZipFile zip = new ZipFile(zipFile)) {
+				Assert.assertEquals(2, zip.size());
+				Assert.assertNotNull(zip.getEntry("sub/"));
+				Assert.assertNotNull(zip.getEntry("sub/a.txt"));
+			}
+			Assert.assertEquals(1, ParallelUnzipper.create(zipFile, dest).unzip());
+			Assert.assertEquals("a", new String(Files.readAllBytes(new File(dest, "sub/a.txt").toPath()), StandardCharsets.UTF_8));
+		} finally {
+			FileUtil.del(dir);
+			FileUtil.del(zipFile);
+			FileUtil.del(dest);
+		}
+	}
+
+	@Test(expected = com.dewly.exceptions.UtilException.class)
+	public void emptyNameTest() {
+		ParallelZipWriter.create(new ByteArrayOutputStream()).addDir("/");
+	}
+
+	@Test(expected = com.dewly.exceptions.UtilException.class)
+	public void duplicateTest() {
+		ParallelZipWriter writer = ParallelZipWriter.create(new ByteArrayOutputStream());
+		writer.add("a.txt", new byte[1]);
+		writer.add("/a.txt", new byte[1]);
+	}
+
+	@Test
+	public void gzipStreamTest() throws Exception{
+		File file = File.createTempFile("gzip", ".txt");
+		try {
+			byte[] data = StrUtil.repeat("gzip", 10000).getBytes(StandardCharsets.UTF_8);
+			Files.write(file.toPath(), data);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Assert.assertEquals(data.length, ZipUtil.gzip(file, out));
+			Assert.assertArrayEquals(data, ZipUtil.unGzip(out.toByteArray()));
+			Assert.assertArrayEquals(data, ZipUtil.unGzip(ZipUtil.gzip(file)));
+		} finally {
+			FileUtil.del(file);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.dewly.util;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.dewly.lang.CompiledRegex;
+import com.dewly.lang.PatternPool;
+
+/**
+ * {@link ReUtil}
+ * @author dewly
+ *
+ */
+public class ReUtilTest {
+
+	@Test
+	public void kindTest(){
+		Assert.assertEquals(CompiledRegex.Kind.LITERAL, PatternPool.getCompiled("a\\.b").getKind());
+		Assert.assertEquals(CompiledRegex.Kind.PREFIX, PatternPool.getCompiled("^abc").getKind());
+		Assert.assertEquals(CompiledRegex.Kind.SUFFIX, PatternPool.getCompiled("abc$").getKind());
+		Assert.assertEquals(CompiledRegex.Kind.CHAR_CLASS_RUN, PatternPool.getCompiled("\\d+").getKind());
+		Assert.assertEquals(CompiledRegex.Kind.REGEX, PatternPool.getCompiled("(\\d+)-(\\d+)").getKind());
+	}
+
+	@Test
+	public void literalTest(){
+		Assert.assertEquals("a--c", ReUtil.delAll("b.", "ab.-b.-c"));
+		Assert.assertEquals("a-b.-c", ReUtil.delFirst("b\\.", "ab.-b.-c"));
+		Assert.assertEquals(2, ReUtil.count("b\\.", "ab.-b.-c"));
+		Assert.assertEquals("-b.-c", ReUtil.delPre("^ab\\.", "ab.-b.-c"));
+		Assert.assertTrue(ReUtil.isMatch("^abc$", "abc"));
+		Assert.assertEquals("x-x-c", ReUtil.replaceAll("ab.-b.-c", "a?b\\.", "x"));
+	}
+
+	@Test
+	public void charClassTest(){
+		Assert.assertEquals(Arrays.asList("12", "345"), ReUtil.findAll("\\d+", "a12b345", 0));
+		Assert.assertEquals("ab", ReUtil.delAll("[0-9]", "a12b345"));
+		Assert.assertTrue(ReUtil.isMatch(ReUtil.RE_CHINESES, "中文"));
+		Assert.assertFalse(ReUtil.isMatch(ReUtil.RE_CHINESES, "中a文"));
+	}
+
+	@Test
+	public void regexTest(){
+		Assert.assertEquals("345-12", ReUtil.replaceAll("12-345", "(\\d+)-(\\d+)", "$2-$1"));
+		Assert.assertEquals("345", ReUtil.get("(\\d+)-(\\d+)", "12-345", 2));
+	}
+}